@@ -0,0 +1,187 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.candlepin.subscriptions.json.Event;
+import org.candlepin.subscriptions.json.Measurement;
+import org.candlepin.testcontainers.SwatchPostgreSQLContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading an hour of events stored as JSON (the data column) with reading them stored in
+ * the compact binary format (the compact_data column), against PostgreSQL started with
+ * Testcontainers.
+ *
+ * <p>Each invocation reads and parses every seeded event, the same way the tally's projection read
+ * path does. The total size of each table (including TOAST and indexes) is printed after seeding,
+ * to report the storage savings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventStorageBenchmark {
+
+  private static final OffsetDateTime HOUR =
+      OffsetDateTime.of(2023, 10, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+  @Param({"20000"})
+  public int events;
+
+  private SwatchPostgreSQLContainer database;
+  private Connection connection;
+  private EventRecordConverter jsonConverter;
+  private EventCompactConverter compactConverter;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    database = new SwatchPostgreSQLContainer();
+    database.start();
+    connection =
+        DriverManager.getConnection(
+            database.getJdbcUrl(), database.getUsername(), database.getPassword());
+
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    mapper.registerModule(new JavaTimeModule());
+    mapper.registerModule(new Jdk8Module());
+    new EventRecordConverter(mapper);
+    new EventCompactConverter(mapper, false);
+    jsonConverter = new EventRecordConverter();
+    compactConverter = new EventCompactConverter();
+
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("create table events_json (timestamp timestamptz, data jsonb)");
+      statement.execute("create table events_compact (timestamp timestamptz, compact_data bytea)");
+    }
+    try (PreparedStatement json =
+            connection.prepareStatement("insert into events_json values (?, ?::jsonb)");
+        PreparedStatement compact =
+            connection.prepareStatement("insert into events_compact values (?, ?)")) {
+      for (int i = 0; i < events; i++) {
+        Event event = event(i);
+        json.setObject(1, event.getTimestamp());
+        json.setString(2, jsonConverter.convertToDatabaseColumn(event));
+        json.addBatch();
+        compact.setObject(1, event.getTimestamp());
+        compact.setBytes(2, compactConverter.convertToDatabaseColumn(event));
+        compact.addBatch();
+      }
+      json.executeBatch();
+      compact.executeBatch();
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("vacuum analyze events_json");
+      statement.execute("vacuum analyze events_compact");
+      try (ResultSet sizes =
+          statement.executeQuery(
+              "select pg_total_relation_size('events_json'),"
+                  + " pg_total_relation_size('events_compact')")) {
+        sizes.next();
+        System.out.printf(
+            "%nStorage for %d events: json=%d bytes, compact=%d bytes%n",
+            events, sizes.getLong(1), sizes.getLong(2));
+      }
+    }
+    connection.setAutoCommit(false);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    connection.close();
+    database.stop();
+  }
+
+  @Benchmark
+  public void readJson(Blackhole blackhole) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.setFetchSize(1024);
+      try (ResultSet rows = statement.executeQuery("select data from events_json")) {
+        while (rows.next()) {
+          blackhole.consume(jsonConverter.convertToEntityAttribute(rows.getString(1)));
+        }
+      }
+    }
+    connection.commit();
+  }
+
+  @Benchmark
+  public void readCompact(Blackhole blackhole) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.setFetchSize(1024);
+      try (ResultSet rows = statement.executeQuery("select compact_data from events_compact")) {
+        while (rows.next()) {
+          blackhole.consume(compactConverter.convertToEntityAttribute(rows.getBytes(1)));
+        }
+      }
+    }
+    connection.commit();
+  }
+
+  private static Event event(int i) {
+    return new Event()
+        .withEventId(UUID.randomUUID())
+        .withOrgId("org" + (i % 10))
+        .withAccountNumber("account" + (i % 10))
+        .withInstanceId(UUID.randomUUID().toString())
+        .withEventSource("prometheus")
+        .withEventType("snapshot_rhosak_storage-gibibytes")
+        .withServiceType("Kafka Cluster")
+        .withTimestamp(HOUR)
+        .withExpiration(Optional.of(HOUR.plusHours(1)))
+        .withDisplayName(Optional.of("cluster-" + i))
+        .withSla(Event.Sla.PREMIUM)
+        .withUsage(Event.Usage.PRODUCTION)
+        .withBillingProvider(Event.BillingProvider.AWS)
+        .withBillingAccountId(Optional.of("billing-account-" + (i % 10)))
+        .withRole(Event.Role.RHOSAK)
+        .withMeasurements(
+            List.of(new Measurement().withUom("Storage-gibibytes").withValue(i * 0.5)))
+        .withMeteringBatchId(UUID.randomUUID());
+  }
+}
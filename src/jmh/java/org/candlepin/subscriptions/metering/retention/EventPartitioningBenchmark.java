@@ -0,0 +1,229 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.metering.retention;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares the events table layouts against a real PostgreSQL instance: a plain table purged with
+ * a bulk DELETE, and a table range-partitioned by month whose expired partitions are detached and
+ * dropped, as done by {@link EventPartitionManager}.
+ *
+ * <p>Each benchmark's trial seeds both tables with the same synthetic events (100M rows by
+ * default, spread evenly over the configured number of months), so expect it to take a while and to
+ * need plenty of disk. Every purge invocation removes the next oldest month, so the total number of
+ * measured and warmup iterations must stay below the number of months. Run e.g. with:
+ *
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=EventPartitioningBenchmark
+ * </pre>
+ *
+ * <p>The JDBC URL and credentials default to the local development database.
+ */
+@State(Scope.Benchmark)
+public class EventPartitioningBenchmark {
+
+  private static final LocalDate FIRST_MONTH = LocalDate.of(2020, 1, 1);
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+  @Param({"jdbc:postgresql://localhost:5432/rhsm-subscriptions"})
+  public String jdbcUrl;
+
+  @Param({"rhsm-subscriptions"})
+  public String username;
+
+  @Param({"rhsm-subscriptions"})
+  public String password;
+
+  @Param({"100000000"})
+  public long rows;
+
+  @Param({"24"})
+  public int months;
+
+  @Param({"1000"})
+  public int orgs;
+
+  private Connection connection;
+  private int plainPurgedMonths;
+  private int partitionedPurgedMonths;
+
+  @Setup(Level.Trial)
+  public void setup() throws SQLException {
+    connection = DriverManager.getConnection(jdbcUrl, username, password);
+    connection.setAutoCommit(true);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS bench_events_plain, bench_events_partitioned");
+      statement.execute(createTable("bench_events_plain", ""));
+      statement.execute(createTable("bench_events_partitioned", " PARTITION BY RANGE (timestamp)"));
+      for (int month = 0; month < months; month++) {
+        LocalDate lower = FIRST_MONTH.plusMonths(month);
+        statement.execute(
+            String.format(
+                "CREATE TABLE bench_events_partitioned_p%s PARTITION OF bench_events_partitioned"
+                    + " FOR VALUES FROM ('%s') TO ('%s')",
+                lower.format(PARTITION_SUFFIX), lower, lower.plusMonths(1)));
+      }
+      statement.execute(seed("bench_events_plain"));
+      statement.execute(seed("bench_events_partitioned"));
+      for (String table : new String[] {"bench_events_plain", "bench_events_partitioned"}) {
+        statement.execute(
+            String.format(
+                "ALTER TABLE %1$s ADD CONSTRAINT %1$s_pkey"
+                    + " PRIMARY KEY (org_id, event_type, event_source, instance_id, timestamp)",
+                table));
+        statement.execute(
+            String.format(
+                "CREATE INDEX %1$s_org_timestamp_idx ON %1$s (org_id, timestamp)", table));
+        statement.execute("ANALYZE " + table);
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS bench_events_plain, bench_events_partitioned");
+    }
+    connection.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long hourlyFetchPlain() throws SQLException {
+    return fetchRandomHour("bench_events_plain");
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long hourlyFetchPartitioned() throws SQLException {
+    return fetchRandomHour("bench_events_partitioned");
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int purgeMonthWithDelete() throws SQLException {
+    OffsetDateTime cutoff = monthStart(++plainPurgedMonths);
+    try (PreparedStatement statement =
+        connection.prepareStatement("DELETE FROM bench_events_plain WHERE timestamp < ?")) {
+      statement.setObject(1, cutoff);
+      return statement.executeUpdate();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int purgeMonthWithPartitionDrop() throws SQLException {
+    String partition =
+        "bench_events_partitioned_p"
+            + FIRST_MONTH.plusMonths(partitionedPurgedMonths++).format(PARTITION_SUFFIX);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("ALTER TABLE bench_events_partitioned DETACH PARTITION " + partition);
+      statement.execute("DROP TABLE " + partition);
+    }
+    return partitionedPurgedMonths;
+  }
+
+  private long fetchRandomHour(String table) throws SQLException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    // stay clear of the months removed by the purge benchmarks
+    OffsetDateTime start =
+        monthStart(months - 1).plusHours(random.nextInt(24 * 28)).minusMonths(random.nextInt(3));
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            "SELECT instance_id, data FROM "
+                + table
+                + " WHERE org_id = ? AND timestamp >= ? AND timestamp < ?")) {
+      statement.setString(1, "org" + random.nextInt(orgs));
+      statement.setObject(2, start);
+      statement.setObject(3, start.plusHours(1));
+      long count = 0;
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          count += resultSet.getString(2).length();
+        }
+      }
+      return count;
+    }
+  }
+
+  private static OffsetDateTime monthStart(int month) {
+    return FIRST_MONTH.plusMonths(month).atStartOfDay().atOffset(ZoneOffset.UTC);
+  }
+
+  private static String createTable(String name, String partitioning) {
+    return String.format(
+        """
+        CREATE TABLE %s (
+          org_id varchar(255) NOT NULL,
+          event_type varchar(60) NOT NULL,
+          event_source varchar(60) NOT NULL,
+          instance_id varchar(60) NOT NULL,
+          timestamp timestamptz NOT NULL,
+          data jsonb NOT NULL
+        )%s
+        """,
+        name, partitioning);
+  }
+
+  private String seed(String table) {
+    OffsetDateTime start = monthStart(0);
+    OffsetDateTime end = monthStart(months);
+    double secondsPerRow = (double) (end.toEpochSecond() - start.toEpochSecond()) / rows;
+    return String.format(
+        Locale.ROOT,
+        """
+        INSERT INTO %s
+        SELECT 'org' || (g %% %d), 'snapshot_rhosak_storage_gib', 'prometheus', md5(g::text),
+               timestamptz '%s' + make_interval(secs => g * %f),
+               jsonb_build_object('measurements', jsonb_build_array(
+                 jsonb_build_object('uom', 'Storage-gibibytes', 'value', g %% 100)))
+        FROM generate_series(0, %d) g
+        """,
+        table, orgs, start, secondsPerRow, rows - 1);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.metering.service.prometheus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures parsing of a large Prometheus range query response, comparing binding each series to a
+ * {@link org.candlepin.subscriptions.prometheus.model.QueryResultDataResultInner} (BigDecimal
+ * pairs) with streaming its samples to a {@link QueryResultSeriesHandler}.
+ *
+ * <p>The response is generated in the shape of an OpenShift metering query: one series per
+ * cluster, with the cluster labels and an hourly sample over the metering range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PrometheusResultParsingBenchmark {
+
+  @Param({"500"})
+  public int series;
+
+  // a month of hourly samples
+  @Param({"720"})
+  public int samples;
+
+  private PrometheusService service;
+  private File response;
+
+  @Setup
+  public void setup() throws IOException {
+    service = new PrometheusService(null, new ObjectMapper());
+    response = File.createTempFile("prometheus-range-query", ".json");
+    Random random = new Random(42);
+    long start = 1616787308L;
+    try (PrintWriter writer =
+        new PrintWriter(Files.newBufferedWriter(response.toPath(), StandardCharsets.UTF_8))) {
+      writer.print("{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":[");
+      for (int s = 0; s < series; s++) {
+        writer.print(s == 0 ? "{" : ",{");
+        writer.printf(
+            "\"metric\":{\"_id\":\"cluster-%d\",\"billing_marketplace\":\"aws\","
+                + "\"billing_marketplace_account\":\"account-%d\",\"ebs_account\":\"%d\","
+                + "\"external_organization\":\"org-%d\",\"product\":\"ocp\","
+                + "\"support\":\"Premium\",\"usage\":\"Production\"},\"values\":[",
+            s, s, s, s);
+        for (int i = 0; i < samples; i++) {
+          writer.printf(
+              "%s[%d.%03d,\"%s\"]",
+              i == 0 ? "" : ",",
+              start + i * 3600L,
+              random.nextInt(1000),
+              random.nextDouble() * 64);
+        }
+        writer.print("]}");
+      }
+      writer.print("]}}");
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(response.toPath());
+  }
+
+  @Benchmark
+  public void bindResultItems(Blackhole blackhole) {
+    blackhole.consume(
+        service.parseQueryResult(
+            response,
+            item -> {
+              blackhole.consume(item.getMetric());
+              for (List<BigDecimal> sample : item.getValues()) {
+                blackhole.consume(sample.get(0).doubleValue());
+                blackhole.consume(sample.get(1).doubleValue());
+              }
+            }));
+  }
+
+  @Benchmark
+  public void streamSeries(Blackhole blackhole) {
+    blackhole.consume(
+        service.parseQueryResult(
+            response,
+            new QueryResultSeriesHandler() {
+              @Override
+              public void startSeries(Map<String, String> labels) {
+                blackhole.consume(labels);
+              }
+
+              @Override
+              public void sample(double timestamp, double value) {
+                blackhole.consume(timestamp);
+                blackhole.consume(value);
+              }
+            }));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.metering.service.prometheus.promql;
+
+import com.redhat.swatch.configuration.registry.Metric;
+import com.redhat.swatch.configuration.registry.PrometheusMetric;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.candlepin.subscriptions.metering.service.prometheus.MetricProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Measures the cost of building a single metering query from the default OpenShift template,
+ * comparing the former approach (a new parser, parsing the template on each of the
+ * templateParameterDepth passes) with {@link QueryBuilder}'s cached, compiled template.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBuilderBenchmark {
+
+  // the default template of application-openshift-metering-worker.yaml
+  private static final String TEMPLATE =
+      "#{metric.prometheus.queryParams[metric]} * on(#{metric.prometheus.queryParams[instanceKey]})"
+          + " group_right min_over_time(#{metric.prometheus.queryParams[metadataMetric]}{"
+          + "product=\"#{metric.prometheus.queryParams[product]}\","
+          + " external_organization=\"#{runtime[orgId]}\", billing_model=\"marketplace\","
+          + " support=~\"Premium|Standard|Self-Support|None\"}[1h])";
+
+  private MetricProperties metricProperties;
+  private QueryBuilder queryBuilder;
+  private QueryDescriptor descriptor;
+
+  @Setup
+  public void setup() {
+    metricProperties = new MetricProperties();
+    metricProperties.getQueryTemplates().put("default", TEMPLATE);
+    queryBuilder = new QueryBuilder(metricProperties);
+
+    Metric metric =
+        Metric.builder()
+            .id("Cores")
+            .prometheus(
+                new PrometheusMetric(
+                    "default",
+                    Map.of(
+                        "metric", "cluster:usage:workload:capacity_physical_cpu_cores:max:5m",
+                        "instanceKey", "_id",
+                        "metadataMetric", "ocm_subscription",
+                        "product", "ocp")))
+            .build();
+    descriptor = new QueryDescriptor(metric);
+    descriptor.addRuntimeVar("orgId", "org123");
+  }
+
+  @Benchmark
+  public String parsePerQuery() {
+    ExpressionParser parser = new SpelExpressionParser();
+    StandardEvaluationContext context = new StandardEvaluationContext(descriptor);
+    String query = TEMPLATE;
+    for (int i = 0; i < metricProperties.getTemplateParameterDepth(); i++) {
+      query = (String) parser.parseExpression(query, new TemplateParserContext()).getValue(context);
+    }
+    return query;
+  }
+
+  @Benchmark
+  public String cachedTemplate() {
+    return queryBuilder.build(descriptor);
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally;
+
+import com.google.common.collect.Sets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.candlepin.subscriptions.db.model.BillingProvider;
+import org.candlepin.subscriptions.db.model.ServiceLevel;
+import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.tally.UsageCalculation.Key;
+import org.candlepin.subscriptions.tally.facts.NormalizedFacts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures per-host usage key enumeration over a synthetic org, comparing the former cartesian
+ * product approach (build every product × SLA × usage tuple, then discard keys for products the
+ * host doesn't have) with {@link UsageKeyCatalog}.
+ *
+ * <p>Each invocation walks the whole org, so the reported time is per org tally.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UsageKeyEnumerationBenchmark {
+
+  private static final ServiceLevel[] SLAS = {
+    ServiceLevel.EMPTY, ServiceLevel.PREMIUM, ServiceLevel.STANDARD, ServiceLevel.SELF_SUPPORT
+  };
+  private static final Usage[] USAGES = {
+    Usage.EMPTY, Usage.PRODUCTION, Usage.DEVELOPMENT_TEST, Usage.DISASTER_RECOVERY
+  };
+
+  @Param({"500000"})
+  public int hosts;
+
+  private Set<String> products;
+  private List<NormalizedFacts> org;
+  private UsageKeyCatalog catalog;
+
+  @Setup
+  public void setup() {
+    // roughly the number of tags tallied from HBI data
+    products = new HashSet<>();
+    for (int i = 0; i < 40; i++) {
+      products.add("product-" + i);
+    }
+    catalog = new UsageKeyCatalog(products);
+
+    Random random = new Random(42);
+    org = new ArrayList<>(hosts);
+    for (int i = 0; i < hosts; i++) {
+      NormalizedFacts facts = new NormalizedFacts();
+      // most hosts have one or two products, a few have none
+      int productCount = random.nextInt(3);
+      for (int p = 0; p < productCount; p++) {
+        facts.addProduct("product-" + random.nextInt(45));
+      }
+      facts.setSla(SLAS[random.nextInt(SLAS.length)]);
+      facts.setUsage(USAGES[random.nextInt(USAGES.length)]);
+      org.add(facts);
+    }
+  }
+
+  @Benchmark
+  public void cartesianProduct(Blackhole blackhole) {
+    for (NormalizedFacts facts : org) {
+      Set<List<Object>> tuples =
+          Sets.cartesianProduct(
+              products,
+              Set.of(facts.getSla(), ServiceLevel._ANY),
+              Set.of(facts.getUsage(), Usage._ANY),
+              Set.of(BillingProvider._ANY),
+              Set.of("_ANY"));
+      Set<Key> keys =
+          tuples.stream()
+              .map(
+                  tuple ->
+                      new Key(
+                          (String) tuple.get(0),
+                          (ServiceLevel) tuple.get(1),
+                          (Usage) tuple.get(2),
+                          (BillingProvider) tuple.get(3),
+                          (String) tuple.get(4)))
+              .collect(Collectors.toSet());
+      for (Key key : keys) {
+        if (facts.getProducts().contains(key.getProductId())) {
+          blackhole.consume(key);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public void keyCatalog(Blackhole blackhole) {
+    for (NormalizedFacts facts : org) {
+      for (Key key : catalog.keysFor(facts)) {
+        blackhole.consume(key);
+      }
+    }
+  }
+}
@@ -23,6 +23,8 @@ package org.candlepin.subscriptions;
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
 import org.candlepin.subscriptions.jobs.JobProperties;
@@ -83,6 +85,22 @@ public class ApplicationProperties {
    */
   private Duration productDenyListCacheTtl = Duration.ofMinutes(5);
 
+  /**
+   * Amount of time to cache the product trees and engineering products fetched from the product
+   * service while syncing offerings in batches.
+   */
+  private Duration productDataCacheTtl = Duration.ofMinutes(10);
+
+  /** Maximum number of SKUs whose product trees, and engineering products, are cached. */
+  private long productDataCacheSize = 10_000;
+
+  /**
+   * If enabled, syncing all offerings enqueues tasks of several SKUs instead of one task per SKU.
+   * Workers that don't know about batched tasks only sync their first SKU, so this must only be
+   * enabled once every offering worker has been upgraded.
+   */
+  private boolean offeringSyncBatchEnabled = false;
+
   /**
    * Amount of time to cache the API access allowlist, before allowing a re-read from the
    * filesystem.
@@ -127,7 +145,11 @@ public class ApplicationProperties {
   /** If enabled, will allow synchronous operations when requested. */
   private boolean enableSynchronousOperations = false;
 
-  /** Sets a hard limit on the size of accounts that HBI-based tally will attempt to process. */
+  /**
+   * Sets a hard limit on the size of accounts that HBI-based tally will attempt to process in a
+   * single pass. Orgs reconciled in partitions (see hbiReconciliationPartitionThreshold) are not
+   * limited.
+   */
   private int tallyMaxHbiAccountSize;
 
   /**
@@ -138,6 +160,31 @@ public class ApplicationProperties {
    */
   private Long hbiReconciliationFlushInterval;
 
+  /**
+   * Number of active HBI systems above which an org's HBI reconciliation is split into partitions
+   * (by hardware subscription-manager ID) that are reconciled concurrently, each in its own
+   * transaction.
+   */
+  private int hbiReconciliationPartitionThreshold = Integer.MAX_VALUE;
+
+  /** Target number of HBI systems per partition when reconciling a partitioned org. */
+  private int hbiReconciliationPartitionSize = 50000;
+
+  /** Maximum number of partitions of HBI data that are reconciled concurrently. */
+  private int hbiReconciliationPartitionParallelism = 4;
+
+  /**
+   * Orgs whose HBI hosts are collected with bulk SQL (COPY into staging tables, then set-based
+   * diffs against stored host rows) instead of by loading the org's hosts as JPA entities.
+   */
+  private Set<String> hbiBulkCollectionOrgs = new HashSet<>();
+
+  /**
+   * Maximum number of service types tallied concurrently when producing hourly snapshots, across
+   * all orgs. A value of 1 tallies an org's service types one at a time.
+   */
+  private int hourlyTallyServiceTypeParallelism = 1;
+
   /**
    * Since the two parameters sent to {@link InternalTallyResource#performHourlyTallyForOrg(String,
    * OffsetDateTime, OffsetDateTime, Boolean)} are actually ISO 8601 timestamps we are using a
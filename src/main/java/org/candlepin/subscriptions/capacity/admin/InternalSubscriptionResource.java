@@ -24,12 +24,19 @@ import com.redhat.swatch.configuration.registry.Variant;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response.Status;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.capacity.CapacityReconciliationController;
+import org.candlepin.subscriptions.capacity.admin.UsageContextSubscriptionProvider.UsageContextLookup;
+import org.candlepin.subscriptions.capacity.admin.UsageContextSubscriptionProvider.UsageContextSubscription;
 import org.candlepin.subscriptions.db.model.BillingProvider;
 import org.candlepin.subscriptions.db.model.Subscription;
+import org.candlepin.subscriptions.exception.ErrorCode;
+import org.candlepin.subscriptions.exception.SubscriptionsException;
 import org.candlepin.subscriptions.product.OfferingSyncController;
 import org.candlepin.subscriptions.product.SyncResult;
 import org.candlepin.subscriptions.resource.ResourceUtils;
@@ -38,7 +45,10 @@ import org.candlepin.subscriptions.subscription.SubscriptionPruneController;
 import org.candlepin.subscriptions.subscription.SubscriptionSyncController;
 import org.candlepin.subscriptions.utilization.admin.api.InternalApi;
 import org.candlepin.subscriptions.utilization.admin.api.model.AwsUsageContext;
+import org.candlepin.subscriptions.utilization.admin.api.model.AwsUsageContextResult;
+import org.candlepin.subscriptions.utilization.admin.api.model.AwsUsageContextResults;
 import org.candlepin.subscriptions.utilization.admin.api.model.DefaultResponse;
+import org.candlepin.subscriptions.utilization.admin.api.model.Error;
 import org.candlepin.subscriptions.utilization.admin.api.model.Metric;
 import org.candlepin.subscriptions.utilization.admin.api.model.OfferingProductTags;
 import org.candlepin.subscriptions.utilization.admin.api.model.OfferingResponse;
@@ -46,6 +56,7 @@ import org.candlepin.subscriptions.utilization.admin.api.model.RhmUsageContext;
 import org.candlepin.subscriptions.utilization.admin.api.model.SubscriptionResponse;
 import org.candlepin.subscriptions.utilization.admin.api.model.TerminationRequest;
 import org.candlepin.subscriptions.utilization.admin.api.model.TerminationRequestData;
+import org.candlepin.subscriptions.utilization.admin.api.model.UsageContextRequest;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -190,6 +201,59 @@ public class InternalSubscriptionResource implements InternalApi {
         .orElseThrow();
   }
 
+  @Override
+  public AwsUsageContextResults getAwsUsageContexts(UsageContextRequest usageContextRequest) {
+    var lookups =
+        usageContextRequest.getKeys().stream()
+            .map(
+                key ->
+                    new UsageContextLookup(
+                        key.getOrgId(),
+                        key.getAccountNumber(),
+                        key.getProductId(),
+                        key.getSla(),
+                        key.getUsage(),
+                        key.getBillingAccountId(),
+                        key.getDate()))
+            .toList();
+    var results = new AwsUsageContextResults().results(new ArrayList<>());
+    for (UsageContextSubscription found : awsSubscriptionProvider.getSubscriptions(lookups)) {
+      var result = new AwsUsageContextResult();
+      if (found.error() != null) {
+        result.setError(buildError(found.error()));
+      } else if (found.subscription().isPresent()) {
+        result.setContext(buildAwsUsageContext(found.subscription().get()));
+      } else {
+        result.setError(buildError(new NotFoundException()));
+      }
+      results.addResultsItem(result);
+    }
+    return results;
+  }
+
+  private Error buildError(RuntimeException e) {
+    if (e instanceof SubscriptionsException subscriptionsException) {
+      return new Error()
+          .code(subscriptionsException.getCode().getCode())
+          .status(String.valueOf(subscriptionsException.getStatus().getStatusCode()))
+          .title(subscriptionsException.getMessage())
+          .detail(subscriptionsException.getDetail());
+    }
+    var status =
+        e instanceof WebApplicationException webApplicationException
+            ? webApplicationException.getResponse().getStatus()
+            : Status.INTERNAL_SERVER_ERROR.getStatusCode();
+    var code =
+        status == Status.INTERNAL_SERVER_ERROR.getStatusCode()
+            ? ErrorCode.UNHANDLED_EXCEPTION_ERROR
+            : ErrorCode.REQUEST_PROCESSING_ERROR;
+    return new Error()
+        .code(code.getCode())
+        .status(String.valueOf(status))
+        .title(code.getDescription())
+        .detail(e.getMessage());
+  }
+
   @Override
   public List<Metric> getMetrics(String tag) {
     return metricMapper.mapMetrics(Variant.getMetricsForTag(tag));
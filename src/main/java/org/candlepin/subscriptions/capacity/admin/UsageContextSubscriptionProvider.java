@@ -21,10 +21,14 @@
 package org.candlepin.subscriptions.capacity.admin;
 
 import io.micrometer.core.instrument.Counter;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response.Status;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.db.model.BillingProvider;
@@ -33,9 +37,11 @@ import org.candlepin.subscriptions.db.model.Subscription;
 import org.candlepin.subscriptions.db.model.Usage;
 import org.candlepin.subscriptions.exception.ErrorCode;
 import org.candlepin.subscriptions.exception.SubscriptionsException;
+import org.candlepin.subscriptions.subscription.PaygSubscriptionLookup;
 import org.candlepin.subscriptions.subscription.SubscriptionSyncController;
 import org.candlepin.subscriptions.tally.UsageCalculation;
 import org.candlepin.subscriptions.tally.UsageCalculation.Key;
+import org.springframework.util.Assert;
 
 @Slf4j
 public class UsageContextSubscriptionProvider {
@@ -64,20 +70,88 @@ public class UsageContextSubscriptionProvider {
       String usage,
       String billingAccountId,
       OffsetDateTime subscriptionDate) {
-    UsageCalculation.Key usageKey =
-        new Key(
-            productId,
-            ServiceLevel.fromString(sla),
-            Usage.fromString(usage),
-            billingProvider,
-            billingAccountId);
+    UsageCalculation.Key usageKey = usageKey(productId, sla, usage, billingAccountId);
 
     // Set start date one hour in past to pickup recently terminated subscriptions
     var start = subscriptionDate.minusHours(1);
     List<Subscription> subscriptions =
         subscriptionSyncController.findSubscriptions(
             accountNumber, Optional.ofNullable(orgId), usageKey, start, subscriptionDate);
+    return selectSubscription(orgId, accountNumber, usageKey, subscriptionDate, subscriptions);
+  }
+
+  /**
+   * Same as {@link #getSubscription}, for several usages at once. The subscriptions of all the
+   * lookups are fetched together, and a lookup failing doesn't prevent the others from succeeding.
+   *
+   * @param lookups the usages to look up the subscription of; each must have an org ID
+   * @return the subscription, or the error preventing it from being found, of each lookup in the
+   *     same order
+   */
+  public List<UsageContextSubscription> getSubscriptions(List<UsageContextLookup> lookups) {
+    List<UsageContextSubscription> results = new ArrayList<>(lookups.size());
+    Map<UsageContextLookup, PaygSubscriptionLookup> criteria = new HashMap<>();
+    Map<UsageContextLookup, RuntimeException> invalidLookups = new HashMap<>();
+    for (UsageContextLookup lookup : lookups) {
+      try {
+        UsageCalculation.Key usageKey =
+            usageKey(lookup.productId(), lookup.sla(), lookup.usage(), lookup.billingAccountId());
+        Assert.notNull(lookup.orgId(), "Org ID is required");
+        Assert.notNull(lookup.subscriptionDate(), "Date is required");
+        Assert.isTrue(Usage._ANY != usageKey.getUsage(), "Usage cannot be _ANY");
+        Assert.isTrue(ServiceLevel._ANY != usageKey.getSla(), "Service Level cannot be _ANY");
+        criteria.put(
+            lookup,
+            new PaygSubscriptionLookup(
+                lookup.orgId(),
+                usageKey,
+                // one hour in past to pickup recently terminated subscriptions
+                lookup.subscriptionDate().minusHours(1),
+                lookup.subscriptionDate()));
+      } catch (IllegalArgumentException e) {
+        invalidLookups.put(lookup, new BadRequestException(e.getMessage(), e));
+      }
+    }
+
+    var subscriptions = subscriptionSyncController.findSubscriptions(criteria.values());
+    for (UsageContextLookup lookup : lookups) {
+      PaygSubscriptionLookup lookupCriteria = criteria.get(lookup);
+      if (lookupCriteria == null) {
+        results.add(UsageContextSubscription.failed(invalidLookups.get(lookup)));
+        continue;
+      }
+      try {
+        results.add(
+            UsageContextSubscription.found(
+                selectSubscription(
+                    lookup.orgId(),
+                    lookup.accountNumber(),
+                    lookupCriteria.usageKey(),
+                    lookup.subscriptionDate(),
+                    subscriptions.getOrDefault(lookupCriteria, List.of()))));
+      } catch (RuntimeException e) {
+        results.add(UsageContextSubscription.failed(e));
+      }
+    }
+    return results;
+  }
 
+  private UsageCalculation.Key usageKey(
+      String productId, String sla, String usage, String billingAccountId) {
+    return new Key(
+        productId,
+        ServiceLevel.fromString(sla),
+        Usage.fromString(usage),
+        billingProvider,
+        billingAccountId);
+  }
+
+  private Optional<Subscription> selectSubscription(
+      String orgId,
+      String accountNumber,
+      UsageCalculation.Key usageKey,
+      OffsetDateTime subscriptionDate,
+      List<Subscription> subscriptions) {
     var existsRecentlyTerminatedSubscription =
         subscriptions.stream()
             .anyMatch(subscription -> subscription.getEndDate().isBefore(subscriptionDate));
@@ -117,4 +191,28 @@ public class UsageContextSubscriptionProvider {
     }
     return activeSubscriptions.stream().findFirst();
   }
+
+  /** Identifies a usage to look up the subscription of, see {@link #getSubscription}. */
+  public record UsageContextLookup(
+      String orgId,
+      String accountNumber,
+      String productId,
+      String sla,
+      String usage,
+      String billingAccountId,
+      OffsetDateTime subscriptionDate) {}
+
+  /**
+   * The subscription found for a usage context lookup, or the error preventing it from being found.
+   */
+  public record UsageContextSubscription(
+      Optional<Subscription> subscription, RuntimeException error) {
+    static UsageContextSubscription found(Optional<Subscription> subscription) {
+      return new UsageContextSubscription(subscription, null);
+    }
+
+    static UsageContextSubscription failed(RuntimeException error) {
+      return new UsageContextSubscription(Optional.empty(), error);
+    }
+  }
 }
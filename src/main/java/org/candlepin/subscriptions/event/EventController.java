@@ -21,17 +21,29 @@
 package org.candlepin.subscriptions.event;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.db.EventRecordRepository;
@@ -52,15 +64,37 @@ public class EventController {
 
   private static final Set<String> EXCLUDE_LOG_FOR_EVENT_SOURCES =
       Set.of("prometheus", "rhelemeter");
+  private static final Duration OPT_IN_CACHE_TTL = Duration.ofHours(1);
+  private static final long OPT_IN_CACHE_SIZE = 100_000;
+
   private final EventRecordRepository repo;
-  private final ObjectMapper objectMapper;
+  private final ObjectReader baseEventReader;
   private final OptInController optInController;
+  // orgs opted in by this instance; avoids an opt-in transaction per org for every batch
+  private final Cache<String, Boolean> optedInOrgIds =
+      CacheBuilder.newBuilder()
+          .expireAfterWrite(OPT_IN_CACHE_TTL)
+          .maximumSize(OPT_IN_CACHE_SIZE)
+          .build();
+  private final Timer ingestTimer;
+  private final Counter ingestedEventsCounter;
+  private final Counter cleanUpEventsCounter;
 
   public EventController(
-      EventRecordRepository repo, ObjectMapper objectMapper, OptInController optInController) {
+      EventRecordRepository repo,
+      ObjectMapper objectMapper,
+      OptInController optInController,
+      MeterRegistry meterRegistry) {
     this.repo = repo;
-    this.objectMapper = objectMapper;
+    this.baseEventReader = objectMapper.readerFor(BaseEvent.class);
     this.optInController = optInController;
+    this.ingestTimer =
+        Timer.builder("rhsm-subscriptions.events.ingest.batch")
+            .description("Time taken to persist a batch of service instance events")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.ingestedEventsCounter = meterRegistry.counter("rhsm-subscriptions.events.ingested");
+    this.cleanUpEventsCounter = meterRegistry.counter("rhsm-subscriptions.events.cleaned-up");
   }
 
   /**
@@ -78,11 +112,20 @@ public class EventController {
         .map(EventRecord::getEvent);
   }
 
+  /**
+   * Note: calling method needs to use @Transactional, and close the stream.
+   *
+   * <p>Events are read straight from their stored payloads rather than as EventRecord entities.
+   *
+   * @param orgId Red Hat orgId
+   * @param serviceType service type of the events
+   * @param begin beginning of the time range (inclusive)
+   * @param end end of the time range (exclusive)
+   * @return stream of Event, ordered by timestamp and then instance ID
+   */
   public Stream<Event> fetchEventsInTimeRangeByServiceType(
       String orgId, String serviceType, OffsetDateTime begin, OffsetDateTime end) {
-    return repo.findByOrgIdAndServiceTypeAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestamp(
-            orgId, serviceType, begin, end)
-        .map(EventRecord::getEvent);
+    return repo.streamEventsByOrgIdAndServiceType(orgId, serviceType, begin, end);
   }
 
   /**
@@ -117,29 +160,45 @@ public class EventController {
         .map(dateTime -> dateTime.atOffset(ZoneOffset.UTC));
   }
 
+  /**
+   * Persist a batch of service instance events and clean-up events.
+   *
+   * <p>Events are inserted or updated in bulk, each org of the batch is opted in at most once, and
+   * clean-up events for the same org, event source, event type and metering batch are combined
+   * into as few deletes as possible.
+   *
+   * @param eventJsonList JSON of the events
+   */
   @Transactional
   public void persistServiceInstances(Set<String> eventJsonList) {
-    ServiceInstancesResult result = parseServiceInstancesResult(eventJsonList);
-    if (!result.eventsMap.isEmpty()) {
-      int updated = saveAll(result.eventsMap.values()).size();
-      log.debug("Adding/Updating {} metric events", updated);
-    }
+    ingestTimer.record(
+        () -> {
+          ServiceInstancesResult result = parseServiceInstancesResult(eventJsonList);
+          result.orgIds.forEach(this::ensureOptIn);
+
+          if (!result.eventsMap.isEmpty()) {
+            int updated =
+                repo.upsertAll(result.eventsMap.values().stream().map(EventRecord::new).toList());
+            ingestedEventsCounter.increment(updated);
+            log.debug("Adding/Updating {} metric events", updated);
+          }
 
-    result.cleanUpEvents.forEach(
-        cleanUpEvent -> {
-          int deleted =
-              repo.deleteStaleEvents(
-                  cleanUpEvent.getOrgId(),
-                  cleanUpEvent.getEventSource(),
-                  cleanUpEvent.getEventType(),
-                  cleanUpEvent.getMeteringBatchId(),
-                  cleanUpEvent.getStart(),
-                  cleanUpEvent.getEnd());
-          log.info(
-              "Deleting {} stale metric events for orgId={} and {} metrics",
-              deleted,
-              cleanUpEvent.getOrgId(),
-              cleanUpEvent.getEventType());
+          for (CleanUpEvent cleanUpEvent : result.combinedCleanUpEvents()) {
+            int deleted =
+                repo.deleteStaleEvents(
+                    cleanUpEvent.getOrgId(),
+                    cleanUpEvent.getEventSource(),
+                    cleanUpEvent.getEventType(),
+                    cleanUpEvent.getMeteringBatchId(),
+                    cleanUpEvent.getStart(),
+                    cleanUpEvent.getEnd());
+            cleanUpEventsCounter.increment(deleted);
+            log.info(
+                "Deleting {} stale metric events for orgId={} and {} metrics",
+                deleted,
+                cleanUpEvent.getOrgId(),
+                cleanUpEvent.getEventType());
+          }
         });
   }
 
@@ -148,21 +207,18 @@ public class EventController {
     eventJsonList.forEach(
         eventJson -> {
           try {
-            BaseEvent baseEvent = objectMapper.readValue(eventJson, BaseEvent.class);
+            BaseEvent baseEvent = baseEventReader.readValue(eventJson);
             if (!EXCLUDE_LOG_FOR_EVENT_SOURCES.contains(baseEvent.getEventSource())) {
-              log.info("Event processing in batch: " + baseEvent);
+              log.debug("Event processing in batch: {}", baseEvent);
             }
 
             if (StringUtils.hasText(baseEvent.getOrgId())) {
-              log.debug(
-                  "Ensuring orgId={} has been set up for syncing/reporting.", baseEvent.getOrgId());
-              ensureOptIn(baseEvent.getOrgId());
+              result.orgIds.add(baseEvent.getOrgId());
             }
 
-            if (baseEvent instanceof Event) {
-              result.addEvent((Event) baseEvent);
-            } else if (baseEvent instanceof CleanUpEvent) {
-              CleanUpEvent cleanUpEvent = (CleanUpEvent) baseEvent;
+            if (baseEvent instanceof Event event) {
+              result.addEvent(event);
+            } else if (baseEvent instanceof CleanUpEvent cleanUpEvent) {
               log.debug("Processing clean up event for: " + cleanUpEvent);
               result.addCleanUpEvent(cleanUpEvent);
             }
@@ -178,14 +234,20 @@ public class EventController {
   }
 
   private void ensureOptIn(String orgId) {
+    if (optedInOrgIds.getIfPresent(orgId) != null) {
+      return;
+    }
+    log.debug("Ensuring orgId={} has been set up for syncing/reporting.", orgId);
     try {
       optInController.optInByOrgId(orgId, OptInType.PROMETHEUS);
+      optedInOrgIds.put(orgId, Boolean.TRUE);
     } catch (Exception e) {
       log.error("Error while attempting to automatically opt-in for orgId={} ", orgId, e);
     }
   }
 
   private static class ServiceInstancesResult {
+    private final Set<String> orgIds = new LinkedHashSet<>();
     private final Map<EventKey, Event> eventsMap = new HashMap<>();
     private final Set<CleanUpEvent> cleanUpEvents = new HashSet<>();
 
@@ -196,5 +258,50 @@ public class EventController {
     public void addCleanUpEvent(CleanUpEvent cleanUpEvent) {
       cleanUpEvents.add(cleanUpEvent);
     }
+
+    /**
+     * Combine the clean-up events of the same org, event source, event type and metering batch
+     * whose time ranges overlap or touch, so that their stale events are deleted at once.
+     */
+    private List<CleanUpEvent> combinedCleanUpEvents() {
+      Map<List<Object>, List<CleanUpEvent>> groups =
+          cleanUpEvents.stream()
+              .collect(
+                  Collectors.groupingBy(
+                      cleanUp ->
+                          Arrays.asList(
+                              cleanUp.getOrgId(),
+                              cleanUp.getEventSource(),
+                              cleanUp.getEventType(),
+                              cleanUp.getMeteringBatchId())));
+      List<CleanUpEvent> combined = new ArrayList<>();
+      groups.forEach(
+          (key, group) -> {
+            group.sort(Comparator.comparing(CleanUpEvent::getStart));
+            CleanUpEvent current = null;
+            for (CleanUpEvent cleanUp : group) {
+              if (current != null && !cleanUp.getStart().isAfter(current.getEnd())) {
+                if (cleanUp.getEnd().isAfter(current.getEnd())) {
+                  current.setEnd(cleanUp.getEnd());
+                }
+              } else {
+                current = copyOf(cleanUp);
+                combined.add(current);
+              }
+            }
+          });
+      return combined;
+    }
+
+    private static CleanUpEvent copyOf(CleanUpEvent cleanUp) {
+      return new CleanUpEvent()
+          .withOrgId(cleanUp.getOrgId())
+          .withEventSource(cleanUp.getEventSource())
+          .withEventType(cleanUp.getEventType())
+          .withInstanceId(cleanUp.getInstanceId())
+          .withMeteringBatchId(cleanUp.getMeteringBatchId())
+          .withStart(cleanUp.getStart())
+          .withEnd(cleanUp.getEnd());
+    }
   }
 }
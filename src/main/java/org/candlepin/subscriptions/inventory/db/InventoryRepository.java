@@ -25,6 +25,7 @@ import static org.hibernate.jpa.AvailableHints.HINT_READ_ONLY;
 
 import jakarta.persistence.QueryHint;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.Stream;
 import org.candlepin.subscriptions.inventory.db.model.InventoryHost;
@@ -47,6 +48,24 @@ public interface InventoryRepository extends Repository<InventoryHost, UUID> {
   Stream<InventoryHostFacts> streamFacts(
       @Param("orgId") String orgId, @Param("culledOffsetDays") Integer culledOffsetDays);
 
+  /**
+   * Stream the facts of the hosts in a single reconciliation partition, in the same order as
+   * {@link #streamFacts(String, Integer)}.
+   *
+   * @see org.candlepin.subscriptions.tally.HbiHostPartition
+   */
+  @Query(nativeQuery = true)
+  @QueryHints(
+      value = {
+        @QueryHint(name = HINT_FETCH_SIZE, value = "1024"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+      })
+  Stream<InventoryHostFacts> streamFactsInPartition(
+      @Param("orgId") String orgId,
+      @Param("culledOffsetDays") Integer culledOffsetDays,
+      @Param("lowerBound") String lowerBound,
+      @Param("upperBound") String upperBound);
+
   default Stream<InventoryHostFacts> getFacts(Collection<String> orgIds, Integer culledOffsetDays) {
     return orgIds.stream().flatMap(orgId -> streamFacts(orgId, culledOffsetDays));
   }
@@ -113,4 +132,73 @@ public interface InventoryRepository extends Repository<InventoryHost, UUID> {
       })
   Stream<String> streamActiveSubscriptionManagerIds(
       @Param("orgId") String orgId, @Param("culledOffsetDays") Integer culledOffsetDays);
+
+  /* NOTE: in below query, ordering is crucial for correct streaming reconciliation of HBI data */
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+        select
+        h.canonical_facts->>'subscription_manager_id' as subscription_manager_id
+        from hosts h
+        where h.org_id=:orgId
+           and (h.facts->'rhsm'->>'BILLING_MODEL' IS NULL OR h.facts->'rhsm'->>'BILLING_MODEL' <> 'marketplace')
+           and (h.system_profile_facts->>'host_type' IS NULL OR h.system_profile_facts->>'host_type' <> 'edge')
+           and NOW() < stale_timestamp + make_interval(days => :culledOffsetDays)
+           and (cast(:lowerBound as text) is null or h.canonical_facts->>'subscription_manager_id' > cast(:lowerBound as text))
+           and (cast(:upperBound as text) is null or h.canonical_facts->>'subscription_manager_id' <= cast(:upperBound as text))
+        -- NOTE: ordering is crucial for correct streaming reconciliation of HBI data
+        order by subscription_manager_id
+      """)
+  @QueryHints(
+      value = {
+        @QueryHint(name = HINT_FETCH_SIZE, value = "1024"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+      })
+  Stream<String> streamActiveSubscriptionManagerIdsInPartition(
+      @Param("orgId") String orgId,
+      @Param("culledOffsetDays") Integer culledOffsetDays,
+      @Param("lowerBound") String lowerBound,
+      @Param("upperBound") String upperBound);
+
+  /**
+   * Split an org's active hosts into roughly equally sized groups by hardware subscription-manager
+   * ID (hypervisor UUID for guests, own subscription-manager ID otherwise), returning the largest
+   * ID of each group in ascending order.
+   *
+   * <p>Hosts sharing a hardware subscription-manager ID always end up under the same upper bound,
+   * so the returned list may contain fewer distinct values than requested.
+   *
+   * @param orgId the orgId to partition
+   * @param culledOffsetDays number of days before a system is considered culled by HBI
+   * @param partitions the desired number of partitions
+   * @return the inclusive upper bounds of each partition
+   */
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+        select max(hardware_subman_id) as upper_bound
+        from (
+          select hardware_subman_id, ntile(:partitions) over (order by hardware_subman_id) as bucket
+          from (
+            select coalesce(
+                h.facts->'satellite'->>'virtual_host_uuid',
+                h.facts->'rhsm'->>'VM_HOST_UUID',
+                h.canonical_facts->>'subscription_manager_id') as hardware_subman_id
+            from hosts h
+            where h.org_id=:orgId
+               and (h.facts->'rhsm'->>'BILLING_MODEL' IS NULL OR h.facts->'rhsm'->>'BILLING_MODEL' <> 'marketplace')
+               and (h.system_profile_facts->>'host_type' IS NULL OR h.system_profile_facts->>'host_type' <> 'edge')
+               and NOW() < stale_timestamp + make_interval(days => :culledOffsetDays)
+          ) active_hosts
+          where hardware_subman_id is not null
+        ) ranked
+        group by bucket
+        order by upper_bound
+      """)
+  List<String> findHardwareSubmanIdPartitionUpperBounds(
+      @Param("orgId") String orgId,
+      @Param("culledOffsetDays") Integer culledOffsetDays,
+      @Param("partitions") Integer partitions);
 }
@@ -92,8 +92,21 @@ import lombok.Setter;
  */
 @NamedNativeQuery(
     name = "InventoryHost.streamFacts",
+    query = InventoryHost.FACTS_QUERY + InventoryHost.FACTS_QUERY_ORDER,
+    resultSetMapping = "inventoryHostFactsMapping")
+@NamedNativeQuery(
+    name = "InventoryHost.streamFactsInPartition",
     query =
-        """
+        InventoryHost.FACTS_QUERY
+            + InventoryHost.HARDWARE_SUBMAN_ID_PARTITION_FILTER
+            + InventoryHost.FACTS_QUERY_ORDER,
+    resultSetMapping = "inventoryHostFactsMapping")
+@Getter
+@Setter
+public class InventoryHost implements Serializable {
+
+  static final String FACTS_QUERY =
+      """
         select
         h.id as inventory_id, h.org_id, h.modified_on, h.account, h.display_name,
         h.facts->'rhsm'->>'IS_VIRTUAL' as is_virtual,
@@ -148,13 +161,40 @@ import lombok.Setter;
            and (h.facts->'rhsm'->>'BILLING_MODEL' IS NULL OR h.facts->'rhsm'->>'BILLING_MODEL' <> 'marketplace')
            and (h.system_profile_facts->>'host_type' IS NULL OR h.system_profile_facts->>'host_type' <> 'edge')
            and NOW() < stale_timestamp + make_interval(days => :culledOffsetDays)
+        """;
+
+  static final String FACTS_QUERY_ORDER =
+      """
         -- NOTE: ordering is crucial for correct streaming reconciliation of HBI data
         order by hardware_subman_id, any_hypervisor_uuid, inventory_id
-    """,
-    resultSetMapping = "inventoryHostFactsMapping")
-@Getter
-@Setter
-public class InventoryHost implements Serializable {
+        """;
+
+  /**
+   * The hardware subscription-manager ID of a host: the ID of the hypervisor it runs on if it is a
+   * guest, otherwise its own subscription-manager ID.
+   */
+  static final String HARDWARE_SUBMAN_ID =
+      """
+      coalesce(
+          h.facts->'satellite'->>'virtual_host_uuid',
+          h.facts->'rhsm'->>'VM_HOST_UUID',
+          h.canonical_facts->>'subscription_manager_id')
+      """;
+
+  /**
+   * Restricts the facts query to a {@link org.candlepin.subscriptions.tally.HbiHostPartition},
+   * i.e. lowerBound < hardware_subman_id <= upperBound, where null bounds are unbounded and hosts
+   * without a hardware subscription-manager ID belong to the partition without an upper bound.
+   */
+  static final String HARDWARE_SUBMAN_ID_PARTITION_FILTER =
+      " and (cast(:lowerBound as text) is null or "
+          + HARDWARE_SUBMAN_ID
+          + " > cast(:lowerBound as text) or (cast(:upperBound as text) is null and "
+          + HARDWARE_SUBMAN_ID
+          + " is null))"
+          + " and (cast(:upperBound as text) is null or "
+          + HARDWARE_SUBMAN_ID
+          + " <= cast(:upperBound as text))\n";
 
   @Id private UUID id;
 
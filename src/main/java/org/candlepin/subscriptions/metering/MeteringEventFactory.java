@@ -148,24 +148,138 @@ public class MeteringEventFactory {
       Double measuredValue,
       String productTag,
       UUID meteringBatchId) {
-    toUpdate
-        .withServiceType(serviceType)
-        .withAccountNumber(accountNumber)
-        .withTimestamp(measuredTime)
-        .withExpiration(Optional.of(expired))
-        .withDisplayName(Optional.of(instanceId))
-        .withSla(getSla(serviceLevel, accountNumber, instanceId))
-        .withUsage(getUsage(usage, accountNumber, instanceId))
-        .withBillingProvider(getBillingProvider(billingProvider, accountNumber, instanceId))
-        .withBillingAccountId(Optional.ofNullable(billingAccountId))
-        .withMeasurements(
-            List.of(new Measurement().withUom(measuredMetric.getValue()).withValue(measuredValue)))
-        .withRole(getRole(role, accountNumber, instanceId))
-        .withEventSource(eventSource)
-        .withEventType(MeteringEventFactory.getEventType(measuredMetric.getValue(), productTag))
-        .withOrgId(orgId)
-        .withInstanceId(instanceId)
-        .withMeteringBatchId(meteringBatchId);
+    metricEventBuilder(
+            accountNumber,
+            orgId,
+            instanceId,
+            serviceLevel,
+            usage,
+            role,
+            eventSource,
+            serviceType,
+            billingProvider,
+            billingAccountId,
+            measuredMetric,
+            productTag,
+            meteringBatchId)
+        .update(toUpdate, measuredTime, expired, measuredValue);
+  }
+
+  /**
+   * Creates a builder for the metric events of a single instance. The instance's attributes are
+   * resolved once, so that building each of its events only takes the measurement's time and value.
+   *
+   * @return a builder of the instance's metric events.
+   */
+  @SuppressWarnings("java:S107")
+  public static MetricEventBuilder metricEventBuilder(
+      String accountNumber,
+      String orgId,
+      String instanceId,
+      String serviceLevel,
+      String usage,
+      String role,
+      String eventSource,
+      String serviceType,
+      String billingProvider,
+      String billingAccountId,
+      MetricId measuredMetric,
+      String productTag,
+      UUID meteringBatchId) {
+    return new MetricEventBuilder(
+        accountNumber,
+        orgId,
+        instanceId,
+        serviceType,
+        eventSource,
+        getSla(serviceLevel, accountNumber, instanceId),
+        getUsage(usage, accountNumber, instanceId),
+        getRole(role, accountNumber, instanceId),
+        getBillingProvider(billingProvider, accountNumber, instanceId),
+        Optional.ofNullable(billingAccountId),
+        measuredMetric.getValue(),
+        getEventType(measuredMetric.getValue(), productTag),
+        meteringBatchId);
+  }
+
+  /** Builds the metric events of a single instance, see {@link #metricEventBuilder}. */
+  @SuppressWarnings("java:S107")
+  public static final class MetricEventBuilder {
+    private final String accountNumber;
+    private final String orgId;
+    private final String instanceId;
+    private final String serviceType;
+    private final String eventSource;
+    private final Sla sla;
+    private final Usage usage;
+    private final Role role;
+    private final BillingProvider billingProvider;
+    private final Optional<String> billingAccountId;
+    private final String uom;
+    private final String eventType;
+    private final UUID meteringBatchId;
+
+    private MetricEventBuilder(
+        String accountNumber,
+        String orgId,
+        String instanceId,
+        String serviceType,
+        String eventSource,
+        Sla sla,
+        Usage usage,
+        Role role,
+        BillingProvider billingProvider,
+        Optional<String> billingAccountId,
+        String uom,
+        String eventType,
+        UUID meteringBatchId) {
+      this.accountNumber = accountNumber;
+      this.orgId = orgId;
+      this.instanceId = instanceId;
+      this.serviceType = serviceType;
+      this.eventSource = eventSource;
+      this.sla = sla;
+      this.usage = usage;
+      this.role = role;
+      this.billingProvider = billingProvider;
+      this.billingAccountId = billingAccountId;
+      this.uom = uom;
+      this.eventType = eventType;
+      this.meteringBatchId = meteringBatchId;
+    }
+
+    /**
+     * Creates an event for a measurement of the instance.
+     *
+     * @param measuredTime the time the measurement was taken.
+     * @param expired the time the measurement had ended.
+     * @param measuredValue the value that was measured.
+     * @return a populated Event instance.
+     */
+    public Event build(OffsetDateTime measuredTime, OffsetDateTime expired, double measuredValue) {
+      return update(new Event(), measuredTime, expired, measuredValue);
+    }
+
+    private Event update(
+        Event toUpdate, OffsetDateTime measuredTime, OffsetDateTime expired, Double measuredValue) {
+      return toUpdate
+          .withServiceType(serviceType)
+          .withAccountNumber(accountNumber)
+          .withTimestamp(measuredTime)
+          .withExpiration(Optional.of(expired))
+          .withDisplayName(Optional.of(instanceId))
+          .withSla(sla)
+          .withUsage(usage)
+          .withBillingProvider(billingProvider)
+          .withBillingAccountId(billingAccountId)
+          .withMeasurements(List.of(new Measurement().withUom(uom).withValue(measuredValue)))
+          .withRole(role)
+          .withEventSource(eventSource)
+          .withEventType(eventType)
+          .withOrgId(orgId)
+          .withInstanceId(instanceId)
+          .withMeteringBatchId(meteringBatchId);
+    }
   }
 
   public static String getEventType(String metricId, String productTag) {
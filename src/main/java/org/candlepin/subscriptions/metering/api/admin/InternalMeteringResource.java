@@ -36,6 +36,7 @@ import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.db.EventRecordRepository;
 import org.candlepin.subscriptions.metering.ResourceUtil;
 import org.candlepin.subscriptions.metering.admin.api.InternalApi;
+import org.candlepin.subscriptions.metering.retention.EventPartitionManager;
 import org.candlepin.subscriptions.metering.retention.EventRecordsRetentionProperties;
 import org.candlepin.subscriptions.metering.service.prometheus.MetricProperties;
 import org.candlepin.subscriptions.metering.service.prometheus.PrometheusMeteringController;
@@ -52,6 +53,7 @@ public class InternalMeteringResource implements InternalApi {
   private final PrometheusMeteringController controller;
   private final EventRecordsRetentionProperties eventRecordsRetentionProperties;
   private final EventRecordRepository eventRecordRepository;
+  private final EventPartitionManager eventPartitionManager;
   private final MetricProperties metricProperties;
 
   public InternalMeteringResource(
@@ -61,6 +63,7 @@ public class InternalMeteringResource implements InternalApi {
       PrometheusMetricsTaskManager tasks,
       PrometheusMeteringController controller,
       EventRecordRepository eventRecordRepository,
+      EventPartitionManager eventPartitionManager,
       MetricProperties metricProperties) {
     this.util = util;
     this.applicationProperties = applicationProperties;
@@ -68,6 +71,7 @@ public class InternalMeteringResource implements InternalApi {
     this.tasks = tasks;
     this.controller = controller;
     this.eventRecordRepository = eventRecordRepository;
+    this.eventPartitionManager = eventPartitionManager;
     this.metricProperties = metricProperties;
   }
 
@@ -80,9 +84,22 @@ public class InternalMeteringResource implements InternalApi {
     OffsetDateTime cutoffDate =
         OffsetDateTime.now().truncatedTo(ChronoUnit.DAYS).minus(eventRetentionDuration);
 
+    // partitions are created in their own transaction first, so a failed purge doesn't undo them
+    int createdPartitions = 0;
+    try {
+      createdPartitions = eventPartitionManager.createUpcomingPartitions(OffsetDateTime.now());
+    } catch (RuntimeException e) {
+      log.error("Unable to create upcoming event partitions", e);
+    }
+
     log.info("Purging event records older than {}", cutoffDate);
+    int droppedPartitions = eventPartitionManager.dropPartitionsBefore(cutoffDate);
+    // only the partition holding the cutoff date is left with rows to delete
     eventRecordRepository.deleteInBulkEventRecordsByTimestampBefore(cutoffDate);
-    log.info("Event record purge completed successfully");
+    log.info(
+        "Event record purge completed successfully: {} partitions dropped, {} partitions created",
+        droppedPartitions,
+        createdPartitions);
   }
 
   @Override
@@ -23,6 +23,7 @@ package org.candlepin.subscriptions.metering.profile;
 import static org.candlepin.subscriptions.task.queue.kafka.KafkaTaskProducerConfiguration.getProducerProperties;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.Executor;
 import org.candlepin.subscriptions.json.BaseEvent;
 import org.candlepin.subscriptions.metering.service.prometheus.MetricProperties;
 import org.candlepin.subscriptions.metering.service.prometheus.PrometheusEventsProducer;
@@ -56,6 +57,7 @@ import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /** Defines the beans for the openshift-metering-worker profile. */
 @EnableRetry
@@ -98,6 +100,16 @@ public class OpenShiftWorkerProfile {
     return retryTemplate;
   }
 
+  @Bean(name = "prometheusQueryWindowExecutor")
+  public Executor prometheusQueryWindowExecutor(MetricProperties metricProperties) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("prometheus-query-window-");
+    executor.setCorePoolSize(metricProperties.getQueryWindowParallelism());
+    executor.setMaxPoolSize(metricProperties.getQueryWindowParallelism());
+    executor.initialize();
+    return executor;
+  }
+
   @Bean
   public ProducerFactory<String, BaseEvent> prometheusUsageProducerFactory(
       KafkaProperties kafkaProperties, ObjectMapper objectMapper) {
@@ -147,7 +159,8 @@ public class OpenShiftWorkerProfile {
       PrometheusEventsProducer prometheusEventsProducer,
       @Qualifier("openshiftMetricRetryTemplate") RetryTemplate openshiftRetryTemplate,
       OptInController optInController,
-      @Qualifier("meteringBatchIdGenerator") SpanGenerator spanGenerator) {
+      @Qualifier("meteringBatchIdGenerator") SpanGenerator spanGenerator,
+      @Qualifier("prometheusQueryWindowExecutor") Executor queryWindowExecutor) {
     return new PrometheusMeteringController(
         clock,
         mProps,
@@ -156,6 +169,7 @@ public class OpenShiftWorkerProfile {
         prometheusEventsProducer,
         openshiftRetryTemplate,
         optInController,
-        spanGenerator);
+        spanGenerator,
+        queryWindowExecutor);
   }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.metering.retention;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the monthly range partitions of the events table.
+ *
+ * <p>On PostgreSQL, events are partitioned by month on timestamp (see the
+ * 202310021200-partition-events-table changelog). Partitions entirely before the retention cutoff
+ * are detached and dropped, which is much cheaper than deleting their rows, and partitions are
+ * created ahead of time for upcoming months. On other databases (e.g. HSQLDB in tests), the events
+ * table is not partitioned and this is a no-op.
+ */
+@Component
+@Slf4j
+public class EventPartitionManager {
+
+  static final String PARTITION_PREFIX = "events_p";
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+  private static final String PARTITIONS_QUERY =
+      """
+      select name,
+        (regexp_match(bound, 'FROM \\(''([^'']+)''\\)'))[1]::timestamptz as lower_bound,
+        (regexp_match(bound, 'TO \\(''([^'']+)''\\)'))[1]::timestamptz as upper_bound
+      from (
+        select c.relname as name, pg_get_expr(c.relpartbound, c.oid) as bound
+        from pg_inherits i join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = 'events'::regclass) partitions
+      """;
+
+  private static final String INSERTABLE_COLUMNS_QUERY =
+      """
+      select quote_ident(attname) from pg_attribute
+      where attrelid = 'events'::regclass and attnum > 0 and not attisdropped and attgenerated = ''
+      order by attnum
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EventRecordsRetentionProperties properties;
+  private Boolean partitioned;
+
+  public EventPartitionManager(
+      JdbcTemplate jdbcTemplate, EventRecordsRetentionProperties properties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = properties;
+  }
+
+  /**
+   * A partition of the events table; bounds are null for the default partition, and the lower
+   * bound is null for a partition starting at MINVALUE.
+   */
+  record EventPartition(String name, OffsetDateTime lowerBound, OffsetDateTime upperBound) {
+    boolean isDefault() {
+      return lowerBound == null && upperBound == null;
+    }
+  }
+
+  /**
+   * Detach and drop every partition whose rows are all before the cutoff date.
+   *
+   * @param cutoffDate events before this timestamp are past retention
+   * @return the number of partitions dropped
+   */
+  public int dropPartitionsBefore(OffsetDateTime cutoffDate) {
+    if (!isPartitioned()) {
+      return 0;
+    }
+    int dropped = 0;
+    for (EventPartition partition : fetchPartitions()) {
+      if (partition.upperBound() != null && !partition.upperBound().isAfter(cutoffDate)) {
+        log.info(
+            "Dropping events partition {} ending at {}", partition.name(), partition.upperBound());
+        jdbcTemplate.execute(
+            String.format("alter table events detach partition %s", partition.name()));
+        jdbcTemplate.execute(String.format("drop table %s", partition.name()));
+        dropped++;
+      }
+    }
+    return dropped;
+  }
+
+  /**
+   * Create the monthly partitions needed to hold events up to the configured number of months
+   * after the given date.
+   *
+   * <p>The default partition is detached while the partitions are created, so that creating them
+   * neither fails on nor has to scan the default partition's rows. Its rows within the new
+   * partitions' range are then moved into them, and it is attached again. This is done in its own
+   * transaction, so that it is independent of the purge.
+   *
+   * @param now the current date
+   * @return the number of partitions created
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public int createUpcomingPartitions(OffsetDateTime now) {
+    if (!isPartitioned()) {
+      return 0;
+    }
+    OffsetDateTime currentMonth =
+        now.withOffsetSameInstant(ZoneOffset.UTC)
+            .with(TemporalAdjusters.firstDayOfMonth())
+            .truncatedTo(ChronoUnit.DAYS);
+    OffsetDateTime createUntil = currentMonth.plusMonths(properties.getEventPartitionsAhead() + 1L);
+    List<EventPartition> partitions = fetchPartitions();
+    OffsetDateTime createFrom =
+        latestUpperBound(partitions)
+            .map(bound -> bound.withOffsetSameInstant(ZoneOffset.UTC))
+            .orElse(currentMonth);
+    if (!createFrom.isBefore(createUntil)) {
+      return 0;
+    }
+
+    Optional<EventPartition> defaultPartition =
+        partitions.stream().filter(EventPartition::isDefault).findFirst();
+    defaultPartition.ifPresent(
+        partition ->
+            jdbcTemplate.execute(
+                String.format("alter table events detach partition %s", partition.name())));
+    int created = 0;
+    OffsetDateTime start = createFrom;
+    while (start.isBefore(createUntil)) {
+      OffsetDateTime end = start.plusMonths(1);
+      String name = partitionName(start);
+      log.info("Creating events partition {} for [{}, {})", name, start, end);
+      jdbcTemplate.execute(
+          String.format(
+              "create table %s partition of events for values from ('%s') to ('%s')",
+              name, start, end));
+      start = end;
+      created++;
+    }
+    defaultPartition.ifPresent(partition -> reattachDefault(partition, createFrom, createUntil));
+    return created;
+  }
+
+  private void reattachDefault(
+      EventPartition partition, OffsetDateTime createFrom, OffsetDateTime createUntil) {
+    // generated columns (e.g. id, generated from event_id) can't be inserted into
+    String columns =
+        String.join(", ", jdbcTemplate.queryForList(INSERTABLE_COLUMNS_QUERY, String.class));
+    int moved =
+        jdbcTemplate.update(
+            String.format(
+                """
+                with moved as (
+                  delete from %s where timestamp >= ? and timestamp < ? returning *)
+                insert into events (%s) select %s from moved
+                """,
+                partition.name(), columns, columns),
+            createFrom,
+            createUntil);
+    if (moved > 0) {
+      log.info("Moved {} events from {} into the new partitions", moved, partition.name());
+    }
+    jdbcTemplate.execute(
+        String.format("alter table events attach partition %s default", partition.name()));
+  }
+
+  static String partitionName(OffsetDateTime monthStart) {
+    return PARTITION_PREFIX + PARTITION_SUFFIX.format(monthStart);
+  }
+
+  static Optional<OffsetDateTime> latestUpperBound(List<EventPartition> partitions) {
+    return partitions.stream()
+        .map(EventPartition::upperBound)
+        .filter(Objects::nonNull)
+        .max(Comparator.naturalOrder());
+  }
+
+  private List<EventPartition> fetchPartitions() {
+    return jdbcTemplate.query(
+        PARTITIONS_QUERY,
+        (rs, rowNum) ->
+            new EventPartition(
+                rs.getString("name"),
+                rs.getObject("lower_bound", OffsetDateTime.class),
+                rs.getObject("upper_bound", OffsetDateTime.class)));
+  }
+
+  private boolean isPartitioned() {
+    if (partitioned == null) {
+      boolean postgres =
+          Boolean.TRUE.equals(
+              jdbcTemplate.execute(
+                  (ConnectionCallback<Boolean>)
+                      connection ->
+                          "PostgreSQL"
+                              .equals(connection.getMetaData().getDatabaseProductName())));
+      partitioned =
+          postgres
+              && Boolean.TRUE.equals(
+                  jdbcTemplate.queryForObject(
+                      "select exists(select 1 from pg_partitioned_table"
+                          + " where partrelid = to_regclass('events'))",
+                      Boolean.class));
+    }
+    return partitioned;
+  }
+}
@@ -32,4 +32,7 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "rhsm-subscriptions.event-retention-policy")
 public class EventRecordsRetentionProperties {
   private Duration eventRetentionDuration = Duration.ofDays(90L);
+
+  /** Number of monthly events partitions kept ready after the current month's. */
+  private int eventPartitionsAhead = 3;
 }
@@ -52,6 +52,16 @@ public class MetricProperties {
    */
   private int step = 3600; // 1 hour
 
+  /**
+   * Size (in minutes) of the time windows a metric query's range is split into, each window being
+   * queried separately. Rounded down to a multiple of the step. When 0, the whole range is queried
+   * at once.
+   */
+  private int queryWindowInMinutes = 0;
+
+  /** Maximum number of time windows of a metric query's range that are queried concurrently. */
+  private int queryWindowParallelism = 4;
+
   /** Number of times the metrics gathering should be retried if something fails. */
   private int maxAttempts = 5;
 
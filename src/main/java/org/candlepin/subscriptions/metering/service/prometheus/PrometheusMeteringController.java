@@ -28,14 +28,22 @@ import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
 import io.micrometer.core.annotation.Timed;
 import jakarta.ws.rs.BadRequestException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import org.candlepin.subscriptions.db.model.EventKey;
 import org.candlepin.subscriptions.db.model.config.OptInType;
 import org.candlepin.subscriptions.json.Event;
@@ -72,6 +80,7 @@ public class PrometheusMeteringController {
 
   private final SpanGenerator spanGenerator;
   private final QueryBuilder prometheusQueryBuilder;
+  private final Executor queryWindowExecutor;
 
   @SuppressWarnings("java:S107")
   public PrometheusMeteringController(
@@ -82,7 +91,8 @@ public class PrometheusMeteringController {
       PrometheusEventsProducer eventsProducer,
       @Qualifier("openshiftMetricRetryTemplate") RetryTemplate openshiftRetry,
       OptInController optInController,
-      @Qualifier("meteringBatchIdGenerator") SpanGenerator spanGenerator) {
+      @Qualifier("meteringBatchIdGenerator") SpanGenerator spanGenerator,
+      @Qualifier("prometheusQueryWindowExecutor") Executor queryWindowExecutor) {
     this.clock = clock;
     this.metricProperties = metricProperties;
     this.prometheusService = service;
@@ -91,6 +101,7 @@ public class PrometheusMeteringController {
     this.openshiftRetry = openshiftRetry;
     this.optInController = optInController;
     this.spanGenerator = spanGenerator;
+    this.queryWindowExecutor = queryWindowExecutor;
   }
 
   // Suppressing this sonar issue because we need to log plus throw an exception on retry
@@ -133,27 +144,39 @@ public class PrometheusMeteringController {
     OffsetDateTime startDate = clock.startOfHour(start).plusHours(1);
     log.debug("Ensuring orgId={} has been set up for syncing/reporting.", orgId);
     ensureOptIn(orgId);
+    if (metricProperties.getQueryWindowInMinutes() > 0) {
+      collectMetricsInWindows(
+          tag,
+          metric,
+          orgId,
+          instanceKey,
+          tagMetric.get(),
+          subDefOptional.get(),
+          startDate,
+          end,
+          meteringBatchId);
+      return;
+    }
     openshiftRetry.execute(
         context -> {
           try {
             log.info("Collecting metrics for orgId={}: {} {}", orgId, tag, metric);
-            Set<EventKey> eventsSent = new HashSet<>();
+            var eventSender =
+                new MetricEventSender(
+                    tag,
+                    orgId,
+                    instanceKey,
+                    meteringBatchId,
+                    tagMetric.get(),
+                    subDefOptional.get());
             QuerySummaryResult metricData =
-                prometheusService.runRangeQuery(
+                prometheusService.streamRangeQuery(
                     buildPromQLForMetering(orgId, tagMetric.get()),
                     startDate,
                     end,
                     metricProperties.getStep(),
                     metricProperties.getQueryTimeout(),
-                    item ->
-                        sendEventFromData(
-                            item,
-                            eventsSent,
-                            tag,
-                            orgId,
-                            meteringBatchId,
-                            tagMetric.get(),
-                            subDefOptional.get()));
+                    eventSender);
 
             if (StatusType.ERROR.equals(metricData.getStatus())) {
               throw new MeteringException(
@@ -162,7 +185,8 @@ public class PrometheusMeteringController {
                       tag, instanceKey, metric, metricData.getError()));
             }
 
-            log.info("Sent {} events for {} {} metrics.", eventsSent.size(), tag, metric);
+            log.info(
+                "Sent {} events for {} {} metrics.", eventSender.getEventsSent(), tag, metric);
             // Send event to delete any stale events found during the period
             sendCleanUpEvent(
                 tag,
@@ -186,70 +210,196 @@ public class PrometheusMeteringController {
         });
   }
 
-  private void sendEventFromData(
-      QueryResultDataResultInner item,
-      Set<EventKey> eventsSent,
-      String productTag,
+  /**
+   * Same as the single range query done by {@link #collectMetrics}, except that the range is split
+   * into windows of queryWindowInMinutes, queried concurrently. Each window is retried on its own,
+   * and the results of the windows are sent in order as they complete.
+   */
+  @SuppressWarnings("java:S107")
+  private void collectMetricsInWindows(
+      String tag,
+      MetricId metric,
       String orgId,
-      UUID meteringBatchId,
+      String instanceKey,
       Metric tagMetric,
-      SubscriptionDefinition subscriptionDefinition) {
-    Map<String, String> labels = item.getMetric();
-    String clusterId = labels.get(getPrometheusInstanceKeyFromMetric(productTag, tagMetric));
-    String sla = labels.get("support");
-    String usage = labels.get("usage");
-
-    // These were added as an edge case with RHODS as it doesn't have product as a
-    // label in prometheus
-    String product = labels.get("product");
-    String resourceName = labels.get("resource_name");
-
-    // NOTE: Role comes from the product label despite its name. The values set
-    // here are NOT engineering or swatch product IDs. They map to the roles in
-    // the swatch-product-configuration library. For openshift, the values will
-    // be 'ocp' or 'osd'.
-    String role = product == null ? resourceName : product;
-    String billingProvider = labels.get("billing_marketplace");
-    String billingAccountId = labels.get("billing_marketplace_account");
-    String account = labels.get("ebs_account");
+      SubscriptionDefinition subscriptionDefinition,
+      OffsetDateTime startDate,
+      OffsetDateTime end,
+      UUID meteringBatchId) {
+    log.info("Collecting metrics for orgId={} in time windows: {} {}", orgId, tag, metric);
+    String promQL = buildPromQLForMetering(orgId, tagMetric);
+    String description = String.format("%s %s %s", tag, instanceKey, metric);
+    Iterator<QueryWindow> windows =
+        QueryWindow.split(
+                startDate,
+                end,
+                Duration.ofMinutes(metricProperties.getQueryWindowInMinutes()),
+                Duration.ofSeconds(metricProperties.getStep()))
+            .iterator();
+    int parallelism = Math.max(1, metricProperties.getQueryWindowParallelism());
+    Deque<CompletableFuture<List<QueryResultDataResultInner>>> pending = new ArrayDeque<>();
+    var eventSender =
+        new MetricEventSender(
+            tag, orgId, instanceKey, meteringBatchId, tagMetric, subscriptionDefinition);
+    try {
+      while (windows.hasNext() || !pending.isEmpty()) {
+        // only query a few windows ahead, so that at most that many results are held in memory
+        while (windows.hasNext() && pending.size() < parallelism) {
+          QueryWindow window = windows.next();
+          pending.add(
+              CompletableFuture.supplyAsync(
+                  () -> runWindowQuery(promQL, window, description), queryWindowExecutor));
+        }
+        pending.poll().join().forEach(item -> sendEventFromData(item, eventSender));
+      }
+    } catch (CompletionException e) {
+      pending.forEach(window -> window.cancel(true));
+      throw new MeteringException(
+          String.format("Unable to fetch %s metrics: %s", description, e.getCause().getMessage()),
+          e.getCause());
+    }
+
+    log.info("Sent {} events for {} {} metrics.", eventSender.getEventsSent(), tag, metric);
+    // Send event to delete any stale events found during the period
+    sendCleanUpEvent(
+        tag,
+        orgId,
+        tagMetric,
+        startDate.minusSeconds(metricProperties.getStep()),
+        end,
+        meteringBatchId);
+  }
+
+  // See collectMetrics regarding logging plus throwing on retry.
+  @SuppressWarnings("java:S2139")
+  private List<QueryResultDataResultInner> runWindowQuery(
+      String promQL, QueryWindow window, String description) {
+    return openshiftRetry.execute(
+        context -> {
+          try {
+            List<QueryResultDataResultInner> items = new ArrayList<>();
+            QuerySummaryResult metricData =
+                prometheusService.runRangeQuery(
+                    promQL,
+                    window.start(),
+                    window.end(),
+                    metricProperties.getStep(),
+                    metricProperties.getQueryTimeout(),
+                    items::add);
+            if (StatusType.ERROR.equals(metricData.getStatus())) {
+              throw new MeteringException(
+                  String.format(
+                      "Unable to fetch %s metrics: %s", description, metricData.getError()));
+            }
+            return items;
+          } catch (Exception e) {
+            log.warn(
+                "Exception thrown while fetching {} metrics from {} to {}. [Attempt: {}]: {}",
+                description,
+                window.start(),
+                window.end(),
+                context.getRetryCount() + 1,
+                e.getMessage());
+            throw e;
+          }
+        });
+  }
 
+  private void sendEventFromData(QueryResultDataResultInner item, MetricEventSender eventSender) {
+    eventSender.startSeries(item.getMetric());
     // For the openshift metrics, we expect our results to be a 'matrix'
     // vector [(instant_time,value), ...] so we only look at the result's
     // getValues() data.
     for (List<BigDecimal> measurement : item.getValues()) {
-      BigDecimal time = measurement.get(0);
-      BigDecimal value = measurement.get(1);
+      eventSender.sample(measurement.get(0).doubleValue(), measurement.get(1).doubleValue());
+    }
+  }
 
-      OffsetDateTime eventTermDate = clock.dateFromUnix(time);
-      // Need to subtract the step because we are averaging and the metric value
-      // actually represents the end of the measured period. The start of the
-      // event should be at the beginning.
-      OffsetDateTime eventDate = eventTermDate.minusSeconds(metricProperties.getStep());
+  /**
+   * Sends an event for each sample of the series of a metric query, as they are parsed. Events
+   * already sent (e.g. by a previous series) are skipped.
+   */
+  private class MetricEventSender implements QueryResultSeriesHandler {
+    private final Set<EventKey> eventsSent = new HashSet<>();
+    private final String productTag;
+    private final String orgId;
+    private final String instanceKey;
+    private final UUID meteringBatchId;
+    private final MetricId metricId;
+    private final SubscriptionDefinition subscriptionDefinition;
+    private MeteringEventFactory.MetricEventBuilder seriesEvents;
+
+    MetricEventSender(
+        String productTag,
+        String orgId,
+        String instanceKey,
+        UUID meteringBatchId,
+        Metric tagMetric,
+        SubscriptionDefinition subscriptionDefinition) {
+      this.productTag = productTag;
+      this.orgId = orgId;
+      this.instanceKey = instanceKey;
+      this.meteringBatchId = meteringBatchId;
+      this.metricId = MetricId.fromString(tagMetric.getId());
+      this.subscriptionDefinition = subscriptionDefinition;
+    }
+
+    @Override
+    public void startSeries(Map<String, String> labels) {
+      String clusterId = labels.get(instanceKey);
+      String sla = labels.get("support");
+      String usage = labels.get("usage");
 
-      Event event =
-          createOrUpdateEvent(
+      // These were added as an edge case with RHODS as it doesn't have product as a
+      // label in prometheus
+      String product = labels.get("product");
+      String resourceName = labels.get("resource_name");
+
+      // NOTE: Role comes from the product label despite its name. The values set
+      // here are NOT engineering or swatch product IDs. They map to the roles in
+      // the swatch-product-configuration library. For openshift, the values will
+      // be 'ocp' or 'osd'.
+      String role = product == null ? resourceName : product;
+      String billingProvider = labels.get("billing_marketplace");
+      String billingAccountId = labels.get("billing_marketplace_account");
+      String account = labels.get("ebs_account");
+
+      seriesEvents =
+          MeteringEventFactory.metricEventBuilder(
               account,
               orgId,
-              tagMetric.getId(),
               clusterId,
               sla,
               usage,
               role,
-              eventDate,
-              eventTermDate,
+              metricProperties.getEventSource(),
               subscriptionDefinition.getServiceType(),
               billingProvider,
               billingAccountId,
-              MetricId.fromString(tagMetric.getId()),
-              value,
+              metricId,
               productTag,
               meteringBatchId);
+    }
+
+    @Override
+    public void sample(double timestamp, double value) {
+      OffsetDateTime eventTermDate = clock.dateFromUnix((long) timestamp);
+      // Need to subtract the step because we are averaging and the metric value
+      // actually represents the end of the measured period. The start of the
+      // event should be at the beginning.
+      OffsetDateTime eventDate = eventTermDate.minusSeconds(metricProperties.getStep());
+
+      Event event = seriesEvents.build(eventDate, eventTermDate, value);
       // Send if and only if it has not been sent yet.
       // Related to https://github.com/RedHatInsights/rhsm-subscriptions/pull/374.
       if (eventsSent.add(EventKey.fromEvent(event))) {
         eventsProducer.produce(event);
       }
     }
+
+    int getEventsSent() {
+      return eventsSent.size();
+    }
   }
 
   private void sendCleanUpEvent(
@@ -278,46 +428,6 @@ public class PrometheusMeteringController {
     }
   }
 
-  @SuppressWarnings("java:S107")
-  private Event createOrUpdateEvent(
-      String account,
-      String orgId,
-      String metricId,
-      String instanceId,
-      String sla,
-      String usage,
-      String role,
-      OffsetDateTime measuredDate,
-      OffsetDateTime expired,
-      String serviceType,
-      String billingProvider,
-      String billingAccountId,
-      MetricId metric,
-      BigDecimal value,
-      String productTag,
-      UUID meteringBatchId) {
-    Event event = new Event();
-    MeteringEventFactory.updateMetricEvent(
-        event,
-        account,
-        orgId,
-        instanceId,
-        sla,
-        usage,
-        role,
-        metricProperties.getEventSource(),
-        measuredDate,
-        expired,
-        serviceType,
-        billingProvider,
-        billingAccountId,
-        metric,
-        value.doubleValue(),
-        productTag,
-        meteringBatchId);
-    return event;
-  }
-
   private String buildPromQLForMetering(String orgId, Metric tagMetric) {
     QueryDescriptor descriptor = new QueryDescriptor(tagMetric);
     descriptor.addRuntimeVar("orgId", orgId);
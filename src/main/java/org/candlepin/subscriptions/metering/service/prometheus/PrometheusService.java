@@ -35,6 +35,9 @@ import com.google.common.net.UrlEscapers;
 import java.io.File;
 import java.io.IOException;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import org.candlepin.subscriptions.exception.ErrorCode;
@@ -70,6 +73,34 @@ public class PrometheusService {
       Integer timeout,
       Consumer<QueryResultDataResultInner> resultDataItemConsumer)
       throws ExternalServiceException {
+    return rangeQuery(
+        promQL, start, end, step, timeout, data -> parseQueryResult(data, resultDataItemConsumer));
+  }
+
+  /**
+   * Same as {@link #runRangeQuery}, except that the series of the result are streamed to the
+   * handler sample by sample, without materializing their values.
+   */
+  public QuerySummaryResult streamRangeQuery(
+      String promQL,
+      OffsetDateTime start,
+      OffsetDateTime end,
+      Integer step,
+      Integer timeout,
+      QueryResultSeriesHandler seriesHandler)
+      throws ExternalServiceException {
+    return rangeQuery(
+        promQL, start, end, step, timeout, data -> parseQueryResult(data, seriesHandler));
+  }
+
+  private QuerySummaryResult rangeQuery(
+      String promQL,
+      OffsetDateTime start,
+      OffsetDateTime end,
+      Integer step,
+      Integer timeout,
+      Function<File, QuerySummaryResult> resultParser)
+      throws ExternalServiceException {
     log.info("Fetching metrics from prometheus: {} -> {} [Step: {}]", start, end, step);
     try {
       String query = sanitizeQuery(promQL);
@@ -88,7 +119,7 @@ public class PrometheusService {
                   end.toEpochSecond(),
                   Integer.toString(step),
                   timeout);
-      return parseQueryResult(data, resultDataItemConsumer);
+      return resultParser.apply(data);
     } catch (ApiException apie) {
       throw new ExternalServiceException(
           ErrorCode.REQUEST_PROCESSING_ERROR, formatErrorMessage(apie), apie);
@@ -130,9 +161,17 @@ public class PrometheusService {
    * href="https://prometheus.io/docs/prometheus/latest/querying/api/#format-overview">Prometheus
    * HTTP API format overview</a>
    */
-  private QuerySummaryResult parseQueryResult(
+  QuerySummaryResult parseQueryResult(
       File data, Consumer<QueryResultDataResultInner> itemConsumer) {
+    return parseResponse(data, parser -> parseDataResultArray(parser, itemConsumer));
+  }
 
+  /** Same as {@link #parseQueryResult(File, Consumer)}, streaming the series to the handler. */
+  QuerySummaryResult parseQueryResult(File data, QueryResultSeriesHandler seriesHandler) {
+    return parseResponse(data, parser -> streamDataResultArray(parser, seriesHandler));
+  }
+
+  private QuerySummaryResult parseResponse(File data, ResultArrayParser resultArrayParser) {
     var builder = QuerySummaryResult.builder();
     try (JsonParser parser = factory.createParser(data)) {
       while (isNot(parser.nextToken(), JsonToken.END_OBJECT)) {
@@ -143,7 +182,7 @@ public class PrometheusService {
         } else if (JSON_PROPERTY_ERROR.equals(parser.getCurrentName())) {
           set(parser, builder::error);
         } else if (JSON_PROPERTY_DATA.equals(parser.getCurrentName())) {
-          parseQueryData(parser, builder, itemConsumer);
+          parseQueryData(parser, builder, resultArrayParser);
         }
       }
     } catch (IOException ex) {
@@ -161,13 +200,13 @@ public class PrometheusService {
   private void parseQueryData(
       JsonParser parser,
       QuerySummaryResult.QuerySummaryResultBuilder builder,
-      Consumer<QueryResultDataResultInner> itemConsumer)
+      ResultArrayParser resultArrayParser)
       throws IOException {
     while (isNot(parser.nextToken(), JsonToken.END_OBJECT)) {
       if (JSON_PROPERTY_RESULT_TYPE.equals(parser.getCurrentName())) {
         set(parser, ResultType::fromValue, builder::resultType);
       } else if (JSON_PROPERTY_RESULT.equals(parser.getCurrentName())) {
-        parseDataResultArray(parser, builder, itemConsumer);
+        builder.numOfResults(resultArrayParser.parse(parser));
       }
     }
   }
@@ -177,11 +216,8 @@ public class PrometheusService {
    * href="https://prometheus.io/docs/prometheus/latest/querying/api/#expression-query-result-formats">Prometheus
    * query result formats</a>
    */
-  private void parseDataResultArray(
-      JsonParser parser,
-      QuerySummaryResult.QuerySummaryResultBuilder builder,
-      Consumer<QueryResultDataResultInner> itemConsumer)
-      throws IOException {
+  private int parseDataResultArray(
+      JsonParser parser, Consumer<QueryResultDataResultInner> itemConsumer) throws IOException {
     // consume the [ (START_ARRAY) symbol
     parser.nextToken();
     int numOfResults = 0;
@@ -190,8 +226,124 @@ public class PrometheusService {
       itemConsumer.accept(parser.readValueAs(QueryResultDataResultInner.class));
       numOfResults++;
     }
+    return numOfResults;
+  }
+
+  /**
+   * Stream the data.result array token by token: the labels of each series are read into a map,
+   * and its samples are passed to the handler as primitive doubles as they are read.
+   */
+  private int streamDataResultArray(JsonParser parser, QueryResultSeriesHandler seriesHandler)
+      throws IOException {
+    // consume the [ (START_ARRAY) symbol
+    parser.nextToken();
+    int numOfResults = 0;
+    while (isNot(parser.nextToken(), JsonToken.END_ARRAY)) {
+      streamSeries(parser, seriesHandler);
+      numOfResults++;
+    }
+    return numOfResults;
+  }
+
+  private void streamSeries(JsonParser parser, QueryResultSeriesHandler seriesHandler)
+      throws IOException {
+    // Prometheus writes the labels before the samples; buffer the samples should it not
+    SampleBuffer samplesBeforeLabels = null;
+    boolean started = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      if (QueryResultDataResultInner.JSON_PROPERTY_METRIC.equals(field)) {
+        seriesHandler.startSeries(readLabels(parser));
+        started = true;
+        if (samplesBeforeLabels != null) {
+          samplesBeforeLabels.replay(seriesHandler);
+        }
+      } else if (QueryResultDataResultInner.JSON_PROPERTY_VALUES.equals(field)
+          || QueryResultDataResultInner.JSON_PROPERTY_VALUE.equals(field)) {
+        if (!started && samplesBeforeLabels == null) {
+          samplesBeforeLabels = new SampleBuffer();
+        }
+        QueryResultSeriesHandler target = started ? seriesHandler : samplesBeforeLabels;
+        if (QueryResultDataResultInner.JSON_PROPERTY_VALUE.equals(field)) {
+          // an instant vector has a single [time, value] sample
+          readSample(parser, target);
+        } else {
+          while (parser.nextToken() == JsonToken.START_ARRAY) {
+            readSample(parser, target);
+          }
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (!started) {
+      seriesHandler.startSeries(Map.of());
+      if (samplesBeforeLabels != null) {
+        samplesBeforeLabels.replay(seriesHandler);
+      }
+    }
+  }
+
+  private Map<String, String> readLabels(JsonParser parser) throws IOException {
+    Map<String, String> labels = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      labels.put(name, parser.nextTextValue());
+    }
+    return labels;
+  }
+
+  /** Read a [time, "value"] sample, the parser being positioned on its START_ARRAY. */
+  private void readSample(JsonParser parser, QueryResultSeriesHandler target) throws IOException {
+    parser.nextToken();
+    double timestamp = parser.getDoubleValue();
+    parser.nextToken();
+    double value = parseSampleValue(parser.getText());
+    // consume the ] (END_ARRAY) symbol
+    parser.nextToken();
+    target.sample(timestamp, value);
+  }
+
+  private static double parseSampleValue(String value) {
+    // Prometheus formats infinite values as Go does
+    return switch (value) {
+      case "+Inf" -> Double.POSITIVE_INFINITY;
+      case "-Inf" -> Double.NEGATIVE_INFINITY;
+      default -> Double.parseDouble(value);
+    };
+  }
+
+  /** Parses the data.result array, returning the number of results. */
+  @FunctionalInterface
+  private interface ResultArrayParser {
+    int parse(JsonParser parser) throws IOException;
+  }
+
+  /** Samples of a series read before its labels. */
+  private static class SampleBuffer implements QueryResultSeriesHandler {
+    private double[] samples = new double[16];
+    private int size;
+
+    @Override
+    public void startSeries(Map<String, String> labels) {
+      // samples are only buffered until the labels are known
+    }
+
+    @Override
+    public void sample(double timestamp, double value) {
+      if (size + 2 > samples.length) {
+        samples = Arrays.copyOf(samples, samples.length * 2);
+      }
+      samples[size++] = timestamp;
+      samples[size++] = value;
+    }
 
-    builder.numOfResults(numOfResults);
+    void replay(QueryResultSeriesHandler seriesHandler) {
+      for (int i = 0; i < size; i += 2) {
+        seriesHandler.sample(samples[i], samples[i + 1]);
+      }
+    }
   }
 
   private void set(JsonParser parser, Consumer<String> consumer) throws IOException {
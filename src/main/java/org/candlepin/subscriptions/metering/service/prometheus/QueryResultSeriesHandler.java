@@ -0,0 +1,45 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.metering.service.prometheus;
+
+import java.util.Map;
+
+/**
+ * Receives the series of a Prometheus query result as the response is parsed, one sample at a
+ * time, so that the values of a series never have to be held in memory.
+ */
+public interface QueryResultSeriesHandler {
+
+  /**
+   * Called at the start of each series, before any of its samples.
+   *
+   * @param labels the labels of the series
+   */
+  void startSeries(Map<String, String> labels);
+
+  /**
+   * Called for each sample of the current series, in the order of the response.
+   *
+   * @param timestamp unix time of the sample, in seconds
+   * @param value value of the sample
+   */
+  void sample(double timestamp, double value);
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.metering.service.prometheus;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A time window of a Prometheus range query, queried on its own.
+ *
+ * <p>A range query returns a data point at its start, and then one for each step up to and
+ * including its end, so both bounds are inclusive and consecutive windows start one step apart
+ * from each other's end.
+ *
+ * @param start inclusive start of the window
+ * @param end inclusive end of the window
+ */
+record QueryWindow(OffsetDateTime start, OffsetDateTime end) {
+
+  /**
+   * Split the range of a range query into windows returning the same data points as the whole
+   * range would.
+   *
+   * @param start inclusive start of the range
+   * @param end inclusive end of the range
+   * @param size size of each window, rounded down to a multiple of the step (at least one step)
+   * @param step step of the range query
+   * @return the windows, in chronological order
+   */
+  static List<QueryWindow> split(
+      OffsetDateTime start, OffsetDateTime end, Duration size, Duration step) {
+    long stepSeconds = step.toSeconds();
+    long stepsPerWindow = Math.max(1, size.toSeconds() / stepSeconds);
+    List<QueryWindow> windows = new ArrayList<>();
+    OffsetDateTime windowStart = start;
+    while (!windowStart.isAfter(end)) {
+      OffsetDateTime windowEnd = windowStart.plusSeconds((stepsPerWindow - 1) * stepSeconds);
+      windows.add(new QueryWindow(windowStart, windowEnd.isAfter(end) ? end : windowEnd));
+      windowStart = windowStart.plusSeconds(stepsPerWindow * stepSeconds);
+    }
+    return windows;
+  }
+}
@@ -20,23 +20,40 @@
  */
 package org.candlepin.subscriptions.metering.service.prometheus.promql;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import org.candlepin.subscriptions.metering.service.prometheus.MetricProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 
-/** Builds PromQL queries based on a configured template. */
+/**
+ * Builds PromQL queries based on a configured template.
+ *
+ * <p>Configured templates are parsed once and cached, so that building a query only evaluates the
+ * template against the query descriptor. The SpEL compiler is enabled in mixed mode, so the
+ * template expressions are compiled to bytecode once they have been evaluated a few times.
+ */
 @Component
 public class QueryBuilder {
 
   private static final Logger log = LoggerFactory.getLogger(QueryBuilder.class);
 
+  private static final TemplateParserContext TEMPLATE_PARSER_CONTEXT = new TemplateParserContext();
+
   private final MetricProperties metricProperties;
+  private final ExpressionParser parser =
+      new SpelExpressionParser(
+          new SpelParserConfiguration(SpelCompilerMode.MIXED, QueryBuilder.class.getClassLoader()));
+  private final Map<String, Expression> templateExpressions = new ConcurrentHashMap<>();
 
   public QueryBuilder(MetricProperties metricProperties) {
     this.metricProperties = metricProperties;
@@ -66,14 +83,21 @@ public class QueryBuilder {
   }
 
   private String buildQuery(String template, QueryDescriptor descriptor) {
-    ExpressionParser parser = new SpelExpressionParser();
     StandardEvaluationContext context = new StandardEvaluationContext(descriptor);
 
     // Only allow nested expressions based on a config setting. We need to do this
-    // to prevent potential infinite recursion.
+    // to prevent potential infinite recursion. Once no expression is left, further
+    // passes would return the query unchanged, so they are skipped.
     String query = template;
-    for (int i = 0; i < metricProperties.getTemplateParameterDepth(); i++) {
-      query = (String) parser.parseExpression(query, new TemplateParserContext()).getValue(context);
+    for (int i = 0;
+        i < metricProperties.getTemplateParameterDepth()
+            && query.contains(TEMPLATE_PARSER_CONTEXT.getExpressionPrefix());
+        i++) {
+      // Only the configured templates are cached. Nested expressions come from the
+      // evaluated values, which may include runtime variables.
+      Expression expression =
+          i == 0 ? templateExpressions.computeIfAbsent(template, this::parse) : parse(query);
+      query = (String) expression.getValue(context);
       if (query == null) {
         throw new IllegalStateException(
             String.format("Unable to parse query template! %s", template));
@@ -82,4 +106,8 @@ public class QueryBuilder {
     log.debug("PromQL: {}", query);
     return query;
   }
+
+  private Expression parse(String template) {
+    return parser.parseExpression(template, TEMPLATE_PARSER_CONTEXT);
+  }
 }
@@ -23,14 +23,21 @@ package org.candlepin.subscriptions.product;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.google.common.collect.Iterables;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.capacity.CapacityReconciliationController;
 import org.candlepin.subscriptions.capacity.files.ProductDenylist;
 import org.candlepin.subscriptions.db.OfferingRepository;
@@ -45,7 +52,9 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /** Update {@link Offering}s from product service responses. */
 @Component
@@ -55,6 +64,10 @@ public class OfferingSyncController {
 
   private static final String SYNC_LOG_TEMPLATE =
       "{} for offeringSku=\"{}\" in offeringSyncTimeMillis={}.";
+  private static final String BATCH_SYNC_LOG_TEMPLATE = "{} for offeringSku=\"{}\".";
+
+  /** Number of SKUs synced by each task enqueued when syncing all offerings. */
+  static final int OFFERING_SYNC_BATCH_SIZE = 10;
 
   private final OfferingRepository offeringRepository;
   private final ProductDenylist productDenylist;
@@ -66,6 +79,8 @@ public class OfferingSyncController {
   private final ObjectMapper objectMapper;
   private final String offeringSyncTopic;
   private final XmlMapper umbMessageMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationProperties applicationProperties;
 
   @Autowired
   public OfferingSyncController(
@@ -76,7 +91,9 @@ public class OfferingSyncController {
       MeterRegistry meterRegistry,
       KafkaTemplate<String, OfferingSyncTask> offeringSyncKafkaTemplate,
       ObjectMapper objectMapper,
-      @Qualifier("offeringSyncTasks") TaskQueueProperties taskQueueProperties) {
+      @Qualifier("offeringSyncTasks") TaskQueueProperties taskQueueProperties,
+      PlatformTransactionManager transactionManager,
+      ApplicationProperties applicationProperties) {
     this.offeringRepository = offeringRepository;
     this.productDenylist = productDenylist;
     this.productService = productService;
@@ -87,6 +104,8 @@ public class OfferingSyncController {
     this.objectMapper = objectMapper;
     this.offeringSyncTopic = taskQueueProperties.getTopic();
     this.umbMessageMapper = CanonicalMessage.createMapper();
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.applicationProperties = applicationProperties;
   }
 
   /**
@@ -119,6 +138,70 @@ public class OfferingSyncController {
     }
   }
 
+  /**
+   * Fetches the latest upstream versions of several offerings and updates Swatch's versions if
+   * different. Product data shared by the offerings, like common child or derived SKUs, is only
+   * fetched once, and the engineering products of all the offerings are fetched together.
+   *
+   * <p>Each offering is updated in its own transaction, so that a SKU failing to sync, whether its
+   * product data can't be retrieved or it can't be saved, doesn't prevent the others from syncing.
+   *
+   * @param skus the identifiers of the marketing operational products
+   * @return the result of the sync of each SKU
+   */
+  public Map<String, SyncResult> syncOfferings(Collection<String> skus) {
+    Timer.Sample syncTime = Timer.start();
+    Map<String, SyncResult> results = new LinkedHashMap<>();
+    List<String> allowedSkus = new ArrayList<>();
+    for (String sku : skus) {
+      if (productDenylist.productIdMatches(sku)) {
+        results.put(sku, SyncResult.SKIPPED_DENYLISTED);
+      } else {
+        allowedSkus.add(sku);
+      }
+    }
+
+    var upstreamOfferings =
+        UpstreamProductData.offeringsFromUpstream(allowedSkus, productService.cached());
+    upstreamOfferings.forEach(
+        (sku, upstreamOffering) -> {
+          if (upstreamOffering.failure() != null) {
+            LOGGER.warn(
+                "Unable to retrieve upstream offeringSku=\"{}\"", sku, upstreamOffering.failure());
+            results.put(sku, SyncResult.FAILED);
+            return;
+          }
+          try {
+            results.put(
+                sku,
+                transactionTemplate.execute(
+                    status ->
+                        upstreamOffering
+                            .offering()
+                            .map(this::syncOffering)
+                            .orElse(SyncResult.SKIPPED_NOT_FOUND)));
+          } catch (RuntimeException ex) {
+            LOGGER.warn("Unable to save offeringSku=\"{}\"", sku, ex);
+            results.put(sku, SyncResult.FAILED);
+          }
+        });
+
+    results.forEach(
+        (sku, result) -> {
+          if (result == SyncResult.FAILED) {
+            LOGGER.warn(BATCH_SYNC_LOG_TEMPLATE, result, sku);
+          } else {
+            LOGGER.info(BATCH_SYNC_LOG_TEMPLATE, result, sku);
+          }
+        });
+    Duration syncDuration = Duration.ofNanos(syncTime.stop(syncTimer));
+    LOGGER.info(
+        "Synced numOfferings={} together in offeringSyncTimeMillis={}.",
+        results.size(),
+        syncDuration.toMillis());
+    return results;
+  }
+
   /**
    * @param sku the identifier of the marketing operational product
    * @return An Offering with information filled by an upstream service, or empty if the product was
@@ -179,7 +262,13 @@ public class OfferingSyncController {
     Timer.Sample enqueueTime = Timer.start();
 
     Set<String> products = offeringRepository.findAllDistinctSkus();
-    products.forEach(this::enqueueOfferingSyncTask);
+    if (applicationProperties.isOfferingSyncBatchEnabled()) {
+      // SKUs are synced in batches, so that product data they share is fetched once per batch
+      Iterables.partition(products, OFFERING_SYNC_BATCH_SIZE)
+          .forEach(batch -> enqueueOfferingSyncTask(List.copyOf(batch)));
+    } else {
+      products.forEach(this::enqueueOfferingSyncTask);
+    }
 
     Duration enqueueDuration = Duration.ofNanos(enqueueTime.stop(enqueueAllTimer));
     int numProducts = products.size();
@@ -207,6 +296,11 @@ public class OfferingSyncController {
     offeringSyncKafkaTemplate.send(offeringSyncTopic, new OfferingSyncTask(sku));
   }
 
+  private void enqueueOfferingSyncTask(List<String> skus) {
+    offeringSyncKafkaTemplate.send(
+        offeringSyncTopic, new OfferingSyncTask(skus.get(0), skus.subList(1, skus.size())));
+  }
+
   @Transactional
   public Stream<String> saveOfferings(
       String offeringsJson, String derivedSkuDataJsonArray, String engProdJsonArray) {
@@ -245,6 +339,8 @@ public class OfferingSyncController {
   }
 
   public SyncResult syncUmbProduct(UmbOperationalProduct umbOperationalProduct) {
+    // the product changed upstream, so any product data cached for it is out of date
+    productService.invalidate(Set.of(umbOperationalProduct.getSku()));
     if (umbOperationalProduct.getSku().startsWith("SVC")) {
       syncChildSku(umbOperationalProduct.getSku());
       return SyncResult.FETCHED_AND_SYNCED;
@@ -293,6 +389,8 @@ public class OfferingSyncController {
   private void syncChildSku(String sku) {
     Set<String> parentSkus =
         offeringRepository.findSkusForChildSku(sku).collect(Collectors.toSet());
+    // cached trees of the parent SKUs include the child SKU
+    productService.invalidate(parentSkus);
     parentSkus.forEach(this::enqueueOfferingSyncTask);
     // NOTE: below, don't simply call parentSkus.forEach(this::syncDerivedSku), as this will cause
     // more DB queries than needed, as implemented below, there is one query, no matter the number
@@ -20,6 +20,7 @@
  */
 package org.candlepin.subscriptions.product;
 
+import java.util.List;
 import lombok.NonNull;
 import lombok.Value;
 
@@ -27,9 +28,18 @@ import lombok.Value;
 public class OfferingSyncTask {
   @NonNull private final String sku;
 
-  // Use ConstructorProperties for Jackson deserialization
-  @java.beans.ConstructorProperties("sku")
+  /** Other SKUs to sync along with {@link #sku}, sharing the product data fetched for them. */
+  @NonNull private final List<String> additionalSkus;
+
   public OfferingSyncTask(String sku) {
+    this(sku, null);
+  }
+
+  // Use ConstructorProperties for Jackson deserialization
+  @java.beans.ConstructorProperties({"sku", "additionalSkus"})
+  public OfferingSyncTask(String sku, List<String> additionalSkus) {
     this.sku = sku;
+    // tasks enqueued before batching was introduced have no additional SKUs
+    this.additionalSkus = additionalSkus == null ? List.of() : List.copyOf(additionalSkus);
   }
 }
@@ -22,6 +22,8 @@ package org.candlepin.subscriptions.product;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.task.TaskQueueProperties;
 import org.candlepin.subscriptions.umb.CanonicalMessage;
@@ -64,6 +66,15 @@ public class OfferingWorker extends SeekableKafkaConsumer {
       containerFactory = "offeringSyncListenerContainerFactory")
   public void receive(OfferingSyncTask task) {
     String sku = task.getSku();
+    if (!task.getAdditionalSkus().isEmpty()) {
+      List<String> skus = new ArrayList<>();
+      skus.add(sku);
+      skus.addAll(task.getAdditionalSkus());
+      log.info("Sync for offeringSkus={} triggered by OfferingSyncTask", skus);
+
+      controller.syncOfferings(skus);
+      return;
+    }
     log.info("Sync for offeringSku={} triggered by OfferingSyncTask", sku);
 
     controller.syncOffering(sku);
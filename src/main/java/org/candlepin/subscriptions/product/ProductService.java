@@ -20,8 +20,13 @@
  */
 package org.candlepin.subscriptions.product;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import java.util.*;
 import java.util.stream.Collectors;
+import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.product.api.model.EngineeringProduct;
 import org.candlepin.subscriptions.product.api.model.RESTProductTree;
 import org.candlepin.subscriptions.product.api.model.SkuEngProduct;
@@ -30,16 +35,67 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-/** Retrieves product information. */
+/**
+ * Retrieves product information.
+ *
+ * <p>Batch offering syncs read product data through {@link #cached()}, which caches product trees
+ * and engineering products for a short while, because the SKUs synced by an offering sync run
+ * share many child and derived SKUs. Changes made upstream are therefore only seen by batch syncs
+ * once the cached data expires, unless the affected SKUs are {@link #invalidate(Collection)
+ * invalidated}. The methods of this class itself always call the product service.
+ */
 @Component
 public class ProductService implements ProductDataSource {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ProductService.class);
 
   private final ProductApi productApi;
+  private final Cache<String, Optional<RESTProductTree>> productTrees;
+  private final Cache<String, List<EngineeringProduct>> engineeringProducts;
+  private final ProductDataSource cachedProductData = new CachedProductData();
 
-  public ProductService(ProductApi productApi) {
+  public ProductService(
+      ProductApi productApi, ApplicationProperties properties, MeterRegistry meterRegistry) {
     this.productApi = productApi;
+    this.productTrees = buildCache(properties);
+    this.engineeringProducts = buildCache(properties);
+    GuavaCacheMetrics.monitor(meterRegistry, productTrees, "swatch_product_tree_cache");
+    GuavaCacheMetrics.monitor(
+        meterRegistry, engineeringProducts, "swatch_product_eng_products_cache");
+  }
+
+  private static <V> Cache<String, V> buildCache(ApplicationProperties properties) {
+    return CacheBuilder.newBuilder()
+        .expireAfterWrite(properties.getProductDataCacheTtl())
+        .maximumSize(properties.getProductDataCacheSize())
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Get a view of the product data that caches product trees and engineering products, for syncing
+   * many offerings.
+   *
+   * @return the cached product data
+   */
+  public ProductDataSource cached() {
+    return cachedProductData;
+  }
+
+  /**
+   * Discard the cached product data of the given SKUs, so that it is fetched again from upstream.
+   *
+   * @param skus the SKUs that changed upstream
+   */
+  public void invalidate(Collection<String> skus) {
+    productTrees.invalidateAll(skus);
+    engineeringProducts.invalidateAll(skus);
+  }
+
+  /** Discard all cached product data. */
+  public void invalidateAll() {
+    productTrees.invalidateAll();
+    engineeringProducts.invalidateAll();
   }
 
   /**
@@ -84,4 +140,35 @@ public class ProductService implements ProductDataSource {
                     Collections.unmodifiableList(
                         new ArrayList<>(skuEng.getEngProducts().getEngProducts()))));
   }
+
+  /** Product data that is only requested from the product service when not already cached. */
+  private class CachedProductData implements ProductDataSource {
+
+    @Override
+    public Optional<RESTProductTree> getTree(String sku) throws ApiException {
+      Optional<RESTProductTree> cachedTree = productTrees.getIfPresent(sku);
+      if (cachedTree != null) {
+        return cachedTree;
+      }
+      Optional<RESTProductTree> skuTree = ProductService.this.getTree(sku);
+      productTrees.put(sku, skuTree);
+      return skuTree;
+    }
+
+    @Override
+    public Map<String, List<EngineeringProduct>> getEngineeringProductsForSkus(
+        Collection<String> skus) throws ApiException {
+      Map<String, List<EngineeringProduct>> engProds =
+          new HashMap<>(engineeringProducts.getAllPresent(skus));
+      List<String> missingSkus =
+          skus.stream().filter(sku -> !engProds.containsKey(sku)).distinct().toList();
+      if (!missingSkus.isEmpty()) {
+        Map<String, List<EngineeringProduct>> fetched =
+            ProductService.this.getEngineeringProductsForSkus(missingSkus);
+        engineeringProducts.putAll(fetched);
+        engProds.putAll(fetched);
+      }
+      return Collections.unmodifiableMap(engProds);
+    }
+  }
 }
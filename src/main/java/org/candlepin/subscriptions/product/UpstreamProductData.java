@@ -109,13 +109,107 @@ class UpstreamProductData {
           .map(mid -> mid.fetchAndAddEngProdsIfExist(productDataSource))
           .map(UpstreamProductData::toOffering);
     } catch (ApiException e) {
-      throw new ExternalServiceException(
-          ErrorCode.REQUEST_PROCESSING_ERROR,
-          String.format(
-              "Unable to retrieve upstream offeringSku=\"%s\". API returned status: %s, message: %s, and responseBody: %s",
-              sku, e.getCode(), e.getMessage(), e.getResponseBody()),
+      throw upstreamOfferingException(sku, e);
+    }
+  }
+
+  private static ExternalServiceException upstreamOfferingException(String sku, ApiException e) {
+    return new ExternalServiceException(
+        ErrorCode.REQUEST_PROCESSING_ERROR,
+        String.format(
+            "Unable to retrieve upstream offeringSku=\"%s\". API returned status: %s, message: %s, and responseBody: %s",
+            sku, e.getCode(), e.getMessage(), e.getResponseBody()),
+        e);
+  }
+
+  /**
+   * The Offering created for a SKU from upstream product data, or the failure to retrieve the
+   * product data of the SKU.
+   *
+   * @param offering the Offering, or empty if the product was not found or on failure
+   * @param failure the failure to retrieve the product data, or null on success
+   */
+  record UpstreamOffering(Optional<Offering> offering, ExternalServiceException failure) {}
+
+  /**
+   * Create {@link Offering}s for several SKUs based on product service data from upstream.
+   *
+   * <p>Same as {@link #offeringFromUpstream(String, ProductDataSource)} for each SKU, except that
+   * the engineering products of every SKU involved in any of the offerings are fetched with a
+   * single request. A SKU whose product data can't be retrieved doesn't prevent the Offerings of
+   * the other SKUs from being created. If the single request fails, the engineering products are
+   * requested for each SKU instead.
+   *
+   * @param skus the identifiers of the marketing operational products
+   * @param productDataSource the upstream product service
+   * @return the Offering of each SKU, or the failure to retrieve its product data
+   */
+  public static Map<String, UpstreamOffering> offeringsFromUpstream(
+      Collection<String> skus, ProductDataSource productDataSource) {
+    LOGGER.debug("Retrieving product trees for offeringSkus=\"{}\"", skus);
+
+    Map<String, UpstreamProductData> productData = new LinkedHashMap<>();
+    Map<String, ExternalServiceException> failures = new HashMap<>();
+    for (String sku : skus) {
+      try {
+        productDataSource
+            .getTree(sku)
+            .map(UpstreamProductData::createFromTree)
+            .map(mid -> mid.fetchAndAddDerivedTreeIfExists(productDataSource))
+            .ifPresent(mid -> productData.put(sku, mid));
+      } catch (ApiException e) {
+        failures.put(sku, upstreamOfferingException(sku, e));
+      } catch (ExternalServiceException e) {
+        failures.put(sku, e);
+      }
+    }
+
+    Set<String> allSkus =
+        productData.values().stream()
+            .flatMap(data -> data.allSkus().stream())
+            .collect(Collectors.toSet());
+    try {
+      Map<String, List<EngineeringProduct>> engProds =
+          allSkus.isEmpty()
+              ? Collections.emptyMap()
+              : productDataSource.getEngineeringProductsForSkus(allSkus);
+      productData
+          .values()
+          .forEach(
+              mid -> {
+                Set<String> offeringSkus = mid.allSkus();
+                mid.addEngProds(
+                    engProds.entrySet().stream()
+                        .filter(entry -> offeringSkus.contains(entry.getKey()))
+                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+              });
+    } catch (ApiException e) {
+      LOGGER.warn(
+          "Unable to retrieve engOids of skus=\"{}\" together, retrying for each offeringSku",
+          allSkus,
           e);
+      productData.forEach(
+          (sku, mid) -> {
+            try {
+              mid.fetchAndAddEngProdsIfExist(productDataSource);
+            } catch (ExternalServiceException ex) {
+              failures.put(sku, ex);
+            }
+          });
+    }
+
+    Map<String, UpstreamOffering> offerings = new LinkedHashMap<>();
+    for (String sku : skus) {
+      ExternalServiceException failure = failures.get(sku);
+      offerings.put(
+          sku,
+          failure != null
+              ? new UpstreamOffering(Optional.empty(), failure)
+              : new UpstreamOffering(
+                  Optional.ofNullable(productData.get(sku)).map(UpstreamProductData::toOffering),
+                  null));
     }
+    return offerings;
   }
 
   public static String findSku(RESTProductTree skuTree) {
@@ -24,7 +24,9 @@ import io.micrometer.core.annotation.Timed;
 import java.time.OffsetDateTime;
 import java.util.stream.Stream;
 import org.candlepin.subscriptions.db.AccountConfigRepository;
+import org.candlepin.subscriptions.db.BillableUsageRunningTotalRepository;
 import org.candlepin.subscriptions.db.TallySnapshotRepository;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotalKey;
 import org.candlepin.subscriptions.db.model.Granularity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,15 +43,18 @@ public class TallyRetentionController {
   private final TallySnapshotRepository tallySnapshotRepository;
   private final AccountConfigRepository accountConfigRepository;
   private final TallyRetentionPolicy policy;
+  private final BillableUsageRunningTotalRepository runningTotalRepository;
 
   @Autowired
   public TallyRetentionController(
       TallySnapshotRepository tallySnapshotRepository,
       AccountConfigRepository accountConfigRepository,
-      TallyRetentionPolicy policy) {
+      TallyRetentionPolicy policy,
+      BillableUsageRunningTotalRepository runningTotalRepository) {
     this.tallySnapshotRepository = tallySnapshotRepository;
     this.accountConfigRepository = accountConfigRepository;
     this.policy = policy;
+    this.runningTotalRepository = runningTotalRepository;
   }
 
   @Timed("rhsm-subscriptions.snapshots.purge")
@@ -75,6 +80,11 @@ public class TallyRetentionController {
       }
       tallySnapshotRepository.deleteAllByOrgIdAndGranularityAndSnapshotDateBefore(
           orgId, granularity, cutoffDate);
+      if (granularity == Granularity.HOURLY) {
+        // running totals are kept as long as some of the hourly snapshots they sum
+        runningTotalRepository.deleteAllByKeyOrgIdAndKeyMonthLessThan(
+            orgId, BillableUsageRunningTotalKey.getMonth(cutoffDate));
+      }
     }
   }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.subscription;
+
+import java.time.OffsetDateTime;
+import org.candlepin.subscriptions.tally.UsageCalculation.Key;
+
+/**
+ * Criteria of a PAYG subscription lookup for an org's usage, see {@link
+ * SubscriptionSyncController#findSubscriptions(java.util.Collection)}.
+ *
+ * @param orgId the org of the usage
+ * @param usageKey the product, SLA and billing provider/account of the usage
+ * @param rangeStart the subscriptions must be active at or after this date
+ * @param rangeEnd the subscriptions must be active at or before this date
+ */
+public record PaygSubscriptionLookup(
+    String orgId, Key usageKey, OffsetDateTime rangeStart, OffsetDateTime rangeEnd) {}
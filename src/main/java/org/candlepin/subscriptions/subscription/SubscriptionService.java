@@ -22,17 +22,28 @@ package org.candlepin.subscriptions.subscription;
 
 import io.micrometer.core.annotation.Timed;
 import jakarta.ws.rs.core.Response;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.exception.ErrorCode;
 import org.candlepin.subscriptions.exception.ExternalServiceException;
 import org.candlepin.subscriptions.exception.UnretryableException;
 import org.candlepin.subscriptions.subscription.api.model.Subscription;
 import org.candlepin.subscriptions.subscription.api.resources.SearchApi;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 
@@ -48,14 +59,17 @@ public class SubscriptionService {
   private final SearchApi searchApi;
   private final RetryTemplate subscriptionServiceRetryTemplate;
   private final SubscriptionServiceProperties properties;
+  private final Executor pageExecutor;
 
   public SubscriptionService(
       SearchApi searchApi,
       RetryTemplate subscriptionServiceRetryTemplate,
-      SubscriptionServiceProperties properties) {
+      SubscriptionServiceProperties properties,
+      @Qualifier("subscriptionPageExecutor") Executor pageExecutor) {
     this.searchApi = searchApi;
     this.subscriptionServiceRetryTemplate = subscriptionServiceRetryTemplate;
     this.properties = properties;
+    this.pageExecutor = pageExecutor;
   }
 
   /**
@@ -114,21 +128,30 @@ public class SubscriptionService {
   }
 
   public List<Subscription> getSubscriptionsByOrgId(String orgId) {
-    var index = 0;
-    var pageSize = properties.getPageSize();
-    int latestResultCount;
-
-    Set<Subscription> total = new HashSet<>();
-    do {
-      List<Subscription> subscriptionsByOrgId;
-
-      subscriptionsByOrgId = getSubscriptionsByOrgId(orgId, index, pageSize);
-      latestResultCount = subscriptionsByOrgId.size();
-      total.addAll(subscriptionsByOrgId);
-      index = index + pageSize;
-    } while (latestResultCount == pageSize);
+    try (Stream<Subscription> subscriptions = streamSubscriptionsByOrgId(orgId)) {
+      return new ArrayList<>(subscriptions.collect(Collectors.toSet()));
+    }
+  }
 
-    return new ArrayList<>(total);
+  /**
+   * Stream the Subscription Service Subscription Models for an orgId, page by page.
+   *
+   * <p>Once the first page came back full, up to {@link
+   * SubscriptionServiceProperties#getPageParallelism()} pages are requested ahead of the consumer,
+   * and subscriptions are emitted in page order as soon as their page is available. Unlike {@link
+   * #getSubscriptionsByOrgId(String)}, duplicates returned by overlapping pages are not removed. The stream should be closed if it isn't fully consumed, so that pages
+   * requested in advance are cancelled.
+   *
+   * @param orgId the orgId of the customer.
+   * @return a stream of Subscription models.
+   */
+  public Stream<Subscription> streamSubscriptionsByOrgId(String orgId) {
+    var pages = new PageIterator(orgId);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(pages::cancel)
+        .flatMap(List::stream);
   }
 
   /**
@@ -165,6 +188,68 @@ public class SubscriptionService {
     return fluxRetryWrapper(supplier);
   }
 
+  /**
+   * Requests the pages of an org's subscriptions, keeping a bounded number of page requests in
+   * flight. The first page is requested alone, since most orgs fit in it; further pages are only
+   * requested ahead once a full page came back. Paging stops at the first page that isn't full.
+   */
+  private class PageIterator implements Iterator<List<Subscription>> {
+    private final String orgId;
+    private final int pageSize = properties.getPageSize();
+    private final int window = Math.max(1, properties.getPageParallelism());
+    private final Deque<CompletableFuture<List<Subscription>>> pending = new ArrayDeque<>();
+    private int nextIndex;
+    private boolean fullPageSeen;
+    private boolean lastPageSeen;
+
+    PageIterator(String orgId) {
+      this.orgId = orgId;
+    }
+
+    @Override
+    public boolean hasNext() {
+      int inFlight = fullPageSeen ? window : 1;
+      while (!lastPageSeen && pending.size() < inFlight) {
+        var index = nextIndex;
+        pending.add(
+            CompletableFuture.supplyAsync(
+                () -> getSubscriptionsByOrgId(orgId, index, pageSize), pageExecutor));
+        nextIndex = nextIndex + pageSize;
+      }
+      return !pending.isEmpty();
+    }
+
+    @Override
+    public List<Subscription> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      List<Subscription> page;
+      try {
+        page = pending.remove().join();
+      } catch (CompletionException e) {
+        cancel();
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        throw e;
+      }
+      if (page.size() < pageSize) {
+        // any page requested past this one is past the end of the org's subscriptions
+        cancel();
+      } else {
+        fullPageSeen = true;
+      }
+      return page;
+    }
+
+    void cancel() {
+      lastPageSeen = true;
+      pending.forEach(page -> page.cancel(false));
+      pending.clear();
+    }
+  }
+
   private Subscription monoRetryWrapper(Supplier<Subscription> getSubscriptionFunction) {
     return subscriptionServiceRetryTemplate.execute(context -> getSubscriptionFunction.get());
   }
@@ -20,6 +20,7 @@
  */
 package org.candlepin.subscriptions.subscription;
 
+import java.util.concurrent.Executor;
 import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.capacity.CapacityReconciliationConfiguration;
 import org.candlepin.subscriptions.db.RhsmSubscriptionsDataSourceConfiguration;
@@ -38,6 +39,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.jms.annotation.EnableJms;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.retry.support.RetryTemplateBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /** Configuration class for subscription package. */
 @Configuration
@@ -80,6 +82,17 @@ public class SubscriptionServiceConfiguration {
     return new SearchApiFactory(subscriptionServiceProperties);
   }
 
+  @Bean(name = "subscriptionPageExecutor")
+  public Executor subscriptionPageExecutor(
+      SubscriptionServiceProperties subscriptionServiceProperties) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("subscription-page-");
+    executor.setCorePoolSize(subscriptionServiceProperties.getPageParallelism());
+    executor.setMaxPoolSize(subscriptionServiceProperties.getPageParallelism());
+    executor.initialize();
+    return executor;
+  }
+
   @Bean
   public RetryTemplate subscriptionServiceRetryTemplate(
       ApplicationProperties applicationProperties) {
@@ -53,6 +53,9 @@ public class SubscriptionServiceProperties extends HttpClientProperties {
   /** Page size for subscription queries */
   private int pageSize = 1000;
 
+  /** Number of pages of an org's subscriptions requested concurrently while streaming them */
+  private int pageParallelism = 4;
+
   /** Do not sync any subs that have expired longer than this much in the past from now. */
   private Period ignoreExpiredOlderThan = Period.ofMonths(2);
 
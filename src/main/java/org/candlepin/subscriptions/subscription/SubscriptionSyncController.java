@@ -39,15 +39,17 @@ import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.capacity.CapacityReconciliationController;
 import org.candlepin.subscriptions.capacity.files.ProductDenylist;
@@ -330,88 +332,63 @@ public class SubscriptionSyncController {
   public void reconcileSubscriptionsWithSubscriptionService(String orgId, boolean paygOnly) {
     log.info("Syncing subscriptions for orgId={}", orgId);
 
-    var dtos = subscriptionService.getSubscriptionsByOrgId(orgId).stream();
+    var batchSize = 1024;
+    Set<SubscriptionCompoundId> seenKeys = new HashSet<>();
+    Set<String> seenIds = new HashSet<>();
+
+    // Reconcile each batch of subscriptions as soon as the subscription service returns it,
+    // rather than collecting all the org's subscriptions first.
+    try (var dtos = subscriptionService.streamSubscriptionsByOrgId(orgId)) {
+      // Filter out non PAYG subscriptions for faster processing when they are not needed.
+      // Slow processing was causing: https://issues.redhat.com/browse/ENT-5083
+      var subsToSync =
+          dtos.filter(
+              dto -> !paygOnly || SubscriptionDtoUtil.extractBillingProviderId(dto) != null);
 
-    // Filter out non PAYG subscriptions for faster processing when they are not needed.
-    // Slow processing was causing: https://issues.redhat.com/browse/ENT-5083
+      CustomBatchIterator.batchStreamOf(subsToSync.filter(this::shouldSyncSub), batchSize)
+          .forEach(
+              batch -> {
+                Map<SubscriptionCompoundId, Subscription> subCompoundIdToDtoMap =
+                    new LinkedHashMap<>();
+                for (Subscription dto : batch) {
+                  OffsetDateTime startDate =
+                      clock.dateFromMilliseconds(dto.getEffectiveStartDate());
+                  var key = new SubscriptionCompoundId(dto.getId().toString(), startDate);
+                  // the first occurrence wins if the same subscription is returned twice
+                  if (seenKeys.add(key)) {
+                    subCompoundIdToDtoMap.put(key, dto);
+                    seenIds.add(key.getSubscriptionId());
+                  }
+                }
+                reconcileBatch(orgId, subCompoundIdToDtoMap);
+                subscriptionRepository.flush();
+                entityManager.clear();
+              });
+    }
 
     if (paygOnly) {
-      dtos =
-          dtos.filter(
-              subscription -> SubscriptionDtoUtil.extractBillingProviderId(subscription) != null);
+      // don't clean up stale subs, because PAYG-only sync discards/ignores too much data to
+      // determine what to delete at this point
+      return;
     }
 
-    var subCompoundIdToDtoMap =
-        dtos.filter(this::shouldSyncSub)
-            .collect(
-                Collectors.toMap(
-                    dto -> {
-                      OffsetDateTime startDate =
-                          clock.dateFromMilliseconds(dto.getEffectiveStartDate());
-
-                      return new SubscriptionCompoundId(dto.getId().toString(), startDate);
-                    },
-                    Function.identity(),
-                    (firstMatch, secondMatch) -> firstMatch));
-
     List<org.candlepin.subscriptions.db.model.Subscription> subEntitiesForDeletion =
         new ArrayList<>();
-
-    Set<String> seenIds =
-        subCompoundIdToDtoMap.keySet().stream()
-            .map(SubscriptionCompoundId::getSubscriptionId)
-            .collect(Collectors.toSet());
-
-    var batchSize = 1024;
     CustomBatchIterator.batchStreamOf(subscriptionRepository.findByOrgId(orgId), batchSize)
         .forEach(
             batch -> {
-              batch.forEach(
-                  subEntity -> {
-                    var startDate = subEntity.getStartDate();
-                    var subId = subEntity.getSubscriptionId();
-
-                    var key = new SubscriptionCompoundId(subId, startDate);
-
-                    var dto = subCompoundIdToDtoMap.remove(key);
-
-                    // delete from swatch because it didn't appear in the latest list from the
-                    // subscription service, or it's in the denylist
-                    if (!seenIds.contains(subId)
-                        || (productDenylist.productIdMatches(subEntity.getOffering().getSku()))) {
-                      subEntitiesForDeletion.add(subEntity);
-                      return;
-                    }
-
-                    // we've seen a newer version of the sub, but this version doesn't need updates
-                    if (dto == null) {
-                      return;
-                    }
-
-                    syncSubscription(dto, Optional.of(subEntity));
-                  });
-              subscriptionRepository.flush();
+              // delete from swatch because it didn't appear in the latest list from the
+              // subscription service, or it's in the denylist
+              batch.stream()
+                  .filter(
+                      subEntity ->
+                          !seenIds.contains(subEntity.getSubscriptionId())
+                              || productDenylist.productIdMatches(
+                                  subEntity.getOffering().getSku()))
+                  .forEach(subEntitiesForDeletion::add);
               entityManager.clear();
             });
 
-    // These are additional subs that should be sync'd but weren't previously in the database
-    Stream<Subscription> stream = subCompoundIdToDtoMap.values().stream();
-
-    CustomBatchIterator.batchStreamOf(stream, batchSize)
-        .forEach(
-            batch -> {
-              batch.forEach(dto -> syncSubscription(dto, Optional.empty()));
-
-              subscriptionRepository.flush();
-              entityManager.clear();
-            });
-
-    if (paygOnly) {
-      // don't clean up stale subs, because PAYG-only sync discards/ignores too much data to
-      // determine what to delete at this point
-      return;
-    }
-
     if (!subEntitiesForDeletion.isEmpty()) {
       log.info("Removing {} stale/incorrect subscription records", subEntitiesForDeletion.size());
     }
@@ -421,6 +398,37 @@ public class SubscriptionSyncController {
     log.info("Finished syncing subscriptions for orgId {}", orgId);
   }
 
+  /**
+   * Sync a batch of subscriptions from the subscription service with the matching subscription
+   * records of the org, if any.
+   */
+  private void reconcileBatch(
+      String orgId, Map<SubscriptionCompoundId, Subscription> subCompoundIdToDtoMap) {
+    Set<String> subscriptionIds =
+        subCompoundIdToDtoMap.keySet().stream()
+            .map(SubscriptionCompoundId::getSubscriptionId)
+            .collect(Collectors.toSet());
+    Map<SubscriptionCompoundId, org.candlepin.subscriptions.db.model.Subscription>
+        subEntitiesByCompoundId = new HashMap<>();
+    for (var subEntity :
+        subscriptionRepository.findByOrgIdAndSubscriptionIdIn(orgId, subscriptionIds)) {
+      subEntitiesByCompoundId.put(
+          new SubscriptionCompoundId(subEntity.getSubscriptionId(), subEntity.getStartDate()),
+          subEntity);
+    }
+
+    subCompoundIdToDtoMap.forEach(
+        (key, dto) -> {
+          var subEntity = Optional.ofNullable(subEntitiesByCompoundId.get(key));
+          // denylisted records are deleted once the whole org has been seen
+          if (subEntity.isPresent()
+              && productDenylist.productIdMatches(subEntity.get().getOffering().getSku())) {
+            return;
+          }
+          syncSubscription(dto, subEntity);
+        });
+  }
+
   private boolean shouldSyncSub(Subscription sub) {
     // Reject subs expired long ago, or subs that won't be active quite yet.
     OffsetDateTime now = clock.now();
@@ -670,17 +678,7 @@ public class SubscriptionSyncController {
     }
 
     DbReportCriteria.DbReportCriteriaBuilder reportCriteriaBuilder =
-        DbReportCriteria.builder()
-            .productNames(productNames)
-            .serviceLevel(usageKey.getSla())
-            // NOTE(khowell) due to an oversight PAYG SKUs don't currently have a usage set -
-            // at some point we should use usageKey.getUsage() instead of "_ANY"
-            .usage(Usage._ANY)
-            .billingProvider(usageKey.getBillingProvider())
-            .billingAccountId(usageKey.getBillingAccountId())
-            .payg(true)
-            .beginning(rangeStart)
-            .ending(rangeEnd);
+        paygCriteria(productNames, usageKey, rangeStart, rangeEnd);
 
     DbReportCriteria subscriptionCriteria =
         orgId
@@ -701,6 +699,70 @@ public class SubscriptionSyncController {
     return result;
   }
 
+  /**
+   * Same as {@link #findSubscriptions(String, Optional, Key, OffsetDateTime, OffsetDateTime)}, for
+   * the usage of several orgs at once. The subscriptions matching any of the lookups are fetched
+   * with a single query, and then matched to each lookup.
+   *
+   * @param lookups the lookups, which must all have an org ID, SLA and usage other than _ANY
+   * @return the subscriptions matching each lookup, most recently started first
+   */
+  @Transactional
+  public Map<PaygSubscriptionLookup, List<org.candlepin.subscriptions.db.model.Subscription>>
+      findSubscriptions(Collection<PaygSubscriptionLookup> lookups) {
+    lookups.forEach(
+        lookup -> {
+          Assert.notNull(lookup.orgId(), "Org ID is required");
+          Assert.isTrue(Usage._ANY != lookup.usageKey().getUsage(), "Usage cannot be _ANY");
+          Assert.isTrue(
+              ServiceLevel._ANY != lookup.usageKey().getSla(), "Service Level cannot be _ANY");
+        });
+
+    Map<String, Set<String>> productNamesByTag = new HashMap<>();
+    Map<PaygSubscriptionLookup, DbReportCriteria> criteria = new HashMap<>();
+    for (PaygSubscriptionLookup lookup : lookups) {
+      String productId = lookup.usageKey().getProductId();
+      Set<String> productNames =
+          productNamesByTag.computeIfAbsent(productId, Variant::getProductNamesForTag);
+      if (productNames.isEmpty()) {
+        log.warn("No product names configured for tag: {}", productId);
+      } else {
+        criteria.put(
+            lookup,
+            paygCriteria(productNames, lookup.usageKey(), lookup.rangeStart(), lookup.rangeEnd())
+                .orgId(lookup.orgId())
+                .build());
+      }
+    }
+
+    var subscriptions =
+        subscriptionRepository.findByEachCriteria(
+            Set.copyOf(criteria.values()), Sort.by(Subscription_.START_DATE).descending());
+    Map<PaygSubscriptionLookup, List<org.candlepin.subscriptions.db.model.Subscription>> results =
+        new HashMap<>();
+    for (PaygSubscriptionLookup lookup : lookups) {
+      results.put(
+          lookup,
+          Optional.ofNullable(criteria.get(lookup)).map(subscriptions::get).orElse(List.of()));
+    }
+    return results;
+  }
+
+  private static DbReportCriteria.DbReportCriteriaBuilder paygCriteria(
+      Set<String> productNames, Key usageKey, OffsetDateTime rangeStart, OffsetDateTime rangeEnd) {
+    return DbReportCriteria.builder()
+        .productNames(productNames)
+        .serviceLevel(usageKey.getSla())
+        // NOTE(khowell) due to an oversight PAYG SKUs don't currently have a usage set -
+        // at some point we should use usageKey.getUsage() instead of "_ANY"
+        .usage(Usage._ANY)
+        .billingProvider(usageKey.getBillingProvider())
+        .billingAccountId(usageKey.getBillingAccountId())
+        .payg(true)
+        .beginning(rangeStart)
+        .ending(rangeEnd);
+  }
+
   /**
    * This will allow any service to look up the swatch product(s) associated with a given SKU. (This
    * lookup will use the offering information already stored in the database) and map the
@@ -23,6 +23,7 @@ package org.candlepin.subscriptions.tally;
 import jakarta.transaction.Transactional;
 import org.candlepin.subscriptions.db.AccountServiceInventoryRepository;
 import org.candlepin.subscriptions.db.BillableUsageRemittanceRepository;
+import org.candlepin.subscriptions.db.BillableUsageRunningTotalRepository;
 import org.candlepin.subscriptions.db.EventRecordRepository;
 import org.candlepin.subscriptions.db.HostRepository;
 import org.candlepin.subscriptions.db.SubscriptionRepository;
@@ -39,6 +40,7 @@ public class AccountResetService {
   private final AccountServiceInventoryRepository accountServiceInventoryRepository;
   private final SubscriptionRepository subscriptionRepository;
   private final BillableUsageRemittanceRepository remittanceRepository;
+  private final BillableUsageRunningTotalRepository runningTotalRepository;
 
   @Autowired
   public AccountResetService(
@@ -47,13 +49,15 @@ public class AccountResetService {
       TallySnapshotRepository tallySnapshotRepository,
       AccountServiceInventoryRepository accountServiceInventoryRepository,
       SubscriptionRepository subscriptionRepository,
-      BillableUsageRemittanceRepository remittanceRepository) {
+      BillableUsageRemittanceRepository remittanceRepository,
+      BillableUsageRunningTotalRepository runningTotalRepository) {
     this.eventRecordRepo = eventRecordRepo;
     this.hostRepo = hostRepo;
     this.tallySnapshotRepository = tallySnapshotRepository;
     this.accountServiceInventoryRepository = accountServiceInventoryRepository;
     this.subscriptionRepository = subscriptionRepository;
     this.remittanceRepository = remittanceRepository;
+    this.runningTotalRepository = runningTotalRepository;
   }
 
   @Transactional
@@ -64,5 +68,6 @@ public class AccountResetService {
     tallySnapshotRepository.deleteByOrgId(orgId);
     subscriptionRepository.deleteByOrgId(orgId);
     remittanceRepository.deleteByKeyOrgId(orgId);
+    runningTotalRepository.deleteByKeyOrgId(orgId);
   }
 }
@@ -0,0 +1,461 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally;
+
+import static org.candlepin.subscriptions.tally.InventoryAccountUsageCollector.HBI_INSTANCE_TYPE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.UUID;
+import org.candlepin.subscriptions.ApplicationProperties;
+import org.candlepin.subscriptions.db.model.Host;
+import org.candlepin.subscriptions.db.model.HostBucketKey;
+import org.candlepin.subscriptions.db.model.HostTallyBucket;
+import org.candlepin.subscriptions.inventory.db.InventoryDatabaseOperations;
+import org.candlepin.subscriptions.tally.UsageCalculation.Key;
+import org.candlepin.subscriptions.tally.collector.ProductUsageCollectorFactory;
+import org.candlepin.subscriptions.tally.facts.FactNormalizer;
+import org.candlepin.subscriptions.tally.facts.NormalizedFacts;
+import org.candlepin.subscriptions.util.MetricIdUtils;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+/**
+ * Collects HBI host data into swatch host records using bulk SQL, rather than by loading the org's
+ * whole {@link org.candlepin.subscriptions.db.model.AccountServiceInventory} into the persistence
+ * context.
+ *
+ * <p>Normalized hosts and their tally buckets are streamed into temporary staging tables with
+ * {@code COPY}, then diffed against the stored host rows in a handful of set-based statements
+ * (update, insert, {@code INSERT ... ON CONFLICT}, and {@code DELETE} of anything HBI no longer
+ * reports). Only hypervisors are held in memory until their guests have been seen. Bucket totals
+ * are then computed in SQL by {@link InventoryAccountUsageCollector#tally(String)}, as for the
+ * JPA-based collection.
+ *
+ * <p>Requires PostgreSQL.
+ */
+@Component
+public class BulkInventoryHostCollector {
+
+  private static final Logger log = LoggerFactory.getLogger(BulkInventoryHostCollector.class);
+
+  /** Number of staged rows sent per COPY statement. */
+  static final int COPY_BATCH_SIZE = 5000;
+
+  private static final String CREATE_HOST_STAGE =
+      """
+      create temporary table if not exists hbi_host_stage (
+        id uuid,
+        inventory_id varchar(255),
+        insights_id varchar(255),
+        account_number varchar(255),
+        display_name varchar(255),
+        subscription_manager_id varchar(255),
+        is_guest boolean,
+        hypervisor_uuid varchar(255),
+        hardware_type varchar(255),
+        num_of_guests integer,
+        last_seen timestamp with time zone,
+        is_unmapped_guest boolean,
+        is_hypervisor boolean,
+        cloud_provider varchar(255),
+        cores double precision,
+        sockets double precision
+      ) on commit drop
+      """;
+
+  private static final String CREATE_BUCKET_STAGE =
+      """
+      create temporary table if not exists hbi_bucket_stage (
+        inventory_id varchar(255),
+        product_id varchar(255),
+        sla varchar(255),
+        usage varchar(255),
+        billing_provider varchar(255),
+        billing_account_id varchar(255),
+        as_hypervisor boolean,
+        cores integer,
+        sockets integer,
+        measurement_type varchar(255)
+      ) on commit drop
+      """;
+
+  private static final String COPY_HOST_STAGE =
+      """
+      copy hbi_host_stage (id, inventory_id, insights_id, account_number, display_name,
+        subscription_manager_id, is_guest, hypervisor_uuid, hardware_type, num_of_guests, last_seen,
+        is_unmapped_guest, is_hypervisor, cloud_provider, cores, sockets)
+      from stdin with (format csv)
+      """;
+
+  private static final String COPY_BUCKET_STAGE =
+      """
+      copy hbi_bucket_stage (inventory_id, product_id, sla, usage, billing_provider,
+        billing_account_id, as_hypervisor, cores, sockets, measurement_type)
+      from stdin with (format csv)
+      """;
+
+  private static final String INDEX_STAGES =
+      """
+      create index on hbi_host_stage (inventory_id);
+      create index on hbi_bucket_stage (inventory_id);
+      analyze hbi_host_stage;
+      analyze hbi_bucket_stage
+      """;
+
+  private static final String DELETE_DUPLICATE_HOSTS =
+      """
+      delete from hosts h
+      using hosts d
+      where h.org_id = ? and h.instance_type = ?
+        and d.org_id = h.org_id and d.instance_type = h.instance_type
+        and d.inventory_id = h.inventory_id and d.id < h.id
+      """;
+
+  private static final String DELETE_STALE_HOSTS =
+      """
+      delete from hosts h
+      where h.org_id = ? and h.instance_type = ? and h.inventory_id is not null
+        and not exists (select 1 from hbi_host_stage s where s.inventory_id = h.inventory_id)
+      """;
+
+  private static final String UPDATE_HOSTS =
+      """
+      update hosts h set
+        insights_id = s.insights_id,
+        account_number = s.account_number,
+        display_name = s.display_name,
+        subscription_manager_id = s.subscription_manager_id,
+        is_guest = s.is_guest,
+        hypervisor_uuid = s.hypervisor_uuid,
+        hardware_type = s.hardware_type,
+        num_of_guests = coalesce(s.num_of_guests, h.num_of_guests),
+        last_seen = s.last_seen,
+        is_unmapped_guest = s.is_unmapped_guest,
+        is_hypervisor = s.is_hypervisor,
+        cloud_provider = s.cloud_provider,
+        instance_id = coalesce(h.instance_id, s.inventory_id)
+      from hbi_host_stage s
+      where h.org_id = ? and h.instance_type = ? and h.inventory_id = s.inventory_id
+      """;
+
+  private static final String INSERT_HOSTS =
+      """
+      insert into hosts (id, instance_id, inventory_id, insights_id, account_number, org_id,
+        display_name, subscription_manager_id, is_guest, hypervisor_uuid, hardware_type,
+        num_of_guests, last_seen, is_unmapped_guest, is_hypervisor, cloud_provider, instance_type)
+      select s.id, s.inventory_id, s.inventory_id, s.insights_id, s.account_number, ?,
+        s.display_name, s.subscription_manager_id, s.is_guest, s.hypervisor_uuid, s.hardware_type,
+        s.num_of_guests, s.last_seen, s.is_unmapped_guest, s.is_hypervisor, s.cloud_provider, ?
+      from hbi_host_stage s
+      where not exists (
+        select 1 from hosts h
+        where h.org_id = ? and h.instance_type = ? and h.inventory_id = s.inventory_id)
+      """;
+
+  private static final String UPSERT_MEASUREMENTS =
+      """
+      insert into instance_measurements (host_id, metric_id, value)
+      select h.id, m.metric_id, m.value
+      from hbi_host_stage s
+      join hosts h on h.org_id = ? and h.instance_type = ? and h.inventory_id = s.inventory_id
+      cross join lateral (values (?, s.cores), (?, s.sockets)) as m(metric_id, value)
+      where m.value is not null
+      on conflict (host_id, metric_id) do update set value = excluded.value
+      """;
+
+  private static final String DELETE_STALE_BUCKETS =
+      """
+      delete from host_tally_buckets b
+      using hosts h
+      where b.host_id = h.id and h.org_id = ? and h.instance_type = ?
+        and not exists (
+          select 1 from hbi_bucket_stage s
+          where s.inventory_id = h.inventory_id
+            and s.product_id = b.product_id
+            and s.sla = b.sla
+            and s.usage = b.usage
+            and s.billing_provider = b.billing_provider
+            and s.billing_account_id = b.billing_account_id
+            and s.as_hypervisor = b.as_hypervisor)
+      """;
+
+  // NOTE: like Host.addBucket, only cores and sockets of an existing bucket are updated
+  private static final String UPSERT_BUCKETS =
+      """
+      insert into host_tally_buckets (host_id, product_id, sla, usage, billing_provider,
+        billing_account_id, as_hypervisor, cores, sockets, measurement_type, version)
+      select h.id, s.product_id, s.sla, s.usage, s.billing_provider, s.billing_account_id,
+        s.as_hypervisor, s.cores, s.sockets, s.measurement_type, 0
+      from hbi_bucket_stage s
+      join hosts h on h.org_id = ? and h.instance_type = ? and h.inventory_id = s.inventory_id
+      on conflict (host_id, product_id, usage, sla, billing_provider, billing_account_id,
+        as_hypervisor)
+      do update set
+        cores = excluded.cores,
+        sockets = excluded.sockets,
+        measurement_type = excluded.measurement_type,
+        version = coalesce(host_tally_buckets.version, 0) + 1
+      where host_tally_buckets.cores is distinct from excluded.cores
+        or host_tally_buckets.sockets is distinct from excluded.sockets
+        or host_tally_buckets.measurement_type is distinct from excluded.measurement_type
+      """;
+
+  private static final String UPSERT_ACCOUNT_SERVICES =
+      """
+      insert into account_services (org_id, service_type, account_number)
+      values (?, ?, ?)
+      on conflict (org_id, service_type)
+      do update set account_number = coalesce(excluded.account_number,
+        account_services.account_number)
+      """;
+
+  private final FactNormalizer factNormalizer;
+  private final InventoryDatabaseOperations inventory;
+  private final JdbcTemplate jdbcTemplate;
+  private final int culledOffsetDays;
+  private final Counter totalHosts;
+
+  public BulkInventoryHostCollector(
+      FactNormalizer factNormalizer,
+      InventoryDatabaseOperations inventory,
+      JdbcTemplate jdbcTemplate,
+      ApplicationProperties props,
+      MeterRegistry meterRegistry) {
+    this.factNormalizer = factNormalizer;
+    this.inventory = inventory;
+    this.jdbcTemplate = jdbcTemplate;
+    this.culledOffsetDays = props.getCullingOffsetDays();
+    this.totalHosts = meterRegistry.counter("rhsm-subscriptions.tally.hbi_hosts");
+  }
+
+  /**
+   * Collect an org's HBI hosts into swatch host and tally bucket records.
+   *
+   * <p>The returned OrgHostsData carries the hypervisor/guest data gathered during collection; it
+   * does not track every host of the org.
+   *
+   * @param usageKeyCatalog catalog of usage keys for the products to tally
+   * @param account account number, or null
+   * @param orgId org to collect
+   * @return hypervisor data for the org
+   */
+  @Transactional
+  public OrgHostsData collect(UsageKeyCatalog usageKeyCatalog, String account, String orgId) {
+    jdbcTemplate.execute(CREATE_HOST_STAGE);
+    jdbcTemplate.execute(CREATE_BUCKET_STAGE);
+    jdbcTemplate.execute("truncate hbi_host_stage, hbi_bucket_stage");
+
+    OrgHostsData orgHostsData = new OrgHostsData(orgId);
+    orgHostsData.addReportedHypervisors(inventory);
+
+    CopyBuffer hostRows = new CopyBuffer(COPY_HOST_STAGE);
+    CopyBuffer bucketRows = new CopyBuffer(COPY_BUCKET_STAGE);
+
+    inventory.processHost(
+        orgId,
+        culledOffsetDays,
+        hostFacts -> {
+          NormalizedFacts facts = factNormalizer.normalize(hostFacts, orgHostsData);
+          Host host = InventoryAccountUsageCollector.hostFromHbiFacts(hostFacts, facts);
+
+          if (facts.isHypervisor()) {
+            // hypervisors are staged once all potential guests have been processed; a duplicate
+            // hypervisor record is staged as-is, since only one of them receives the guest data
+            Host duplicate =
+                orgHostsData.hypervisorHostMap().get(hostFacts.getSubscriptionManagerId());
+            if (duplicate != null) {
+              stage(duplicate, hostRows, bucketRows);
+            }
+            orgHostsData.addHypervisorFacts(hostFacts.getSubscriptionManagerId(), facts);
+            orgHostsData.addHostToHypervisor(hostFacts.getSubscriptionManagerId(), host);
+          } else if (facts.isVirtual() && StringUtils.hasText(facts.getHypervisorUuid())) {
+            orgHostsData.incrementGuestCount(host.getHypervisorUuid());
+          }
+
+          for (Key key : usageKeyCatalog.keysFor(facts)) {
+            var product = key.getProductId();
+            try {
+              String hypervisorUuid = facts.getHypervisorUuid();
+              if (hypervisorUuid != null) {
+                orgHostsData.addHypervisorKey(hypervisorUuid, key);
+              }
+              Optional<HostTallyBucket> appliedBucket =
+                  ProductUsageCollectorFactory.get(product).buildBucket(key, facts);
+              appliedBucket.ifPresent(host::addBucket);
+            } catch (Exception e) {
+              log.error(
+                  "Unable to collect usage data for host: {} product: {}",
+                  hostFacts.getSubscriptionManagerId(),
+                  product,
+                  e);
+            }
+          }
+
+          if (!facts.isHypervisor()) {
+            stage(host, hostRows, bucketRows);
+          }
+          totalHosts.increment();
+        });
+
+    // apply data from guests to hypervisor records
+    orgHostsData.collectGuestData(new HashMap<>());
+    var hypervisorHostMap = orgHostsData.hypervisorHostMap();
+    log.info("Staging {} hypervisor hosts.", hypervisorHostMap.size());
+    hypervisorHostMap.values().forEach(host -> stage(host, hostRows, bucketRows));
+    hostRows.flush();
+    bucketRows.flush();
+
+    applyStagedHosts(orgId, account);
+    return orgHostsData;
+  }
+
+  private void applyStagedHosts(String orgId, String account) {
+    jdbcTemplate.execute(INDEX_STAGES);
+    int duplicates = jdbcTemplate.update(DELETE_DUPLICATE_HOSTS, orgId, HBI_INSTANCE_TYPE);
+    if (duplicates > 0) {
+      log.warn("Removed {} duplicate host records for orgId={}", duplicates, orgId);
+    }
+    int stale = jdbcTemplate.update(DELETE_STALE_HOSTS, orgId, HBI_INSTANCE_TYPE);
+    log.info("Removed {} stale host records (HBI records no longer present).", stale);
+    int updated = jdbcTemplate.update(UPDATE_HOSTS, orgId, HBI_INSTANCE_TYPE);
+    int created =
+        jdbcTemplate.update(INSERT_HOSTS, orgId, HBI_INSTANCE_TYPE, orgId, HBI_INSTANCE_TYPE);
+    jdbcTemplate.update(
+        UPSERT_MEASUREMENTS,
+        orgId,
+        HBI_INSTANCE_TYPE,
+        MetricIdUtils.getCores().toUpperCaseFormatted(),
+        MetricIdUtils.getSockets().toUpperCaseFormatted());
+    int staleBuckets = jdbcTemplate.update(DELETE_STALE_BUCKETS, orgId, HBI_INSTANCE_TYPE);
+    int buckets = jdbcTemplate.update(UPSERT_BUCKETS, orgId, HBI_INSTANCE_TYPE);
+    jdbcTemplate.update(UPSERT_ACCOUNT_SERVICES, orgId, HBI_INSTANCE_TYPE, account);
+    log.info(
+        "Bulk collected orgId={}: hostsUpdated={} hostsCreated={} bucketsRemoved={} "
+            + "bucketsWritten={}",
+        orgId,
+        updated,
+        created,
+        staleBuckets,
+        buckets);
+  }
+
+  private void stage(Host host, CopyBuffer hostRows, CopyBuffer bucketRows) {
+    hostRows.add(
+        UUID.randomUUID(),
+        host.getInventoryId(),
+        host.getInsightsId(),
+        host.getAccountNumber(),
+        host.getDisplayName(),
+        host.getSubscriptionManagerId(),
+        host.isGuest(),
+        host.getHypervisorUuid(),
+        host.getHardwareType() == null ? null : host.getHardwareType().name(),
+        host.getNumOfGuests(),
+        host.getLastSeen(),
+        host.isUnmappedGuest(),
+        host.isHypervisor(),
+        host.getCloudProvider(),
+        host.getMeasurement(MetricIdUtils.getCores().getValue()),
+        host.getMeasurement(MetricIdUtils.getSockets().getValue()));
+    for (HostTallyBucket bucket : host.getBuckets()) {
+      HostBucketKey key = bucket.getKey();
+      bucketRows.add(
+          host.getInventoryId(),
+          key.getProductId(),
+          key.getSla().getValue(),
+          key.getUsage().getValue(),
+          key.getBillingProvider().getValue(),
+          key.getBillingAccountId(),
+          key.getAsHypervisor(),
+          bucket.getCores(),
+          bucket.getSockets(),
+          bucket.getMeasurementType() == null ? null : bucket.getMeasurementType().name());
+    }
+  }
+
+  /**
+   * Format a row for {@code COPY ... with (format csv)}. Null values are written as unquoted empty
+   * fields (which COPY reads as NULL); everything else is quoted.
+   */
+  private static String csvRow(Object... values) {
+    StringBuilder row = new StringBuilder();
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        row.append(',');
+      }
+      if (values[i] != null) {
+        row.append('"').append(values[i].toString().replace("\"", "\"\"")).append('"');
+      }
+    }
+    return row.append('\n').toString();
+  }
+
+  /** Accumulates staged rows, sending them to the database every {@link #COPY_BATCH_SIZE}. */
+  private class CopyBuffer {
+    private final String copySql;
+    private final StringBuilder rows = new StringBuilder();
+    private int count;
+
+    CopyBuffer(String copySql) {
+      this.copySql = copySql;
+    }
+
+    void add(Object... values) {
+      rows.append(csvRow(values));
+      if (++count >= COPY_BATCH_SIZE) {
+        flush();
+      }
+    }
+
+    void flush() {
+      if (count == 0) {
+        return;
+      }
+      String data = rows.toString();
+      jdbcTemplate.execute(
+          (ConnectionCallback<Long>)
+              connection -> {
+                try {
+                  return connection
+                      .unwrap(PGConnection.class)
+                      .getCopyAPI()
+                      .copyIn(copySql, new StringReader(data));
+                } catch (IOException e) {
+                  throw new SQLException("Unable to stage HBI host data", e);
+                }
+              });
+      rows.setLength(0);
+      count = 0;
+    }
+  }
+}
@@ -41,6 +41,8 @@ import org.candlepin.subscriptions.db.model.Granularity;
 import org.candlepin.subscriptions.db.model.HardwareMeasurementType;
 import org.candlepin.subscriptions.db.model.TallyMeasurementKey;
 import org.candlepin.subscriptions.db.model.TallySnapshot;
+import org.candlepin.subscriptions.tally.billing.BillableUsageRunningTotalChanges;
+import org.candlepin.subscriptions.tally.billing.BillableUsageRunningTotalController;
 import org.candlepin.subscriptions.util.ApplicationClock;
 import org.candlepin.subscriptions.util.DateRange;
 import org.slf4j.Logger;
@@ -64,12 +66,16 @@ public class CombiningRollupSnapshotStrategy {
 
   private final TallySnapshotRepository tallyRepo;
   private final ApplicationClock clock;
+  private final BillableUsageRunningTotalController runningTotalController;
 
   @Autowired
   public CombiningRollupSnapshotStrategy(
-      TallySnapshotRepository tallyRepo, ApplicationClock clock) {
+      TallySnapshotRepository tallyRepo,
+      ApplicationClock clock,
+      BillableUsageRunningTotalController runningTotalController) {
     this.tallyRepo = tallyRepo;
     this.clock = clock;
+    this.runningTotalController = runningTotalController;
   }
 
   /**
@@ -277,6 +283,8 @@ public class CombiningRollupSnapshotStrategy {
       DateRange dateRange) {
 
     List<TallySnapshot> toSave = new ArrayList<>();
+    // only hourly snapshots are tracked, changes of other granularities are ignored
+    BillableUsageRunningTotalChanges runningTotalChanges = new BillableUsageRunningTotalChanges();
 
     Map<TallySnapshotNaturalKey, TallySnapshot> affectedSnaps =
         existingSnapshotLookup.entrySet().stream()
@@ -300,6 +308,9 @@ public class CombiningRollupSnapshotStrategy {
 
             TallySnapshot existing = affectedSnaps.remove(snapshotKey);
             TallySnapshot snapshot = Objects.requireNonNullElseGet(existing, TallySnapshot::new);
+            if (existing != null) {
+              runningTotalChanges.subtract(existing);
+            }
 
             UsageCalculation productCalc = accountCalc.getCalculation(usageKey);
 
@@ -311,6 +322,7 @@ public class CombiningRollupSnapshotStrategy {
                 granularity);
 
             snapshot.setSnapshotDate(offset);
+            runningTotalChanges.add(snapshot);
             toSave.add(tallyRepo.save(snapshot));
           }
         });
@@ -320,9 +332,14 @@ public class CombiningRollupSnapshotStrategy {
         .values()
         .forEach(
             snapshot -> {
+              runningTotalChanges.subtract(snapshot);
               snapshot.getTallyMeasurements().clear();
               toSave.add(tallyRepo.save(snapshot));
             });
+
+    if (!runningTotalChanges.isEmpty()) {
+      runningTotalController.applyChanges(runningTotalChanges);
+    }
     return toSave;
   }
 
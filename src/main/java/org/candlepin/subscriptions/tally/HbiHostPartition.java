@@ -0,0 +1,71 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A range of hardware subscription-manager IDs (the first term of the HBI reconciliation sort
+ * order) that can be reconciled independently of the rest of an org's systems.
+ *
+ * <p>Because guests are grouped with their hypervisor by hardware subscription-manager ID, a
+ * partition always contains whole hypervisor/guest groups, so the hypervisor data gathered in
+ * {@link OrgHostsData} never has to cross partition boundaries.
+ *
+ * <p>The lower bound is exclusive and the upper bound is inclusive; a null bound is unbounded.
+ * Systems without a hardware subscription-manager ID sort last, and so belong to the partition
+ * having no upper bound.
+ *
+ * @param lowerBound exclusive lower bound, or null
+ * @param upperBound inclusive upper bound, or null
+ */
+public record HbiHostPartition(String lowerBound, String upperBound) {
+
+  public static final HbiHostPartition ALL = new HbiHostPartition(null, null);
+
+  public boolean isUnbounded() {
+    return lowerBound == null && upperBound == null;
+  }
+
+  /**
+   * Build contiguous partitions covering every possible hardware subscription-manager ID.
+   *
+   * @param upperBounds inclusive upper bounds, in ascending order (duplicates are ignored)
+   * @return partitions covering the whole key space; the last partition has no upper bound
+   */
+  public static List<HbiHostPartition> fromUpperBounds(List<String> upperBounds) {
+    List<String> bounds = upperBounds.stream().filter(Objects::nonNull).distinct().toList();
+    if (bounds.size() <= 1) {
+      return List.of(ALL);
+    }
+    List<HbiHostPartition> partitions = new ArrayList<>();
+    String lowerBound = null;
+    // the last upper bound is dropped so that the final partition also covers null IDs
+    for (String upperBound : bounds.subList(0, bounds.size() - 1)) {
+      partitions.add(new HbiHostPartition(lowerBound, upperBound));
+      lowerBound = upperBound;
+    }
+    partitions.add(new HbiHostPartition(lowerBound, null));
+    return partitions;
+  }
+}
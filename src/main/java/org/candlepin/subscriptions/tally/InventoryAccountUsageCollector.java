@@ -20,7 +20,6 @@
  */
 package org.candlepin.subscriptions.tally;
 
-import com.google.common.collect.Sets;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -33,6 +32,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -51,8 +53,11 @@ import org.candlepin.subscriptions.util.MetricIdUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 /** Collects the max values from all accounts in the inventory. */
@@ -72,7 +77,14 @@ public class InventoryAccountUsageCollector {
   private final int tallyMaxHbiAccountSize;
   private final Counter totalHosts;
   private final Long hbiReconciliationFlushInterval;
+  private final int hbiReconciliationPartitionThreshold;
+  private final int hbiReconciliationPartitionSize;
   private final InventorySwatchDataCollator collator;
+  private final TransactionTemplate transactionTemplate;
+  private final Executor reconciliationExecutor;
+  private final BulkInventoryHostCollector bulkCollector;
+  private final Set<String> hbiBulkCollectionOrgs;
+  private volatile UsageKeyCatalog usageKeyCatalog;
 
   @Autowired
   public InventoryAccountUsageCollector(
@@ -84,7 +96,10 @@ public class InventoryAccountUsageCollector {
       HostTallyBucketRepository tallyBucketRepository,
       ApplicationProperties props,
       MeterRegistry meterRegistry,
-      InventorySwatchDataCollator collator) {
+      InventorySwatchDataCollator collator,
+      PlatformTransactionManager transactionManager,
+      @Qualifier("hbiReconciliationExecutor") Executor reconciliationExecutor,
+      BulkInventoryHostCollector bulkCollector) {
     this.factNormalizer = factNormalizer;
     this.inventory = inventory;
     this.accountServiceInventoryRepository = accountServiceInventoryRepository;
@@ -95,12 +110,22 @@ public class InventoryAccountUsageCollector {
     this.culledOffsetDays = props.getCullingOffsetDays();
     this.tallyMaxHbiAccountSize = props.getTallyMaxHbiAccountSize();
     this.hbiReconciliationFlushInterval = props.getHbiReconciliationFlushInterval();
+    this.hbiReconciliationPartitionThreshold = props.getHbiReconciliationPartitionThreshold();
+    this.hbiReconciliationPartitionSize = props.getHbiReconciliationPartitionSize();
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.reconciliationExecutor = reconciliationExecutor;
+    this.bulkCollector = bulkCollector;
+    this.hbiBulkCollectionOrgs = props.getHbiBulkCollectionOrgs();
     this.totalHosts = meterRegistry.counter("rhsm-subscriptions.tally.hbi_hosts");
   }
 
   @SuppressWarnings("squid:S3776")
   @Transactional
   public OrgHostsData collect(Set<String> products, String account, String orgId) {
+    if (hbiBulkCollectionOrgs.contains(orgId)) {
+      log.info("Collecting HBI hosts for orgId={} using bulk SQL", orgId);
+      return bulkCollector.collect(keyCatalogFor(products), account, orgId);
+    }
     int inventoryCount = inventory.activeSystemCountForOrgId(orgId, culledOffsetDays);
     if (inventoryCount > tallyMaxHbiAccountSize) {
       throw new SystemThresholdException(orgId, tallyMaxHbiAccountSize, inventoryCount);
@@ -110,6 +135,7 @@ public class InventoryAccountUsageCollector {
 
     OrgHostsData orgHostsData = new OrgHostsData(orgId);
     Map<String, Set<HostBucketKey>> hostSeenBucketKeysLookup = new HashMap<>();
+    UsageKeyCatalog usageKeyCatalog = keyCatalogFor(products);
 
     orgHostsData.addReportedHypervisors(inventory);
 
@@ -139,23 +165,11 @@ public class InventoryAccountUsageCollector {
             orgHostsData.incrementGuestCount(host.getHypervisorUuid());
           }
 
-          Set<Key> usageKeys =
-              createKeyCombinations(
-                  products,
-                  Set.of(facts.getSla(), ServiceLevel._ANY),
-                  Set.of(facts.getUsage(), Usage._ANY),
-                  Set.of(BillingProvider._ANY),
-                  Set.of("_ANY"));
-
           // Calculate for each UsageKey
           // review current implementation of default values, and determine if factnormalizer needs
           // to handle billingAcctId & BillingProvider
-          for (Key key : usageKeys) {
+          for (Key key : usageKeyCatalog.keysFor(facts)) {
             var product = key.getProductId();
-            if (!facts.getProducts().contains(product)) {
-              continue;
-            }
-
             try {
               String hypervisorUuid = facts.getHypervisorUuid();
               if (hypervisorUuid != null) {
@@ -250,37 +264,19 @@ public class InventoryAccountUsageCollector {
   }
 
   /**
-   * Create all possible combinations of product, SLA, usage, billing provider, and account ID.
+   * Get the catalog of usage keys for a set of products, reusing the previous catalog when the
+   * products haven't changed (they rarely do between tally runs).
    *
-   * @param products productIds
-   * @param slas a set of SLAs
-   * @param usages a set of usages
-   * @param billingProviders a set of BillingProviders
-   * @param billingAccountIds a set of billing account IDs
-   * @return a set of UsageCalculation.Key representing all possible combinations of the input
-   *     parameters
+   * @param products product tags to tally
+   * @return a catalog of shared usage keys for the products
    */
-  public static Set<Key> createKeyCombinations(
-      Set<String> products,
-      Set<ServiceLevel> slas,
-      Set<Usage> usages,
-      Set<BillingProvider> billingProviders,
-      Set<String> billingAccountIds) {
-    Set<List<Object>> usageTuples =
-        Sets.cartesianProduct(products, slas, usages, billingProviders, billingAccountIds);
-    return usageTuples.stream()
-        .map(
-            tuple -> {
-              String product = (String) tuple.get(0);
-              ServiceLevel sla = (ServiceLevel) tuple.get(1);
-              Usage usage = (Usage) tuple.get(2);
-              BillingProvider billingProvider = (BillingProvider) tuple.get(3);
-              String billingAccountId = (String) tuple.get(4);
-
-              return new UsageCalculation.Key(
-                  product, sla, usage, billingProvider, billingAccountId);
-            })
-        .collect(Collectors.toSet());
+  UsageKeyCatalog keyCatalogFor(Set<String> products) {
+    UsageKeyCatalog catalog = usageKeyCatalog;
+    if (catalog == null || !catalog.getProducts().equals(products)) {
+      catalog = new UsageKeyCatalog(products);
+      usageKeyCatalog = catalog;
+    }
+    return catalog;
   }
 
   private AccountServiceInventory fetchAccountServiceInventory(String orgId, String account) {
@@ -379,36 +375,115 @@ public class InventoryAccountUsageCollector {
    * batch size. This enables configurable control over the memory characteristics of system data
    * reconciliation.
    *
+   * <p>Orgs having more active HBI systems than the configured partition threshold are split into
+   * partitions of hardware subscription-manager IDs. Partitions are reconciled concurrently on a
+   * bounded worker pool, each in its own transaction; otherwise the whole org is reconciled in a
+   * single transaction, and {@link SystemThresholdException} is thrown if it has more active HBI
+   * systems than tallyMaxHbiAccountSize. Orgs configured for bulk collection are instead collected
+   * with set-based SQL by {@link BulkInventoryHostCollector}.
+   *
    * @param orgId orgId to reconcile
    * @param applicableProducts products to update tally buckets for
    */
-  @Transactional
   @Timed("swatch_hbi_system_reconcile")
   public void reconcileSystemDataWithHbi(String orgId, Set<String> applicableProducts) {
-    if (!accountServiceInventoryRepository.existsById(
-        AccountServiceInventoryId.builder().orgId(orgId).serviceType(HBI_INSTANCE_TYPE).build())) {
-      accountServiceInventoryRepository.save(new AccountServiceInventory(orgId, HBI_INSTANCE_TYPE));
+    if (hbiBulkCollectionOrgs.contains(orgId)) {
+      log.info("Reconciling HBI hosts for orgId={} using bulk SQL", orgId);
+      bulkCollector.collect(keyCatalogFor(applicableProducts), null, orgId);
+      return;
+    }
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          if (!accountServiceInventoryRepository.existsById(
+              AccountServiceInventoryId.builder()
+                  .orgId(orgId)
+                  .serviceType(HBI_INSTANCE_TYPE)
+                  .build())) {
+            accountServiceInventoryRepository.save(
+                new AccountServiceInventory(orgId, HBI_INSTANCE_TYPE));
+          }
+        });
+
+    List<HbiHostPartition> partitions = planReconciliationPartitions(orgId);
+    int systemsUpdatedForOrg;
+    if (partitions.size() == 1) {
+      systemsUpdatedForOrg =
+          transactionTemplate.execute(
+              status -> reconcilePartition(orgId, partitions.get(0), applicableProducts));
+    } else {
+      systemsUpdatedForOrg = reconcilePartitions(orgId, partitions, applicableProducts);
     }
-    List<Host> detachHosts = new ArrayList<>();
-    int systemsUpdatedForOrg =
-        collator.collateData(
-            orgId,
-            culledOffsetDays,
-            (hbiSystem, swatchSystem, hypervisorData, iterationCount) -> {
-              reconcileHbiSystemWithSwatchSystem(
-                  hbiSystem, swatchSystem, hypervisorData, applicableProducts, detachHosts);
-              if (iterationCount % hbiReconciliationFlushInterval == 0) {
-                log.debug("Flushing system changes w/ count={}", iterationCount);
-                hostRepository.flush();
-                if (Objects.nonNull(swatchSystem) && Objects.nonNull(hbiSystem)) {
-                  detachHosts.forEach(entityManager::detach);
-                  detachHosts.clear();
-                }
-              }
-            });
     log.info("Reconciled {} records for orgId={}", systemsUpdatedForOrg, orgId);
   }
 
+  private List<HbiHostPartition> planReconciliationPartitions(String orgId) {
+    int activeSystems = inventory.activeSystemCountForOrgId(orgId, culledOffsetDays);
+    if (activeSystems <= hbiReconciliationPartitionThreshold) {
+      // reconciled in a single pass, so still subject to the account size limit
+      if (activeSystems > tallyMaxHbiAccountSize) {
+        throw new SystemThresholdException(orgId, tallyMaxHbiAccountSize, activeSystems);
+      }
+      return List.of(HbiHostPartition.ALL);
+    }
+    int partitionCount =
+        Math.max(2, (int) Math.ceil((double) activeSystems / hbiReconciliationPartitionSize));
+    log.info(
+        "Reconciling orgId={} with activeHbiSystems={} in up to {} partitions",
+        orgId,
+        activeSystems,
+        partitionCount);
+    return collator.partitionOrg(orgId, culledOffsetDays, partitionCount);
+  }
+
+  private int reconcilePartitions(
+      String orgId, List<HbiHostPartition> partitions, Set<String> applicableProducts) {
+    List<CompletableFuture<Integer>> futures =
+        partitions.stream()
+            .map(
+                partition ->
+                    CompletableFuture.supplyAsync(
+                        () ->
+                            transactionTemplate.execute(
+                                status -> reconcilePartition(orgId, partition, applicableProducts)),
+                        reconciliationExecutor))
+            .toList();
+    try {
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+    return futures.stream().mapToInt(CompletableFuture::join).sum();
+  }
+
+  private int reconcilePartition(
+      String orgId, HbiHostPartition partition, Set<String> applicableProducts) {
+    List<Host> detachHosts = new ArrayList<>();
+    UsageKeyCatalog catalog = keyCatalogFor(applicableProducts);
+    InventorySwatchDataCollator.Processor processor =
+        (hbiSystem, swatchSystem, hypervisorData, iterationCount) -> {
+          reconcileHbiSystemWithSwatchSystem(
+              hbiSystem, swatchSystem, hypervisorData, catalog, detachHosts);
+          if (iterationCount % hbiReconciliationFlushInterval == 0) {
+            log.debug("Flushing system changes w/ count={}", iterationCount);
+            hostRepository.flush();
+            if (Objects.nonNull(swatchSystem) && Objects.nonNull(hbiSystem)) {
+              detachHosts.forEach(entityManager::detach);
+              detachHosts.clear();
+            }
+          }
+        };
+    if (partition.isUnbounded()) {
+      return collator.collateData(orgId, culledOffsetDays, processor);
+    }
+    int systemsUpdated = collator.collateData(orgId, culledOffsetDays, partition, processor);
+    log.debug(
+        "Reconciled {} records for orgId={} in partition={}", systemsUpdated, orgId, partition);
+    return systemsUpdated;
+  }
+
   /**
    * Reconciles an HBI system record with a swatch system record.
    *
@@ -427,6 +502,16 @@ public class InventoryAccountUsageCollector {
       OrgHostsData orgHostsData,
       Set<String> applicableProducts,
       List<Host> hosts) {
+    reconcileHbiSystemWithSwatchSystem(
+        hbiSystem, swatchSystem, orgHostsData, keyCatalogFor(applicableProducts), hosts);
+  }
+
+  private void reconcileHbiSystemWithSwatchSystem(
+      InventoryHostFacts hbiSystem,
+      Host swatchSystem,
+      OrgHostsData orgHostsData,
+      UsageKeyCatalog usageKeyCatalog,
+      List<Host> hosts) {
     log.debug(
         "Reconciling HBI inventoryId={} & swatch inventoryId={}",
         Optional.ofNullable(hbiSystem).map(InventoryHostFacts::getInventoryId),
@@ -438,7 +523,7 @@ public class InventoryAccountUsageCollector {
       hostRepository.delete(swatchSystem);
     } else {
       NormalizedFacts normalizedFacts = factNormalizer.normalize(hbiSystem, orgHostsData);
-      Set<Key> usageKeys = createHostUsageKeys(applicableProducts, normalizedFacts);
+      List<Key> usageKeys = usageKeyCatalog.keysFor(normalizedFacts);
       if (swatchSystem != null) {
         log.debug("Updating system w/ inventoryId={}", hbiSystem.getInventoryId());
         Host updatedSwatchSystem =
@@ -454,7 +539,10 @@ public class InventoryAccountUsageCollector {
   }
 
   private void reconcileHypervisorData(
-      NormalizedFacts normalizedFacts, Host system, OrgHostsData orgHostsData, Set<Key> usageKeys) {
+      NormalizedFacts normalizedFacts,
+      Host system,
+      OrgHostsData orgHostsData,
+      List<Key> usageKeys) {
     Set<HostBucketKey> seenBucketKeys = new HashSet<>();
     if (system.getHypervisorUuid() != null
         && orgHostsData.hasHypervisorUuid(system.getHypervisorUuid())) {
@@ -497,7 +585,7 @@ public class InventoryAccountUsageCollector {
   }
 
   private Host createSwatchSystem(
-      InventoryHostFacts inventoryHostFacts, NormalizedFacts normalizedFacts, Set<Key> usageKeys) {
+      InventoryHostFacts inventoryHostFacts, NormalizedFacts normalizedFacts, List<Key> usageKeys) {
     Host host = new Host();
     host.setInstanceType(HBI_INSTANCE_TYPE);
     populateHostFieldsFromHbi(host, inventoryHostFacts, normalizedFacts);
@@ -505,16 +593,7 @@ public class InventoryAccountUsageCollector {
     return hostRepository.save(host);
   }
 
-  private Set<Key> createHostUsageKeys(Set<String> products, NormalizedFacts facts) {
-    return createKeyCombinations(
-        products.stream().filter(facts.getProducts()::contains).collect(Collectors.toSet()),
-        Set.of(facts.getSla(), ServiceLevel._ANY),
-        Set.of(facts.getUsage(), Usage._ANY),
-        Set.of(BillingProvider._ANY),
-        Set.of("_ANY"));
-  }
-
-  private void applyNonHypervisorBuckets(Host host, NormalizedFacts facts, Set<Key> usageKeys) {
+  private void applyNonHypervisorBuckets(Host host, NormalizedFacts facts, List<Key> usageKeys) {
     Set<HostBucketKey> seenBucketKeys = new HashSet<>();
 
     // Calculate for each UsageKey
@@ -522,9 +601,6 @@ public class InventoryAccountUsageCollector {
     // to handle billingAcctId & BillingProvider
     for (Key key : usageKeys) {
       var product = key.getProductId();
-      if (!facts.getProducts().contains(product)) {
-        continue;
-      }
       Optional<HostTallyBucket> appliedBucket =
           ProductUsageCollectorFactory.get(product).buildBucket(key, facts);
       appliedBucket.ifPresent(
@@ -548,7 +624,7 @@ public class InventoryAccountUsageCollector {
       InventoryHostFacts inventoryHostFacts,
       NormalizedFacts normalizedFacts,
       Host host,
-      Set<Key> usageKeys) {
+      List<Key> usageKeys) {
     populateHostFieldsFromHbi(host, inventoryHostFacts, normalizedFacts);
     applyNonHypervisorBuckets(host, normalizedFacts, usageKeys);
     return hostRepository.save(host);
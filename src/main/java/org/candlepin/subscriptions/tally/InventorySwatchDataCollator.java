@@ -23,6 +23,7 @@ package org.candlepin.subscriptions.tally;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.PeekingIterator;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -90,11 +91,44 @@ public class InventorySwatchDataCollator {
    * @return the number of unique inventory IDs processed.
    */
   public int collateData(String orgId, int culledOffsetDays, Processor processor) {
-    Stream<InventoryHostFacts> inventorySystemStream =
-        inventoryRepository.streamFacts(orgId, culledOffsetDays);
-    Stream<String> activeSubmanIdStream =
-        inventoryRepository.streamActiveSubscriptionManagerIds(orgId, culledOffsetDays);
-    Stream<Host> swatchSystemStream = hostRepository.streamHbiHostsByOrgId(orgId);
+    return collateData(orgId, culledOffsetDays, HbiHostPartition.ALL, processor);
+  }
+
+  /**
+   * Same as {@link #collateData(String, int, Processor)}, but limited to the systems of a single
+   * partition of the org.
+   *
+   * <p>Partitions never split a hypervisor from its guests, so several partitions of the same org
+   * can be collated concurrently (each with its own cursors and transaction).
+   *
+   * @param orgId orgId to operate on
+   * @param culledOffsetDays number of days before a system is considered culled by HBI
+   * @param partition range of hardware subscription-manager IDs to operate on
+   * @param processor delegate that implements the Processor functional interface, to be called for
+   *     each iteration.
+   * @return the number of unique inventory IDs processed.
+   */
+  public int collateData(
+      String orgId, int culledOffsetDays, HbiHostPartition partition, Processor processor) {
+    Stream<InventoryHostFacts> inventorySystemStream;
+    Stream<String> activeSubmanIdStream;
+    Stream<Host> swatchSystemStream;
+    if (partition.isUnbounded()) {
+      inventorySystemStream = inventoryRepository.streamFacts(orgId, culledOffsetDays);
+      activeSubmanIdStream =
+          inventoryRepository.streamActiveSubscriptionManagerIds(orgId, culledOffsetDays);
+      swatchSystemStream = hostRepository.streamHbiHostsByOrgId(orgId);
+    } else {
+      inventorySystemStream =
+          inventoryRepository.streamFactsInPartition(
+              orgId, culledOffsetDays, partition.lowerBound(), partition.upperBound());
+      activeSubmanIdStream =
+          inventoryRepository.streamActiveSubscriptionManagerIdsInPartition(
+              orgId, culledOffsetDays, partition.lowerBound(), partition.upperBound());
+      swatchSystemStream =
+          hostRepository.streamHbiHostsByOrgIdInPartition(
+              orgId, partition.lowerBound(), partition.upperBound());
+    }
 
     /*
     Setup peeking iterators for each of HBI systems, HBI subman IDs, and swatch systems.
@@ -163,6 +197,28 @@ public class InventorySwatchDataCollator {
     return iterationCount;
   }
 
+  /**
+   * Split an org's HBI systems into partitions that can be collated independently.
+   *
+   * @param orgId orgId to partition
+   * @param culledOffsetDays number of days before a system is considered culled by HBI
+   * @param partitionCount desired number of partitions
+   * @return contiguous partitions covering all of the org's systems; a single unbounded partition
+   *     if the org can't be split
+   */
+  public List<HbiHostPartition> partitionOrg(
+      String orgId, int culledOffsetDays, int partitionCount) {
+    if (partitionCount <= 1) {
+      return List.of(HbiHostPartition.ALL);
+    }
+    List<HbiHostPartition> partitions =
+        HbiHostPartition.fromUpperBounds(
+            inventoryRepository.findHardwareSubmanIdPartitionUpperBounds(
+                orgId, culledOffsetDays, partitionCount));
+    log.debug("Split orgId={} into {} partitions: {}", orgId, partitions.size(), partitions);
+    return partitions;
+  }
+
   private <T> T peekOrNull(PeekingIterator<T> iterator) {
     return iterator.hasNext() ? iterator.peek() : null;
   }
@@ -25,7 +25,9 @@ import com.google.common.collect.Sets;
 import com.redhat.swatch.configuration.registry.MetricId;
 import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
 import com.redhat.swatch.configuration.registry.Variant;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -37,6 +39,7 @@ import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.candlepin.subscriptions.db.AccountServiceInventoryRepository;
@@ -175,33 +178,81 @@ public class MetricUsageCollector {
         new DateRange(effectiveStartDateTime, effectiveEndDateTime), accountCalcs, isRecalculating);
   }
 
+  /**
+   * Tally each hour of the range from a single stream of the range's events.
+   *
+   * <p>Events arrive ordered by timestamp, so each hour's events are gathered until the first event
+   * of a later hour is seen, at which point the completed hour is applied to the inventory and
+   * tallied. Hours are offsets from the effective start (which is not necessarily the top of an
+   * hour), and the last hour may extend past the effective end, exactly as when each hour was
+   * queried separately.
+   */
   private Map<OffsetDateTime, AccountUsageCalculation> collectHourlyCalculations(
       AccountServiceInventory accountServiceInventory,
       OffsetDateTime effectiveStartDateTime,
       OffsetDateTime effectiveEndDateTime) {
     Map<OffsetDateTime, AccountUsageCalculation> accountCalcs = new HashMap<>();
-    for (OffsetDateTime offset = effectiveStartDateTime;
-        offset.isBefore(effectiveEndDateTime);
-        offset = offset.plusHours(1)) {
-      AccountUsageCalculation accountUsageCalculation =
-          collectHour(accountServiceInventory, offset);
-
-      if (accountUsageCalculation != null) {
-        // The associated account number for a calculation has already been determined from the
-        // hosts instances (based on the event). Pass that info along if it isn't already known.
-        if (!StringUtils.hasText(accountServiceInventory.getAccountNumber())
-            && StringUtils.hasText(accountUsageCalculation.getAccount())) {
-          accountServiceInventory.setAccountNumber(accountUsageCalculation.getAccount());
-        }
+    // the end of the last hour starting before the effective end
+    OffsetDateTime rangeEnd = effectiveStartDateTime;
+    while (rangeEnd.isBefore(effectiveEndDateTime)) {
+      rangeEnd = rangeEnd.plusHours(1);
+    }
+    if (rangeEnd.equals(effectiveStartDateTime)) {
+      return accountCalcs;
+    }
 
-        if (!accountUsageCalculation.getKeys().isEmpty()) {
-          accountCalcs.put(offset, accountUsageCalculation);
+    HourOfEvents currentHour = null;
+    try (Stream<Event> events =
+        eventController.fetchEventsInTimeRangeByServiceType(
+            accountServiceInventory.getOrgId(),
+            accountServiceInventory.getServiceType(),
+            effectiveStartDateTime,
+            rangeEnd)) {
+      for (Event event : (Iterable<Event>) events::iterator) {
+        OffsetDateTime hour =
+            effectiveStartDateTime.plusHours(
+                Duration.between(effectiveStartDateTime, event.getTimestamp()).toHours());
+        if (currentHour == null || !currentHour.start().equals(hour)) {
+          if (currentHour != null) {
+            tallyHour(accountServiceInventory, currentHour, accountCalcs);
+          }
+          currentHour = new HourOfEvents(hour, new HashMap<>());
         }
+        // We group events by instanceId so that we can clear the measurements on first access,
+        // if the instance already exists for the accountServiceInventory.
+        currentHour
+            .eventsByInstance()
+            .computeIfAbsent(event.getInstanceId(), instanceId -> new ArrayList<>())
+            .add(event);
       }
     }
+    if (currentHour != null) {
+      tallyHour(accountServiceInventory, currentHour, accountCalcs);
+    }
     return accountCalcs;
   }
 
+  private void tallyHour(
+      AccountServiceInventory accountServiceInventory,
+      HourOfEvents hour,
+      Map<OffsetDateTime, AccountUsageCalculation> accountCalcs) {
+    AccountUsageCalculation accountUsageCalculation =
+        applyEvents(accountServiceInventory, hour.eventsByInstance());
+
+    if (accountUsageCalculation != null) {
+      // The associated account number for a calculation has already been determined from the
+      // hosts instances (based on the event). Pass that info along if it isn't already known.
+      if (!StringUtils.hasText(accountServiceInventory.getAccountNumber())
+          && StringUtils.hasText(accountUsageCalculation.getAccount())) {
+        accountServiceInventory.setAccountNumber(accountUsageCalculation.getAccount());
+      }
+
+      if (!accountUsageCalculation.getKeys().isEmpty()) {
+        accountCalcs.put(hour.start(), accountUsageCalculation);
+      }
+    }
+  }
+
   @Transactional
   public AccountUsageCalculation collectHour(
       AccountServiceInventory accountServiceInventory, OffsetDateTime startDateTime) {
@@ -217,7 +268,12 @@ public class MetricUsageCollector {
             // We group fetched events by instanceId so that we can clear the measurements
             // on first access, if the instance already exists for the accountServiceInventory.
             .collect(Collectors.groupingBy(Event::getInstanceId));
+    return applyEvents(accountServiceInventory, eventToHostMapping);
+  }
 
+  private AccountUsageCalculation applyEvents(
+      AccountServiceInventory accountServiceInventory,
+      Map<String, List<Event>> eventToHostMapping) {
     Map<String, Host> thisHoursInstances = new HashMap<>();
     eventToHostMapping.forEach(
         (instanceId, events) -> {
@@ -248,6 +304,9 @@ public class MetricUsageCollector {
     return tallyCurrentAccountState(accountServiceInventory, thisHoursInstances);
   }
 
+  /** Events of one hour of a tally range, grouped by instance ID. */
+  private record HourOfEvents(OffsetDateTime start, Map<String, List<Event>> eventsByInstance) {}
+
   private AccountUsageCalculation tallyCurrentAccountState(
       AccountServiceInventory accountInventory, Map<String, Host> thisHoursInstances) {
     if (thisHoursInstances.isEmpty()) {
@@ -20,11 +20,16 @@
  */
 package org.candlepin.subscriptions.tally;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.candlepin.subscriptions.db.model.TallySnapshot;
 import org.candlepin.subscriptions.json.TallySummary;
 import org.slf4j.Logger;
@@ -32,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 
@@ -44,6 +50,8 @@ public class SnapshotSummaryProducer {
   private final KafkaTemplate<String, TallySummary> tallySummaryKafkaTemplate;
   private final RetryTemplate kafkaRetryTemplate;
   private final TallySummaryMapper summaryMapper;
+  private final int maxSnapshotsPerMessage;
+  private final int maxInFlightMessages;
 
   @Autowired
   protected SnapshotSummaryProducer(
@@ -56,52 +64,111 @@ public class SnapshotSummaryProducer {
     this.kafkaRetryTemplate = kafkaRetryTemplate;
     this.tallySummaryKafkaTemplate = tallySummaryKafkaTemplate;
     this.summaryMapper = summaryMapper;
+    this.maxSnapshotsPerMessage = Math.max(1, props.getMaxSnapshotsPerMessage());
+    this.maxInFlightMessages = Math.max(1, props.getMaxInFlightMessages());
   }
 
+  /**
+   * Send the TallySummary messages of new and updated snapshots, returning once every message has
+   * been acknowledged (or has failed).
+   *
+   * <p>Each org's snapshots are sent in snapshot date order, keyed by org ID so that they stay in
+   * order on the topic. Up to max-snapshots-per-message snapshots are packed into each message, and
+   * up to max-in-flight-messages sends are pipelined before waiting for the oldest one.
+   *
+   * @param newAndUpdatedSnapshots snapshots to send, by org ID
+   */
   public void produceTallySummaryMessages(Map<String, List<TallySnapshot>> newAndUpdatedSnapshots) {
-    AtomicInteger totalTallies = new AtomicInteger();
-    newAndUpdatedSnapshots.forEach(
-        (orgId, snapshots) ->
-            snapshots.stream()
-                .sorted(Comparator.comparing(TallySnapshot::getSnapshotDate))
-                .map(
-                    snapshot ->
-                        summaryMapper.mapSnapshots(
-                            snapshot.getAccountNumber(), orgId, List.of(snapshot)))
-                .forEach(
-                    summary -> {
-                      if (validateTallySummary(summary)) {
-                        kafkaRetryTemplate.execute(
-                            ctx ->
-                                tallySummaryKafkaTemplate.send(tallySummaryTopic, orgId, summary));
-                        totalTallies.getAndIncrement();
-                      }
-                    }));
+    Deque<CompletableFuture<SendResult<String, TallySummary>>> inFlight = new ArrayDeque<>();
+    int totalTallies = 0;
+    int failedTallies = 0;
+    for (Map.Entry<String, List<TallySnapshot>> entry : newAndUpdatedSnapshots.entrySet()) {
+      String orgId = entry.getKey();
+      for (List<TallySnapshot> snapshots : coalesce(entry.getValue())) {
+        TallySummary summary =
+            summaryMapper.mapSnapshots(snapshots.get(0).getAccountNumber(), orgId, snapshots);
+        if (!validateTallySummary(summary)) {
+          continue;
+        }
+        if (inFlight.size() >= maxInFlightMessages && !awaitDelivery(inFlight.poll())) {
+          failedTallies++;
+        }
+        inFlight.add(
+            kafkaRetryTemplate.execute(
+                ctx -> tallySummaryKafkaTemplate.send(tallySummaryTopic, orgId, summary)));
+        totalTallies++;
+      }
+    }
+
+    // wait for the remaining sends so that callers know delivery has finished
+    while (!inFlight.isEmpty()) {
+      if (!awaitDelivery(inFlight.poll())) {
+        failedTallies++;
+      }
+    }
+    if (failedTallies > 0) {
+      log.error("Failed to deliver {} of {} TallySummary messages", failedTallies, totalTallies);
+    }
+    log.info("Produced {} TallySummary messages", totalTallies - failedTallies);
+  }
 
-    log.info("Produced {} TallySummary messages", totalTallies);
+  /**
+   * Split an org's snapshots into the groups sent together, in snapshot date order. A group never
+   * exceeds max-snapshots-per-message snapshots, nor mixes account numbers.
+   */
+  private List<List<TallySnapshot>> coalesce(List<TallySnapshot> snapshots) {
+    List<TallySnapshot> sorted =
+        snapshots.stream().sorted(Comparator.comparing(TallySnapshot::getSnapshotDate)).toList();
+    List<List<TallySnapshot>> groups = new ArrayList<>();
+    List<TallySnapshot> group = new ArrayList<>();
+    for (TallySnapshot snapshot : sorted) {
+      if (!group.isEmpty()
+          && (group.size() >= maxSnapshotsPerMessage
+              || !Objects.equals(
+                  group.get(0).getAccountNumber(), snapshot.getAccountNumber()))) {
+        groups.add(group);
+        group = new ArrayList<>();
+      }
+      group.add(snapshot);
+    }
+    if (!group.isEmpty()) {
+      groups.add(group);
+    }
+    return groups;
+  }
+
+  private boolean awaitDelivery(CompletableFuture<SendResult<String, TallySummary>> send) {
+    try {
+      send.join();
+      return true;
+    } catch (CompletionException | CancellationException e) {
+      log.error("Unable to deliver TallySummary message", e);
+      return false;
+    }
   }
 
   /**
    * Validates a TallySummary to make sure that it has all the information required by the RH
-   * marketplace API. Any issues will be logged.
+   * marketplace API. Snapshots missing information are removed from the summary, and any issues
+   * will be logged.
    *
    * @param summary the summary to validate.
-   * @return true if the TallySummary is valid, false otherwise.
+   * @return true if the TallySummary still has valid snapshots, false otherwise.
    */
   private boolean validateTallySummary(TallySummary summary) {
     // RH Marketplace requires at least one measurement be included in the Event
-    Optional<org.candlepin.subscriptions.json.TallySnapshot> invalidDueToMeasurements =
+    List<org.candlepin.subscriptions.json.TallySnapshot> invalidDueToMeasurements =
         summary.getTallySnapshots().stream()
             .filter(snap -> snap.getTallyMeasurements().isEmpty())
-            .findFirst();
-    if (invalidDueToMeasurements.isPresent()) {
+            .toList();
+    if (!invalidDueToMeasurements.isEmpty()) {
       log.warn(
           "One or more tally summary snapshots did not have measurements. "
-              + "No usage will be sent to RH marketplace for this summary.\n{}",
+              + "No usage will be sent to RH marketplace for these snapshots.\n{}",
           summary);
-      return false;
+      summary.getTallySnapshots().removeIf(snap -> snap.getTallyMeasurements().isEmpty());
     }
 
-    return true;
+    return !summary.getTallySnapshots().isEmpty();
   }
 }
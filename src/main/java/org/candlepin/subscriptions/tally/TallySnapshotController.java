@@ -23,12 +23,17 @@ package org.candlepin.subscriptions.tally;
 import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
 import com.redhat.swatch.configuration.registry.Variant;
 import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.db.AccountConfigRepository;
 import org.candlepin.subscriptions.db.model.Granularity;
 import org.candlepin.subscriptions.db.model.TallySnapshot;
@@ -55,6 +60,9 @@ public class TallySnapshotController {
   private final CombiningRollupSnapshotStrategy combiningRollupSnapshotStrategy;
   private final RetryTemplate retryTemplate;
   private final SnapshotSummaryProducer summaryProducer;
+  private final MeterRegistry meterRegistry;
+  private final Executor serviceTypeExecutor;
+  private final int hourlyTallyServiceTypeParallelism;
 
   @Autowired
   public TallySnapshotController(
@@ -64,7 +72,10 @@ public class TallySnapshotController {
       @Qualifier("collectorRetryTemplate") RetryTemplate retryTemplate,
       MetricUsageCollector metricUsageCollector,
       CombiningRollupSnapshotStrategy combiningRollupSnapshotStrategy,
-      SnapshotSummaryProducer summaryProducer) {
+      SnapshotSummaryProducer summaryProducer,
+      MeterRegistry meterRegistry,
+      @Qualifier("hourlyTallyServiceTypeExecutor") Executor serviceTypeExecutor,
+      ApplicationProperties props) {
 
     this.accountRepo = accountRepo;
     this.usageCollector = usageCollector;
@@ -73,6 +84,9 @@ public class TallySnapshotController {
     this.metricUsageCollector = metricUsageCollector;
     this.combiningRollupSnapshotStrategy = combiningRollupSnapshotStrategy;
     this.summaryProducer = summaryProducer;
+    this.meterRegistry = meterRegistry;
+    this.serviceTypeExecutor = serviceTypeExecutor;
+    this.hourlyTallyServiceTypeParallelism = props.getHourlyTallyServiceTypeParallelism();
   }
 
   @Timed("rhsm-subscriptions.snapshots.single")
@@ -109,56 +123,83 @@ public class TallySnapshotController {
     String accountNumber = accountRepo.findAccountNumberByOrgId(orgId);
     log.info("Producing snapshots for Org ID {} with Account {}.", orgId, accountNumber);
     List<String> serviceTypes = SubscriptionDefinition.getAllServiceTypes();
-    for (String serviceType : serviceTypes) {
+    if (hourlyTallyServiceTypeParallelism > 1 && serviceTypes.size() > 1) {
+      // Service types tally disjoint data, so they can be tallied concurrently; each runs its
+      // own transactions on the worker thread.
+      List<CompletableFuture<Void>> futures =
+          serviceTypes.stream()
+              .map(
+                  serviceType ->
+                      CompletableFuture.runAsync(
+                          () ->
+                              produceHourlySnapshotsForServiceType(
+                                  orgId, accountNumber, serviceType, snapshotRange),
+                          serviceTypeExecutor))
+              .toList();
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    } else {
+      for (String serviceType : serviceTypes) {
+        produceHourlySnapshotsForServiceType(orgId, accountNumber, serviceType, snapshotRange);
+      }
+    }
+  }
+
+  private void produceHourlySnapshotsForServiceType(
+      String orgId, String accountNumber, String serviceType, DateRange snapshotRange) {
+    log.info(
+        "Producing hourly snapshots for orgId {} for service type {} "
+            + "between startDateTime {} and endDateTime {}",
+        orgId,
+        serviceType,
+        snapshotRange.getStartString(),
+        snapshotRange.getEndString());
+    Timer.Sample serviceTypeTime = Timer.start();
+    try {
+      var result =
+          retryTemplate.execute(
+              context ->
+                  metricUsageCollector.collect(serviceType, accountNumber, orgId, snapshotRange));
+      if (result == null) {
+        return;
+      }
+
+      var applicableUsageCalculations =
+          result.getCalculations().entrySet().stream()
+              .filter(this::isCombiningRollupStrategySupported)
+              .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+      Set<String> tags =
+          SubscriptionDefinition.findByServiceType(serviceType).stream()
+              .map(SubscriptionDefinition::getVariants)
+              .flatMap(List::stream)
+              .map(Variant::getTag)
+              .collect(Collectors.toSet());
+
+      Map<String, List<TallySnapshot>> totalSnapshots =
+          combiningRollupSnapshotStrategy.produceSnapshotsFromCalculations(
+              orgId,
+              result.getRange(),
+              tags,
+              applicableUsageCalculations,
+              Granularity.HOURLY,
+              Double::sum);
+
+      summaryProducer.produceTallySummaryMessages(totalSnapshots);
       log.info(
-          "Producing hourly snapshots for orgId {} for service type {} "
-              + "between startDateTime {} and endDateTime {}",
+          "Finished producing hourly snapshots for account {} with orgId {}",
+          accountNumber,
+          orgId);
+    } catch (Exception e) {
+      log.error(
+          "Could not collect metrics and/or produce snapshots for account {} with orgId {}",
+          accountNumber,
           orgId,
-          serviceType,
-          snapshotRange.getStartString(),
-          snapshotRange.getEndString());
-      try {
-        var result =
-            retryTemplate.execute(
-                context ->
-                    metricUsageCollector.collect(serviceType, accountNumber, orgId, snapshotRange));
-        if (result == null) {
-          continue;
-        }
-
-        var applicableUsageCalculations =
-            result.getCalculations().entrySet().stream()
-                .filter(this::isCombiningRollupStrategySupported)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-        Set<String> tags =
-            SubscriptionDefinition.findByServiceType(serviceType).stream()
-                .map(SubscriptionDefinition::getVariants)
-                .flatMap(List::stream)
-                .map(Variant::getTag)
-                .collect(Collectors.toSet());
-
-        Map<String, List<TallySnapshot>> totalSnapshots =
-            combiningRollupSnapshotStrategy.produceSnapshotsFromCalculations(
-                orgId,
-                result.getRange(),
-                tags,
-                applicableUsageCalculations,
-                Granularity.HOURLY,
-                Double::sum);
-
-        summaryProducer.produceTallySummaryMessages(totalSnapshots);
-        log.info(
-            "Finished producing hourly snapshots for account {} with orgId {}",
-            accountNumber,
-            orgId);
-      } catch (Exception e) {
-        log.error(
-            "Could not collect metrics and/or produce snapshots for account {} with orgId {}",
-            accountNumber,
-            orgId,
-            e);
-      }
+          e);
+    } finally {
+      serviceTypeTime.stop(
+          Timer.builder("rhsm-subscriptions.snapshots.single.hourly.service_type")
+              .tag("service_type", serviceType)
+              .register(meterRegistry));
     }
   }
 
@@ -40,4 +40,13 @@ public class TallySummaryProperties {
 
   /** Outgoing topic */
   private String topic;
+
+  /**
+   * Maximum number of snapshots packed into a single TallySummary message. The default of 1 sends
+   * each snapshot in its own message.
+   */
+  private int maxSnapshotsPerMessage = 1;
+
+  /** Maximum number of messages sent without having been acknowledged by the broker. */
+  private int maxInFlightMessages = 100;
 }
@@ -188,6 +188,40 @@ public class TallyWorkerConfiguration {
     return executor;
   }
 
+  @Bean(name = "reconcileRunningTotalsJobExecutor")
+  public Executor getReconcileRunningTotalsJobExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("reconcile-running-totals-");
+    // Ensure that we can only have one task running.
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(0);
+    executor.initialize();
+    return executor;
+  }
+
+  @Bean(name = "hbiReconciliationExecutor")
+  public Executor getHbiReconciliationExecutor(ApplicationProperties applicationProperties) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("hbi-reconciliation-");
+    // Bounds the number of partitions reconciled at once, across all orgs.
+    executor.setCorePoolSize(applicationProperties.getHbiReconciliationPartitionParallelism());
+    executor.setMaxPoolSize(applicationProperties.getHbiReconciliationPartitionParallelism());
+    executor.initialize();
+    return executor;
+  }
+
+  @Bean(name = "hourlyTallyServiceTypeExecutor")
+  public Executor getHourlyTallyServiceTypeExecutor(ApplicationProperties applicationProperties) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("hourly-tally-service-type-");
+    // Bounds the number of service types tallied at once, across all orgs.
+    executor.setCorePoolSize(applicationProperties.getHourlyTallyServiceTypeParallelism());
+    executor.setMaxPoolSize(applicationProperties.getHourlyTallyServiceTypeParallelism());
+    executor.initialize();
+    return executor;
+  }
+
   @Bean
   @Qualifier("serviceInstanceConsumerFactory")
   ConsumerFactory<String, String> serviceInstanceConsumerFactory(
@@ -0,0 +1,107 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.candlepin.subscriptions.db.model.BillingProvider;
+import org.candlepin.subscriptions.db.model.ServiceLevel;
+import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.tally.UsageCalculation.Key;
+import org.candlepin.subscriptions.tally.facts.NormalizedFacts;
+
+/**
+ * Precomputed, immutable catalog of the usage keys an HBI host can contribute to.
+ *
+ * <p>Every product × SLA × usage key (with the _ANY billing provider and billing account used for
+ * HBI data) is created once up front, so enumerating a host's keys only looks up shared {@link
+ * Key} instances for the products actually present on the host. Safe for use from concurrent
+ * reconciliation partitions.
+ */
+public class UsageKeyCatalog {
+
+  static final String ANY_BILLING_ACCOUNT_ID = "_ANY";
+
+  private static final ServiceLevel[] SLAS = ServiceLevel.values();
+  private static final Usage[] USAGES = Usage.values();
+
+  private final Set<String> products;
+  private final Map<String, Key[][]> keysByProduct;
+
+  public UsageKeyCatalog(Set<String> products) {
+    this.products = Set.copyOf(products);
+    Map<String, Key[][]> keys = new HashMap<>();
+    for (String product : this.products) {
+      Key[][] productKeys = new Key[SLAS.length][USAGES.length];
+      for (ServiceLevel sla : SLAS) {
+        for (Usage usage : USAGES) {
+          productKeys[sla.ordinal()][usage.ordinal()] =
+              new Key(product, sla, usage, BillingProvider._ANY, ANY_BILLING_ACCOUNT_ID);
+        }
+      }
+      keys.put(product, productKeys);
+    }
+    this.keysByProduct = Collections.unmodifiableMap(keys);
+  }
+
+  /**
+   * @return the products this catalog was built for
+   */
+  public Set<String> getProducts() {
+    return products;
+  }
+
+  /**
+   * Get the usage keys a host contributes to: each of the host's products known to this catalog,
+   * combined with the host's SLA and usage as well as the _ANY SLA and usage.
+   *
+   * @param facts normalized facts of the host
+   * @return distinct keys, shared between all hosts using the same catalog
+   */
+  public List<Key> keysFor(NormalizedFacts facts) {
+    ServiceLevel sla = facts.getSla();
+    Usage usage = facts.getUsage();
+    boolean anySla = sla == ServiceLevel._ANY;
+    boolean anyUsage = usage == Usage._ANY;
+    List<Key> keys = new ArrayList<>(facts.getProducts().size() * 4);
+    for (String product : facts.getProducts()) {
+      Key[][] productKeys = keysByProduct.get(product);
+      if (productKeys == null) {
+        continue;
+      }
+      keys.add(productKeys[sla.ordinal()][usage.ordinal()]);
+      if (!anyUsage) {
+        keys.add(productKeys[sla.ordinal()][Usage._ANY.ordinal()]);
+      }
+      if (!anySla) {
+        keys.add(productKeys[ServiceLevel._ANY.ordinal()][usage.ordinal()]);
+        if (!anyUsage) {
+          keys.add(productKeys[ServiceLevel._ANY.ordinal()][Usage._ANY.ordinal()]);
+        }
+      }
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally.admin;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+
+/**
+ * Backfills the event attribute columns (service_type, billing_provider, metric_id) from the event
+ * JSON, one batch of orgs at a time.
+ */
+@Slf4j
+public class EventAttributesMigration extends DataMigration {
+
+  public static final SqlRowSetResultSetExtractor SQL_ROW_SET_RESULT_SET_EXTRACTOR =
+      new SqlRowSetResultSetExtractor();
+
+  public static final String UPDATE_SQL =
+      """
+      update events
+      set service_type = data->>'service_type',
+        billing_provider = data->>'billing_provider',
+        metric_id = case when jsonb_array_length(data->'measurements') = 1
+          then data->'measurements'->0->>'uom' end
+      where org_id = ? and service_type is null and data->>'service_type' is not null""";
+
+  // walks the distinct org IDs of the events primary key without scanning every event
+  private static final String ORG_QUERY =
+      """
+      with recursive orgs as (
+        (select org_id from events where ?::varchar is null or org_id > ? order by org_id limit 1)
+        union all
+        select (
+          select e.org_id from events e where e.org_id > orgs.org_id order by e.org_id limit 1)
+        from orgs where orgs.org_id is not null
+      )
+      select org_id from orgs where org_id is not null
+      limit ?""";
+
+  private final Counter counter;
+
+  public EventAttributesMigration(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+    super(jdbcTemplate, meterRegistry);
+    counter = meterRegistry.counter("swatch_event_attributes_migration");
+  }
+
+  @Override
+  public SqlRowSet extract(String recordOffset, int batchSize) {
+    return jdbcTemplate.query(
+        ORG_QUERY,
+        new Object[] {recordOffset, recordOffset, batchSize},
+        new int[] {Types.VARCHAR, Types.VARCHAR, Types.NUMERIC},
+        SQL_ROW_SET_RESULT_SET_EXTRACTOR);
+  }
+
+  @Override
+  public String transformAndLoad(SqlRowSet data) {
+    String lastSeenOrgId = null;
+    List<Object[]> updateList = new ArrayList<>();
+    while (data.next()) {
+      lastSeenOrgId = data.getString("org_id");
+      updateList.add(new Object[] {lastSeenOrgId});
+    }
+    int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, updateList);
+    int eventCount = 0;
+    for (int count : updated) {
+      eventCount += Math.max(count, 0);
+    }
+    log.debug("Migrated attributes of {} events up to orgId: {}", eventCount, lastSeenOrgId);
+    counter.increment(eventCount);
+    return lastSeenOrgId;
+  }
+
+  @Override
+  public void recordCompleted() {
+    // md5sum is left null, liquibase fills it in on its next run
+    markLiquibaseChangesetRan(
+        jdbcTemplate,
+        Map.of(
+            "id",
+            "202310091200-2",
+            "author",
+            "agent",
+            "filename",
+            "liquibase/202310091200-promote-event-attributes.xml"));
+  }
+}
@@ -39,6 +39,7 @@ import org.candlepin.subscriptions.tally.admin.api.model.TallyResend;
 import org.candlepin.subscriptions.tally.admin.api.model.TallyResendData;
 import org.candlepin.subscriptions.tally.admin.api.model.TallyResponse;
 import org.candlepin.subscriptions.tally.admin.api.model.UuidList;
+import org.candlepin.subscriptions.tally.billing.BillableUsageRunningTotalController;
 import org.candlepin.subscriptions.tally.job.CaptureSnapshotsTaskManager;
 import org.candlepin.subscriptions.util.ApplicationClock;
 import org.candlepin.subscriptions.util.DateRange;
@@ -61,6 +62,7 @@ public class InternalTallyResource implements InternalApi {
   private final RemittanceRetentionController remittanceRetentionController;
   private final InternalTallyDataController internalTallyDataController;
   private final SecurityProperties properties;
+  private final BillableUsageRunningTotalController runningTotalController;
 
   public static final String FEATURE_NOT_ENABLED_MESSSAGE =
       "This feature is not currently enabled.";
@@ -77,7 +79,8 @@ public class InternalTallyResource implements InternalApi {
       TallyRetentionController tallyRetentionController,
       RemittanceRetentionController remittanceRetentionController,
       InternalTallyDataController internalTallyDataController,
-      SecurityProperties properties) {
+      SecurityProperties properties,
+      BillableUsageRunningTotalController runningTotalController) {
     this.clock = clock;
     this.applicationProperties = applicationProperties;
     this.resendTallyController = resendTallyController;
@@ -87,6 +90,7 @@ public class InternalTallyResource implements InternalApi {
     this.remittanceRetentionController = remittanceRetentionController;
     this.internalTallyDataController = internalTallyDataController;
     this.properties = properties;
+    this.runningTotalController = runningTotalController;
   }
 
   @Override
@@ -141,6 +145,18 @@ public class InternalTallyResource implements InternalApi {
     return getDefaultResponse(SUCCESS_STATUS);
   }
 
+  @Override
+  public DefaultResponse reconcileBillableUsageRunningTotals() {
+    try {
+      log.info("Initiating billable usage running totals reconciliation.");
+      runningTotalController.reconcileAsync();
+    } catch (TaskRejectedException e) {
+      log.warn("A running totals reconciliation job is already running.");
+      return getDefaultResponse(REJECTED_STATUS);
+    }
+    return getDefaultResponse(SUCCESS_STATUS);
+  }
+
   /**
    * Clear tallies, hosts, and events for a given org ID. Enabled via ENABLE_ACCOUNT_RESET
    * environment variable. Intended only for non-prod environments.
@@ -23,7 +23,18 @@ package org.candlepin.subscriptions.tally.billing;
 import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.db.BillableUsageRemittanceFilter;
 import org.candlepin.subscriptions.db.BillableUsageRemittanceRepository;
@@ -41,6 +52,8 @@ import org.candlepin.subscriptions.exception.ErrorCode;
 import org.candlepin.subscriptions.json.BillableUsage;
 import org.candlepin.subscriptions.util.ApplicationClock;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Component
@@ -51,18 +64,21 @@ public class BillableUsageController {
   private final BillableUsageRemittanceRepository billableUsageRemittanceRepository;
   private final TallySnapshotRepository snapshotRepository;
   private final ContractsController contractsController;
+  private final BillableUsageRunningTotalController runningTotalController;
 
   public BillableUsageController(
       ApplicationClock clock,
       BillingProducer billingProducer,
       BillableUsageRemittanceRepository billableUsageRemittanceRepository,
       TallySnapshotRepository snapshotRepository,
-      ContractsController contractsController) {
+      ContractsController contractsController,
+      BillableUsageRunningTotalController runningTotalController) {
     this.clock = clock;
     this.billingProducer = billingProducer;
     this.billableUsageRemittanceRepository = billableUsageRemittanceRepository;
     this.snapshotRepository = snapshotRepository;
     this.contractsController = contractsController;
+    this.runningTotalController = runningTotalController;
   }
 
   public void submitBillableUsage(BillableUsage usage) {
@@ -71,6 +87,79 @@ public class BillableUsageController {
     billingProducer.produce(produceMonthlyBillable(usage));
   }
 
+  /**
+   * Submit a batch of billable usages, e.g. those of several tally summaries.
+   *
+   * <p>Unlike calling {@link #submitBillableUsage(BillableUsage)} for each usage, the running
+   * totals and the remittance summaries of the whole batch are each loaded with a single query,
+   * the new remittances are inserted together, and the billable usages are sent without waiting
+   * for each send to complete. Only the latest usage of each metric is billed: its measured total
+   * includes the usage of the earlier ones, so it bills them all with a single send.
+   *
+   * <p>A failed send does not roll back the batch: only the remittances of the usages that failed
+   * to send are dropped, so that retrying the returned usages does not bill the others again. This
+   * must be called within a transaction, which the caller commits even when some sends failed.
+   *
+   * @param usages the billable usages to submit
+   * @return the usages that failed to send, to be submitted again
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public List<BillableUsage> submitBillableUsages(List<BillableUsage> usages) {
+    if (usages.isEmpty()) {
+      return List.of();
+    }
+    Collection<BillableUsage> latestUsages = latestUsagePerMetric(usages);
+    var runningTotals = runningTotalController.findRunningTotals(latestUsages);
+    Map<BillableUsageRemittanceEntityPK, Double> totalsRemitted = getTotalsRemitted(latestUsages);
+    Map<BillableUsageRemittanceEntityPK, BillableUsageRemittanceEntity> newRemittances =
+        new LinkedHashMap<>();
+    List<BillableUsage> billables = new ArrayList<>(latestUsages.size());
+    for (BillableUsage usage : latestUsages) {
+      double currentlyMeasuredTotal =
+          runningTotalController
+              .getMeasuredTotal(usage, runningTotals)
+              .orElseGet(() -> sumHourlySnapshots(usage));
+      var summaryKey = remittanceSummaryKey(usage);
+      billables.add(
+          produceMonthlyBillable(
+              usage,
+              currentlyMeasuredTotal,
+              () -> totalsRemitted.getOrDefault(summaryKey, 0.0),
+              remittance -> newRemittances.put(summaryKey, remittance)));
+    }
+    billableUsageRemittanceRepository.insertAll(newRemittances.values());
+    // Send the messages last to ensure that remittance has been updated.
+    List<BillableUsage> failed = billingProducer.produceAll(billables);
+    if (!failed.isEmpty()) {
+      log.warn("Failed to send {} of {} billable usages", failed.size(), billables.size());
+      List<BillableUsageRemittanceEntity> unsentRemittances =
+          failed.stream()
+              .map(usage -> newRemittances.get(remittanceSummaryKey(usage)))
+              .filter(Objects::nonNull)
+              .toList();
+      if (!unsentRemittances.isEmpty()) {
+        billableUsageRemittanceRepository.deleteAll(unsentRemittances);
+      }
+    }
+    return failed;
+  }
+
+  /**
+   * Keep the usage with the latest snapshot date of each metric, in the order of the batch. Later
+   * usages win ties, as they would when processed one by one.
+   */
+  private static Collection<BillableUsage> latestUsagePerMetric(List<BillableUsage> usages) {
+    Map<BillableUsageRemittanceEntityPK, BillableUsage> latest = new LinkedHashMap<>();
+    for (BillableUsage usage : usages) {
+      latest.merge(
+          remittanceSummaryKey(usage),
+          usage,
+          (existing, added) ->
+              added.getSnapshotDate().isBefore(existing.getSnapshotDate()) ? existing : added);
+    }
+    return latest.values();
+  }
+
   public double getTotalRemitted(BillableUsage billableUsage) {
     BillableUsageRemittanceEntityPK key =
         BillableUsageRemittanceEntityPK.keyFrom(billableUsage, clock.now());
@@ -135,7 +224,56 @@ public class BillableUsageController {
         .build();
   }
 
+  private Map<BillableUsageRemittanceEntityPK, Double> getTotalsRemitted(
+      Collection<BillableUsage> usages) {
+    Set<String> orgIds = new HashSet<>();
+    Set<String> accumulationPeriods = new HashSet<>();
+    usages.forEach(
+        usage -> {
+          orgIds.add(usage.getOrgId());
+          accumulationPeriods.add(
+              BillableUsageRemittanceEntityPK.getAccumulationPeriod(usage.getSnapshotDate()));
+        });
+    Map<BillableUsageRemittanceEntityPK, Double> totalsRemitted = new HashMap<>();
+    billableUsageRemittanceRepository
+        .getRemittanceSummaries(orgIds, accumulationPeriods)
+        .forEach(
+            summary ->
+                totalsRemitted.put(
+                    BillableUsageRemittanceEntityPK.builder()
+                        .orgId(summary.getOrgId())
+                        .productId(summary.getProductId())
+                        .metricId(summary.getMetricId())
+                        .accumulationPeriod(summary.getAccumulationPeriod())
+                        .sla(summary.getSla())
+                        .usage(summary.getUsage())
+                        .billingProvider(summary.getBillingProvider())
+                        .billingAccountId(summary.getBillingAccountId())
+                        .build(),
+                    summary.getTotalRemittedPendingValue()));
+    return totalsRemitted;
+  }
+
+  private static BillableUsageRemittanceEntityPK remittanceSummaryKey(BillableUsage usage) {
+    return BillableUsageRemittanceEntityPK.keyFrom(usage, null);
+  }
+
   private BillableUsage produceMonthlyBillable(BillableUsage usage) {
+    Double currentlyMeasuredTotal =
+        getCurrentlyMeasuredTotal(
+            usage, clock.startOfMonth(usage.getSnapshotDate()), usage.getSnapshotDate());
+    return produceMonthlyBillable(
+        usage,
+        currentlyMeasuredTotal,
+        () -> getTotalRemitted(usage),
+        billableUsageRemittanceRepository::save);
+  }
+
+  private BillableUsage produceMonthlyBillable(
+      BillableUsage usage,
+      double currentlyMeasuredTotal,
+      DoubleSupplier totalRemittedSupplier,
+      Consumer<BillableUsageRemittanceEntity> remittanceConsumer) {
     log.info(
         "Processing monthly billable usage for orgId={} productId={} uom={} provider={}, billingAccountId={} snapshotDate={}",
         usage.getOrgId(),
@@ -146,10 +284,6 @@ public class BillableUsageController {
         usage.getSnapshotDate());
     log.debug("Usage: {}", usage);
 
-    Double currentlyMeasuredTotal =
-        getCurrentlyMeasuredTotal(
-            usage, clock.startOfMonth(usage.getSnapshotDate()), usage.getSnapshotDate());
-
     Optional<Double> contractValue = Optional.of(0.0);
     if (SubscriptionDefinition.isContractEnabled(usage.getProductId())) {
       try {
@@ -187,7 +321,7 @@ public class BillableUsageController {
             .positiveOrZero() // ignore usage less than the contract amount
             .getValue();
 
-    var totalRemitted = getTotalRemitted(usage);
+    var totalRemitted = totalRemittedSupplier.getAsDouble();
     BillableUsageCalculation usageCalc =
         calculateBillableUsage(applicableUsage, usage, totalRemitted);
 
@@ -204,7 +338,7 @@ public class BillableUsageController {
     usage.setBillingFactor(usageCalc.getBillingFactor());
 
     if (usageCalc.getRemittedValue() > 0) {
-      createRemittance(usage, usageCalc);
+      remittanceConsumer.accept(createRemittance(usage, usageCalc));
     } else {
       log.debug("Nothing to remit. Remittance record will not be created.");
     }
@@ -219,7 +353,8 @@ public class BillableUsageController {
     return usage;
   }
 
-  private void createRemittance(BillableUsage usage, BillableUsageCalculation usageCalc) {
+  private BillableUsageRemittanceEntity createRemittance(
+      BillableUsage usage, BillableUsageCalculation usageCalc) {
     var newRemittance =
         BillableUsageRemittanceEntity.builder()
             .key(BillableUsageRemittanceEntityPK.keyFrom(usage, clock.now()))
@@ -229,11 +364,26 @@ public class BillableUsageController {
     newRemittance.getKey().setRemittancePendingDate(usageCalc.getRemittanceDate());
     newRemittance.setAccountNumber(usage.getAccountNumber());
     log.debug("Creating new remittance for update: {}", newRemittance);
-    billableUsageRemittanceRepository.save(newRemittance);
+    return newRemittance;
   }
 
   private Double getCurrentlyMeasuredTotal(
       BillableUsage usage, OffsetDateTime beginning, OffsetDateTime ending) {
+    Optional<Double> runningTotal = runningTotalController.getMeasuredTotal(usage);
+    if (runningTotal.isPresent()) {
+      return runningTotal.get();
+    }
+    log.debug("No running total applicable for usage, summing hourly snapshots instead.");
+    return sumHourlySnapshots(usage, beginning, ending);
+  }
+
+  private Double sumHourlySnapshots(BillableUsage usage) {
+    return sumHourlySnapshots(
+        usage, clock.startOfMonth(usage.getSnapshotDate()), usage.getSnapshotDate());
+  }
+
+  private Double sumHourlySnapshots(
+      BillableUsage usage, OffsetDateTime beginning, OffsetDateTime ending) {
     // NOTE: We are filtering billable usage to PHYSICAL hardware as that's the only
     //       hardware type set when metering.
     TallyMeasurementKey measurementKey =
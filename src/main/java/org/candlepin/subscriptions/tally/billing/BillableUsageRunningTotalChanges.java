@@ -0,0 +1,96 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally.billing;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotalKey;
+import org.candlepin.subscriptions.db.model.Granularity;
+import org.candlepin.subscriptions.db.model.HardwareMeasurementType;
+import org.candlepin.subscriptions.db.model.TallySnapshot;
+
+/**
+ * Changes to the monthly running totals of billable metrics, accumulated while the hourly snapshots
+ * of a tally are updated.
+ *
+ * <p>A snapshot's previous measurements are subtracted before it is updated and its new
+ * measurements added afterwards, so that each affected running total receives a single delta per
+ * tally regardless of how many of its hourly snapshots changed. Only PHYSICAL measurements are
+ * tracked, as that's the only hardware type billed.
+ */
+public class BillableUsageRunningTotalChanges {
+
+  /**
+   * @param delta change in the sum of the month's hourly measurements
+   * @param latestSnapshotDate date of the most recent hourly snapshot contributing to the change
+   */
+  public record Change(double delta, OffsetDateTime latestSnapshotDate) {
+    Change combine(Change other) {
+      return new Change(
+          delta + other.delta,
+          latestSnapshotDate.isAfter(other.latestSnapshotDate)
+              ? latestSnapshotDate
+              : other.latestSnapshotDate);
+    }
+  }
+
+  private final Map<BillableUsageRunningTotalKey, Change> changes = new HashMap<>();
+
+  /** Add the measurements of an hourly snapshot to the running totals. */
+  public void add(TallySnapshot snapshot) {
+    accumulate(snapshot, 1.0);
+  }
+
+  /** Remove the measurements of an hourly snapshot from the running totals. */
+  public void subtract(TallySnapshot snapshot) {
+    accumulate(snapshot, -1.0);
+  }
+
+  public Map<BillableUsageRunningTotalKey, Change> getChanges() {
+    return Collections.unmodifiableMap(changes);
+  }
+
+  public boolean isEmpty() {
+    return changes.isEmpty();
+  }
+
+  private void accumulate(TallySnapshot snapshot, double sign) {
+    // billable usage is only ever looked up by billing account
+    if (snapshot.getGranularity() != Granularity.HOURLY
+        || snapshot.getBillingAccountId() == null) {
+      return;
+    }
+    snapshot
+        .getTallyMeasurements()
+        .forEach(
+            (measurementKey, value) -> {
+              if (measurementKey.getMeasurementType() == HardwareMeasurementType.PHYSICAL
+                  && value != null) {
+                changes.merge(
+                    BillableUsageRunningTotalKey.keyFrom(snapshot, measurementKey.getMetricId()),
+                    new Change(sign * value, snapshot.getSnapshotDate()),
+                    Change::combine);
+              }
+            });
+  }
+}
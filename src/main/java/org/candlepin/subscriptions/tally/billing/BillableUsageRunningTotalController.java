@@ -0,0 +1,235 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally.billing;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.candlepin.subscriptions.db.BillableUsageRunningTotalRepository;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotal;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotalKey;
+import org.candlepin.subscriptions.json.BillableUsage;
+import org.candlepin.subscriptions.util.ApplicationClock;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the monthly running totals of billable metrics, which spare billing from summing every
+ * hourly snapshot of the month for each billable usage.
+ *
+ * <p>The tally applies the changes to the running totals in the same transaction as the hourly
+ * snapshots they come from. Reconciliation recomputes the totals from the hourly snapshots of the
+ * current and previous month, and repairs any running total that drifted.
+ */
+@Slf4j
+@Component
+public class BillableUsageRunningTotalController {
+
+  // deltas are accumulated in floating point, so allow for rounding differences with the sum
+  static final double TOLERANCE = 1e-6;
+
+  private final BillableUsageRunningTotalRepository repository;
+  private final ApplicationClock clock;
+  private final TransactionTemplate transactionTemplate;
+  private final Counter mismatchedCounter;
+  private final Counter missingCounter;
+
+  public BillableUsageRunningTotalController(
+      BillableUsageRunningTotalRepository repository,
+      ApplicationClock clock,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.clock = clock;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.mismatchedCounter =
+        meterRegistry.counter(
+            "rhsm-subscriptions.billable-usage.running-totals.repaired", "reason", "mismatched");
+    this.missingCounter =
+        meterRegistry.counter(
+            "rhsm-subscriptions.billable-usage.running-totals.repaired", "reason", "missing");
+  }
+
+  /**
+   * Apply the changes accumulated while updating hourly snapshots to the running totals.
+   *
+   * @param changes changes to the running totals
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void applyChanges(BillableUsageRunningTotalChanges changes) {
+    changes
+        .getChanges()
+        .forEach(
+            (key, change) -> {
+              if (change.delta() == 0.0) {
+                return;
+              }
+              repository.addToTotal(key, change.delta(), change.latestSnapshotDate());
+            });
+  }
+
+  /**
+   * Get the usage measured for a billable metric from the start of the month up to and including
+   * the usage's snapshot date.
+   *
+   * @param usage the billable usage
+   * @return the running total, or empty if the running total includes hourly snapshots after the
+   *     usage (e.g. the usage is processed out of order) or has not been recorded yet
+   */
+  public Optional<Double> getMeasuredTotal(BillableUsage usage) {
+    return repository
+        .findById(BillableUsageRunningTotalKey.keyFrom(usage))
+        .filter(total -> isApplicable(usage, total))
+        .map(BillableUsageRunningTotal::getValue);
+  }
+
+  /**
+   * Load the running totals of several billable usages in a single query.
+   *
+   * @param usages the billable usages
+   * @return the running totals found, to be used with {@link #getMeasuredTotal(BillableUsage,
+   *     Map)}
+   */
+  public Map<BillableUsageRunningTotalKey, BillableUsageRunningTotal> findRunningTotals(
+      Collection<BillableUsage> usages) {
+    Set<BillableUsageRunningTotalKey> keys =
+        usages.stream().map(BillableUsageRunningTotalKey::keyFrom).collect(Collectors.toSet());
+    return repository.findAllById(keys).stream()
+        .collect(Collectors.toMap(BillableUsageRunningTotal::getKey, Function.identity()));
+  }
+
+  /**
+   * Same as {@link #getMeasuredTotal(BillableUsage)}, using running totals loaded beforehand.
+   *
+   * @param usage the billable usage
+   * @param runningTotals running totals loaded by {@link #findRunningTotals(Collection)}
+   * @return the running total, or empty if not applicable to the usage
+   */
+  public Optional<Double> getMeasuredTotal(
+      BillableUsage usage,
+      Map<BillableUsageRunningTotalKey, BillableUsageRunningTotal> runningTotals) {
+    return Optional.ofNullable(runningTotals.get(BillableUsageRunningTotalKey.keyFrom(usage)))
+        .filter(total -> isApplicable(usage, total))
+        .map(BillableUsageRunningTotal::getValue);
+  }
+
+  private static boolean isApplicable(BillableUsage usage, BillableUsageRunningTotal total) {
+    return !total.getLatestSnapshotDate().isAfter(usage.getSnapshotDate());
+  }
+
+  @Timed("rhsm-subscriptions.billable-usage.running-totals.reconcile")
+  @Async("reconcileRunningTotalsJobExecutor")
+  public void reconcileAsync() {
+    try {
+      log.info("Starting billable usage running totals reconciliation.");
+      OffsetDateTime startOfCurrentMonth = clock.startOfCurrentMonth();
+      // billable usage of the previous month can still be processed early in the month
+      int repaired = reconcileMonth(startOfCurrentMonth.minusMonths(1));
+      repaired += reconcileMonth(startOfCurrentMonth);
+      log.info("Billable usage running totals reconciliation repaired {} totals.", repaired);
+    } catch (Exception e) {
+      log.error("Unable to reconcile billable usage running totals: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Verify the running totals of every org for a month against the hourly snapshots.
+   *
+   * @param startOfMonth the start of the month to verify
+   * @return the number of running totals repaired
+   */
+  public int reconcileMonth(OffsetDateTime startOfMonth) {
+    OffsetDateTime endOfMonth = clock.endOfMonth(startOfMonth);
+    String month = BillableUsageRunningTotalKey.getMonth(startOfMonth);
+    Set<String> orgIds =
+        transactionTemplate.execute(
+            status -> {
+              try (Stream<String> withTotals = repository.findOrgIdsByMonth(month);
+                  Stream<String> withSnapshots =
+                      repository.findOrgIdsWithHourlySnapshots(startOfMonth, endOfMonth)) {
+                return Stream.concat(withTotals, withSnapshots)
+                    .collect(Collectors.toCollection(TreeSet::new));
+              }
+            });
+    int repaired = 0;
+    for (String orgId : orgIds) {
+      repaired +=
+          transactionTemplate.execute(
+              status -> reconcileOrg(orgId, month, startOfMonth, endOfMonth));
+    }
+    log.info("Reconciled running totals of {} orgs for month={}", orgIds.size(), month);
+    return repaired;
+  }
+
+  private int reconcileOrg(
+      String orgId, String month, OffsetDateTime startOfMonth, OffsetDateTime endOfMonth) {
+    // Lock the running totals before summing the snapshots, so that a concurrent tally either
+    // committed its changes to both already, or applies its changes on top of the repaired totals.
+    List<BillableUsageRunningTotal> totals = repository.findByKeyOrgIdAndKeyMonth(orgId, month);
+    Map<BillableUsageRunningTotalKey, BillableUsageRunningTotal> expectedTotals =
+        repository.sumHourlySnapshots(orgId, startOfMonth, endOfMonth).stream()
+            .collect(Collectors.toMap(BillableUsageRunningTotal::getKey, Function.identity()));
+
+    int repaired = 0;
+    for (BillableUsageRunningTotal total : totals) {
+      BillableUsageRunningTotal expected = expectedTotals.remove(total.getKey());
+      double expectedValue = expected == null ? 0.0 : expected.getValue();
+      if (Math.abs(total.getValue() - expectedValue) > TOLERANCE) {
+        log.warn(
+            "Running total {} is {}, but its hourly snapshots sum to {}. Repairing it.",
+            total.getKey(),
+            total.getValue(),
+            expectedValue);
+        total.setValue(expectedValue);
+        if (expected != null
+            && expected.getLatestSnapshotDate().isAfter(total.getLatestSnapshotDate())) {
+          total.setLatestSnapshotDate(expected.getLatestSnapshotDate());
+        }
+        mismatchedCounter.increment();
+        repaired++;
+      }
+    }
+
+    // running totals of usage tallied before the running totals were introduced
+    for (BillableUsageRunningTotal missing : expectedTotals.values()) {
+      log.debug("Recording missing running total {}", missing);
+      repository.save(missing);
+      missingCounter.increment();
+      repaired++;
+    }
+    return repaired;
+  }
+}
@@ -20,12 +20,18 @@
  */
 package org.candlepin.subscriptions.tally.billing;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.json.BillableUsage;
 import org.candlepin.subscriptions.task.TaskQueueProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 /**
@@ -58,4 +64,41 @@ public class BillingProducer {
     }
     billableUsageKafkaTemplate.send(billableUsageTopic, usage);
   }
+
+  /**
+   * Send several billable usages at once, letting the producer batch the records, then wait for
+   * all of them to be acknowledged.
+   *
+   * <p>A failed send does not fail the others, so that the caller can keep the remittances of the
+   * usages that were sent and only retry the failed ones.
+   *
+   * @param usages the billable usages to send; null entries are skipped
+   * @return the usages that failed to send, in the order they were given
+   */
+  public List<BillableUsage> produceAll(List<BillableUsage> usages) {
+    List<BillableUsage> toSend = usages.stream().filter(Objects::nonNull).toList();
+    List<CompletableFuture<SendResult<String, BillableUsage>>> sends =
+        toSend.stream().map(this::send).toList();
+    log.debug("Sent {} billable usages to topic {}", sends.size(), billableUsageTopic);
+    List<BillableUsage> failed = new ArrayList<>();
+    for (int i = 0; i < sends.size(); i++) {
+      try {
+        sends.get(i).join();
+      } catch (CompletionException e) {
+        log.warn(
+            "Unable to send billable usage {} to topic {}", toSend.get(i), billableUsageTopic, e);
+        failed.add(toSend.get(i));
+      }
+    }
+    return failed;
+  }
+
+  private CompletableFuture<SendResult<String, BillableUsage>> send(BillableUsage usage) {
+    try {
+      return billableUsageKafkaTemplate.send(billableUsageTopic, usage);
+    } catch (RuntimeException e) {
+      // e.g. the topic metadata could not be fetched; report it like a failed acknowledgement
+      return CompletableFuture.failedFuture(e);
+    }
+  }
 }
@@ -25,6 +25,7 @@ import static org.candlepin.subscriptions.task.queue.kafka.KafkaTaskProducerConf
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redhat.swatch.contracts.client.ContractsApiFactory;
 import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.candlepin.subscriptions.http.HttpClientProperties;
 import org.candlepin.subscriptions.json.BillableUsage;
@@ -115,6 +116,44 @@ public class BillingProducerConfiguration {
     return factory;
   }
 
+  @Bean
+  @Qualifier("billingProducerTallySummaryBatchConsumerFactory")
+  ConsumerFactory<String, TallySummary> billingProducerTallySummaryBatchConsumerFactory(
+      KafkaProperties kafkaProperties,
+      @Qualifier("billingProducerTallySummaryTopicProperties")
+          TaskQueueProperties tallySummaryTopicProperties) {
+    var props = kafkaProperties.buildConsumerProperties();
+    props.put(
+        ConsumerConfig.MAX_POLL_RECORDS_CONFIG, tallySummaryTopicProperties.getMaxPollRecords());
+    return new DefaultKafkaConsumerFactory<>(
+        props, new StringDeserializer(), new JsonDeserializer<>(TallySummary.class));
+  }
+
+  @Bean
+  ConcurrentKafkaListenerContainerFactory<String, TallySummary>
+      billingProducerKafkaTallySummaryBatchListenerContainerFactory(
+          @Qualifier("billingProducerTallySummaryBatchConsumerFactory")
+              ConsumerFactory<String, TallySummary> consumerFactory,
+          CommonErrorHandler errorHandler,
+          KafkaProperties kafkaProperties,
+          KafkaConsumerRegistry registry) {
+
+    var factory = new ConcurrentKafkaListenerContainerFactory<String, TallySummary>();
+    factory.setConsumerFactory(consumerFactory);
+    factory.setBatchListener(true);
+    // Concurrency should be set to the number of partitions for the target topic.
+    factory.setConcurrency(kafkaProperties.getListener().getConcurrency());
+    factory.setCommonErrorHandler(errorHandler);
+    if (kafkaProperties.getListener().getIdleEventInterval() != null) {
+      factory
+          .getContainerProperties()
+          .setIdleEventInterval(kafkaProperties.getListener().getIdleEventInterval().toMillis());
+    }
+    // hack to track the Kafka consumers, so SeekableKafkaConsumer can commit when needed
+    factory.getContainerProperties().setConsumerRebalanceListener(registry);
+    return factory;
+  }
+
   @Bean
   CommonErrorHandler errorHandler() {
     CommonDelegatingErrorHandler errorHandler =
@@ -36,4 +36,10 @@ public class BillingProducerProperties {
 
   /** Retry exponential backoff multiplier. */
   private Double backOffMultiplier;
+
+  /**
+   * Whether tally summaries are consumed in batches of up to max-poll-records messages, processing
+   * the billable usages of the whole batch together.
+   */
+  private boolean batchEnabled = false;
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally.billing;
+
+import io.micrometer.core.annotation.Timed;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.candlepin.subscriptions.json.BillableUsage;
+import org.candlepin.subscriptions.json.TallySummary;
+import org.candlepin.subscriptions.task.TaskQueueProperties;
+import org.candlepin.subscriptions.util.KafkaConsumerRegistry;
+import org.candlepin.subscriptions.util.SeekableKafkaConsumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/*
+ * Processes batches of messages on the TallySummary topic, submitting the billable usages of the
+ * whole batch together so that the remittance lookups and inserts are done once per batch instead
+ * of once per usage.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(
+    prefix = "rhsm-subscriptions.billing-producer",
+    name = "batch-enabled",
+    havingValue = "true")
+public class TallySummaryBatchMessageConsumer extends SeekableKafkaConsumer {
+
+  private final BillableUsageMapper billableUsageMapper;
+  private final BillableUsageController billableUsageController;
+  private final RetryTemplate retry;
+  private final TransactionTemplate transactionTemplate;
+
+  @Autowired
+  public TallySummaryBatchMessageConsumer(
+      @Qualifier("billingProducerTallySummaryTopicProperties")
+          TaskQueueProperties tallySummaryTopicProperties,
+      KafkaConsumerRegistry kafkaConsumerRegistry,
+      BillableUsageMapper billableUsageMapper,
+      BillableUsageController billableUsageController,
+      @Qualifier("billingProducerKafkaRetryTemplate") RetryTemplate retry,
+      PlatformTransactionManager transactionManager) {
+    super(tallySummaryTopicProperties, kafkaConsumerRegistry);
+    this.billableUsageMapper = billableUsageMapper;
+    this.billableUsageController = billableUsageController;
+    this.retry = retry;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Timed("rhsm-subscriptions.billing-producer.tally-summary.batch")
+  @KafkaListener(
+      id = "#{__listener.groupId}",
+      topics = "#{__listener.topic}",
+      containerFactory = "billingProducerKafkaTallySummaryBatchListenerContainerFactory")
+  public void receive(List<TallySummary> tallySummaries) {
+    log.debug("Received {} tally summaries. Producing billable usage.", tallySummaries.size());
+
+    List<BillableUsage> pending =
+        tallySummaries.stream()
+            .flatMap(billableUsageMapper::fromTallySummary)
+            .collect(Collectors.toCollection(ArrayList::new));
+    retry.execute(
+        context -> {
+          // Each attempt commits the remittances of the usages it sent, so that a retry (or the
+          // redelivery of the batch) only bills the usages that failed to send.
+          List<BillableUsage> failed =
+              transactionTemplate.execute(
+                  status -> billableUsageController.submitBillableUsages(pending));
+          if (!failed.isEmpty()) {
+            pending.clear();
+            pending.addAll(failed);
+            throw new IllegalStateException(
+                String.format("Failed to send %d billable usages", failed.size()));
+          }
+          return null;
+        });
+  }
+}
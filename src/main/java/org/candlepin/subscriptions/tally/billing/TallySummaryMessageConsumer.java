@@ -28,6 +28,7 @@ import org.candlepin.subscriptions.util.KafkaConsumerRegistry;
 import org.candlepin.subscriptions.util.SeekableKafkaConsumer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
@@ -38,8 +39,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 /*
  * Processes messages on the TallySummary topic and delegates to the BillingProducer for processing.
+ *
+ * Replaced by TallySummaryBatchMessageConsumer when batch consumption is enabled.
  */
 @Service
+@ConditionalOnProperty(
+    prefix = "rhsm-subscriptions.billing-producer",
+    name = "batch-enabled",
+    havingValue = "false",
+    matchIfMissing = true)
 @Slf4j
 public class TallySummaryMessageConsumer extends SeekableKafkaConsumer {
 
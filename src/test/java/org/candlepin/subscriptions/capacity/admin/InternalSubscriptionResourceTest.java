@@ -33,8 +33,11 @@ import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.ws.rs.NotFoundException;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.candlepin.subscriptions.capacity.CapacityReconciliationController;
 import org.candlepin.subscriptions.db.model.ServiceLevel;
 import org.candlepin.subscriptions.db.model.Subscription;
@@ -46,10 +49,13 @@ import org.candlepin.subscriptions.security.IdentityHeaderAuthenticationFilterMo
 import org.candlepin.subscriptions.security.SecurityProperties;
 import org.candlepin.subscriptions.security.WithMockPskPrincipal;
 import org.candlepin.subscriptions.security.WithMockRedHatPrincipal;
+import org.candlepin.subscriptions.subscription.PaygSubscriptionLookup;
 import org.candlepin.subscriptions.subscription.SubscriptionPruneController;
 import org.candlepin.subscriptions.subscription.SubscriptionSyncController;
 import org.candlepin.subscriptions.utilization.admin.api.model.AwsUsageContext;
 import org.candlepin.subscriptions.utilization.admin.api.model.RhmUsageContext;
+import org.candlepin.subscriptions.utilization.admin.api.model.UsageContextKey;
+import org.candlepin.subscriptions.utilization.admin.api.model.UsageContextRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -386,4 +392,58 @@ class InternalSubscriptionResourceTest {
     assertEquals(1.0, counter.count());
     assertEquals("account123", rhmUsageContext.getRhSubscriptionId());
   }
+
+  @Test
+  void shouldReturnAwsUsageContextsAndErrorsPerKey() {
+    var endDate = OffsetDateTime.of(2022, 1, 1, 6, 0, 0, 0, ZoneOffset.UTC);
+    Subscription sub1 = new Subscription();
+    sub1.setSubscriptionId("SUB1");
+    sub1.setBillingProviderId("foo1;foo2;foo3");
+    sub1.setEndDate(endDate);
+    when(syncController.findSubscriptions(anyCollection()))
+        .thenAnswer(
+            invocation -> {
+              Collection<PaygSubscriptionLookup> criteria = invocation.getArgument(0);
+              return criteria.stream()
+                  .filter(c -> "org123".equals(c.orgId()))
+                  .collect(Collectors.toMap(Function.identity(), c -> List.of(sub1)));
+            });
+
+    var request =
+        new UsageContextRequest()
+            .keys(
+                List.of(
+                    new UsageContextKey()
+                        .orgId("org123")
+                        .productId("rhosak")
+                        .sla("Premium")
+                        .usage("Production")
+                        .billingAccountId("123")
+                        .date(endDate.minusHours(2)),
+                    new UsageContextKey()
+                        .orgId("org123")
+                        .productId("rhosak")
+                        .sla("Premium")
+                        .usage("Production")
+                        .billingAccountId("123")
+                        .date(endDate.plusMinutes(30)),
+                    new UsageContextKey()
+                        .orgId("org456")
+                        .productId("rhosak")
+                        .sla("Premium")
+                        .usage("Production")
+                        .billingAccountId("123")
+                        .date(endDate.plusMinutes(30))));
+
+    var results = resource.getAwsUsageContexts(request).getResults();
+
+    assertEquals(3, results.size());
+    assertEquals("SUB1", results.get(0).getContext().getRhSubscriptionId());
+    assertEquals("foo3", results.get(0).getContext().getAwsSellerAccountId());
+    assertNull(results.get(0).getError());
+    assertNull(results.get(1).getContext());
+    assertEquals(
+        ErrorCode.SUBSCRIPTION_RECENTLY_TERMINATED.getCode(), results.get(1).getError().getCode());
+    assertEquals("404", results.get(2).getError().getStatus());
+  }
 }
@@ -21,24 +21,35 @@
 package org.candlepin.subscriptions.capacity.admin;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.candlepin.subscriptions.capacity.admin.UsageContextSubscriptionProvider.UsageContextLookup;
 import org.candlepin.subscriptions.db.model.BillingProvider;
 import org.candlepin.subscriptions.db.model.Subscription;
 import org.candlepin.subscriptions.exception.ErrorCode;
 import org.candlepin.subscriptions.exception.SubscriptionsException;
+import org.candlepin.subscriptions.subscription.PaygSubscriptionLookup;
 import org.candlepin.subscriptions.subscription.SubscriptionSyncController;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -235,4 +246,66 @@ class UsageContextSubscriptionProviderTest {
     assertTrue(subscription.isPresent());
     assertEquals(sub2, subscription.get());
   }
+
+  @Test
+  void shouldResolveUsageContextsInOneLookup() {
+    var endDate = OffsetDateTime.of(2022, 1, 1, 6, 0, 0, 0, ZoneOffset.UTC);
+    Subscription active = new Subscription();
+    active.setSubscriptionId("SUB1");
+    active.setBillingProviderId("foo1;foo2;foo3");
+    active.setEndDate(defaultEndDate);
+    Subscription terminated = new Subscription();
+    terminated.setSubscriptionId("SUB2");
+    terminated.setBillingProviderId("bar1;bar2;bar3");
+    terminated.setEndDate(endDate);
+
+    when(syncController.findSubscriptions(anyCollection()))
+        .thenAnswer(
+            invocation -> {
+              Collection<PaygSubscriptionLookup> criteria = invocation.getArgument(0);
+              return criteria.stream()
+                  .collect(
+                      Collectors.toMap(
+                          Function.identity(),
+                          c -> "org123".equals(c.orgId()) ? List.of(active) : List.of(terminated)));
+            });
+
+    var results =
+        provider.getSubscriptions(
+            List.of(
+                new UsageContextLookup(
+                    "org123", null, "rhosak", "Premium", "Production", "123", defaultLookUpDate),
+                new UsageContextLookup(
+                    "org456",
+                    null,
+                    "rhosak",
+                    "Premium",
+                    "Production",
+                    "123",
+                    endDate.plusMinutes(30)),
+                new UsageContextLookup(
+                    "org789", null, "rhosak", "_ANY", "Production", "123", defaultLookUpDate)));
+
+    verify(syncController, times(1)).findSubscriptions(anyCollection());
+    assertEquals(3, results.size());
+    assertEquals(Optional.of(active), results.get(0).subscription());
+    var terminatedError = assertInstanceOf(SubscriptionsException.class, results.get(1).error());
+    assertEquals(ErrorCode.SUBSCRIPTION_RECENTLY_TERMINATED, terminatedError.getCode());
+    assertInstanceOf(BadRequestException.class, results.get(2).error());
+  }
+
+  @Test
+  void shouldReportMissingSubscriptionPerUsageContext() {
+    when(syncController.findSubscriptions(anyCollection())).thenReturn(Map.of());
+
+    var results =
+        provider.getSubscriptions(
+            List.of(
+                new UsageContextLookup(
+                    "org123", null, "rhosak", "Premium", "Production", "123", defaultLookUpDate)));
+
+    assertInstanceOf(NotFoundException.class, results.get(0).error());
+    Counter counter = meterRegistry.counter(MISSING_SUBSCRIPTIONS_COUNTER_NAME);
+    assertEquals(1.0, counter.count());
+  }
 }
@@ -409,6 +409,32 @@ class BillableUsageRemittanceRepositoryTest {
     assertEquals(24.0, results.get(0).getTotalRemittedPendingValue());
   }
 
+  @Test
+  void getRemittanceSummariesOfOrgsAndMonths() {
+    OffsetDateTime startOfMonth = truncateDate(clock.startOfCurrentMonth());
+    BillableUsageRemittanceEntity remittance1 =
+        remittance("org123", "product1", BillingProvider.AWS.value(), 12.0, startOfMonth);
+    BillableUsageRemittanceEntity remittance2 =
+        remittance(
+            "org123", "product1", BillingProvider.AWS.value(), 3.0, startOfMonth.plusDays(1));
+    BillableUsageRemittanceEntity otherOrg =
+        remittance("org456", "product1", BillingProvider.AWS.value(), 5.0, startOfMonth);
+    BillableUsageRemittanceEntity otherMonth =
+        remittance(
+            "org123", "product1", BillingProvider.AWS.value(), 7.0, startOfMonth.minusDays(1));
+    repository.insertAll(List.of(remittance1, remittance2, otherOrg, otherMonth));
+
+    List<RemittanceSummaryProjection> results =
+        repository.getRemittanceSummaries(
+            List.of("org123"), List.of(getAccumulationPeriod(startOfMonth)));
+
+    assertEquals(1, results.size());
+    assertEquals(15.0, results.get(0).getTotalRemittedPendingValue());
+    assertEquals(
+        remittance2.getKey().getRemittancePendingDate(),
+        results.get(0).getRemittancePendingDate());
+  }
+
   // In memory DB does not save same length of decimals so truncate to make sure they equal
   OffsetDateTime truncateDate(OffsetDateTime date) {
     return date.truncatedTo(ChronoUnit.MILLIS);
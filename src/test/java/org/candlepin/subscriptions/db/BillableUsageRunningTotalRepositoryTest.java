@@ -0,0 +1,138 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotal;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotalKey;
+import org.candlepin.subscriptions.db.model.BillingProvider;
+import org.candlepin.subscriptions.db.model.Granularity;
+import org.candlepin.subscriptions.db.model.HardwareMeasurementType;
+import org.candlepin.subscriptions.db.model.ServiceLevel;
+import org.candlepin.subscriptions.db.model.TallyMeasurementKey;
+import org.candlepin.subscriptions.db.model.TallySnapshot;
+import org.candlepin.subscriptions.db.model.Usage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+// The transactional annotation will rollback the transaction at the end of every test.
+@Transactional
+@ActiveProfiles("test")
+class BillableUsageRunningTotalRepositoryTest {
+  private static final OffsetDateTime START_OF_MONTH = OffsetDateTime.parse("2023-10-01T00:00Z");
+  private static final OffsetDateTime END_OF_MONTH =
+      OffsetDateTime.parse("2023-10-31T23:59:59.999999999Z");
+
+  @Autowired private BillableUsageRunningTotalRepository repository;
+  @Autowired private TallySnapshotRepository snapshotRepository;
+  @Autowired private EntityManager entityManager;
+
+  @Test
+  void testAddToTotalUpdatesValueAndLatestSnapshotDate() {
+    BillableUsageRunningTotalKey key = key("org1", "2023-10");
+    repository.saveAndFlush(
+        new BillableUsageRunningTotal(key, 4.0, START_OF_MONTH.plusHours(5)));
+
+    repository.addToTotal(key, 2.5, START_OF_MONTH.plusHours(7));
+    repository.addToTotal(key, -1.0, START_OF_MONTH.plusHours(6));
+    entityManager.flush();
+    entityManager.clear();
+
+    BillableUsageRunningTotal total = repository.findById(key).orElseThrow();
+    assertEquals(5.5, total.getValue());
+    assertTrue(START_OF_MONTH.plusHours(7).isEqual(total.getLatestSnapshotDate()));
+  }
+
+  @Test
+  void testAddToTotalCreatesMissingTotal() {
+    BillableUsageRunningTotalKey key = key("org1", "2023-10");
+
+    repository.addToTotal(key, 2.5, START_OF_MONTH);
+    entityManager.flush();
+    entityManager.clear();
+
+    BillableUsageRunningTotal total = repository.findById(key).orElseThrow();
+    assertEquals(2.5, total.getValue());
+    assertTrue(START_OF_MONTH.isEqual(total.getLatestSnapshotDate()));
+  }
+
+  @Test
+  void testSumHourlySnapshots() {
+    snapshotRepository.saveAll(
+        List.of(
+            hourly("org1", START_OF_MONTH.plusHours(1), HardwareMeasurementType.PHYSICAL, 2.0),
+            hourly("org1", START_OF_MONTH.plusHours(3), HardwareMeasurementType.PHYSICAL, 3.0),
+            // not billed
+            hourly("org1", START_OF_MONTH.plusHours(2), HardwareMeasurementType.TOTAL, 5.0),
+            // other org and other month
+            hourly("org2", START_OF_MONTH.plusHours(1), HardwareMeasurementType.PHYSICAL, 7.0),
+            hourly("org1", START_OF_MONTH.minusHours(1), HardwareMeasurementType.PHYSICAL, 11.0)));
+    snapshotRepository.flush();
+
+    List<BillableUsageRunningTotal> totals =
+        repository.sumHourlySnapshots("org1", START_OF_MONTH, END_OF_MONTH);
+
+    assertEquals(1, totals.size());
+    BillableUsageRunningTotal total = totals.get(0);
+    assertEquals(key("org1", "2023-10"), total.getKey());
+    assertEquals(5.0, total.getValue());
+    assertTrue(START_OF_MONTH.plusHours(3).isEqual(total.getLatestSnapshotDate()));
+  }
+
+  private BillableUsageRunningTotalKey key(String orgId, String month) {
+    return BillableUsageRunningTotalKey.builder()
+        .orgId(orgId)
+        .productId("rhosak")
+        .metricId("STORAGE_GIBIBYTES")
+        .month(month)
+        .sla(ServiceLevel.STANDARD)
+        .usage(Usage.PRODUCTION)
+        .billingProvider(BillingProvider.AWS)
+        .billingAccountId("aws-account1")
+        .build();
+  }
+
+  private TallySnapshot hourly(
+      String orgId, OffsetDateTime date, HardwareMeasurementType type, double value) {
+    TallySnapshot snapshot =
+        TallySnapshot.builder()
+            .orgId(orgId)
+            .productId("rhosak")
+            .granularity(Granularity.HOURLY)
+            .serviceLevel(ServiceLevel.STANDARD)
+            .usage(Usage.PRODUCTION)
+            .billingProvider(BillingProvider.AWS)
+            .billingAccountId("aws-account1")
+            .snapshotDate(date)
+            .build();
+    snapshot.getTallyMeasurements().put(new TallyMeasurementKey(type, "Storage-gibibytes"), value);
+    return snapshot;
+  }
+}
@@ -29,15 +29,19 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.candlepin.subscriptions.db.model.EventCompactConverter;
 import org.candlepin.subscriptions.db.model.EventKey;
 import org.candlepin.subscriptions.db.model.EventRecord;
 import org.candlepin.subscriptions.json.Event;
+import org.candlepin.subscriptions.json.Measurement;
 import org.candlepin.subscriptions.test.TestClockConfiguration;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
@@ -214,6 +218,72 @@ class EventRecordRepositoryTest {
     assertEquals(1, results.size());
   }
 
+  @Test
+  void testServiceTypeAttributesArePersistedAsColumns() {
+    OffsetDateTime now = OffsetDateTime.now(CLOCK);
+    Event event = event("account123", "org123", "source", "type", "instance", now);
+    event.setBillingProvider(Event.BillingProvider.AWS);
+    event.setMeasurements(List.of(new Measurement().withUom("Cores").withValue(2.0)));
+    Event other = event("account123", "org123", "source", "type", "other", now);
+    other.setServiceType("OTHER_SERVICE_TYPE");
+    repository.saveAllAndFlush(List.of(new EventRecord(event), new EventRecord(other)));
+
+    List<EventRecord> found =
+        repository
+            .findByOrgIdAndServiceTypeAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestamp(
+                "org123", "SERVICE_TYPE", now, now.plusHours(1))
+            .toList();
+
+    assertEquals(1, found.size());
+    assertEquals("SERVICE_TYPE", found.get(0).getServiceType());
+    assertEquals("aws", found.get(0).getBillingProvider());
+    assertEquals("Cores", found.get(0).getMetricId());
+    assertTrue(
+        repository.existsByOrgIdAndServiceTypeAndTimestampGreaterThanEqualAndTimestampLessThan(
+            "org123", "OTHER_SERVICE_TYPE", now, now.plusHours(1)));
+  }
+
+  @Test
+  void testStreamEventsReadsJsonAndCompactPayloads() {
+    OffsetDateTime now = OffsetDateTime.now(CLOCK);
+    Event jsonEvent = event("account123", "org123", "source", "type", "instance1", now);
+    Event compactEvent = event("account123", "org123", "source", "type", "instance2", now);
+    repository.saveAndFlush(new EventRecord(jsonEvent));
+    ReflectionTestUtils.setField(EventCompactConverter.class, "enabled", true);
+    try {
+      repository.saveAndFlush(new EventRecord(compactEvent));
+    } finally {
+      ReflectionTestUtils.setField(EventCompactConverter.class, "enabled", false);
+    }
+
+    List<Event> found;
+    try (Stream<Event> events =
+        repository.streamEventsByOrgIdAndServiceType(
+            "org123", "SERVICE_TYPE", now, now.plusHours(1))) {
+      found = events.toList();
+    }
+
+    assertEquals(List.of(jsonEvent, compactEvent), found);
+  }
+
+  @Test
+  void testUpsertAllUpdatesExistingEvents() {
+    OffsetDateTime now = OffsetDateTime.now(CLOCK);
+    Event event = event("account123", "org123", "source", "type", "instance", now);
+    repository.upsertAll(List.of(new EventRecord(event)));
+    Event updated = event("account123", "org123", "source", "type", "instance", now);
+    updated.setServiceType("UPDATED_SERVICE_TYPE");
+
+    int count = repository.upsertAll(List.of(new EventRecord(updated)));
+    repository.flush();
+
+    assertEquals(1, count);
+    assertEquals(1, repository.count());
+    assertEquals(
+        "UPDATED_SERVICE_TYPE",
+        repository.getReferenceById(EventKey.fromEvent(event)).getServiceType());
+  }
+
   private Event event(
       String account,
       String orgId,
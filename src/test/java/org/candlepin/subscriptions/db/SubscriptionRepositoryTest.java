@@ -360,6 +360,84 @@ class SubscriptionRepositoryTest {
     assertThat(resultList, Matchers.containsInAnyOrder(s1, s2));
   }
 
+  @Transactional
+  @Test
+  void testFindByEachCriteriaMatchesFindByCriteria() {
+    var standard =
+        createOffering("testSku1", "Test SKU", 1, ServiceLevel.STANDARD, Usage.PRODUCTION, null);
+    var premium =
+        createOffering("testSku2", "Test SKU", 1, ServiceLevel.PREMIUM, Usage.PRODUCTION, null);
+    var other =
+        createOffering("testSku3", "Other SKU", 2, ServiceLevel.STANDARD, Usage.PRODUCTION, null);
+    offeringRepo.saveAll(List.of(standard, premium, other));
+
+    var s1 = createPaygSubscription("org1", "sub1", "account1", standard);
+    var s2 = createPaygSubscription("org1", "sub2", "account1", premium);
+    var s3 = createPaygSubscription("org1", "sub3", "account2", standard);
+    var s4 = createPaygSubscription("org2", "sub4", "account1", standard);
+    var s5 = createPaygSubscription("org2", "sub5", "account1", other);
+    var s6 = createPaygSubscription("org2", "sub6", "account1", standard);
+    s6.setBillingProvider(BillingProvider.RED_HAT);
+    var s7 = createPaygSubscription("org1", "sub7", "account1", standard);
+    s7.setBillingProviderId(null);
+    var s8 = createPaygSubscription("org1", "sub8", "account1", standard);
+    s8.setStartDate(s8.getStartDate().minusDays(60));
+    s8.setEndDate(s8.getStartDate().plusDays(30));
+    subscriptionRepo.saveAllAndFlush(List.of(s1, s2, s3, s4, s5, s6, s7, s8));
+
+    var org1Standard = paygCriteria("org1", "Test SKU", ServiceLevel.STANDARD, "account1");
+    var org1Premium = paygCriteria("org1", "Test SKU", ServiceLevel.PREMIUM, "account1");
+    var org1AnyAccount = paygCriteria("org1", "Test SKU", ServiceLevel.STANDARD, "_ANY");
+    var org2Standard = paygCriteria("org2", "Test SKU", ServiceLevel.STANDARD, "account1");
+    var org2Other = paygCriteria("org2", "Other SKU", ServiceLevel.STANDARD, "account1");
+    var org3Standard = paygCriteria("org3", "Test SKU", ServiceLevel.STANDARD, "account1");
+    var criteria =
+        List.of(org1Standard, org1Premium, org1AnyAccount, org2Standard, org2Other, org3Standard);
+    var sort = Sort.by(Subscription_.START_DATE).descending();
+
+    var results = subscriptionRepo.findByEachCriteria(criteria, sort);
+
+    for (DbReportCriteria dbReportCriteria : criteria) {
+      assertEquals(
+          subscriptionIds(subscriptionRepo.findByCriteria(dbReportCriteria, sort)),
+          subscriptionIds(results.get(dbReportCriteria)),
+          dbReportCriteria::toString);
+    }
+    assertEquals(List.of("sub1"), subscriptionIds(results.get(org1Standard)));
+    assertEquals(List.of("sub2"), subscriptionIds(results.get(org1Premium)));
+    assertEquals(List.of("sub1", "sub3"), subscriptionIds(results.get(org1AnyAccount)));
+    assertEquals(List.of("sub4"), subscriptionIds(results.get(org2Standard)));
+    assertEquals(List.of("sub5"), subscriptionIds(results.get(org2Other)));
+    assertEquals(List.of(), subscriptionIds(results.get(org3Standard)));
+  }
+
+  private DbReportCriteria paygCriteria(
+      String orgId, String productName, ServiceLevel sla, String billingAccountId) {
+    return DbReportCriteria.builder()
+        .orgId(orgId)
+        .productNames(Set.of(productName))
+        .serviceLevel(sla)
+        .usage(Usage._ANY)
+        .billingProvider(BillingProvider.AWS)
+        .billingAccountId(billingAccountId)
+        .payg(true)
+        .beginning(NOW)
+        .ending(NOW.plusHours(1))
+        .build();
+  }
+
+  private Subscription createPaygSubscription(
+      String orgId, String subId, String billingAccountId, Offering offering) {
+    var subscription = createSubscription(orgId, null, subId, billingAccountId);
+    subscription.setBillingProvider(BillingProvider.AWS);
+    subscription.setOffering(offering);
+    return subscription;
+  }
+
+  private static List<String> subscriptionIds(List<Subscription> subscriptions) {
+    return subscriptions.stream().map(Subscription::getSubscriptionId).sorted().toList();
+  }
+
   private Offering createOffering(
       String sku, String productName, int productId, ServiceLevel sla, Usage usage, String role) {
     return Offering.builder()
@@ -0,0 +1,82 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.candlepin.subscriptions.json.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EventCompactConverterTest {
+
+  private static final String TEST_DATA =
+      "{\"event_id\":\"99f6b275-6031-4967-84b6-147bd0191474\",\"display_name\":null,"
+          + "\"measurements\":[{\"value\":4.0,\"uom\":\"Cores\"}]}";
+
+  @Autowired ObjectMapper objectMapper;
+
+  @AfterEach
+  void resetFormat() {
+    new EventCompactConverter(objectMapper, false);
+  }
+
+  @Test
+  void testRoundTripKeepsOptionalVsNull() throws JsonProcessingException {
+    EventCompactConverter converter = new EventCompactConverter(objectMapper, false);
+    Event event = objectMapper.readValue(TEST_DATA, Event.class);
+
+    byte[] data = converter.convertToDatabaseColumn(event);
+    Event parsed = converter.convertToEntityAttribute(data);
+
+    assertEquals(EventCompactConverter.FORMAT_VERSION, data[0]);
+    assertNotNull(parsed.getDisplayName());
+    assertFalse(parsed.getDisplayName().isPresent());
+    assertNull(parsed.getInventoryId());
+    assertEquals(TEST_DATA, objectMapper.writeValueAsString(parsed));
+  }
+
+  @Test
+  void testUnknownFormatVersionIsRejected() {
+    EventCompactConverter converter = new EventCompactConverter(objectMapper, false);
+    byte[] data = {2, 0};
+    assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute(data));
+  }
+
+  @Test
+  void testEventRecordUsesCompactColumnWhenEnabled() throws JsonProcessingException {
+    new EventCompactConverter(objectMapper, true);
+    Event event = objectMapper.readValue(TEST_DATA, Event.class);
+
+    EventRecord eventRecord = new EventRecord(event);
+
+    assertSame(event, eventRecord.getEvent());
+    assertNull(ReflectionTestUtils.getField(eventRecord, "event"));
+  }
+}
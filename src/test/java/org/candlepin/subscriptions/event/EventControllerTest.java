@@ -25,9 +25,10 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
-import java.util.ArrayList;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -48,12 +49,15 @@ import org.springframework.test.context.ActiveProfiles;
 @SpringBootTest
 @ActiveProfiles({"worker", "test"})
 class EventControllerTest {
-  @Autowired EventController eventController;
+  @Autowired ObjectMapper objectMapper;
+  @Autowired MeterRegistry meterRegistry;
 
   @MockBean private EventRecordRepository eventRecordRepository;
   @MockBean private OptInController optInController;
   @Captor private ArgumentCaptor<Collection<EventRecord>> eventsSaved;
 
+  EventController eventController;
+
   String eventRecord1;
   String eventRecord2;
   String eventRecord3;
@@ -63,6 +67,10 @@ class EventControllerTest {
 
   @BeforeEach
   void setup() {
+    // a new controller per test, so that no org is remembered as opted in
+    eventController =
+        new EventController(eventRecordRepository, objectMapper, optInController, meterRegistry);
+
     eventRecord1 =
         """
                 {
@@ -191,9 +199,8 @@ class EventControllerTest {
     eventRecords.add(eventRecord3);
     eventController.persistServiceInstances(eventRecords);
     verify(optInController, times(2)).optInByOrgId(any(), any());
-    when(eventRecordRepository.saveAll(any())).thenReturn(new ArrayList<>());
 
-    verify(eventRecordRepository).saveAll(eventsSaved.capture());
+    verify(eventRecordRepository).upsertAll(eventsSaved.capture());
     List<EventRecord> events = eventsSaved.getAllValues().get(0).stream().toList();
     assertEquals(2, events.size());
     verifyDeletionOfStaleEventsIsNotDone();
@@ -209,8 +216,7 @@ class EventControllerTest {
     eventRecords.add(eventRecord5);
     eventController.persistServiceInstances(eventRecords);
     verify(optInController, times(3)).optInByOrgId(any(), any());
-    when(eventRecordRepository.saveAll(any())).thenReturn(new ArrayList<>());
-    verify(eventRecordRepository).saveAll(eventsSaved.capture());
+    verify(eventRecordRepository).upsertAll(eventsSaved.capture());
     List<EventRecord> events = eventsSaved.getAllValues().get(0).stream().toList();
     assertEquals(3, events.size());
     verifyDeletionOfStaleEventsIsNotDone();
@@ -221,12 +227,56 @@ class EventControllerTest {
     Set<String> eventRecords = Set.of(eventRecord1, eventRecord2, cleanUpEvent);
     eventController.persistServiceInstances(eventRecords);
     verify(optInController, times(3)).optInByOrgId(any(), any());
-    verify(eventRecordRepository).saveAll(eventsSaved.capture());
+    verify(eventRecordRepository).upsertAll(eventsSaved.capture());
     List<EventRecord> events = eventsSaved.getAllValues().get(0).stream().toList();
     assertEquals(2, events.size());
     verifyDeletionOfStaleEventsIsDone();
   }
 
+  @Test
+  void testPersistServiceInstances_OptsInEachOrgOncePerInstance() {
+    eventController.persistServiceInstances(Set.of(eventRecord1, eventRecord2));
+    eventController.persistServiceInstances(Set.of(eventRecord1, eventRecord5));
+
+    verify(optInController).optInByOrgId(eq("4"), any());
+    verify(optInController).optInByOrgId(eq("6"), any());
+    verify(optInController).optInByOrgId(eq("7"), any());
+  }
+
+  @Test
+  void testPersistServiceInstances_CombinesContiguousCleanUpEvents() {
+    String nextHourCleanUpEvent =
+        cleanUpEvent
+            .replace("2023-05-02T01:00:00Z", "2023-05-02T02:00:00Z")
+            .replace("2023-05-02T00:00:00Z", "2023-05-02T01:00:00Z");
+    String laterCleanUpEvent =
+        cleanUpEvent
+            .replace("2023-05-02T01:00:00Z", "2023-05-02T05:00:00Z")
+            .replace("2023-05-02T00:00:00Z", "2023-05-02T04:00:00Z");
+
+    eventController.persistServiceInstances(
+        Set.of(cleanUpEvent, nextHourCleanUpEvent, laterCleanUpEvent));
+
+    verify(eventRecordRepository)
+        .deleteStaleEvents(
+            any(),
+            any(),
+            any(),
+            any(),
+            eq(OffsetDateTime.parse("2023-05-02T00:00:00Z")),
+            eq(OffsetDateTime.parse("2023-05-02T02:00:00Z")));
+    verify(eventRecordRepository)
+        .deleteStaleEvents(
+            any(),
+            any(),
+            any(),
+            any(),
+            eq(OffsetDateTime.parse("2023-05-02T04:00:00Z")),
+            eq(OffsetDateTime.parse("2023-05-02T05:00:00Z")));
+    verify(eventRecordRepository, times(2))
+        .deleteStaleEvents(any(), any(), any(), any(), any(), any());
+  }
+
   private void verifyDeletionOfStaleEventsIsDone() {
     verify(eventRecordRepository)
         .deleteStaleEvents(
@@ -0,0 +1,191 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.inventory.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.candlepin.subscriptions.inventory.db.model.InventoryHostFacts;
+import org.candlepin.subscriptions.tally.HbiHostPartition;
+import org.candlepin.subscriptions.test.BaseIT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the HBI partitioning queries against PostgreSQL, using a minimal HBI hosts table in its own
+ * schema of the test database.
+ */
+@SpringBootTest
+@ActiveProfiles({"worker", "test-inventory"})
+class InventoryRepositoryIT extends BaseIT {
+
+  private static final String ORG_ID = "org123";
+  private static final int CULLED_OFFSET_DAYS = 14;
+
+  @Autowired private InventoryRepository repository;
+
+  @Autowired
+  @Qualifier("inventoryDataSource")
+  private DataSource dataSource;
+
+  @Autowired
+  @Qualifier("inventoryTransactionManager")
+  private PlatformTransactionManager transactionManager;
+
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate transactionTemplate;
+
+  @DynamicPropertySource
+  static void registerInventoryProperties(DynamicPropertyRegistry registry) {
+    registry.add(
+        "rhsm-subscriptions.inventory-service.datasource.url",
+        () ->
+            "jdbc:postgresql://${DATABASE_HOST}:${DATABASE_PORT}/${DATABASE_DATABASE}"
+                + "?currentSchema=hbi");
+    registry.add(
+        "rhsm-subscriptions.inventory-service.datasource.username", () -> "${DATABASE_USERNAME}");
+    registry.add(
+        "rhsm-subscriptions.inventory-service.datasource.password", () -> "${DATABASE_PASSWORD}");
+    registry.add(
+        "rhsm-subscriptions.inventory-service.datasource.driver-class-name",
+        () -> "org.postgresql.Driver");
+    registry.add("rhsm-subscriptions.inventory-service.datasource.platform", () -> "postgresql");
+  }
+
+  @BeforeEach
+  void setupHbiHosts() {
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          jdbcTemplate.execute("create schema if not exists hbi");
+          jdbcTemplate.execute(
+              """
+              create table if not exists hbi.hosts (
+                id uuid primary key,
+                account varchar(10),
+                org_id varchar(36),
+                display_name varchar(200),
+                created_on timestamptz,
+                modified_on timestamptz,
+                facts jsonb,
+                canonical_facts jsonb,
+                system_profile_facts jsonb,
+                stale_timestamp timestamptz)
+              """);
+          jdbcTemplate.execute("truncate hbi.hosts");
+        });
+  }
+
+  @Test
+  void testPartitionsKeepGuestsWithTheirHypervisorAndCoverEveryHost() {
+    Set<UUID> orgHosts =
+        Set.of(
+            insertHost(ORG_ID, "a-hypervisor", null, null),
+            insertHost(ORG_ID, "x-guest1", "a-hypervisor", null),
+            insertHost(ORG_ID, "y-guest2", null, "a-hypervisor"),
+            insertHost(ORG_ID, "b-physical", null, null),
+            insertHost(ORG_ID, "c-physical", null, null),
+            insertHost(ORG_ID, "d-physical", null, null),
+            insertHost(ORG_ID, null, null, null));
+    insertHost("otherOrg", "0-other-org", null, null);
+
+    // ntile(3) over a, a, a, b, c, d splits into [a, a], [a, b], [c, d]
+    List<String> upperBounds =
+        repository.findHardwareSubmanIdPartitionUpperBounds(ORG_ID, CULLED_OFFSET_DAYS, 3);
+    assertEquals(List.of("a-hypervisor", "b-physical", "d-physical"), upperBounds);
+
+    List<List<InventoryHostFacts>> hostsByPartition = new ArrayList<>();
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          for (HbiHostPartition partition : HbiHostPartition.fromUpperBounds(upperBounds)) {
+            try (Stream<InventoryHostFacts> facts =
+                repository.streamFactsInPartition(
+                    ORG_ID, CULLED_OFFSET_DAYS, partition.lowerBound(), partition.upperBound())) {
+              hostsByPartition.add(facts.toList());
+            }
+          }
+        });
+
+    assertEquals(
+        List.of(
+            Arrays.asList("a-hypervisor", "a-hypervisor", "a-hypervisor"),
+            Arrays.asList("b-physical"),
+            Arrays.asList("c-physical", "d-physical", null)),
+        hostsByPartition.stream()
+            .map(hosts -> hosts.stream().map(InventoryHostFacts::getHardwareSubmanId).toList())
+            .toList());
+    List<UUID> partitionedHosts =
+        hostsByPartition.stream()
+            .flatMap(List::stream)
+            .map(InventoryHostFacts::getInventoryId)
+            .toList();
+    assertEquals(orgHosts.size(), partitionedHosts.size());
+    assertEquals(orgHosts, Set.copyOf(partitionedHosts));
+  }
+
+  private UUID insertHost(
+      String orgId, String subscriptionManagerId, String rhsmHypervisor, String satHypervisor) {
+    UUID id = UUID.randomUUID();
+    String canonicalFacts =
+        subscriptionManagerId == null
+            ? "{}"
+            : String.format("{\"subscription_manager_id\": \"%s\"}", subscriptionManagerId);
+    String rhsmFacts =
+        rhsmHypervisor == null ? "{}" : String.format("{\"VM_HOST_UUID\": \"%s\"}", rhsmHypervisor);
+    String satelliteFacts =
+        satHypervisor == null
+            ? "{}"
+            : String.format("{\"virtual_host_uuid\": \"%s\"}", satHypervisor);
+    transactionTemplate.executeWithoutResult(
+        status ->
+            jdbcTemplate.update(
+                """
+                insert into hbi.hosts (id, account, org_id, display_name, created_on, modified_on,
+                  facts, canonical_facts, system_profile_facts, stale_timestamp)
+                values (?, 'account123', ?, ?, now(), now(),
+                  jsonb_build_object('rhsm', ?::jsonb, 'satellite', ?::jsonb), ?::jsonb, '{}',
+                  now() + interval '1 day')
+                """,
+                id,
+                orgId,
+                id.toString(),
+                rhsmFacts,
+                satelliteFacts,
+                canonicalFacts));
+    return id;
+  }
+}
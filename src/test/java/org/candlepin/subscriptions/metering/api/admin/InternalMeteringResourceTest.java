@@ -23,17 +23,23 @@ package org.candlepin.subscriptions.metering.api.admin;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 import com.redhat.swatch.configuration.registry.MetricId;
 import jakarta.ws.rs.BadRequestException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.db.AccountConfigRepository;
 import org.candlepin.subscriptions.db.EventRecordRepository;
 import org.candlepin.subscriptions.metering.ResourceUtil;
+import org.candlepin.subscriptions.metering.retention.EventPartitionManager;
 import org.candlepin.subscriptions.metering.retention.EventRecordsRetentionProperties;
 import org.candlepin.subscriptions.metering.service.prometheus.MetricProperties;
 import org.candlepin.subscriptions.metering.service.prometheus.PrometheusMeteringController;
@@ -44,6 +50,7 @@ import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -57,6 +64,7 @@ class InternalMeteringResourceTest {
   @Mock private AccountConfigRepository accountConfigRepository;
   @Mock private EventRecordsRetentionProperties eventRecordsRetentionProperties;
   @Mock private EventRecordRepository eventRecordRepository;
+  @Mock private EventPartitionManager eventPartitionManager;
 
   private ApplicationProperties appProps;
   private ResourceUtil util;
@@ -82,6 +90,7 @@ class InternalMeteringResourceTest {
             tasks,
             controller,
             eventRecordRepository,
+            eventPartitionManager,
             metricProps);
   }
 
@@ -202,4 +211,34 @@ class InternalMeteringResourceTest {
             () -> resource.meterProductForOrgIdAndRange(VALID_PRODUCT, "org1", endDate, 13, false));
     assertThat(ie.getMessage(), Matchers.matchesRegex(".*produces time not at top of the hour.*"));
   }
+
+  @Test
+  void testPurgeCreatesPartitionsBeforeDroppingExpiredOnes() {
+    when(eventRecordsRetentionProperties.getEventRetentionDuration())
+        .thenReturn(Duration.ofDays(90));
+
+    resource.purgeEventRecords();
+
+    OffsetDateTime cutoff =
+        OffsetDateTime.now().truncatedTo(ChronoUnit.DAYS).minus(Duration.ofDays(90));
+    InOrder ordered = inOrder(eventPartitionManager, eventRecordRepository);
+    ordered.verify(eventPartitionManager).createUpcomingPartitions(any(OffsetDateTime.class));
+    ordered.verify(eventPartitionManager).dropPartitionsBefore(cutoff);
+    ordered.verify(eventRecordRepository).deleteInBulkEventRecordsByTimestampBefore(cutoff);
+  }
+
+  @Test
+  void testPurgeRunsWhenPartitionCreationFails() {
+    when(eventRecordsRetentionProperties.getEventRetentionDuration())
+        .thenReturn(Duration.ofDays(90));
+    when(eventPartitionManager.createUpcomingPartitions(any(OffsetDateTime.class)))
+        .thenThrow(new IllegalStateException("boom"));
+
+    resource.purgeEventRecords();
+
+    OffsetDateTime cutoff =
+        OffsetDateTime.now().truncatedTo(ChronoUnit.DAYS).minus(Duration.ofDays(90));
+    verify(eventPartitionManager).dropPartitionsBefore(cutoff);
+    verify(eventRecordRepository).deleteInBulkEventRecordsByTimestampBefore(cutoff);
+  }
 }
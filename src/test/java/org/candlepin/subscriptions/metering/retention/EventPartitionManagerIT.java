@@ -0,0 +1,129 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.metering.retention;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.candlepin.subscriptions.db.EventRecordRepository;
+import org.candlepin.subscriptions.db.model.EventRecord;
+import org.candlepin.subscriptions.json.Event;
+import org.candlepin.subscriptions.test.BaseIT;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = "rhsm-subscriptions.event-retention-policy.event-partitions-ahead=6")
+@ActiveProfiles({"openshift-metering-worker", "worker", "test-inventory"})
+class EventPartitionManagerIT extends BaseIT {
+
+  @Autowired private EventPartitionManager partitionManager;
+  @Autowired private EventRecordRepository repository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private final OffsetDateTime currentMonth =
+      OffsetDateTime.now(ZoneOffset.UTC)
+          .with(TemporalAdjusters.firstDayOfMonth())
+          .truncatedTo(ChronoUnit.DAYS);
+
+  @Test
+  void testCreateUpcomingPartitionsMovesRowsOutOfDefaultPartition() {
+    // the migration only creates partitions for the next three months
+    OffsetDateTime future = currentMonth.plusMonths(5).plusDays(2);
+    UUID eventId = saveEvent(future);
+    assertEquals(List.of("events_default"), partitionsHolding(future));
+
+    int created = partitionManager.createUpcomingPartitions(OffsetDateTime.now());
+
+    assertTrue(created > 0);
+    assertEquals(
+        List.of(EventPartitionManager.partitionName(currentMonth.plusMonths(5))),
+        partitionsHolding(future));
+    // the moved row keeps its data, and its generated id is computed again
+    assertEquals(
+        eventId,
+        jdbcTemplate.queryForObject(
+            "select id from events where event_id = ? and event_type = 'snapshot_test'",
+            UUID.class,
+            eventId));
+    assertTrue(isPartitionOfEvents("events_default"));
+    String lastPartition = EventPartitionManager.partitionName(currentMonth.plusMonths(6));
+    assertTrue(isPartitionOfEvents(lastPartition));
+    assertEquals(0, partitionManager.createUpcomingPartitions(OffsetDateTime.now()));
+  }
+
+  @Test
+  void testDropPartitionsBeforeCutoffKeepsPartitionHoldingCutoff() {
+    OffsetDateTime nextMonth = currentMonth.plusMonths(1);
+    OffsetDateTime monthAfter = currentMonth.plusMonths(2);
+    saveEvent(nextMonth.plusDays(1));
+    saveEvent(monthAfter.plusDays(1));
+
+    int dropped = partitionManager.dropPartitionsBefore(monthAfter.plusDays(3));
+
+    assertEquals(2, dropped);
+    assertFalse(isPartitionOfEvents("events_legacy"));
+    assertFalse(isPartitionOfEvents(EventPartitionManager.partitionName(nextMonth)));
+    assertEquals(
+        List.of(EventPartitionManager.partitionName(monthAfter)),
+        partitionsHolding(monthAfter.plusDays(1)));
+  }
+
+  private UUID saveEvent(OffsetDateTime timestamp) {
+    Event event = new Event();
+    event.setEventId(UUID.randomUUID());
+    event.setOrgId("org123");
+    event.setEventType("snapshot_test");
+    event.setEventSource("test");
+    event.setInstanceId(UUID.randomUUID().toString());
+    event.setServiceType("test");
+    event.setTimestamp(timestamp);
+    event.setExpiration(Optional.of(timestamp.plusHours(1)));
+    repository.saveAndFlush(new EventRecord(event));
+    return event.getEventId();
+  }
+
+  private List<String> partitionsHolding(OffsetDateTime timestamp) {
+    return jdbcTemplate.queryForList(
+        "select tableoid::regclass::text from events where timestamp = ?", String.class, timestamp);
+  }
+
+  private boolean isPartitionOfEvents(String name) {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            """
+            select exists(select 1 from pg_inherits
+              where inhparent = 'events'::regclass and inhrelid = to_regclass(?))
+            """,
+            Boolean.class,
+            name));
+  }
+}
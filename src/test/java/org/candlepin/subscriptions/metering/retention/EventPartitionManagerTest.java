@@ -0,0 +1,62 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.metering.retention;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.candlepin.subscriptions.metering.retention.EventPartitionManager.EventPartition;
+import org.junit.jupiter.api.Test;
+
+class EventPartitionManagerTest {
+
+  @Test
+  void testPartitionNameUsesYearAndMonth() {
+    assertEquals(
+        "events_p202402",
+        EventPartitionManager.partitionName(OffsetDateTime.parse("2024-02-01T00:00Z")));
+  }
+
+  @Test
+  void testLatestUpperBoundIgnoresDefaultPartition() {
+    OffsetDateTime january = OffsetDateTime.parse("2024-01-01T00:00Z");
+    OffsetDateTime february = OffsetDateTime.parse("2024-02-01T00:00Z");
+    List<EventPartition> partitions =
+        Arrays.asList(
+            new EventPartition("events_legacy", null, january),
+            new EventPartition("events_default", null, null),
+            new EventPartition("events_p202401", january, february));
+
+    assertEquals(Optional.of(february), EventPartitionManager.latestUpperBound(partitions));
+  }
+
+  @Test
+  void testLatestUpperBoundIsEmptyWithoutRangePartitions() {
+    assertTrue(
+        EventPartitionManager.latestUpperBound(
+                List.of(new EventPartition("events_default", null, null)))
+            .isEmpty());
+  }
+}
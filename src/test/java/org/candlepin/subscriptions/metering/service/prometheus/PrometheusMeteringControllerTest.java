@@ -23,6 +23,7 @@ package org.candlepin.subscriptions.metering.service.prometheus;
 import static org.candlepin.subscriptions.metering.MeteringEventFactory.getEventType;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -33,6 +34,7 @@ import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 import org.candlepin.subscriptions.db.AccountConfigRepository;
 import org.candlepin.subscriptions.db.model.OrgConfigRepository;
 import org.candlepin.subscriptions.db.model.config.OptInType;
@@ -100,6 +102,10 @@ class PrometheusMeteringControllerTest {
 
   @Autowired private ApplicationClock clock;
 
+  @Autowired
+  @Qualifier("prometheusQueryWindowExecutor")
+  Executor queryWindowExecutor;
+
   private final String expectedAccount = "my-test-account";
   private final String expectedOrgId = "my-test-org";
   private final String expectedClusterId = "C1";
@@ -127,7 +133,8 @@ class PrometheusMeteringControllerTest {
             eventsProducer,
             openshiftRetry,
             optInController,
-            spanGenerator);
+            spanGenerator,
+            queryWindowExecutor);
 
     queries = new QueryHelper(queryBuilder);
 
@@ -161,6 +168,45 @@ class PrometheusMeteringControllerTest {
     prometheusServer.verifyQueryRangeWasCalled(3);
   }
 
+  @Test
+  void rangeQueriedInWindowsWhenConfigured(
+      PrometheusQueryWiremockExtension.PrometheusQueryWiremock prometheusServer) {
+    QueryResult data =
+        buildOpenShiftClusterQueryResult(
+            expectedAccount,
+            expectedOrgId,
+            expectedClusterId,
+            expectedSla,
+            expectedUsage,
+            expectedBillingProvider,
+            expectedBillingAccountId,
+            List.of(List.of(new BigDecimal("12312.345"), new BigDecimal(24))));
+    OffsetDateTime start = clock.startOfCurrentHour();
+    OffsetDateTime end = start.plusDays(1);
+    String query = queries.expectedQuery(expectedProductTag, Map.of("orgId", expectedOrgId));
+    // the first data point is an hour after the start, see collectMetrics
+    for (int window = 0; window < 4; window++) {
+      prometheusServer.stubQueryRange(
+          query,
+          start.plusHours(window * 6L + 1),
+          start.plusHours(window * 6L + 6),
+          metricProperties.getStep(),
+          metricProperties.getQueryTimeout(),
+          data);
+    }
+
+    metricProperties.setQueryWindowInMinutes(360);
+    try {
+      whenCollectMetrics(start, end);
+    } finally {
+      metricProperties.setQueryWindowInMinutes(0);
+    }
+
+    prometheusServer.verifyQueryRangeWasCalled(4);
+    // the same data point is returned by every window, but only sent once
+    verify(eventsProducer, times(2)).produce(any());
+  }
+
   @Test
   void datesAdjustedWhenReportingOpenShiftMetrics(
       PrometheusQueryWiremockExtension.PrometheusQueryWiremock prometheusServer) {
@@ -24,11 +24,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import org.candlepin.subscriptions.metering.service.prometheus.model.QuerySummaryResult;
 import org.candlepin.subscriptions.metering.service.prometheus.promql.QueryBuilder;
 import org.candlepin.subscriptions.prometheus.model.QueryResult;
+import org.candlepin.subscriptions.prometheus.model.QueryResultData;
+import org.candlepin.subscriptions.prometheus.model.QueryResultDataResultInner;
 import org.candlepin.subscriptions.prometheus.model.ResultType;
 import org.candlepin.subscriptions.prometheus.model.StatusType;
 import org.junit.jupiter.api.Test;
@@ -131,4 +136,85 @@ class PrometheusServiceTest {
     assertEquals(ResultType.MATRIX, result.getResultType());
     assertEquals(0, result.getNumOfResults());
   }
+
+  @Test
+  void testStreamRangeQueryApiWithSmallDataset(
+      PrometheusQueryWiremockExtension.PrometheusQueryWiremock prometheusServer) {
+    prometheusServer.stubQueryRangeWithFile("prometheus_small.json");
+
+    QueryHelper queries = new QueryHelper(queryBuilder);
+    String query = queries.expectedQuery("OpenShift-metrics", Map.of("orgId", "o1"));
+
+    OffsetDateTime end = OffsetDateTime.now();
+    OffsetDateTime start = end.minusDays(2);
+
+    RecordingSeriesHandler handler = new RecordingSeriesHandler();
+    QuerySummaryResult result = service.streamRangeQuery(query, start, end, 3600, 1, handler);
+    assertEquals(StatusType.SUCCESS, result.getStatus());
+    assertEquals(ResultType.VECTOR, result.getResultType());
+    assertEquals(5, result.getNumOfResults());
+    assertEquals(5, handler.series.size());
+    assertEquals(
+        Map.of("__name__", "up", "job", "prometheus", "instance", "localhost:9090"),
+        handler.series.get(0));
+    assertEquals("series 0: 1.435781451781E9=1.0", handler.samples.get(0));
+    assertEquals("series 1: 1.435781451781E9=0.0", handler.samples.get(1));
+  }
+
+  @Test
+  void testStreamRangeQueryApiWithMatrix(
+      PrometheusQueryWiremockExtension.PrometheusQueryWiremock prometheusServer) {
+    QueryHelper queries = new QueryHelper(queryBuilder);
+    String query = queries.expectedQuery("OpenShift-metrics", Map.of("orgId", "o1"));
+
+    QueryResult expectedResult =
+        new QueryResult()
+            .status(StatusType.SUCCESS)
+            .data(
+                new QueryResultData()
+                    .resultType(ResultType.MATRIX)
+                    .addResultItem(
+                        new QueryResultDataResultInner()
+                            .putMetricItem("_id", "c1")
+                            .addValuesItem(List.of(BigDecimal.valueOf(1616787308L), BigDecimal.ONE))
+                            .addValuesItem(
+                                List.of(BigDecimal.valueOf(1616790908L), BigDecimal.valueOf(2.5))))
+                    .addResultItem(
+                        new QueryResultDataResultInner()
+                            .putMetricItem("_id", "c2")
+                            .addValuesItem(
+                                List.of(BigDecimal.valueOf(1616787308L), BigDecimal.TEN))));
+
+    OffsetDateTime end = OffsetDateTime.now();
+    OffsetDateTime start = end.minusDays(2);
+    prometheusServer.stubQueryRange(query, start, end, 3600, 1, expectedResult);
+
+    RecordingSeriesHandler handler = new RecordingSeriesHandler();
+    QuerySummaryResult result = service.streamRangeQuery(query, start, end, 3600, 1, handler);
+    assertEquals(StatusType.SUCCESS, result.getStatus());
+    assertEquals(ResultType.MATRIX, result.getResultType());
+    assertEquals(2, result.getNumOfResults());
+    assertEquals(List.of(Map.of("_id", "c1"), Map.of("_id", "c2")), handler.series);
+    assertEquals(
+        List.of(
+            "series 0: 1.616787308E9=1.0",
+            "series 0: 1.616790908E9=2.5",
+            "series 1: 1.616787308E9=10.0"),
+        handler.samples);
+  }
+
+  private static class RecordingSeriesHandler implements QueryResultSeriesHandler {
+    private final List<Map<String, String>> series = new ArrayList<>();
+    private final List<String> samples = new ArrayList<>();
+
+    @Override
+    public void startSeries(Map<String, String> labels) {
+      series.add(labels);
+    }
+
+    @Override
+    public void sample(double timestamp, double value) {
+      samples.add(String.format("series %d: %s=%s", series.size() - 1, timestamp, value));
+    }
+  }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.metering.service.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class QueryWindowTest {
+
+  private static final OffsetDateTime START =
+      OffsetDateTime.of(2023, 1, 1, 1, 0, 0, 0, ZoneOffset.UTC);
+  private static final Duration STEP = Duration.ofHours(1);
+
+  @Test
+  void testWindowsCoverEachDataPointOnce() {
+    List<QueryWindow> windows =
+        QueryWindow.split(START, START.plusHours(13), Duration.ofHours(6), STEP);
+
+    assertEquals(
+        List.of(
+            new QueryWindow(START, START.plusHours(5)),
+            new QueryWindow(START.plusHours(6), START.plusHours(11)),
+            new QueryWindow(START.plusHours(12), START.plusHours(13))),
+        windows);
+  }
+
+  @Test
+  void testWindowSizeRoundedDownToStep() {
+    List<QueryWindow> windows =
+        QueryWindow.split(START, START.plusHours(2), Duration.ofMinutes(90), STEP);
+
+    assertEquals(
+        List.of(
+            new QueryWindow(START, START),
+            new QueryWindow(START.plusHours(1), START.plusHours(1)),
+            new QueryWindow(START.plusHours(2), START.plusHours(2))),
+        windows);
+  }
+
+  @Test
+  void testRangeSmallerThanWindow() {
+    assertEquals(
+        List.of(new QueryWindow(START, START.plusHours(3))),
+        QueryWindow.split(START, START.plusHours(3), Duration.ofHours(6), STEP));
+  }
+}
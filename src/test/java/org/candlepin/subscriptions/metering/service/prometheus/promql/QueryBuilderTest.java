@@ -24,6 +24,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.redhat.swatch.configuration.registry.Metric;
+import com.redhat.swatch.configuration.registry.PrometheusMetric;
 import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
 import java.util.HashMap;
 import java.util.Map;
@@ -82,4 +83,40 @@ class QueryBuilderTest {
 
     assertEquals(String.format("Unable to find query template for key: %s", key), e.getMessage());
   }
+
+  @Test
+  void testCachedTemplateIsEvaluatedPerDescriptor() {
+    MetricProperties props = new MetricProperties();
+    props.getQueryTemplates().put("default", "org: #{runtime[orgId]}");
+    QueryBuilder builder = new QueryBuilder(props);
+
+    for (String orgId : new String[] {"o1", "o2", "o1"}) {
+      QueryDescriptor descriptor = new QueryDescriptor(tag);
+      descriptor.addRuntimeVar("orgId", orgId);
+      assertEquals("org: " + orgId, builder.build(descriptor));
+    }
+  }
+
+  @Test
+  void testNestedExpressionsAreEvaluatedUpToDepth() {
+    Metric metric =
+        Metric.builder()
+            .id("Cores")
+            .prometheus(
+                new PrometheusMetric(
+                    "default",
+                    Map.of("filter", "org=\"#{runtime[orgId]}\"", "nested", "#{'#{1+1}'}")))
+            .build();
+    MetricProperties props = new MetricProperties();
+    props.getQueryTemplates().put("default", "m{#{metric.prometheus.queryParams[filter]}}");
+    props.getAccountQueryTemplates().put("default", "#{metric.prometheus.queryParams[nested]}");
+    props.setTemplateParameterDepth(2);
+    QueryBuilder builder = new QueryBuilder(props);
+    QueryDescriptor descriptor = new QueryDescriptor(metric);
+    descriptor.addRuntimeVar("orgId", "o1");
+
+    assertEquals("m{org=\"o1\"}", builder.build(descriptor));
+    // the third pass needed to evaluate the innermost expression exceeds the depth
+    assertEquals("#{1+1}", builder.buildAccountLookupQuery(descriptor));
+  }
 }
@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -38,9 +39,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
+import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.capacity.CapacityReconciliationController;
 import org.candlepin.subscriptions.capacity.files.ProductDenylist;
 import org.candlepin.subscriptions.db.OfferingRepository;
@@ -109,10 +112,12 @@ class OfferingSyncControllerTest {
   @MockBean CapacityReconciliationController capController;
   @MockBean KafkaTemplate<String, OfferingSyncTask> offeringSyncKafkaTemplate;
   @Autowired OfferingSyncController subject;
+  @Autowired ApplicationProperties applicationProperties;
 
   @BeforeEach
   void init() {
     when(denylist.productIdMatches(anyString())).thenReturn(false);
+    applicationProperties.setOfferingSyncBatchEnabled(false);
   }
 
   @Test
@@ -227,10 +232,73 @@ class OfferingSyncControllerTest {
     // When a request is made to sync all offerings,
     int numEnqueued = subject.syncAllOfferings();
 
-    // Then the SKUs are enqueud to sync.
+    // Then the SKUs are enqueud to sync, one task per SKU.
     assertEquals(
         2, numEnqueued, "Number of enqueued offerings should match distinct skus in repo.");
-    verify(offeringSyncKafkaTemplate, times(2)).send(anyString(), any(OfferingSyncTask.class));
+    var task = ArgumentCaptor.forClass(OfferingSyncTask.class);
+    verify(offeringSyncKafkaTemplate, times(2)).send(anyString(), task.capture());
+    assertTrue(task.getAllValues().stream().allMatch(t -> t.getAdditionalSkus().isEmpty()));
+  }
+
+  @Test
+  void testSyncAllOfferingsInBatches() {
+    // Given batched offering sync tasks are enabled, and the non denylist has a list of SKUs,
+    applicationProperties.setOfferingSyncBatchEnabled(true);
+    when(repo.findAllDistinctSkus()).thenReturn(Set.of("RH00604F5", "RH0180191"));
+
+    // When a request is made to sync all offerings,
+    int numEnqueued = subject.syncAllOfferings();
+
+    // Then the SKUs are enqueud to sync, batched in a single task.
+    assertEquals(2, numEnqueued);
+    var task = ArgumentCaptor.forClass(OfferingSyncTask.class);
+    verify(offeringSyncKafkaTemplate).send(anyString(), task.capture());
+    assertEquals(1, task.getValue().getAdditionalSkus().size());
+  }
+
+  @Test
+  void testSyncOfferingsBatch() {
+    // Given Offerings that are not yet persisted, and one SKU listed in the denylist,
+    when(repo.findById(anyString())).thenReturn(Optional.empty());
+    when(denylist.productIdMatches("RH0180191")).thenReturn(true);
+
+    // When syncing the Offerings together,
+    var results = subject.syncOfferings(List.of("MW01485", "MW01484", "RH0180191"));
+
+    // Then each allowed Offering should be persisted and capacities reconciled.
+    assertEquals(
+        Map.of(
+            "MW01485",
+            SyncResult.FETCHED_AND_SYNCED,
+            "MW01484",
+            SyncResult.FETCHED_AND_SYNCED,
+            "RH0180191",
+            SyncResult.SKIPPED_DENYLISTED),
+        results);
+    var actual = ArgumentCaptor.forClass(Offering.class);
+    verify(repo, times(2)).saveAndFlush(actual.capture());
+    // this shows that the eng ids were fetched for each offering of the batch
+    assertEquals(30, actual.getAllValues().get(0).getProductIds().size());
+    assertTrue(actual.getAllValues().get(1).getProductIds().isEmpty());
+    verify(capController).enqueueReconcileCapacityForOffering("MW01485");
+    verify(capController).enqueueReconcileCapacityForOffering("MW01484");
+  }
+
+  @Test
+  void testSyncOfferingsBatchOnlyFailsSkuThatFailedToSave() {
+    // Given an Offering that fails to be saved,
+    when(repo.findById(anyString())).thenReturn(Optional.empty());
+    when(repo.saveAndFlush(argThat(offering -> "MW01484".equals(offering.getSku()))))
+        .thenThrow(new DataIntegrityViolationException("failed"));
+
+    // When syncing the Offerings together,
+    var results = subject.syncOfferings(List.of("MW01485", "MW01484"));
+
+    // Then only that Offering's sync fails.
+    assertEquals(
+        Map.of("MW01485", SyncResult.FETCHED_AND_SYNCED, "MW01484", SyncResult.FAILED), results);
+    verify(capController).enqueueReconcileCapacityForOffering("MW01485");
+    verify(capController, never()).enqueueReconcileCapacityForOffering("MW01484");
   }
 
   @Test
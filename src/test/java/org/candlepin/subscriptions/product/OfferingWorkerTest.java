@@ -26,6 +26,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import java.util.List;
 import org.candlepin.subscriptions.umb.UmbOperationalProduct;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,4 +62,13 @@ class OfferingWorkerTest {
     offeringWorker.receive(productMessageXml);
     verify(controller).syncUmbProduct(any(UmbOperationalProduct.class));
   }
+
+  @Test
+  void testReceiveBatch() {
+    // When a task with several SKUs is received,
+    offeringWorker.receive(new OfferingSyncTask("RH00604F5", List.of("RH0180191")));
+
+    // Then the offerings should be synced together.
+    verify(controller).syncOfferings(List.of("RH00604F5", "RH0180191"));
+  }
 }
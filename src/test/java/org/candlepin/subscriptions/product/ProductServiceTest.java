@@ -24,6 +24,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -39,6 +40,7 @@ import org.candlepin.subscriptions.product.api.model.EngineeringProducts;
 import org.candlepin.subscriptions.product.api.model.RESTProductTree;
 import org.candlepin.subscriptions.product.api.model.SkuEngProduct;
 import org.candlepin.subscriptions.product.api.resources.ProductApi;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -53,6 +55,11 @@ class ProductServiceTest {
 
   @Autowired ProductService subject;
 
+  @BeforeEach
+  void setup() {
+    subject.invalidateAll();
+  }
+
   @Test
   void testGetTree() throws ApiException {
     // The real http api would return a tree with info, but we'll return a simple non-null tree.
@@ -202,4 +209,54 @@ class ProductServiceTest {
         actualEngProds.get(sku2).isEmpty(),
         sku2 + " should have an empty eng prods list because it wasn't found.");
   }
+
+  @Test
+  void testGetTreeIsCached() throws ApiException {
+    RESTProductTree expectedTree = new RESTProductTree();
+    when(productApi.getProductTree(anyString(), anyBoolean())).thenReturn(expectedTree);
+
+    String sku = "RH00003";
+    subject.cached().getTree(sku);
+    Optional<RESTProductTree> actual = subject.cached().getTree(sku);
+
+    verify(productApi, times(1)).getProductTree(sku, Boolean.TRUE);
+    assertEquals(Optional.of(expectedTree), actual);
+
+    // the tree is always fetched when not going through the cache
+    subject.getTree(sku);
+    verify(productApi, times(2)).getProductTree(sku, Boolean.TRUE);
+
+    subject.invalidate(List.of(sku));
+    subject.cached().getTree(sku);
+    verify(productApi, times(3)).getProductTree(sku, Boolean.TRUE);
+  }
+
+  @Test
+  void testGetEngineeringProductsOnlyFetchesUncachedSkus() throws ApiException {
+    String sku1 = "SVCRH00003";
+    String sku2 = "SVCRH00009";
+    when(productApi.getEngineeringProductsForSkus(sku1))
+        .thenReturn(engineeringProductMap(sku1, 588));
+    when(productApi.getEngineeringProductsForSkus(sku2))
+        .thenReturn(engineeringProductMap(sku2, 273));
+
+    subject.cached().getEngineeringProductsForSkus(List.of(sku1));
+    Map<String, List<EngineeringProduct>> actualEngProds =
+        subject.cached().getEngineeringProductsForSkus(List.of(sku1, sku2));
+
+    verify(productApi).getEngineeringProductsForSkus(sku1);
+    verify(productApi).getEngineeringProductsForSkus(sku2);
+    assertEquals(588, actualEngProds.get(sku1).get(0).getOid());
+    assertEquals(273, actualEngProds.get(sku2).get(0).getOid());
+  }
+
+  private EngineeringProductMap engineeringProductMap(String sku, int oid) {
+    EngineeringProductMap productMap = new EngineeringProductMap();
+    productMap.addEntriesItem(
+        new SkuEngProduct()
+            .sku(sku)
+            .engProducts(
+                new EngineeringProducts().addEngProductsItem(new EngineeringProduct().oid(oid))));
+    return productMap;
+  }
 }
@@ -21,15 +21,25 @@
 package org.candlepin.subscriptions.product;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verifyNoInteractions;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.db.model.Offering;
 import org.candlepin.subscriptions.db.model.ServiceLevel;
 import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.product.api.model.EngineeringProduct;
+import org.candlepin.subscriptions.product.api.model.RESTProductTree;
 import org.candlepin.subscriptions.umb.ChildProduct;
 import org.candlepin.subscriptions.umb.ProductAttribute;
 import org.candlepin.subscriptions.umb.ProductRelationship;
@@ -38,7 +48,9 @@ import org.junit.jupiter.api.Test;
 
 class UpstreamProductDataTest {
 
-  private final ProductService stub = new ProductService(new StubProductApi());
+  private final ProductService stub =
+      new ProductService(
+          new StubProductApi(), new ApplicationProperties(), new SimpleMeterRegistry());
 
   @Test
   void testOfferingFromUpstreamForOcpOffering() {
@@ -65,6 +77,38 @@ class UpstreamProductDataTest {
     assertEquals(expected, actual);
   }
 
+  @Test
+  void testOfferingsFromUpstreamReportsFailurePerSku() {
+    // Given a product service failing to return the tree of one SKU,
+    var failingSku = "RH0180191";
+    ProductDataSource productDataSource =
+        new ProductDataSource() {
+          @Override
+          public Optional<RESTProductTree> getTree(String sku) throws ApiException {
+            if (failingSku.equals(sku)) {
+              throw new ApiException(500, "failed");
+            }
+            return stub.getTree(sku);
+          }
+
+          @Override
+          public Map<String, List<EngineeringProduct>> getEngineeringProductsForSkus(
+              Collection<String> skus) throws ApiException {
+            return stub.getEngineeringProductsForSkus(skus);
+          }
+        };
+
+    // When getting the upstream Offerings of that SKU and another SKU together,
+    var skus = List.of("MW01485", failingSku);
+    var actual = UpstreamProductData.offeringsFromUpstream(skus, productDataSource);
+
+    // Then only the Offering of the failing SKU is missing.
+    assertTrue(actual.get("MW01485").offering().isPresent());
+    assertNull(actual.get("MW01485").failure());
+    assertTrue(actual.get(failingSku).offering().isEmpty());
+    assertNotNull(actual.get(failingSku).failure());
+  }
+
   @Test
   void testOfferingFromUpstreamForNoEngProductOffering() {
     // Given a marketing SKU MW01484 (special for being engProduct-less),
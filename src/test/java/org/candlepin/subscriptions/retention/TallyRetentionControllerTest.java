@@ -28,6 +28,7 @@ import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.List;
 import org.candlepin.subscriptions.db.AccountConfigRepository;
+import org.candlepin.subscriptions.db.BillableUsageRunningTotalRepository;
 import org.candlepin.subscriptions.db.TallySnapshotRepository;
 import org.candlepin.subscriptions.db.model.Granularity;
 import org.junit.jupiter.api.Test;
@@ -50,6 +51,7 @@ class TallyRetentionControllerTest {
   @MockBean private TallyRetentionPolicy policy;
   @MockBean private TallySnapshotRepository repository;
   @MockBean private AccountConfigRepository accountConfigRepository;
+  @MockBean private BillableUsageRunningTotalRepository runningTotalRepository;
 
   @Autowired private TallyRetentionController controller;
 
@@ -63,6 +65,16 @@ class TallyRetentionControllerTest {
     verifyNoMoreInteractions(repository);
   }
 
+  @Test
+  void retentionControllerShouldRemoveRunningTotalsOfMonthsBeforeHourlyCutoff() {
+    OffsetDateTime cutoff = OffsetDateTime.parse("2023-10-15T12:00:00Z");
+    when(policy.getCutoffDate(Granularity.HOURLY)).thenReturn(cutoff);
+    controller.cleanStaleSnapshotsForOrgId("123456");
+    verify(repository)
+        .deleteAllByOrgIdAndGranularityAndSnapshotDateBefore("123456", Granularity.HOURLY, cutoff);
+    verify(runningTotalRepository).deleteAllByKeyOrgIdAndKeyMonthLessThan("123456", "2023-10");
+  }
+
   @Test
   void retentionControllerShouldIgnoreGranularityWithoutCutoff() throws Exception {
     when(policy.getCutoffDate(Granularity.DAILY)).thenReturn(null);
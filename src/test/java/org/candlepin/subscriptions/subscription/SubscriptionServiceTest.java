@@ -20,9 +20,14 @@
  */
 package org.candlepin.subscriptions.subscription;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
 import org.candlepin.subscriptions.subscription.api.model.Subscription;
 import org.candlepin.subscriptions.subscription.api.resources.SearchApi;
 import org.junit.jupiter.api.Test;
@@ -39,6 +44,8 @@ class SubscriptionServiceTest {
 
   @Autowired SubscriptionService subject;
 
+  @Autowired SubscriptionServiceProperties properties;
+
   @Test
   void verifySearchByOrgIdTest() throws ApiException {
     when(searchApi.searchSubscriptionsByOrgId("123", 0, 1)).thenReturn(Collections.emptyList());
@@ -52,4 +59,53 @@ class SubscriptionServiceTest {
     subject.getSubscriptionById("123");
     verify(searchApi, only()).getSubscriptionById("123");
   }
+
+  @Test
+  void verifyStreamByOrgIdStopsAfterLastPage() throws ApiException {
+    var pageSize = properties.getPageSize();
+    when(searchApi.searchSubscriptionsByOrgId(eq("123"), anyInt(), eq(pageSize)))
+        .thenAnswer(
+            invocation -> {
+              int index = invocation.getArgument(1);
+              if (index == 0) {
+                return createSubscriptions(pageSize);
+              }
+              return index == pageSize ? createSubscriptions(1) : Collections.emptyList();
+            });
+
+    try (var subscriptions = subject.streamSubscriptionsByOrgId("123")) {
+      assertEquals(pageSize + 1, subscriptions.count());
+    }
+    verify(searchApi).searchSubscriptionsByOrgId("123", 0, pageSize);
+    verify(searchApi).searchSubscriptionsByOrgId("123", pageSize, pageSize);
+  }
+
+  @Test
+  void verifyStreamByOrgIdRequestsOnlyFirstPageWhenNotFull() throws ApiException {
+    var pageSize = properties.getPageSize();
+    when(searchApi.searchSubscriptionsByOrgId("123", 0, pageSize))
+        .thenReturn(createSubscriptions(pageSize - 1));
+
+    try (var subscriptions = subject.streamSubscriptionsByOrgId("123")) {
+      assertEquals(pageSize - 1, subscriptions.count());
+    }
+    verify(searchApi, only()).searchSubscriptionsByOrgId("123", 0, pageSize);
+  }
+
+  @Test
+  void verifyGetByOrgIdCollectsAllPages() throws ApiException {
+    var pageSize = properties.getPageSize();
+    when(searchApi.searchSubscriptionsByOrgId(eq("123"), anyInt(), eq(pageSize)))
+        .thenAnswer(
+            invocation -> {
+              int index = invocation.getArgument(1);
+              return index < 2 * pageSize ? createSubscriptions(pageSize) : Collections.emptyList();
+            });
+
+    assertEquals(pageSize, subject.getSubscriptionsByOrgId("123").size());
+  }
+
+  private List<Subscription> createSubscriptions(int count) {
+    return IntStream.range(0, count).mapToObj(i -> new Subscription().id(i)).toList();
+  }
 }
@@ -209,11 +209,11 @@ class SubscriptionSyncControllerTest {
     var dto = createDto("456", 10);
     dto.setEffectiveStartDate(toEpochMillis(NOW.minusMonths(6)));
     dto.setEffectiveEndDate(toEpochMillis(NOW.plusMonths(6)));
-    Mockito.when(subscriptionService.getSubscriptionsByOrgId(any())).thenReturn(List.of(dto));
+    Mockito.when(subscriptionService.streamSubscriptionsByOrgId(any())).thenReturn(Stream.of(dto));
 
     subscriptionSyncController.reconcileSubscriptionsWithSubscriptionService("100", false);
 
-    verify(subscriptionService).getSubscriptionsByOrgId("100");
+    verify(subscriptionService).streamSubscriptionsByOrgId("100");
     verify(subscriptionRepository).save(any());
   }
 
@@ -223,11 +223,11 @@ class SubscriptionSyncControllerTest {
     var dto = createDto("456", 10);
     dto.setEffectiveStartDate(toEpochMillis(NOW.minusMonths(14)));
     dto.setEffectiveEndDate(toEpochMillis(NOW.minusMonths(2)));
-    Mockito.when(subscriptionService.getSubscriptionsByOrgId(any())).thenReturn(List.of(dto));
+    Mockito.when(subscriptionService.streamSubscriptionsByOrgId(any())).thenReturn(Stream.of(dto));
 
     subscriptionSyncController.reconcileSubscriptionsWithSubscriptionService("100", false);
 
-    verify(subscriptionService).getSubscriptionsByOrgId("100");
+    verify(subscriptionService).streamSubscriptionsByOrgId("100");
     verifyNoInteractions(denylist, offeringRepository);
     verify(subscriptionRepository, times(0)).save(any());
     verify(subscriptionRepository, times(0)).saveAll(any());
@@ -241,10 +241,10 @@ class SubscriptionSyncControllerTest {
     dto.setEffectiveEndDate(toEpochMillis(NOW.plusMonths(14).plusDays(1)));
     Mockito.when(subscriptionService.getSubscriptionById("456")).thenReturn(dto);
 
-    Mockito.when(subscriptionService.getSubscriptionsByOrgId(any())).thenReturn(List.of(dto));
+    Mockito.when(subscriptionService.streamSubscriptionsByOrgId(any())).thenReturn(Stream.of(dto));
     subscriptionSyncController.reconcileSubscriptionsWithSubscriptionService("100", false);
 
-    verify(subscriptionService).getSubscriptionsByOrgId("100");
+    verify(subscriptionService).streamSubscriptionsByOrgId("100");
     verifyNoInteractions(denylist, offeringRepository);
     verify(subscriptionRepository, times(0)).save(any());
     verify(subscriptionRepository, times(0)).saveAll(any());
@@ -259,10 +259,10 @@ class SubscriptionSyncControllerTest {
     dto.setEffectiveEndDate(null);
     Mockito.when(subscriptionService.getSubscriptionById("456")).thenReturn(dto);
 
-    Mockito.when(subscriptionService.getSubscriptionsByOrgId(any())).thenReturn(List.of(dto));
+    Mockito.when(subscriptionService.streamSubscriptionsByOrgId(any())).thenReturn(Stream.of(dto));
     subscriptionSyncController.reconcileSubscriptionsWithSubscriptionService("100", false);
 
-    verify(subscriptionService).getSubscriptionsByOrgId("100");
+    verify(subscriptionService).streamSubscriptionsByOrgId("100");
     verifyNoInteractions(denylist, offeringRepository);
     verify(subscriptionRepository, times(0)).save(any());
     verify(subscriptionRepository, times(0)).saveAll(any());
@@ -326,7 +326,7 @@ class SubscriptionSyncControllerTest {
     var dto1 = createDto("234", 3);
     var dto2 = createDto("345", 3);
     var subList = Arrays.asList(dto1, dto2);
-    when(subscriptionService.getSubscriptionsByOrgId("123")).thenReturn(subList);
+    when(subscriptionService.streamSubscriptionsByOrgId("123")).thenReturn(subList.stream());
     when(denylist.productIdMatches(any())).thenReturn(false);
     when(offeringRepository.existsById(any())).thenReturn(true);
     subscriptionSyncController.forceSyncSubscriptionsForOrg("123", false);
@@ -347,8 +347,10 @@ class SubscriptionSyncControllerTest {
           x.setOffering(new Offering());
         }); // Change the quantity so the sync will actually do something
 
-    when(subscriptionService.getSubscriptionsByOrgId("123")).thenReturn(dtoList);
+    when(subscriptionService.streamSubscriptionsByOrgId("123")).thenReturn(dtoList.stream());
     when(subscriptionRepository.findByOrgId(anyString())).thenReturn(subList.stream());
+    when(subscriptionRepository.findByOrgIdAndSubscriptionIdIn(anyString(), any()))
+        .thenReturn(subList);
     when(denylist.productIdMatches(any())).thenReturn(false);
     when(offeringRepository.existsById(any())).thenReturn(true);
     subscriptionSyncController.forceSyncSubscriptionsForOrg("123", false);
@@ -365,7 +367,7 @@ class SubscriptionSyncControllerTest {
     externalReferences.put(SubscriptionDtoUtil.IBMMARKETPLACE, externalReference);
     dto2.setExternalReferences(externalReferences);
     var subList = Arrays.asList(dto1, dto2);
-    when(subscriptionService.getSubscriptionsByOrgId("123")).thenReturn(subList);
+    when(subscriptionService.streamSubscriptionsByOrgId("123")).thenReturn(subList.stream());
     when(denylist.productIdMatches(any())).thenReturn(false);
     when(offeringRepository.existsById(any())).thenReturn(true);
     subscriptionSyncController.forceSyncSubscriptionsForOrg("123", true);
@@ -385,8 +387,10 @@ class SubscriptionSyncControllerTest {
     var offering2 = Offering.builder().sku(SubscriptionDtoUtil.extractSku(dto2)).build();
     dao2.setOffering(offering2);
 
-    when(subscriptionService.getSubscriptionsByOrgId("123")).thenReturn(subList);
+    when(subscriptionService.streamSubscriptionsByOrgId("123")).thenReturn(subList.stream());
     when(subscriptionRepository.findByOrgId("123")).thenReturn(Stream.of(dao1, dao2));
+    when(subscriptionRepository.findByOrgIdAndSubscriptionIdIn(eq("123"), any()))
+        .thenReturn(List.of(dao1, dao2));
     subscriptionSyncController.forceSyncSubscriptionsForOrg("123", false);
     verify(subscriptionRepository).findByOrgId("123");
     verify(subscriptionRepository, never()).findActiveSubscription(any());
@@ -721,7 +725,10 @@ class SubscriptionSyncControllerTest {
     var subscription = createSubscription("123", "testsku", "456");
     var subServiceSub = createDto("456", 1);
     when(subscriptionRepository.findByOrgId(any())).thenReturn(Stream.of(subscription));
-    when(subscriptionService.getSubscriptionsByOrgId(any())).thenReturn(List.of(subServiceSub));
+    when(subscriptionRepository.findByOrgIdAndSubscriptionIdIn(any(), any()))
+        .thenReturn(List.of(subscription));
+    when(subscriptionService.streamSubscriptionsByOrgId(any()))
+        .thenReturn(Stream.of(subServiceSub));
     when(denylist.productIdMatches(any())).thenReturn(true);
     subscriptionSyncController.reconcileSubscriptionsWithSubscriptionService("org123", false);
     verify(subscriptionRepository).deleteAll(subscriptionsCaptor.capture());
@@ -734,7 +741,10 @@ class SubscriptionSyncControllerTest {
     var subServiceSub = createDto("456", 1);
     subscription.setStartDate(clock.dateFromMilliseconds(subServiceSub.getEffectiveStartDate()));
     when(subscriptionRepository.findByOrgId(any())).thenReturn(Stream.of(subscription));
-    when(subscriptionService.getSubscriptionsByOrgId(any())).thenReturn(List.of(subServiceSub));
+    when(subscriptionRepository.findByOrgIdAndSubscriptionIdIn(any(), any()))
+        .thenReturn(List.of(subscription));
+    when(subscriptionService.streamSubscriptionsByOrgId(any()))
+        .thenReturn(Stream.of(subServiceSub));
     when(denylist.productIdMatches(any())).thenReturn(false);
     subscriptionSyncController.reconcileSubscriptionsWithSubscriptionService("org123", false);
     verify(subscriptionRepository).deleteAll(subscriptionsCaptor.capture());
@@ -750,7 +760,10 @@ class SubscriptionSyncControllerTest {
     subscription2.setStartDate(clock.dateFromMilliseconds(subServiceSub.getEffectiveStartDate()));
     when(subscriptionRepository.findByOrgId(any()))
         .thenReturn(Stream.of(subscription1, subscription2));
-    when(subscriptionService.getSubscriptionsByOrgId(any())).thenReturn(List.of(subServiceSub));
+    when(subscriptionRepository.findByOrgIdAndSubscriptionIdIn(any(), any()))
+        .thenReturn(List.of(subscription1, subscription2));
+    when(subscriptionService.streamSubscriptionsByOrgId(any()))
+        .thenReturn(Stream.of(subServiceSub));
     when(denylist.productIdMatches(any())).thenReturn(false);
     subscriptionSyncController.reconcileSubscriptionsWithSubscriptionService("org123", false);
     verify(subscriptionRepository).deleteAll(subscriptionsCaptor.capture());
@@ -0,0 +1,240 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally;
+
+import static org.candlepin.subscriptions.tally.InventoryHostFactTestHelper.createGuest;
+import static org.candlepin.subscriptions.tally.InventoryHostFactTestHelper.createHypervisor;
+import static org.candlepin.subscriptions.tally.InventoryHostFactTestHelper.createRhsmHost;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManager;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.candlepin.subscriptions.db.AccountServiceInventoryRepository;
+import org.candlepin.subscriptions.db.model.AccountServiceInventory;
+import org.candlepin.subscriptions.db.model.BillingProvider;
+import org.candlepin.subscriptions.db.model.HardwareMeasurementType;
+import org.candlepin.subscriptions.db.model.Host;
+import org.candlepin.subscriptions.db.model.HostTallyBucket;
+import org.candlepin.subscriptions.db.model.ServiceLevel;
+import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.inventory.db.InventoryRepository;
+import org.candlepin.subscriptions.inventory.db.model.InventoryHostFacts;
+import org.candlepin.subscriptions.test.BaseIT;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles({"worker", "test-inventory"})
+@Transactional
+class BulkInventoryHostCollectorIT extends BaseIT {
+
+  private static final String RHEL = "RHEL for x86";
+  private static final Integer RHEL_PRODUCT_ID = 69;
+  private static final String ACCOUNT = "account123";
+  private static final String ORG_ID = "org123";
+  private static final String OTHER_ORG_ID = "otherOrg";
+
+  @MockBean private InventoryRepository inventoryRepo;
+  @Autowired private BulkInventoryHostCollector collector;
+  @Autowired private AccountServiceInventoryRepository accountServiceInventoryRepository;
+  @Autowired private EntityManager entityManager;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void testStoredHostsAreDiffedAgainstHbiHosts() {
+    InventoryHostFacts reported =
+        createRhsmHost(ACCOUNT, ORG_ID, List.of(RHEL_PRODUCT_ID), "", OffsetDateTime.now());
+    reported.setSystemProfileCoresPerSocket(4);
+    reported.setSystemProfileSockets(3);
+    InventoryHostFacts created =
+        createRhsmHost(ACCOUNT, ORG_ID, List.of(RHEL_PRODUCT_ID), "", OffsetDateTime.now());
+    String reportedId = reported.getInventoryId().toString();
+    String createdId = created.getInventoryId().toString();
+
+    Host existing = new Host(reportedId, "insights1", ACCOUNT, ORG_ID, null);
+    existing.setDisplayName("old name");
+    addBucket(existing, "Satellite Server");
+    Host duplicate = new Host(reportedId, "insights2", ACCOUNT, ORG_ID, null);
+    duplicate.setInstanceId("duplicate");
+    Host stale = new Host("stale-inventory-id", "insights3", ACCOUNT, ORG_ID, null);
+    addBucket(stale, RHEL);
+    Host otherOrgHost = new Host("stale-inventory-id", "insights4", ACCOUNT, OTHER_ORG_ID, null);
+    persistHosts(ORG_ID, existing, duplicate, stale);
+    persistHosts(OTHER_ORG_ID, otherOrgHost);
+
+    when(inventoryRepo.getReportedHypervisors(List.of(ORG_ID))).thenReturn(Stream.empty());
+    when(inventoryRepo.getFacts(eq(List.of(ORG_ID)), anyInt()))
+        .thenReturn(Stream.of(reported, created));
+
+    collector.collect(new UsageKeyCatalog(Set.of(RHEL)), ACCOUNT, ORG_ID);
+
+    assertEquals(
+        Set.of(reportedId, createdId),
+        Set.copyOf(
+            jdbcTemplate.queryForList(
+                "select inventory_id from hosts where org_id = ?", String.class, ORG_ID)));
+    assertEquals(
+        List.of(reported.getDisplayName()),
+        jdbcTemplate.queryForList(
+            "select display_name from hosts where org_id = ? and inventory_id = ?",
+            String.class,
+            ORG_ID,
+            reportedId));
+    assertEquals(
+        List.of(createdId),
+        jdbcTemplate.queryForList(
+            "select instance_id from hosts where org_id = ? and inventory_id = ?",
+            String.class,
+            ORG_ID,
+            createdId));
+    assertEquals(
+        List.of(12.0),
+        jdbcTemplate.queryForList(
+            """
+            select m.value from instance_measurements m join hosts h on h.id = m.host_id
+            where h.org_id = ? and h.inventory_id = ? and m.metric_id = 'CORES'
+            """,
+            Double.class,
+            ORG_ID,
+            reportedId));
+
+    List<String> reportedBuckets =
+        jdbcTemplate.queryForList(
+            """
+            select b.product_id || ':' || b.cores from host_tally_buckets b
+            join hosts h on h.id = b.host_id
+            where h.org_id = ? and h.inventory_id = ?
+            """,
+            String.class,
+            ORG_ID,
+            reportedId);
+    assertFalse(reportedBuckets.isEmpty());
+    assertEquals(Set.of(RHEL + ":12"), Set.copyOf(reportedBuckets));
+    assertEquals(
+        1,
+        jdbcTemplate.queryForObject(
+            "select count(*) from hosts where org_id = ?", Integer.class, OTHER_ORG_ID));
+  }
+
+  @Test
+  void testStoredBucketsAreUpdatedFromNullAndToNewMeasurementType() {
+    InventoryHostFacts reported =
+        createRhsmHost(ACCOUNT, ORG_ID, List.of(RHEL_PRODUCT_ID), "", OffsetDateTime.now());
+    reported.setSystemProfileCoresPerSocket(4);
+    reported.setSystemProfileSockets(3);
+    String reportedId = reported.getInventoryId().toString();
+    Host existing = new Host(reportedId, "insights1", ACCOUNT, ORG_ID, null);
+    addBucket(existing, RHEL);
+    persistHosts(ORG_ID, existing);
+    jdbcTemplate.update(
+        """
+        update host_tally_buckets set cores = null, sockets = null, measurement_type = 'HYPERVISOR'
+        where host_id in (select id from hosts where org_id = ?)
+        """,
+        ORG_ID);
+
+    when(inventoryRepo.getReportedHypervisors(List.of(ORG_ID))).thenReturn(Stream.empty());
+    when(inventoryRepo.getFacts(eq(List.of(ORG_ID)), anyInt())).thenReturn(Stream.of(reported));
+
+    collector.collect(new UsageKeyCatalog(Set.of(RHEL)), ACCOUNT, ORG_ID);
+
+    assertEquals(
+        List.of("12:PHYSICAL"),
+        jdbcTemplate.queryForList(
+            """
+            select b.cores || ':' || b.measurement_type from host_tally_buckets b
+            join hosts h on h.id = b.host_id
+            where h.org_id = ? and b.product_id = ? and b.sla = '_ANY' and b.usage = '_ANY'
+              and b.billing_provider = '_ANY' and b.billing_account_id = '_ANY'
+              and b.as_hypervisor = false and b.sockets is not null
+            """,
+            String.class,
+            ORG_ID,
+            RHEL));
+  }
+
+  @Test
+  void testHypervisorGuestCountIsStored() {
+    InventoryHostFacts hypervisor = createHypervisor(ACCOUNT, ORG_ID, RHEL_PRODUCT_ID);
+    InventoryHostFacts guest =
+        createGuest(hypervisor.getSubscriptionManagerId(), ACCOUNT, ORG_ID, RHEL_PRODUCT_ID);
+    String hypervisorSubManId = hypervisor.getSubscriptionManagerId();
+
+    when(inventoryRepo.getReportedHypervisors(List.of(ORG_ID)))
+        .thenReturn(Stream.<Object[]>of(new Object[] {hypervisorSubManId, hypervisorSubManId}));
+    when(inventoryRepo.getFacts(eq(List.of(ORG_ID)), anyInt()))
+        .thenReturn(Stream.of(hypervisor, guest));
+
+    collector.collect(new UsageKeyCatalog(Set.of(RHEL)), ACCOUNT, ORG_ID);
+
+    assertEquals(
+        1,
+        jdbcTemplate.queryForObject(
+            "select num_of_guests from hosts where org_id = ? and inventory_id = ?",
+            Integer.class,
+            ORG_ID,
+            hypervisor.getInventoryId().toString()));
+    assertEquals(
+        hypervisorSubManId,
+        jdbcTemplate.queryForObject(
+            "select hypervisor_uuid from hosts where org_id = ? and inventory_id = ?",
+            String.class,
+            ORG_ID,
+            guest.getInventoryId().toString()));
+  }
+
+  private void addBucket(Host host, String productId) {
+    host.addBucket(
+        new HostTallyBucket(
+            host,
+            productId,
+            ServiceLevel._ANY,
+            Usage._ANY,
+            BillingProvider._ANY,
+            "_ANY",
+            false,
+            1,
+            1,
+            HardwareMeasurementType.PHYSICAL));
+  }
+
+  private void persistHosts(String orgId, Host... hosts) {
+    AccountServiceInventory accountServiceInventory =
+        new AccountServiceInventory(orgId, InventoryAccountUsageCollector.HBI_INSTANCE_TYPE);
+    for (Host host : hosts) {
+      accountServiceInventory.getServiceInstances().put(host.getInstanceId(), host);
+    }
+    accountServiceInventoryRepository.saveAndFlush(accountServiceInventory);
+    entityManager.clear();
+  }
+}
@@ -39,6 +39,8 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.candlepin.subscriptions.db.TallySnapshotRepository;
 import org.candlepin.subscriptions.db.model.*;
+import org.candlepin.subscriptions.tally.billing.BillableUsageRunningTotalChanges;
+import org.candlepin.subscriptions.tally.billing.BillableUsageRunningTotalController;
 import org.candlepin.subscriptions.util.DateRange;
 import org.candlepin.subscriptions.util.MetricIdUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -58,6 +60,7 @@ class CombiningRollupSnapshotStrategyTest {
   @Autowired CombiningRollupSnapshotStrategy combiningRollupSnapshotStrategy;
 
   @MockBean TallySnapshotRepository repo;
+  @MockBean BillableUsageRunningTotalController runningTotalController;
 
   private Set<String> tagsWithPrometheusEnabled;
 
@@ -242,6 +245,54 @@ class CombiningRollupSnapshotStrategyTest {
     assertNotNull(actual);
   }
 
+  @Test
+  void testHourlySnapshotChangesAppliedToRunningTotals() {
+    TallySnapshot noonSnapshot =
+        createTallySnapshot(Granularity.HOURLY, "2021-02-25T12:00:00Z", 4.0);
+    noonSnapshot.setId(UUID.randomUUID());
+    when(repo.findByOrgIdAndProductIdInAndGranularityAndSnapshotDateBetween(
+            any(), any(), eq(Granularity.HOURLY), any(), any()))
+        .thenReturn(Stream.of(noonSnapshot));
+    when(repo.findByOrgIdAndProductIdInAndGranularityAndSnapshotDateBetween(
+            any(), any(), eq(Granularity.DAILY), any(), any()))
+        .thenReturn(Stream.empty());
+    UsageCalculation.Key usageKey =
+        new UsageCalculation.Key(
+            OPEN_SHIFT_HOURLY,
+            ServiceLevel.PREMIUM,
+            Usage.PRODUCTION,
+            BillingProvider._ANY,
+            "_ANY");
+    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    combiningRollupSnapshotStrategy.produceSnapshotsFromCalculations(
+        "org123",
+        new DateRange(
+            OffsetDateTime.parse("2021-02-24T12:00:00Z"),
+            OffsetDateTime.parse("2021-02-26T12:00:00Z")),
+        tagsWithPrometheusEnabled,
+        Map.of(
+            OffsetDateTime.parse("2021-02-25T12:00:00Z"),
+            createAccountUsageCalculation(usageKey, 5.0),
+            OffsetDateTime.parse("2021-02-25T13:00:00Z"),
+            createAccountUsageCalculation(usageKey, 3.0)),
+        Granularity.HOURLY,
+        Double::sum);
+
+    ArgumentCaptor<BillableUsageRunningTotalChanges> changesCaptor =
+        ArgumentCaptor.forClass(BillableUsageRunningTotalChanges.class);
+    verify(runningTotalController).applyChanges(changesCaptor.capture());
+    var key =
+        BillableUsageRunningTotalKey.keyFrom(
+            createTallySnapshot(Granularity.HOURLY, "2021-02-25T13:00:00Z", 3.0),
+            MetricIdUtils.getCores().toString());
+    var changes = changesCaptor.getValue().getChanges();
+    assertEquals(Set.of(key), changes.keySet());
+    // noon snapshot went from 4.0 to 5.0, and the afternoon snapshot was added with 3.0
+    assertEquals(4.0, changes.get(key).delta());
+    assertEquals(
+        OffsetDateTime.parse("2021-02-25T13:00:00Z"), changes.get(key).latestSnapshotDate());
+  }
+
   @Test
   void testUpdatesExistingRollupSnapshots() {
     TallySnapshot dailySnapshot =
@@ -0,0 +1,54 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HbiHostPartitionTest {
+
+  @Test
+  void testNoBoundsYieldsSinglePartition() {
+    assertEquals(List.of(HbiHostPartition.ALL), HbiHostPartition.fromUpperBounds(List.of()));
+    assertEquals(List.of(HbiHostPartition.ALL), HbiHostPartition.fromUpperBounds(List.of("a")));
+  }
+
+  @Test
+  void testPartitionsAreContiguousAndCoverAllIds() {
+    var partitions = HbiHostPartition.fromUpperBounds(List.of("c", "f", "f", "k"));
+
+    assertEquals(
+        List.of(
+            new HbiHostPartition(null, "c"),
+            new HbiHostPartition("c", "f"),
+            new HbiHostPartition("f", null)),
+        partitions);
+  }
+
+  @Test
+  void testIsUnbounded() {
+    assertTrue(HbiHostPartition.ALL.isUnbounded());
+    assertFalse(new HbiHostPartition("a", null).isUnbounded());
+    assertFalse(new HbiHostPartition(null, "a").isUnbounded());
+  }
+}
@@ -52,7 +52,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+@SpringBootTest(properties = "rhsm-subscriptions.hbi-bulk-collection-orgs=bulkOrg")
 @ActiveProfiles({"worker", "test"})
 class InventoryAccountUsageCollectorCollectTest {
 
@@ -71,6 +71,7 @@ class InventoryAccountUsageCollectorCollectTest {
   @MockBean private InventoryRepository inventoryRepo;
   @MockBean private HostRepository hostRepo;
   @MockBean private AccountServiceInventoryRepository accountServiceInventoryRepository;
+  @MockBean private BulkInventoryHostCollector bulkCollector;
   @Autowired private InventoryAccountUsageCollector collector;
   @Autowired private MeterRegistry meterRegistry;
 
@@ -179,6 +180,25 @@ class InventoryAccountUsageCollectorCollectTest {
     assertEquals(1, accountServiceInventory.getServiceInstances().size());
   }
 
+  @Test
+  void testBulkCollectionOrgIsCollectedWithBulkSql() {
+    OrgHostsData expected = new OrgHostsData("bulkOrg");
+    when(bulkCollector.collect(any(), eq(ACCOUNT), eq("bulkOrg"))).thenReturn(expected);
+
+    assertSame(expected, collector.collect(RHEL_PRODUCTS, ACCOUNT, "bulkOrg"));
+    verifyNoInteractions(accountServiceInventoryRepository);
+    verify(inventoryRepo, never()).getFacts(any(), any());
+  }
+
+  @Test
+  void testOtherOrgsAreNotCollectedWithBulkSql() {
+    when(inventoryRepo.getFacts(eq(List.of(ORG_ID)), any())).thenReturn(Stream.empty());
+
+    collector.collect(RHEL_PRODUCTS, ACCOUNT, ORG_ID);
+
+    verifyNoInteractions(bulkCollector);
+  }
+
   @Test
   void ensureStaleHostsAreDeleted() {
     List<Integer> products = List.of(TEST_PRODUCT_ID);
@@ -24,16 +24,22 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.in;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.db.AccountServiceInventoryRepository;
@@ -56,6 +62,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class InventoryAccountUsageCollectorReconcileTest {
@@ -69,6 +76,8 @@ class InventoryAccountUsageCollectorReconcileTest {
   @Mock ApplicationProperties props;
   @Mock MeterRegistry meterRegistry;
   @Mock InventorySwatchDataCollator collator;
+  @Mock PlatformTransactionManager transactionManager;
+  @Mock BulkInventoryHostCollector bulkCollector;
 
   InventoryAccountUsageCollector setupCollector() {
     return new InventoryAccountUsageCollector(
@@ -80,7 +89,10 @@ class InventoryAccountUsageCollectorReconcileTest {
         tallyBucketRepository,
         props,
         meterRegistry,
-        collator);
+        collator,
+        transactionManager,
+        Runnable::run,
+        bulkCollector);
   }
 
   @Test
@@ -106,6 +118,54 @@ class InventoryAccountUsageCollectorReconcileTest {
     verify(hostRepository, times(2)).flush();
   }
 
+  @Test
+  void testLargeOrgReconciledInPartitions() {
+    var first = new HbiHostPartition(null, "m");
+    var second = new HbiHostPartition("m", null);
+    // the account size limit only applies to orgs reconciled in a single pass
+    when(props.getTallyMaxHbiAccountSize()).thenReturn(15);
+    when(props.getHbiReconciliationPartitionThreshold()).thenReturn(10);
+    when(props.getHbiReconciliationPartitionSize()).thenReturn(10);
+    when(inventory.activeSystemCountForOrgId(eq("org123"), anyInt())).thenReturn(20);
+    when(collator.partitionOrg(eq("org123"), anyInt(), eq(2))).thenReturn(List.of(first, second));
+    when(collator.collateData(eq("org123"), anyInt(), any(HbiHostPartition.class), any()))
+        .thenReturn(3);
+
+    var collector = setupCollector();
+    collector.reconcileSystemDataWithHbi("org123", Set.of("RHEL"));
+
+    verify(collator).collateData(eq("org123"), anyInt(), eq(first), any());
+    verify(collator).collateData(eq("org123"), anyInt(), eq(second), any());
+    verify(collator, never())
+        .collateData(any(), anyInt(), any(InventorySwatchDataCollator.Processor.class));
+  }
+
+  @Test
+  void testOrgAboveMaxAccountSizeIsRejectedWhenNotPartitioned() {
+    when(props.getTallyMaxHbiAccountSize()).thenReturn(15);
+    when(props.getHbiReconciliationPartitionThreshold()).thenReturn(Integer.MAX_VALUE);
+    when(inventory.activeSystemCountForOrgId(eq("org123"), anyInt())).thenReturn(20);
+
+    var collector = setupCollector();
+    Set<String> products = Set.of("RHEL");
+    assertThrows(
+        SystemThresholdException.class,
+        () -> collector.reconcileSystemDataWithHbi("org123", products));
+
+    verifyNoInteractions(collator);
+  }
+
+  @Test
+  void testBulkCollectionOrgIsReconciledWithBulkSql() {
+    when(props.getHbiBulkCollectionOrgs()).thenReturn(Set.of("bulkOrg"));
+
+    var collector = setupCollector();
+    collector.reconcileSystemDataWithHbi("bulkOrg", Set.of("RHEL"));
+
+    verify(bulkCollector).collect(any(), isNull(), eq("bulkOrg"));
+    verifyNoInteractions(collator, inventory);
+  }
+
   @Test
   void testCreate() {
     when(factNormalizer.normalize(any(), any())).thenReturn(new NormalizedFacts());
@@ -35,8 +35,10 @@ import com.google.common.collect.Sets;
 import com.redhat.swatch.configuration.registry.MetricId;
 import java.time.OffsetDateTime;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -63,6 +65,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 
 @ExtendWith(MockitoExtension.class)
 class MetricUsageCollectorTest {
@@ -531,15 +534,7 @@ class MetricUsageCollectorTest {
     when(eventController.findFirstEventTimestampInRange(any(), any(), any(), any()))
         .thenReturn(Optional.of(eventDate));
     when(eventController.fetchEventsInTimeRangeByServiceType(any(), any(), any(), any()))
-        .thenAnswer(
-            m -> {
-              OffsetDateTime begin = m.getArgument(2, OffsetDateTime.class);
-              OffsetDateTime end = m.getArgument(3, OffsetDateTime.class);
-              if (begin.equals(eventDate) && end.equals(eventDate.plusHours(1))) {
-                return Stream.of(event);
-              }
-              return Stream.of();
-            });
+        .thenAnswer(eventsInRange(event));
 
     metricUsageCollector.collect(
         SERVICE_TYPE,
@@ -584,15 +579,7 @@ class MetricUsageCollectorTest {
     when(eventController.findFirstEventTimestampInRange(any(), any(), any(), any()))
         .thenReturn(Optional.of(eventDate));
     when(eventController.fetchEventsInTimeRangeByServiceType(any(), any(), any(), any()))
-        .thenAnswer(
-            m -> {
-              OffsetDateTime begin = m.getArgument(2, OffsetDateTime.class);
-              OffsetDateTime end = m.getArgument(3, OffsetDateTime.class);
-              if (begin.equals(eventDate) && end.equals(eventDate.plusHours(1))) {
-                return Stream.of(event);
-              }
-              return Stream.of();
-            });
+        .thenAnswer(eventsInRange(event));
 
     metricUsageCollector.collect(
         SERVICE_TYPE,
@@ -634,15 +621,7 @@ class MetricUsageCollectorTest {
     when(accountRepo.findById(any())).thenReturn(Optional.of(accountServiceInventory));
 
     when(eventController.fetchEventsInTimeRangeByServiceType(any(), any(), any(), any()))
-        .thenAnswer(
-            m -> {
-              OffsetDateTime begin = m.getArgument(2, OffsetDateTime.class);
-              OffsetDateTime end = m.getArgument(3, OffsetDateTime.class);
-              if (begin.equals(eventDate) && end.equals(eventDate.plusHours(1))) {
-                return Stream.of(event);
-              }
-              return Stream.of();
-            });
+        .thenAnswer(eventsInRange(event));
 
     when(eventController.findFirstEventTimestampInRange(any(), any(), any(), any()))
         .thenReturn(Optional.of(eventDate));
@@ -778,6 +757,69 @@ class MetricUsageCollectorTest {
     assertEquals("test-org", instance.getOrgId());
   }
 
+  @Test
+  void testCollectStreamsWholeRangeOnceWithSameResultsAsHourlyCollection() {
+    OffsetDateTime start = clock.startOfCurrentHour().minusHours(3);
+    OffsetDateTime firstEvent = start.plusMinutes(15);
+    String instance1 = UUID.randomUUID().toString();
+    String instance2 = UUID.randomUUID().toString();
+    Event[] events = {
+      createOsdEvent(instance1, firstEvent, 4.0),
+      createOsdEvent(instance2, start.plusMinutes(50), 8.0),
+      createOsdEvent(instance1, start.plusMinutes(80), 2.0),
+      createOsdEvent(instance2, start.plusMinutes(150), 16.0),
+      // past the requested end, but within the last hour starting before it
+      createOsdEvent(instance1, start.plusMinutes(185), 1.0)
+    };
+    when(eventController.findFirstEventTimestampInRange(any(), any(), any(), any()))
+        .thenReturn(Optional.of(firstEvent));
+    when(hostRepository.findMaxLastSeenDate(any(), any()))
+        .thenReturn(Optional.of(start.minusDays(1)));
+    when(eventController.fetchEventsInTimeRangeByServiceType(any(), any(), any(), any()))
+        .thenAnswer(eventsInRange(events));
+
+    var result =
+        metricUsageCollector.collect(
+            SERVICE_TYPE, "account123", "org123", new DateRange(start, start.plusHours(3)));
+
+    verify(eventController, times(1))
+        .fetchEventsInTimeRangeByServiceType(
+            "org123", SERVICE_TYPE, firstEvent, firstEvent.plusHours(3));
+    AccountServiceInventory hourlyInventory = createTestAccountServiceInventory();
+    hourlyInventory.setOrgId("org123");
+    Map<OffsetDateTime, AccountUsageCalculation> expected = new HashMap<>();
+    for (int hour = 0; hour < 3; hour++) {
+      OffsetDateTime offset = firstEvent.plusHours(hour);
+      expected.put(offset, metricUsageCollector.collectHour(hourlyInventory, offset));
+    }
+    assertEquals(expected.keySet(), result.getCalculations().keySet());
+    expected.forEach(
+        (offset, calculation) ->
+            assertEquals(
+                calculation.toString(), result.getCalculations().get(offset).toString()));
+  }
+
+  private static Answer<Stream<Event>> eventsInRange(Event... events) {
+    return invocation -> {
+      OffsetDateTime begin = invocation.getArgument(2, OffsetDateTime.class);
+      OffsetDateTime end = invocation.getArgument(3, OffsetDateTime.class);
+      return Stream.of(events)
+          .filter(e -> !e.getTimestamp().isBefore(begin) && e.getTimestamp().isBefore(end));
+    };
+  }
+
+  private static Event createOsdEvent(String instanceId, OffsetDateTime timestamp, double cores) {
+    return createEvent(instanceId)
+        .withRole(Event.Role.OSD)
+        .withTimestamp(timestamp)
+        .withServiceType(SERVICE_TYPE)
+        .withMeasurements(
+            List.of(
+                new Measurement().withUom(MetricIdUtils.getCores().toString()).withValue(cores)))
+        .withBillingProvider(Event.BillingProvider.RED_HAT)
+        .withBillingAccountId(Optional.of("sellerAcct"));
+  }
+
   private static Event createEvent() {
     return createEvent(UUID.randomUUID().toString());
   }
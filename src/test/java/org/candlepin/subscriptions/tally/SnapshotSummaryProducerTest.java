@@ -24,16 +24,21 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 import com.redhat.swatch.configuration.registry.MetricId;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.candlepin.subscriptions.db.model.BillingProvider;
 import org.candlepin.subscriptions.db.model.Granularity;
@@ -52,6 +57,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.retry.support.RetryTemplate;
 
@@ -70,9 +76,15 @@ class SnapshotSummaryProducerTest {
   void setup() {
     props = new TallySummaryProperties();
     props.setTopic("summary-topic");
-    RetryTemplate retryTemplate = new RetryTemplate();
-    this.producer =
-        new SnapshotSummaryProducer(kafka, retryTemplate, props, new TallySummaryMapper());
+    lenient()
+        .when(kafka.send(any(), any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    this.producer = createProducer();
+  }
+
+  private SnapshotSummaryProducer createProducer() {
+    return new SnapshotSummaryProducer(
+        kafka, new RetryTemplate(), props, new TallySummaryMapper());
   }
 
   @Test
@@ -187,6 +199,74 @@ class SnapshotSummaryProducerTest {
     verifyNoInteractions(kafka);
   }
 
+  @Test
+  void testSnapshotsCoalescedInDateOrderUpToCap() {
+    props.setMaxSnapshotsPerMessage(2);
+    producer = createProducer();
+    OffsetDateTime now = OffsetDateTime.now();
+    List<TallySnapshot> snapshots = new ArrayList<>();
+    for (int i = 3; i > 0; i--) {
+      TallySnapshot snapshot = coresSnapshot(i);
+      snapshot.setSnapshotDate(now.plusHours(i));
+      snapshots.add(snapshot);
+    }
+
+    producer.produceTallySummaryMessages(Map.of("org1", snapshots));
+
+    verify(kafka, times(2)).send(eq(props.getTopic()), eq("org1"), summaryCaptor.capture());
+    List<List<Double>> values =
+        summaryCaptor.getAllValues().stream()
+            .map(
+                summary ->
+                    summary.getTallySnapshots().stream()
+                        .map(snapshot -> snapshot.getTallyMeasurements().get(0).getValue())
+                        .toList())
+            .toList();
+    assertEquals(List.of(List.of(1.0, 2.0), List.of(3.0)), values);
+  }
+
+  @Test
+  void testSnapshotWithoutMeasurementsDroppedFromCoalescedSummary() {
+    props.setMaxSnapshotsPerMessage(10);
+    producer = createProducer();
+    TallySnapshot valid = coresSnapshot(1.0);
+    TallySnapshot invalid = coresSnapshot(2.0);
+    invalid.getTallyMeasurements().clear();
+
+    producer.produceTallySummaryMessages(Map.of("org1", List.of(valid, invalid)));
+
+    verify(kafka).send(eq(props.getTopic()), eq("org1"), summaryCaptor.capture());
+    assertEquals(1, summaryCaptor.getValue().getTallySnapshots().size());
+  }
+
+  @Test
+  void testFailedDeliveryDoesNotStopRemainingSends() {
+    props.setMaxInFlightMessages(1);
+    producer = createProducer();
+    when(kafka.send(any(), eq("org1"), any()))
+        .thenReturn(CompletableFuture.failedFuture(new KafkaException("failed")));
+
+    Map<String, List<TallySnapshot>> snapshots = new TreeMap<>();
+    snapshots.put("org1", List.of(coresSnapshot(1.0)));
+    snapshots.put("org2", List.of(coresSnapshot(2.0)));
+    producer.produceTallySummaryMessages(snapshots);
+
+    verify(kafka).send(eq(props.getTopic()), eq("org2"), any());
+  }
+
+  private TallySnapshot coresSnapshot(double value) {
+    return buildSnapshot(
+        "a1",
+        "org1",
+        "OSD",
+        Granularity.HOURLY,
+        ServiceLevel.PREMIUM,
+        Usage.PRODUCTION,
+        BillingProvider.RED_HAT,
+        MetricIdUtils.getCores().getValue(),
+        value);
+  }
+
   void assertMeasurement(
       Map<String, List<TallyMeasurement>> measurements,
       String hardwareType,
@@ -0,0 +1,138 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.candlepin.subscriptions.ApplicationProperties;
+import org.candlepin.subscriptions.db.AccountConfigRepository;
+import org.candlepin.subscriptions.util.DateRange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.retry.support.RetryTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class TallySnapshotControllerTest {
+
+  private static final String ORG_ID = "org123";
+
+  @Mock AccountConfigRepository accountRepo;
+  @Mock InventoryAccountUsageCollector usageCollector;
+  @Mock MaxSeenSnapshotStrategy maxSeenSnapshotStrategy;
+  @Mock MetricUsageCollector metricUsageCollector;
+  @Mock CombiningRollupSnapshotStrategy combiningRollupSnapshotStrategy;
+  @Mock SnapshotSummaryProducer summaryProducer;
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger submittedTasks = new AtomicInteger();
+  private final Executor countingExecutor =
+      task -> {
+        submittedTasks.incrementAndGet();
+        task.run();
+      };
+
+  private final DateRange range =
+      new DateRange(OffsetDateTime.now().minusHours(2), OffsetDateTime.now());
+
+  TallySnapshotController setupController(int serviceTypeParallelism) {
+    ApplicationProperties props = new ApplicationProperties();
+    props.setHourlyTallyServiceTypeParallelism(serviceTypeParallelism);
+    return new TallySnapshotController(
+        accountRepo,
+        usageCollector,
+        maxSeenSnapshotStrategy,
+        RetryTemplate.builder().maxAttempts(1).build(),
+        metricUsageCollector,
+        combiningRollupSnapshotStrategy,
+        summaryProducer,
+        meterRegistry,
+        countingExecutor,
+        props);
+  }
+
+  @Test
+  void testServiceTypesAreTalliedSequentiallyByDefault() {
+    List<String> serviceTypes = SubscriptionDefinition.getAllServiceTypes();
+
+    setupController(1).produceHourlySnapshotsForOrg(ORG_ID, range);
+
+    assertEquals(0, submittedTasks.get());
+    serviceTypes.forEach(
+        serviceType ->
+            verify(metricUsageCollector).collect(eq(serviceType), any(), eq(ORG_ID), eq(range)));
+  }
+
+  @Test
+  void testServiceTypesAreFannedOutToExecutor() {
+    List<String> serviceTypes = SubscriptionDefinition.getAllServiceTypes();
+
+    setupController(4).produceHourlySnapshotsForOrg(ORG_ID, range);
+
+    assertEquals(serviceTypes.size(), submittedTasks.get());
+    serviceTypes.forEach(
+        serviceType ->
+            verify(metricUsageCollector).collect(eq(serviceType), any(), eq(ORG_ID), eq(range)));
+  }
+
+  @Test
+  void testFailingServiceTypeDoesNotStopOthers() {
+    List<String> serviceTypes = SubscriptionDefinition.getAllServiceTypes();
+    String failing = serviceTypes.get(0);
+    when(metricUsageCollector.collect(eq(failing), any(), any(), any()))
+        .thenThrow(new IllegalStateException("boom"));
+
+    setupController(4).produceHourlySnapshotsForOrg(ORG_ID, range);
+
+    serviceTypes.forEach(
+        serviceType ->
+            verify(metricUsageCollector).collect(eq(serviceType), any(), eq(ORG_ID), eq(range)));
+  }
+
+  @Test
+  void testTimerIsRecordedPerServiceType() {
+    List<String> serviceTypes = SubscriptionDefinition.getAllServiceTypes();
+
+    setupController(4).produceHourlySnapshotsForOrg(ORG_ID, range);
+
+    serviceTypes.forEach(
+        serviceType ->
+            assertEquals(
+                1,
+                meterRegistry
+                    .get("rhsm-subscriptions.snapshots.single.hourly.service_type")
+                    .tag("service_type", serviceType)
+                    .timer()
+                    .count()));
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.candlepin.subscriptions.db.model.BillingProvider;
+import org.candlepin.subscriptions.db.model.ServiceLevel;
+import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.tally.UsageCalculation.Key;
+import org.candlepin.subscriptions.tally.facts.NormalizedFacts;
+import org.junit.jupiter.api.Test;
+
+class UsageKeyCatalogTest {
+
+  @Test
+  void testKeysOnlyForHostProductsInCatalog() {
+    UsageKeyCatalog catalog = new UsageKeyCatalog(Set.of("RHEL", "OpenShift Container Platform"));
+    NormalizedFacts facts = new NormalizedFacts();
+    facts.setProducts(Set.of("RHEL", "unknown"));
+    facts.setSla(ServiceLevel.PREMIUM);
+    facts.setUsage(Usage.PRODUCTION);
+
+    Set<Key> expected =
+        Set.of(
+            key("RHEL", ServiceLevel.PREMIUM, Usage.PRODUCTION),
+            key("RHEL", ServiceLevel.PREMIUM, Usage._ANY),
+            key("RHEL", ServiceLevel._ANY, Usage.PRODUCTION),
+            key("RHEL", ServiceLevel._ANY, Usage._ANY));
+    var actual = catalog.keysFor(facts);
+
+    assertEquals(4, actual.size());
+    assertEquals(expected, new HashSet<>(actual));
+  }
+
+  @Test
+  void testKeysAreSharedBetweenHosts() {
+    UsageKeyCatalog catalog = new UsageKeyCatalog(Set.of("RHEL"));
+    NormalizedFacts first = new NormalizedFacts();
+    first.setProducts(Set.of("RHEL"));
+    NormalizedFacts second = new NormalizedFacts();
+    second.setProducts(Set.of("RHEL"));
+
+    var firstKeys = catalog.keysFor(first);
+    var secondKeys = catalog.keysFor(second);
+
+    assertEquals(firstKeys.size(), secondKeys.size());
+    for (int i = 0; i < firstKeys.size(); i++) {
+      assertSame(firstKeys.get(i), secondKeys.get(i));
+    }
+  }
+
+  @Test
+  void testAnySlaAndUsageNotDuplicated() {
+    UsageKeyCatalog catalog = new UsageKeyCatalog(Set.of("RHEL"));
+    NormalizedFacts facts = new NormalizedFacts();
+    facts.setProducts(Set.of("RHEL"));
+    facts.setSla(ServiceLevel._ANY);
+    facts.setUsage(Usage._ANY);
+
+    assertEquals(
+        List.of(key("RHEL", ServiceLevel._ANY, Usage._ANY)), catalog.keysFor(facts));
+  }
+
+  private static Key key(String product, ServiceLevel sla, Usage usage) {
+    return new Key(product, sla, usage, BillingProvider._ANY, "_ANY");
+  }
+}
@@ -33,6 +33,7 @@ import org.candlepin.subscriptions.retention.TallyRetentionController;
 import org.candlepin.subscriptions.security.SecurityProperties;
 import org.candlepin.subscriptions.tally.MarketplaceResendTallyController;
 import org.candlepin.subscriptions.tally.TallySnapshotController;
+import org.candlepin.subscriptions.tally.billing.BillableUsageRunningTotalController;
 import org.candlepin.subscriptions.tally.job.CaptureSnapshotsTaskManager;
 import org.candlepin.subscriptions.test.TestClockConfiguration;
 import org.candlepin.subscriptions.util.ApplicationClock;
@@ -52,6 +53,7 @@ class InternalTallyResourceTest {
   @Mock private TallyRetentionController tallyRetentionController;
   @Mock private RemittanceRetentionController remittanceRetentionController;
   @Mock private InternalTallyDataController internalTallyDataController;
+  @Mock private BillableUsageRunningTotalController runningTotalController;
 
   private InternalTallyResource resource;
   private ApplicationProperties appProps;
@@ -72,7 +74,8 @@ class InternalTallyResourceTest {
             tallyRetentionController,
             remittanceRetentionController,
             internalTallyDataController,
-            properties);
+            properties,
+            runningTotalController);
   }
 
   @Test
@@ -151,4 +154,10 @@ class InternalTallyResourceTest {
     resource.purgeRemittances();
     verify(remittanceRetentionController).purgeRemittancesAsync();
   }
+
+  @Test
+  void testReconcileBillableUsageRunningTotals() {
+    resource.reconcileBillableUsageRunningTotals();
+    verify(runningTotalController).reconcileAsync();
+  }
 }
@@ -26,9 +26,11 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.redhat.swatch.configuration.registry.MetricId;
@@ -42,7 +44,10 @@ import com.redhat.swatch.contracts.client.ApiException;
 import java.lang.reflect.Field;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -89,6 +94,7 @@ class BillableUsageControllerTest {
   @Mock TallySnapshotRepository snapshotRepo;
   @Mock DefaultApi contractsApi;
   @Mock ContractsClientProperties contractsClientProperties;
+  @Mock BillableUsageRunningTotalController runningTotalController;
 
   private SubscriptionDefinitionRegistry subscriptionDefinitionRegistry;
   private BillableUsageController controller;
@@ -114,7 +120,12 @@ class BillableUsageControllerTest {
     contractsController = new ContractsController(contractsApi, contractsClientProperties);
     controller =
         new BillableUsageController(
-            CLOCK, producer, remittanceRepo, snapshotRepo, contractsController);
+            CLOCK,
+            producer,
+            remittanceRepo,
+            snapshotRepo,
+            contractsController,
+            runningTotalController);
     subscriptionDefinitionRegistry = mock(SubscriptionDefinitionRegistry.class);
     setMock(subscriptionDefinitionRegistry);
     var usage = billable(CLOCK.startOfCurrentMonth(), 0.0);
@@ -168,6 +179,94 @@ class BillableUsageControllerTest {
     verify(producer).produce(expectedUsage);
   }
 
+  @Test
+  void monthlyWindowUsesRunningTotalWhenAvailable() {
+    BillableUsage usage = billable(CLOCK.startOfCurrentMonth(), 2.3);
+    List<RemittanceSummaryProjection> summaries = new ArrayList<>();
+    summaries.add(RemittanceSummaryProjection.builder().totalRemittedPendingValue(3.0).build());
+
+    when(remittanceRepo.getRemittanceSummaries(any())).thenReturn(summaries);
+    when(runningTotalController.getMeasuredTotal(usage)).thenReturn(Optional.of(4.4));
+
+    controller.submitBillableUsage(usage);
+
+    BillableUsageRemittanceEntity expectedRemittance = remittance(usage, CLOCK.now(), 2.0);
+    BillableUsage expectedUsage = billable(usage.getSnapshotDate(), 2.0);
+    expectedUsage.setId(usage.getId()); // Id will be regenerated above.
+    verify(remittanceRepo).save(expectedRemittance);
+    verify(producer).produce(expectedUsage);
+    verifyNoInteractions(snapshotRepo);
+  }
+
+  @Test
+  void batchBillsLatestUsageOfSameMetricOnly() {
+    BillableUsage first = billable(CLOCK.startOfCurrentMonth(), 2.3);
+    BillableUsage second = billable(CLOCK.startOfCurrentMonth().plusHours(1), 2.1);
+    mockBatchOfSameMetric(first, second);
+
+    controller.submitBillableUsages(List.of(first, second));
+
+    // 6.5 - 3.0 rounds up to 4.0, billing the usage of both
+    BillableUsageRemittanceEntity expectedRemittance = remittance(second, CLOCK.now(), 4.0);
+    verify(remittanceRepo)
+        .insertAll(
+            argThat(
+                (Collection<BillableUsageRemittanceEntity> remittances) ->
+                    List.copyOf(remittances).equals(List.of(expectedRemittance))));
+    BillableUsage expectedSecond = billable(second.getSnapshotDate(), 4.0);
+    expectedSecond.setId(second.getId());
+    verify(producer).produceAll(List.of(expectedSecond));
+    verify(remittanceRepo, times(0)).save(any());
+  }
+
+  @Test
+  void batchKeepsRemittancesOfSentUsagesOnly() {
+    BillableUsage sent = billable(CLOCK.startOfCurrentMonth(), 2.3);
+    BillableUsage failed = billable(CLOCK.startOfCurrentMonth(), 2.3).withSla(Sla.PREMIUM);
+    when(runningTotalController.getMeasuredTotal(any(), any())).thenReturn(Optional.of(4.4));
+    when(producer.produceAll(any())).thenReturn(List.of(failed));
+
+    assertEquals(List.of(failed), controller.submitBillableUsages(List.of(sent, failed)));
+
+    verify(remittanceRepo).deleteAll(List.of(remittance(failed, CLOCK.now(), 5.0)));
+  }
+
+  @Test
+  void batchRemovesRemittancesWhenNoUsageIsSent() {
+    BillableUsage first = billable(CLOCK.startOfCurrentMonth(), 2.3);
+    BillableUsage second = billable(CLOCK.startOfCurrentMonth().plusHours(1), 2.1);
+    mockBatchOfSameMetric(first, second);
+    when(producer.produceAll(any())).thenReturn(List.of(second));
+
+    assertEquals(List.of(second), controller.submitBillableUsages(List.of(first, second)));
+
+    verify(remittanceRepo).deleteAll(List.of(remittance(second, CLOCK.now(), 4.0)));
+  }
+
+  @Test
+  void retryingFailedBatchBillsWholeTotalOfSameMetric() {
+    BillableUsage first = billable(CLOCK.startOfCurrentMonth(), 5.0);
+    BillableUsage second = billable(CLOCK.startOfCurrentMonth().plusHours(1), 3.0);
+    when(runningTotalController.getMeasuredTotal(any(), any())).thenReturn(Optional.of(8.0));
+    when(producer.produceAll(any())).thenReturn(List.of(second), List.of());
+
+    List<BillableUsage> failed = controller.submitBillableUsages(List.of(first, second));
+    controller.submitBillableUsages(failed);
+
+    // nothing was remitted by the failed attempt, so the retry bills all 8.0
+    BillableUsage expectedSecond = billable(second.getSnapshotDate(), 8.0);
+    expectedSecond.setId(second.getId());
+    verify(producer, times(2)).produceAll(List.of(expectedSecond));
+    verify(remittanceRepo).deleteAll(List.of(remittance(second, CLOCK.now(), 8.0)));
+  }
+
+  @Test
+  void emptyBatchIsIgnored() {
+    controller.submitBillableUsages(List.of());
+
+    verifyNoInteractions(remittanceRepo, producer, runningTotalController);
+  }
+
   @Test
   void monthlyWindowRemittanceMultipleOfBillingFactor() {
     BillableUsage usage = billable(CLOCK.startOfCurrentMonth(), 68.103);
@@ -547,6 +646,28 @@ class BillableUsageControllerTest {
         .thenReturn(sum);
   }
 
+  private void mockBatchOfSameMetric(BillableUsage first, BillableUsage second) {
+    BillableUsageRemittanceEntityPK key = keyFrom(first, null);
+    RemittanceSummaryProjection summary =
+        RemittanceSummaryProjection.builder()
+            .totalRemittedPendingValue(3.0)
+            .orgId(key.getOrgId())
+            .productId(key.getProductId())
+            .metricId(key.getMetricId())
+            .accumulationPeriod(key.getAccumulationPeriod())
+            .sla(key.getSla())
+            .usage(key.getUsage())
+            .billingProvider(key.getBillingProvider())
+            .billingAccountId(key.getBillingAccountId())
+            .build();
+
+    when(remittanceRepo.getRemittanceSummaries(
+            Set.of(key.getOrgId()), Set.of(key.getAccumulationPeriod())))
+        .thenReturn(List.of(summary));
+    // only the latest usage is billed, using the hourly snapshots as it has no running total
+    mockCurrentSnapshotMeasurementTotal(second, 6.5);
+  }
+
   private BillableUsageRemittanceEntity remittance(
       BillableUsage usage, OffsetDateTime remittedDate, Double value) {
     BillableUsageRemittanceEntityPK remKey = keyFrom(usage, remittedDate);
@@ -0,0 +1,235 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally.billing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.candlepin.subscriptions.db.BillableUsageRunningTotalRepository;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotal;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotalKey;
+import org.candlepin.subscriptions.db.model.BillingProvider;
+import org.candlepin.subscriptions.db.model.Granularity;
+import org.candlepin.subscriptions.db.model.HardwareMeasurementType;
+import org.candlepin.subscriptions.db.model.ServiceLevel;
+import org.candlepin.subscriptions.db.model.TallyMeasurementKey;
+import org.candlepin.subscriptions.db.model.TallySnapshot;
+import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.json.BillableUsage;
+import org.candlepin.subscriptions.test.TestClockConfiguration;
+import org.candlepin.subscriptions.util.ApplicationClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class BillableUsageRunningTotalControllerTest {
+
+  private static final ApplicationClock CLOCK = new TestClockConfiguration().adjustableClock();
+
+  @Mock BillableUsageRunningTotalRepository repository;
+  @Mock PlatformTransactionManager transactionManager;
+
+  private BillableUsageRunningTotalController controller;
+  private OffsetDateTime startOfMonth;
+  private String month;
+
+  @BeforeEach
+  void setup() {
+    controller =
+        new BillableUsageRunningTotalController(
+            repository, CLOCK, transactionManager, new SimpleMeterRegistry());
+    startOfMonth = CLOCK.startOfCurrentMonth();
+    month = BillableUsageRunningTotalKey.getMonth(startOfMonth);
+  }
+
+  @Test
+  void testChangesCombineUpdatedSnapshotsIntoOneDelta() {
+    TallySnapshot first = hourly(startOfMonth.plusHours(1), 2.0);
+    TallySnapshot second = hourly(startOfMonth.plusHours(2), 3.0);
+    BillableUsageRunningTotalChanges changes = new BillableUsageRunningTotalChanges();
+
+    changes.subtract(first);
+    changes.subtract(second);
+    measure(first, HardwareMeasurementType.PHYSICAL, 4.0);
+    measure(second, HardwareMeasurementType.PHYSICAL, 4.0);
+    changes.add(first);
+    changes.add(second);
+
+    var change = changes.getChanges().get(key(month));
+    assertEquals(1, changes.getChanges().size());
+    assertEquals(3.0, change.delta());
+    assertEquals(startOfMonth.plusHours(2), change.latestSnapshotDate());
+  }
+
+  @Test
+  void testChangesIgnoreNonBillableMeasurementsAndGranularities() {
+    TallySnapshot daily = hourly(startOfMonth, 2.0);
+    daily.setGranularity(Granularity.DAILY);
+    TallySnapshot total = hourly(startOfMonth, 0.0);
+    total.getTallyMeasurements().clear();
+    measure(total, HardwareMeasurementType.TOTAL, 2.0);
+    BillableUsageRunningTotalChanges changes = new BillableUsageRunningTotalChanges();
+
+    changes.add(daily);
+    changes.add(total);
+
+    assertTrue(changes.isEmpty());
+  }
+
+  @Test
+  void testApplyChangesAddsToTotal() {
+    BillableUsageRunningTotalChanges changes = new BillableUsageRunningTotalChanges();
+    changes.add(hourly(startOfMonth.plusHours(1), 2.0));
+
+    controller.applyChanges(changes);
+
+    verify(repository).addToTotal(key(month), 2.0, startOfMonth.plusHours(1));
+    verify(repository, never()).save(any());
+  }
+
+  @Test
+  void testApplyChangesSkipsUnchangedTotals() {
+    TallySnapshot snapshot = hourly(startOfMonth.plusHours(1), 2.0);
+    BillableUsageRunningTotalChanges changes = new BillableUsageRunningTotalChanges();
+    changes.subtract(snapshot);
+    changes.add(snapshot);
+
+    controller.applyChanges(changes);
+
+    verify(repository, never()).addToTotal(any(), anyDouble(), any());
+  }
+
+  @Test
+  void testMeasuredTotalUsedWhenItDoesNotIncludeLaterSnapshots() {
+    BillableUsage usage = usage(startOfMonth.plusHours(5));
+    when(repository.findById(key(month)))
+        .thenReturn(
+            Optional.of(new BillableUsageRunningTotal(key(month), 8.0, startOfMonth.plusHours(5))));
+
+    assertEquals(8.0, controller.getMeasuredTotal(usage).orElseThrow());
+  }
+
+  @Test
+  void testMeasuredTotalNotUsedWhenItIncludesLaterSnapshots() {
+    BillableUsage usage = usage(startOfMonth.plusHours(5));
+    when(repository.findById(key(month)))
+        .thenReturn(
+            Optional.of(new BillableUsageRunningTotal(key(month), 8.0, startOfMonth.plusHours(6))));
+
+    assertTrue(controller.getMeasuredTotal(usage).isEmpty());
+  }
+
+  @Test
+  void testReconcileRepairsMismatchedAndMissingTotals() {
+    BillableUsageRunningTotalKey otherKey = key(month).toBuilder().productId("other").build();
+    BillableUsageRunningTotal drifted =
+        new BillableUsageRunningTotal(key(month), 7.0, startOfMonth.plusHours(1));
+    when(repository.findOrgIdsByMonth(month)).thenReturn(Stream.of("org123"));
+    when(repository.findOrgIdsWithHourlySnapshots(any(), any())).thenReturn(Stream.of("org123"));
+    when(repository.findByKeyOrgIdAndKeyMonth("org123", month)).thenReturn(List.of(drifted));
+    when(repository.sumHourlySnapshots(any(), any(), any()))
+        .thenReturn(
+            List.of(
+                new BillableUsageRunningTotal(key(month), 5.0, startOfMonth.plusHours(2)),
+                new BillableUsageRunningTotal(otherKey, 1.0, startOfMonth.plusHours(3))));
+
+    assertEquals(2, controller.reconcileMonth(startOfMonth));
+
+    assertEquals(5.0, drifted.getValue());
+    assertEquals(startOfMonth.plusHours(2), drifted.getLatestSnapshotDate());
+    verify(repository)
+        .save(new BillableUsageRunningTotal(otherKey, 1.0, startOfMonth.plusHours(3)));
+  }
+
+  @Test
+  void testReconcileLeavesMatchingTotals() {
+    BillableUsageRunningTotal total =
+        new BillableUsageRunningTotal(key(month), 5.0, startOfMonth.plusHours(4));
+    when(repository.findOrgIdsByMonth(month)).thenReturn(Stream.of("org123"));
+    when(repository.findOrgIdsWithHourlySnapshots(any(), any())).thenReturn(Stream.empty());
+    when(repository.findByKeyOrgIdAndKeyMonth("org123", month)).thenReturn(List.of(total));
+    when(repository.sumHourlySnapshots(any(), any(), any()))
+        .thenReturn(
+            List.of(new BillableUsageRunningTotal(key(month), 5.0, startOfMonth.plusHours(4))));
+
+    assertEquals(0, controller.reconcileMonth(startOfMonth));
+    verify(repository, never()).save(any());
+  }
+
+  private BillableUsageRunningTotalKey key(String month) {
+    return BillableUsageRunningTotalKey.builder()
+        .orgId("org123")
+        .productId("rhosak")
+        .metricId("STORAGE_GIBIBYTES")
+        .month(month)
+        .sla(ServiceLevel.STANDARD)
+        .usage(Usage.PRODUCTION)
+        .billingProvider(BillingProvider.AWS)
+        .billingAccountId("aws-account1")
+        .build();
+  }
+
+  private TallySnapshot hourly(OffsetDateTime date, double value) {
+    TallySnapshot snapshot =
+        TallySnapshot.builder()
+            .orgId("org123")
+            .productId("rhosak")
+            .granularity(Granularity.HOURLY)
+            .serviceLevel(ServiceLevel.STANDARD)
+            .usage(Usage.PRODUCTION)
+            .billingProvider(BillingProvider.AWS)
+            .billingAccountId("aws-account1")
+            .snapshotDate(date)
+            .build();
+    measure(snapshot, HardwareMeasurementType.PHYSICAL, value);
+    return snapshot;
+  }
+
+  private void measure(TallySnapshot snapshot, HardwareMeasurementType type, double value) {
+    snapshot.getTallyMeasurements().put(new TallyMeasurementKey(type, "Storage-gibibytes"), value);
+  }
+
+  private BillableUsage usage(OffsetDateTime snapshotDate) {
+    return new BillableUsage()
+        .withOrgId("org123")
+        .withProductId("rhosak")
+        .withUom("Storage-gibibytes")
+        .withSla(BillableUsage.Sla.STANDARD)
+        .withUsage(BillableUsage.Usage.PRODUCTION)
+        .withBillingProvider(BillableUsage.BillingProvider.AWS)
+        .withBillingAccountId("aws-account1")
+        .withSnapshotDate(snapshotDate);
+  }
+}
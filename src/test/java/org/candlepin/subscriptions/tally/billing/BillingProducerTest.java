@@ -20,8 +20,13 @@
  */
 package org.candlepin.subscriptions.tally.billing;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.candlepin.subscriptions.json.BillableUsage;
 import org.candlepin.subscriptions.task.TaskQueueProperties;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +34,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
 
 @ExtendWith(MockitoExtension.class)
@@ -54,4 +60,22 @@ class BillingProducerTest {
     producer.produce(usage);
     verify(kafka).send(billableUsageTopicProps.getTopic(), usage);
   }
+
+  @Test
+  void testFailedSendsOfBatchAreReturned() {
+    BillableUsage first = new BillableUsage().withOrgId("org1");
+    BillableUsage second = new BillableUsage().withOrgId("org2");
+    BillableUsage third = new BillableUsage().withOrgId("org3");
+    when(kafka.send(billableUsageTopicProps.getTopic(), first))
+        .thenReturn(CompletableFuture.failedFuture(new KafkaException("failed")));
+    when(kafka.send(billableUsageTopicProps.getTopic(), second))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    when(kafka.send(billableUsageTopicProps.getTopic(), third))
+        .thenThrow(new KafkaException("failed"));
+
+    // null usages (see previous errors/warnings) are skipped
+    var usages = new ArrayList<>(List.of(first, second, third));
+    usages.add(null);
+    assertEquals(List.of(first, third), producer.produceAll(usages));
+  }
 }
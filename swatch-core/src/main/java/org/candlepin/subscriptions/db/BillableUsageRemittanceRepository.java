@@ -21,6 +21,7 @@
 package org.candlepin.subscriptions.db;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -33,6 +34,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -95,6 +97,41 @@ public interface BillableUsageRemittanceRepository
     return entityManager.createQuery(query).getResultList();
   }
 
+  /**
+   * Get the remittance summaries of several orgs and accumulation periods in a single query, e.g.
+   * for a batch of billable usages.
+   *
+   * @param orgIds orgs to summarize remittances for
+   * @param accumulationPeriods accumulation periods to summarize remittances for
+   * @return a summary for each remittance key (excluding the remittance date) having remittances
+   */
+  @Query(
+      """
+        select new org.candlepin.subscriptions.db.model.RemittanceSummaryProjection(
+          sum(r.remittedPendingValue), r.key.orgId, max(r.accountNumber), r.key.productId,
+          r.key.accumulationPeriod, r.key.sla, r.key.usage, max(r.key.remittancePendingDate),
+          r.key.billingProvider, r.key.billingAccountId, r.key.metricId)
+        from BillableUsageRemittanceEntity r
+        where r.key.orgId in (:orgIds) and r.key.accumulationPeriod in (:accumulationPeriods)
+        group by r.key.orgId, r.key.productId, r.key.accumulationPeriod, r.key.sla, r.key.usage,
+          r.key.billingProvider, r.key.billingAccountId, r.key.metricId
+      """)
+  List<RemittanceSummaryProjection> getRemittanceSummaries(
+      @Param("orgIds") Collection<String> orgIds,
+      @Param("accumulationPeriods") Collection<String> accumulationPeriods);
+
+  /**
+   * Insert new remittances, letting Hibernate batch the inserts rather than checking whether each
+   * remittance already exists like {@link #saveAll(Iterable)} does.
+   *
+   * @param remittances new remittances
+   */
+  default void insertAll(Collection<BillableUsageRemittanceEntity> remittances) {
+    var entityManager = getEntityManager();
+    remittances.forEach(entityManager::persist);
+    entityManager.flush();
+  }
+
   static Specification<BillableUsageRemittanceEntity> matchingBillingProvider(
       String billingProvider) {
     return (root, query, builder) -> {
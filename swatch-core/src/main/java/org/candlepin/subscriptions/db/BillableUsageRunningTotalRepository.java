@@ -0,0 +1,89 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db;
+
+import jakarta.persistence.LockModeType;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotal;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotalKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Repository for the monthly running totals of billable metrics. */
+public interface BillableUsageRunningTotalRepository
+    extends JpaRepository<BillableUsageRunningTotal, BillableUsageRunningTotalKey>,
+        BillableUsageRunningTotalUpsert {
+
+  /** Find the running totals of an org for a month, locking them for update. */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  List<BillableUsageRunningTotal> findByKeyOrgIdAndKeyMonth(String orgId, String month);
+
+  @Query("select distinct t.key.orgId from BillableUsageRunningTotal t where t.key.month = :month")
+  Stream<String> findOrgIdsByMonth(@Param("month") String month);
+
+  @Query(
+      """
+        select distinct s.orgId from TallySnapshot s
+        where s.granularity = 'HOURLY' and
+          s.snapshotDate >= :beginning and s.snapshotDate <= :ending
+      """)
+  Stream<String> findOrgIdsWithHourlySnapshots(
+      @Param("beginning") OffsetDateTime beginning, @Param("ending") OffsetDateTime ending);
+
+  /**
+   * Compute the running totals of an org directly from its hourly snapshots, as a reference to
+   * verify the incrementally maintained totals against.
+   *
+   * @param orgId the org to compute running totals for
+   * @param beginning start of the month
+   * @param ending end of the month
+   * @return running totals (not managed) for every billable metric having hourly snapshots
+   */
+  @Query(
+      """
+        select new org.candlepin.subscriptions.db.model.BillableUsageRunningTotal(
+          s.orgId, s.productId, key(m).metricId, s.serviceLevel, s.usage, s.billingProvider,
+          s.billingAccountId, sum(value(m)), max(s.snapshotDate))
+        from TallySnapshot s join s.tallyMeasurements m
+        where s.orgId = :orgId and
+          s.granularity = 'HOURLY' and
+          key(m).measurementType = 'PHYSICAL' and
+          s.billingAccountId is not null and
+          s.snapshotDate >= :beginning and s.snapshotDate <= :ending
+        group by s.orgId, s.productId, key(m).metricId, s.serviceLevel, s.usage,
+          s.billingProvider, s.billingAccountId
+      """)
+  List<BillableUsageRunningTotal> sumHourlySnapshots(
+      @Param("orgId") String orgId,
+      @Param("beginning") OffsetDateTime beginning,
+      @Param("ending") OffsetDateTime ending);
+
+  void deleteByKeyOrgId(String orgId);
+
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  void deleteAllByKeyOrgIdAndKeyMonthLessThan(String orgId, String month);
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db;
+
+import java.time.OffsetDateTime;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotalKey;
+
+/**
+ * Repository "mixin" adding deltas to running totals. To use, extend
+ * BillableUsageRunningTotalUpsert.
+ */
+public interface BillableUsageRunningTotalUpsert {
+
+  /**
+   * Atomically add a delta to a running total, creating the running total if it doesn't exist.
+   *
+   * @param key the running total to update
+   * @param delta the change in the sum of the month's hourly measurements
+   * @param snapshotDate date of the hourly snapshot that changed
+   */
+  void addToTotal(BillableUsageRunningTotalKey key, double delta, OffsetDateTime snapshotDate);
+}
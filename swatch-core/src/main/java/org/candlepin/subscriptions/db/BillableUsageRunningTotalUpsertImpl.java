@@ -0,0 +1,90 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.OffsetDateTime;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotal;
+import org.candlepin.subscriptions.db.model.BillableUsageRunningTotalKey;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repository "mixin" implementing {@link BillableUsageRunningTotalUpsert}.
+ *
+ * <p>On PostgreSQL, the delta is applied with a single INSERT ... ON CONFLICT statement, so that
+ * concurrent tallies creating the same running total don't race. Other databases (e.g. HSQLDB in
+ * tests) fall back to updating the managed entity.
+ */
+@Component
+public class BillableUsageRunningTotalUpsertImpl implements BillableUsageRunningTotalUpsert {
+
+  private static final String UPSERT_SQL =
+      """
+      insert into billable_usage_running_totals(org_id, product_id, metric_id, month, sla, usage,
+        billing_provider, billing_account_id, value, latest_snapshot_date)
+      values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      on conflict (org_id, product_id, metric_id, month, sla, usage, billing_provider,
+        billing_account_id) do update set
+        value=billable_usage_running_totals.value + excluded.value,
+        latest_snapshot_date=greatest(billable_usage_running_totals.latest_snapshot_date,
+          excluded.latest_snapshot_date)""";
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  public void addToTotal(
+      BillableUsageRunningTotalKey key, double delta, OffsetDateTime snapshotDate) {
+    if (!(entityManager
+            .getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect()
+        instanceof PostgreSQLDialect)) {
+      BillableUsageRunningTotal total = entityManager.find(BillableUsageRunningTotal.class, key);
+      if (total == null) {
+        entityManager.persist(new BillableUsageRunningTotal(key, delta, snapshotDate));
+      } else {
+        total.setValue(total.getValue() + delta);
+        if (total.getLatestSnapshotDate().isBefore(snapshotDate)) {
+          total.setLatestSnapshotDate(snapshotDate);
+        }
+      }
+      return;
+    }
+
+    entityManager
+        .createNativeQuery(UPSERT_SQL)
+        .setParameter(1, key.getOrgId())
+        .setParameter(2, key.getProductId())
+        .setParameter(3, key.getMetricId())
+        .setParameter(4, key.getMonth())
+        .setParameter(5, key.getSla().getValue())
+        .setParameter(6, key.getUsage().getValue())
+        .setParameter(7, key.getBillingProvider().getValue())
+        .setParameter(8, key.getBillingAccountId())
+        .setParameter(9, delta)
+        .setParameter(10, snapshotDate)
+        .executeUpdate();
+  }
+}
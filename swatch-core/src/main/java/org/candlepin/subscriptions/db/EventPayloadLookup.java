@@ -0,0 +1,49 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db;
+
+import java.time.OffsetDateTime;
+import java.util.stream.Stream;
+import org.candlepin.subscriptions.json.Event;
+
+/**
+ * Repository "mixin" reading events straight from their stored payloads, without loading {@link
+ * org.candlepin.subscriptions.db.model.EventRecord} entities. To use, extend EventPayloadLookup.
+ */
+public interface EventPayloadLookup {
+
+  /**
+   * Stream the events of an org and service type during the specified range, ordered by timestamp
+   * and then instance ID.
+   *
+   * <p>Unlike querying EventRecords, the events are neither managed by the persistence context nor
+   * snapshotted for dirty checking, so each stored payload is parsed exactly once. Needs to be
+   * called within a transaction, and the stream must be closed.
+   *
+   * @param orgId the org ID
+   * @param serviceType the service type
+   * @param begin start of the time range (inclusive)
+   * @param end end of the time range (exclusive)
+   * @return a stream of events matching the specified criteria
+   */
+  Stream<Event> streamEventsByOrgIdAndServiceType(
+      String orgId, String serviceType, OffsetDateTime begin, OffsetDateTime end);
+}
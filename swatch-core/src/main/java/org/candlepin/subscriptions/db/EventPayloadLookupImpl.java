@@ -0,0 +1,79 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.OffsetDateTime;
+import java.util.stream.Stream;
+import org.candlepin.subscriptions.db.model.EventCompactConverter;
+import org.candlepin.subscriptions.db.model.EventRecordConverter;
+import org.candlepin.subscriptions.json.Event;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Component;
+
+/** Repository "mixin" implementing {@link EventPayloadLookup}. */
+@Component
+public class EventPayloadLookupImpl implements EventPayloadLookup {
+
+  private static final int FETCH_SIZE = 1024;
+
+  private static final String SERVICE_TYPE_QUERY =
+      """
+      select data, compact_data from events
+      where org_id=:orgId and service_type=:serviceType and timestamp >= :begin and timestamp < :end
+      order by timestamp, instance_id""";
+
+  private final EventRecordConverter jsonConverter = new EventRecordConverter();
+  private final EventCompactConverter compactConverter = new EventCompactConverter();
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Stream<Event> streamEventsByOrgIdAndServiceType(
+      String orgId, String serviceType, OffsetDateTime begin, OffsetDateTime end) {
+    NativeQuery<Object[]> query =
+        entityManager
+            .createNativeQuery(SERVICE_TYPE_QUERY)
+            .unwrap(NativeQuery.class)
+            .addScalar("data", StandardBasicTypes.STRING)
+            .addScalar("compact_data", StandardBasicTypes.BINARY);
+    return query
+        .setParameter("orgId", orgId)
+        .setParameter("serviceType", serviceType)
+        .setParameter("begin", begin)
+        .setParameter("end", end)
+        .setFetchSize(FETCH_SIZE)
+        .setReadOnly(true)
+        .getResultStream()
+        .map(this::toEvent);
+  }
+
+  private Event toEvent(Object[] payload) {
+    byte[] compactData = (byte[]) payload[1];
+    if (compactData != null) {
+      return compactConverter.convertToEntityAttribute(compactData);
+    }
+    return jsonConverter.convertToEntityAttribute((String) payload[0]);
+  }
+}
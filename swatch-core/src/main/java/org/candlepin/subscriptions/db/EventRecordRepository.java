@@ -20,6 +20,9 @@
  */
 package org.candlepin.subscriptions.db;
 
+import static org.hibernate.jpa.AvailableHints.HINT_FETCH_SIZE;
+
+import jakarta.persistence.QueryHint;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.UUID;
@@ -29,6 +32,7 @@ import org.candlepin.subscriptions.db.model.EventRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 /**
@@ -38,7 +42,8 @@ import org.springframework.data.repository.query.Param;
  * @see org.candlepin.subscriptions.json.Event
  */
 @SuppressWarnings({"linelength", "indentation"})
-public interface EventRecordRepository extends JpaRepository<EventRecord, EventKey> {
+public interface EventRecordRepository
+    extends JpaRepository<EventRecord, EventKey>, EventPayloadLookup, EventUpsert {
 
   /**
    * Fetch a stream of events for a given account for a given time range.
@@ -149,7 +154,7 @@ public interface EventRecordRepository extends JpaRepository<EventRecord, EventK
   @Query(
       nativeQuery = true,
       value =
-          "select exists(select 1 from events where org_id=:orgId and data->>'service_type'=:serviceType and timestamp >= :begin and timestamp < :end order by timestamp)")
+          "select exists(select 1 from events where org_id=:orgId and service_type=:serviceType and timestamp >= :begin and timestamp < :end order by timestamp)")
   boolean existsByOrgIdAndServiceTypeAndTimestampGreaterThanEqualAndTimestampLessThan(
       @Param("orgId") String orgId,
       @Param("serviceType") String serviceType,
@@ -158,7 +163,8 @@ public interface EventRecordRepository extends JpaRepository<EventRecord, EventK
 
   /**
    * Find all the events based on the account number and service type that exist during the
-   * specified range.
+   * specified range, ordered by timestamp and then instance ID so that a multi-hour range can be
+   * consumed as a single stream.
    *
    * @param orgId
    * @param serviceType
@@ -169,7 +175,8 @@ public interface EventRecordRepository extends JpaRepository<EventRecord, EventK
   @Query(
       nativeQuery = true,
       value =
-          "select * from events where org_id=:orgId and data->>'service_type'=:serviceType and timestamp >= :begin and timestamp < :end order by timestamp")
+          "select * from events where org_id=:orgId and service_type=:serviceType and timestamp >= :begin and timestamp < :end order by timestamp, instance_id")
+  @QueryHints(value = {@QueryHint(name = HINT_FETCH_SIZE, value = "1024")})
   Stream<EventRecord>
       findByOrgIdAndServiceTypeAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestamp(
           @Param("orgId") String orgId,
@@ -193,7 +200,7 @@ public interface EventRecordRepository extends JpaRepository<EventRecord, EventK
   @Query(
       nativeQuery = true,
       value =
-          "select * from events where org_id=:orgId and data->>'service_type'=:serviceType and record_date >= :begin and record_date < :end order by timestamp")
+          "select * from events where org_id=:orgId and service_type=:serviceType and record_date >= :begin and record_date < :end order by timestamp")
   Stream<EventRecord>
       findByOrgIdAndServiceTypeAndRecordDateGreaterThanEqualAndRecordDateLessThanOrderByTimestamp(
           @Param("orgId") String orgId,
@@ -214,7 +221,7 @@ public interface EventRecordRepository extends JpaRepository<EventRecord, EventK
   @Query(
       nativeQuery = true,
       value =
-          "select min(timestamp) from events where org_id=:orgId and data->>'service_type'=:serviceType and record_date >= :begin and record_date < :end")
+          "select min(timestamp) from events where org_id=:orgId and service_type=:serviceType and record_date >= :begin and record_date < :end")
   Instant findFirstEventTimestampInRange(
       @Param("orgId") String orgId,
       @Param("serviceType") String serviceType,
@@ -0,0 +1,39 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db;
+
+import java.util.Collection;
+import org.candlepin.subscriptions.db.model.EventRecord;
+
+/** Repository "mixin" inserting or updating event records in bulk. To use, extend EventUpsert. */
+public interface EventUpsert {
+
+  /**
+   * Insert the given event records, or update the existing records having the same key.
+   *
+   * <p>Unlike saveAll, this does not load or merge existing records one at a time. The records
+   * must have distinct keys, and are not attached to the persistence context.
+   *
+   * @param eventRecords the event records to save
+   * @return the number of records inserted or updated
+   */
+  int upsertAll(Collection<EventRecord> eventRecords);
+}
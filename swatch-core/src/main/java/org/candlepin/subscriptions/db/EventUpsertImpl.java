@@ -0,0 +1,154 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import org.candlepin.subscriptions.db.model.EventCompactConverter;
+import org.candlepin.subscriptions.db.model.EventRecord;
+import org.candlepin.subscriptions.db.model.EventRecordConverter;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repository "mixin" implementing {@link EventUpsert}.
+ *
+ * <p>On PostgreSQL, records are written with batched INSERT ... ON CONFLICT statements. Other
+ * databases (e.g. HSQLDB in tests) fall back to merging each record. As the statements bypass the
+ * bean validation JPA applies on persist and merge, records are validated before being written.
+ */
+@Component
+public class EventUpsertImpl implements EventUpsert {
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String UPSERT_SQL =
+      """
+      insert into events(event_id, account_number, org_id, event_type, event_source, instance_id,
+        metering_batch_id, timestamp, record_date, service_type, billing_provider, metric_id, data,
+        compact_data)
+      values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?)
+      on conflict (org_id, event_type, event_source, instance_id, timestamp) do update set
+        event_id=excluded.event_id,
+        account_number=excluded.account_number,
+        metering_batch_id=excluded.metering_batch_id,
+        record_date=excluded.record_date,
+        service_type=excluded.service_type,
+        billing_provider=excluded.billing_provider,
+        metric_id=excluded.metric_id,
+        data=excluded.data,
+        compact_data=excluded.compact_data""";
+
+  private final EventRecordConverter jsonConverter = new EventRecordConverter();
+  private final EventCompactConverter compactConverter = new EventCompactConverter();
+
+  private final Validator validator;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  public EventUpsertImpl(Validator validator) {
+    this.validator = validator;
+  }
+
+  @Override
+  public int upsertAll(Collection<EventRecord> eventRecords) {
+    if (eventRecords.isEmpty()) {
+      return 0;
+    }
+    if (!(entityManager
+            .getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect()
+        instanceof PostgreSQLDialect)) {
+      eventRecords.forEach(entityManager::merge);
+      return eventRecords.size();
+    }
+    validate(eventRecords);
+
+    // records are re-recorded when updated, so that the tally recalculates their hour
+    OffsetDateTime recordDate = OffsetDateTime.now();
+    return entityManager
+        .unwrap(Session.class)
+        .doReturningWork(
+            connection -> {
+              int count = 0;
+              try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+                for (EventRecord eventRecord : eventRecords) {
+                  eventRecord.populateEventId();
+                  eventRecord.setRecordDate(recordDate);
+                  bind(statement, eventRecord);
+                  statement.addBatch();
+                  if (++count % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                  }
+                }
+                if (count % BATCH_SIZE != 0) {
+                  statement.executeBatch();
+                }
+              }
+              return count;
+            });
+  }
+
+  private void validate(Collection<EventRecord> eventRecords) {
+    Set<ConstraintViolation<EventRecord>> violations = new HashSet<>();
+    eventRecords.forEach(eventRecord -> violations.addAll(validator.validate(eventRecord)));
+    if (!violations.isEmpty()) {
+      throw new ConstraintViolationException(violations);
+    }
+  }
+
+  private void bind(PreparedStatement statement, EventRecord eventRecord) throws SQLException {
+    boolean compact = EventCompactConverter.isEnabled();
+    statement.setObject(1, eventRecord.getEventId());
+    statement.setString(2, eventRecord.getAccountNumber());
+    statement.setString(3, eventRecord.getOrgId());
+    statement.setString(4, eventRecord.getEventType());
+    statement.setString(5, eventRecord.getEventSource());
+    statement.setString(6, eventRecord.getInstanceId());
+    statement.setObject(7, eventRecord.getMeteringBatchId());
+    statement.setObject(8, eventRecord.getTimestamp());
+    statement.setObject(9, eventRecord.getRecordDate());
+    statement.setString(10, eventRecord.getServiceType());
+    statement.setString(11, eventRecord.getBillingProvider());
+    statement.setString(12, eventRecord.getMetricId());
+    if (compact) {
+      statement.setNull(13, Types.VARCHAR);
+      statement.setBytes(14, compactConverter.convertToDatabaseColumn(eventRecord.getEvent()));
+    } else {
+      statement.setString(13, jsonConverter.convertToDatabaseColumn(eventRecord.getEvent()));
+      statement.setNull(14, Types.BINARY);
+    }
+  }
+}
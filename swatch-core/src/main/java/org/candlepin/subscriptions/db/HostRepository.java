@@ -76,6 +76,35 @@ public interface HostRepository
   @QueryHints(value = {@QueryHint(name = HINT_FETCH_SIZE, value = "1024")})
   Stream<Host> streamHbiHostsByOrgId(@Param("orgId") String orgId);
 
+  /**
+   * Stream the HBI hosts of an org whose hardware subscription-manager ID (hypervisor UUID, or own
+   * subscription-manager ID) falls within lowerBound (exclusive) and upperBound (inclusive), in the
+   * same order as {@link #streamHbiHostsByOrgId(String)}. Null bounds are unbounded; hosts without
+   * a hardware subscription-manager ID are only returned when upperBound is null.
+   */
+  /* NOTE: in below query, ordering is crucial for correct streaming reconciliation of HBI data */
+  @Query(
+      value =
+          """
+      select
+      h from Host h
+      left join fetch h.measurements
+      left join fetch h.buckets
+      left join fetch h.monthlyTotals
+      where h.orgId=:orgId
+        and h.instanceType='HBI_HOST'
+        and (:lowerBound is null
+          or coalesce(h.hypervisorUuid, h.subscriptionManagerId) > :lowerBound
+          or (:upperBound is null and coalesce(h.hypervisorUuid, h.subscriptionManagerId) is null))
+        and (:upperBound is null or coalesce(h.hypervisorUuid, h.subscriptionManagerId) <= :upperBound)
+      order by coalesce(h.hypervisorUuid, h.subscriptionManagerId), h.hypervisorUuid, h.inventoryId, h.id
+          """)
+  @QueryHints(value = {@QueryHint(name = HINT_FETCH_SIZE, value = "1024")})
+  Stream<Host> streamHbiHostsByOrgIdInPartition(
+      @Param("orgId") String orgId,
+      @Param("lowerBound") String lowerBound,
+      @Param("upperBound") String upperBound);
+
   /**
    * Find all Hosts by bucket criteria and return a page of TallyHostView objects. A TallyHostView
    * is a Host representation detailing what 'bucket' was applied to the current daily snapshots.
@@ -28,7 +28,10 @@ import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -87,6 +90,10 @@ public interface SubscriptionRepository
       "SELECT s FROM Subscription s WHERE s.orgId = :orgId ORDER BY s.subscriptionId, s.startDate")
   Stream<Subscription> findByOrgId(String orgId);
 
+  @EntityGraph(value = "graph.SubscriptionSync")
+  List<Subscription> findByOrgIdAndSubscriptionIdIn(
+      String orgId, Collection<String> subscriptionIds);
+
   void deleteBySubscriptionId(String subscriptionId);
 
   void deleteByOrgId(String orgId);
@@ -105,11 +112,14 @@ public interface SubscriptionRepository
               builder.asc(root.get(Subscription_.startDate)));
           return null;
         };
-    searchCriteria =
-        searchCriteria.and(
-            Specification.where(
-                subscriptionIsActiveBetween(
-                    dbReportCriteria.getBeginning(), dbReportCriteria.getEnding())));
+    return searchCriteria.and(matchingCriteria(dbReportCriteria));
+  }
+
+  private static Specification<Subscription> matchingCriteria(DbReportCriteria dbReportCriteria) {
+    Specification<Subscription> searchCriteria =
+        Specification.where(
+            subscriptionIsActiveBetween(
+                dbReportCriteria.getBeginning(), dbReportCriteria.getEnding()));
     if (Objects.nonNull(dbReportCriteria.getOrgId())) {
       searchCriteria = searchCriteria.and(orgIdEquals(dbReportCriteria.getOrgId()));
     } else if (Objects.nonNull(dbReportCriteria.getAccountNumber())) {
@@ -165,6 +175,96 @@ public interface SubscriptionRepository
     return findAll(buildSearchSpecification(dbReportCriteria), sort);
   }
 
+  /**
+   * Same as {@link #findByCriteria(DbReportCriteria, Sort)} for several criteria at once, e.g. for
+   * the usage of several orgs. The subscriptions matching any of the criteria are fetched with a
+   * single query, and then matched to each criteria.
+   *
+   * <p>Metric, hypervisor report category and product ID criteria aren't supported.
+   *
+   * @param criteria the criteria to find subscriptions for
+   * @param sort the order of the subscriptions found for each criteria
+   * @return the subscriptions matching each criteria
+   */
+  default Map<DbReportCriteria, List<Subscription>> findByEachCriteria(
+      Collection<DbReportCriteria> criteria, Sort sort) {
+    criteria.forEach(
+        dbReportCriteria -> {
+          if (Objects.nonNull(dbReportCriteria.getMetricId())
+              || Objects.nonNull(dbReportCriteria.getHypervisorReportCategory())
+              || Objects.nonNull(dbReportCriteria.getProductId())) {
+            throw new IllegalArgumentException(
+                "Metric, hypervisor report category and product ID criteria aren't supported");
+          }
+        });
+    if (criteria.isEmpty()) {
+      return Map.of();
+    }
+    Specification<Subscription> searchCriteria =
+        (root, query, builder) -> {
+          // fetch offering always, to eliminate n+1 on offering
+          root.fetch(Subscription_.offering);
+          return null;
+        };
+    List<Subscription> candidates =
+        findAll(
+            searchCriteria.and(
+                criteria.stream()
+                    .map(SubscriptionRepository::matchingCriteria)
+                    .reduce(Specification::or)
+                    .orElseThrow()),
+            sort);
+    Map<DbReportCriteria, List<Subscription>> results = new HashMap<>();
+    criteria.forEach(
+        dbReportCriteria ->
+            results.put(
+                dbReportCriteria,
+                candidates.stream()
+                    .filter(subscription -> matchesCriteria(subscription, dbReportCriteria))
+                    .toList()));
+    return results;
+  }
+
+  /**
+   * Applies the criteria of {@link #buildSearchSpecification(DbReportCriteria)} to a subscription
+   * already fetched, except for the metric, hypervisor report category and product ID criteria.
+   */
+  private static boolean matchesCriteria(
+      Subscription subscription, DbReportCriteria dbReportCriteria) {
+    var offering = subscription.getOffering();
+    return isActiveBetween(
+            subscription, dbReportCriteria.getBeginning(), dbReportCriteria.getEnding())
+        && (Objects.nonNull(dbReportCriteria.getOrgId())
+            ? dbReportCriteria.getOrgId().equals(subscription.getOrgId())
+            : Objects.isNull(dbReportCriteria.getAccountNumber())
+                || dbReportCriteria.getAccountNumber().equals(subscription.getAccountNumber()))
+        && (!dbReportCriteria.isPayg()
+            || !ObjectUtils.isEmpty(subscription.getBillingProviderId()))
+        && (ObjectUtils.isEmpty(dbReportCriteria.getProductNames())
+            || dbReportCriteria.getProductNames().contains(offering.getProductName()))
+        && (Objects.isNull(dbReportCriteria.getServiceLevel())
+            || dbReportCriteria.getServiceLevel().equals(ServiceLevel._ANY)
+            || dbReportCriteria.getServiceLevel().equals(offering.getServiceLevel()))
+        && (Objects.isNull(dbReportCriteria.getUsage())
+            || dbReportCriteria.getUsage().equals(Usage._ANY)
+            || dbReportCriteria.getUsage().equals(offering.getUsage()))
+        && (Objects.isNull(dbReportCriteria.getBillingProvider())
+            || dbReportCriteria.getBillingProvider().equals(BillingProvider._ANY)
+            || dbReportCriteria.getBillingProvider().equals(subscription.getBillingProvider()))
+        && (Objects.isNull(dbReportCriteria.getBillingAccountId())
+            || dbReportCriteria.getBillingAccountId().equals("_ANY")
+            || dbReportCriteria.getBillingAccountId().equals(subscription.getBillingAccountId()));
+  }
+
+  /** Same as subscriptionIsActiveBetween, for a subscription already fetched. */
+  private static boolean isActiveBetween(
+      Subscription subscription, OffsetDateTime reportStart, OffsetDateTime reportEnd) {
+    return (Objects.isNull(reportEnd) || !subscription.getStartDate().isAfter(reportEnd))
+        && (Objects.isNull(reportStart)
+            || Objects.isNull(subscription.getEndDate())
+            || !subscription.getEndDate().isBefore(reportStart));
+  }
+
   @Override
   @EntityGraph(attributePaths = {"subscriptionMeasurements"})
   List<Subscription> findAll(Specification<Subscription> spec, Sort sort);
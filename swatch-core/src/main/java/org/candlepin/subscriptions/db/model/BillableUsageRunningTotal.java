@@ -0,0 +1,84 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sum of the PHYSICAL measurements of every hourly snapshot in a month, maintained incrementally by
+ * the tally so that billing can read the monthly usage of a metric without aggregating snapshots.
+ *
+ * <p>The total reflects every hourly snapshot of the month up to and including latestSnapshotDate,
+ * so it equals the usage measured at a given snapshot date only when latestSnapshotDate isn't
+ * after it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "billable_usage_running_totals")
+public class BillableUsageRunningTotal implements Serializable {
+
+  @EmbeddedId private BillableUsageRunningTotalKey key;
+
+  @Column(name = "value", nullable = false)
+  private Double value;
+
+  @Column(name = "latest_snapshot_date", nullable = false)
+  private OffsetDateTime latestSnapshotDate;
+
+  /** Used by the query summing hourly snapshots into running totals. */
+  @SuppressWarnings("java:S107")
+  public BillableUsageRunningTotal(
+      String orgId,
+      String productId,
+      String metricId,
+      ServiceLevel sla,
+      Usage usage,
+      BillingProvider billingProvider,
+      String billingAccountId,
+      Double value,
+      OffsetDateTime latestSnapshotDate) {
+    this.key =
+        BillableUsageRunningTotalKey.builder()
+            .orgId(orgId)
+            .productId(productId)
+            .metricId(metricId)
+            .month(BillableUsageRunningTotalKey.getMonth(latestSnapshotDate))
+            .sla(sla)
+            .usage(usage)
+            .billingProvider(billingProvider)
+            .billingAccountId(billingAccountId)
+            .build();
+    this.value = value;
+    this.latestSnapshotDate = latestSnapshotDate;
+  }
+}
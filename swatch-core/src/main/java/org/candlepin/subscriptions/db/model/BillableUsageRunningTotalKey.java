@@ -0,0 +1,97 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.candlepin.subscriptions.json.BillableUsage;
+import org.candlepin.subscriptions.util.MetricIdUtils;
+
+/** Key for the monthly running total of a billable metric. */
+@Data
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class BillableUsageRunningTotalKey implements Serializable {
+
+  @Column(name = "org_id", nullable = false, length = 32)
+  private String orgId;
+
+  @Column(name = "product_id", nullable = false, length = 32)
+  private String productId;
+
+  @Column(name = "metric_id", nullable = false)
+  private String metricId;
+
+  /** month in YYYY-MM format */
+  @Column(name = "month", nullable = false)
+  private String month;
+
+  @Column(name = "sla", nullable = false)
+  private ServiceLevel sla;
+
+  @Column(name = "usage", nullable = false)
+  private Usage usage;
+
+  @Column(name = "billing_provider", nullable = false)
+  private BillingProvider billingProvider;
+
+  @Column(name = "billing_account_id", nullable = false)
+  private String billingAccountId;
+
+  public static BillableUsageRunningTotalKey keyFrom(BillableUsage billableUsage) {
+    return BillableUsageRunningTotalKey.builder()
+        .orgId(billableUsage.getOrgId())
+        .productId(billableUsage.getProductId())
+        .metricId(MetricIdUtils.toUpperCaseFormatted(billableUsage.getUom()))
+        .month(getMonth(billableUsage.getSnapshotDate()))
+        .sla(ServiceLevel.fromString(billableUsage.getSla().value()))
+        .usage(Usage.fromString(billableUsage.getUsage().value()))
+        .billingProvider(BillingProvider.fromString(billableUsage.getBillingProvider().value()))
+        .billingAccountId(billableUsage.getBillingAccountId())
+        .build();
+  }
+
+  public static BillableUsageRunningTotalKey keyFrom(TallySnapshot snapshot, String metricId) {
+    return BillableUsageRunningTotalKey.builder()
+        .orgId(snapshot.getOrgId())
+        .productId(snapshot.getProductId())
+        .metricId(MetricIdUtils.toUpperCaseFormatted(metricId))
+        .month(getMonth(snapshot.getSnapshotDate()))
+        .sla(snapshot.getServiceLevel())
+        .usage(snapshot.getUsage())
+        .billingProvider(snapshot.getBillingProvider())
+        .billingAccountId(snapshot.getBillingAccountId())
+        .build();
+  }
+
+  public static String getMonth(OffsetDateTime reference) {
+    return InstanceMonthlyTotalKey.formatMonthId(reference.withOffsetSameInstant(ZoneOffset.UTC));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.persistence.AttributeConverter;
+import java.io.IOException;
+import org.candlepin.subscriptions.json.Event;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA AttributeConverter which maps Events to/from the compact binary event storage format.
+ *
+ * <p>The format is a version byte followed by the Smile (binary JSON) encoding of the event, so
+ * that it keeps the exact semantics of the JSON document (including absent vs null optional
+ * fields) while being smaller and cheaper to parse. Whether new events are written in this format
+ * is controlled by rhsm-subscriptions.event-compact-storage-enabled; rows in either format remain
+ * readable regardless of the setting.
+ */
+@Component
+public class EventCompactConverter implements AttributeConverter<Event, byte[]> {
+
+  static final byte FORMAT_VERSION = 1;
+
+  private static ObjectReader reader;
+  private static ObjectWriter writer;
+  private static boolean enabled;
+
+  public EventCompactConverter() {
+    /* intentionally left empty */
+  }
+
+  // same hack as EventRecordConverter to get the ObjectMapper from the spring context
+  @Autowired
+  @SuppressWarnings("java:S3010")
+  EventCompactConverter(
+      ObjectMapper mapper,
+      @Value("${rhsm-subscriptions.event-compact-storage-enabled:false}") boolean enabled) {
+    ObjectMapper smileMapper = mapper.copyWith(new SmileFactory());
+    EventCompactConverter.reader = smileMapper.readerFor(Event.class);
+    EventCompactConverter.writer = smileMapper.writerFor(Event.class);
+    EventCompactConverter.enabled = enabled;
+  }
+
+  /**
+   * @return true if new events should be stored in the compact format
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public byte[] convertToDatabaseColumn(Event attribute) {
+    if (attribute == null) {
+      return null;
+    }
+    try {
+      byte[] smile = writer.writeValueAsBytes(attribute);
+      byte[] data = new byte[smile.length + 1];
+      data[0] = FORMAT_VERSION;
+      System.arraycopy(smile, 0, data, 1, smile.length);
+      return data;
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Error serializing event", e);
+    }
+  }
+
+  @Override
+  public Event convertToEntityAttribute(byte[] dbData) {
+    if (dbData == null) {
+      return null;
+    }
+    if (dbData.length == 0 || dbData[0] != FORMAT_VERSION) {
+      throw new IllegalArgumentException(
+          "Unsupported compact event format: "
+              + (dbData.length == 0 ? "empty" : Byte.toString(dbData[0])));
+    }
+    try {
+      return reader.readValue(dbData, 1, dbData.length - 1);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Error parsing compact event", e);
+    }
+  }
+}
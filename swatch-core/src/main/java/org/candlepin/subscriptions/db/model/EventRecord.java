@@ -33,6 +33,7 @@ import jakarta.validation.Valid;
 import java.time.OffsetDateTime;
 import java.util.Objects;
 import java.util.UUID;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -44,7 +45,13 @@ import org.hibernate.annotations.CreationTimestamp;
 /**
  * DB entity for an event record.
  *
- * <p>An event record consists of an ID and a JSON document with the event data.
+ * <p>An event record consists of an ID and a JSON document with the event data. Event attributes
+ * that are frequently filtered on are also copied out of the JSON document into their own columns,
+ * so that they can be indexed.
+ *
+ * <p>When compact event storage is enabled (see {@link EventCompactConverter}), the event is
+ * stored in the compact_data column instead of the JSON data column. Only one of the two columns
+ * is set for a given row, and {@link #getEvent()} reads whichever one is.
  */
 @Entity
 @Table(name = "events")
@@ -74,6 +81,7 @@ public class EventRecord {
     this.eventSource = event.getEventSource();
     this.instanceId = event.getInstanceId();
     this.timestamp = event.getTimestamp();
+    syncEventAttributes();
   }
 
   @Column(name = "event_id")
@@ -114,29 +122,81 @@ public class EventRecord {
   @Column(name = "record_date")
   private OffsetDateTime recordDate;
 
+  @Column(name = "service_type")
+  private String serviceType;
+
+  @Column(name = "billing_provider")
+  private String billingProvider;
+
+  /** The UOM of the event's measurement, only set for events having exactly one measurement. */
+  @Column(name = "metric_id")
+  private String metricId;
+
   @Valid
   @Column(name = "data")
   @Convert(converter = EventRecordConverter.class)
   private Event event;
 
+  @Valid
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @Column(name = "compact_data")
+  @Convert(converter = EventCompactConverter.class)
+  private Event compactEvent;
+
+  /**
+   * @return the event, regardless of the format it is stored in
+   */
+  public Event getEvent() {
+    return event != null ? event : compactEvent;
+  }
+
   @PrePersist
   public void populateEventId() {
-    if (event == null) {
+    Event current = getEvent();
+    if (current == null) {
       return;
     }
 
-    if (event.getEventId() == null) {
-      event.setEventId(UUID.randomUUID());
+    if (current.getEventId() == null) {
+      current.setEventId(UUID.randomUUID());
     }
 
-    this.eventId = event.getEventId();
+    this.eventId = current.getEventId();
+    syncEventAttributes();
   }
 
   @PreUpdate
   public void syncEventId() {
-    if (event != null && event.getEventId() != null && !event.getEventId().equals(this.eventId)) {
-      this.eventId = event.getEventId();
+    Event current = getEvent();
+    if (current != null
+        && current.getEventId() != null
+        && !current.getEventId().equals(this.eventId)) {
+      this.eventId = current.getEventId();
+    }
+    syncEventAttributes();
+  }
+
+  private void syncEventAttributes() {
+    Event event = getEvent();
+    if (event == null) {
+      return;
+    }
+    // keep the event in exactly one of the storage formats
+    if (EventCompactConverter.isEnabled()) {
+      this.compactEvent = event;
+      this.event = null;
+    } else {
+      this.event = event;
+      this.compactEvent = null;
     }
+    this.serviceType = event.getServiceType();
+    this.billingProvider =
+        event.getBillingProvider() != null ? event.getBillingProvider().value() : null;
+    this.metricId =
+        event.getMeasurements() != null && event.getMeasurements().size() == 1
+            ? event.getMeasurements().get(0).getUom()
+            : null;
   }
 
   @Override
@@ -20,17 +20,31 @@
  */
 package com.redhat.swatch.aws.processors;
 
+import com.redhat.swatch.aws.exception.AwsMissingCredentialsException;
 import com.redhat.swatch.aws.files.AwsCredentialsLookup;
 import com.redhat.swatch.clients.swatch.internal.subscription.api.model.AwsUsageContext;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringClient;
 import software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringClientBuilder;
 
+/**
+ * Provides the AWS Marketplace Metering clients used to send usage.
+ *
+ * <p>A single client is created per seller account and shared by all usage sent on behalf of that
+ * account, so that its HTTP connection pool (and the TLS sessions it holds) is reused across
+ * messages. The clients are closed when the application shuts down.
+ */
+@Slf4j
 @ApplicationScoped
 public class AwsMarketplaceMeteringClientFactory {
+  private final Map<String, MarketplaceMeteringClient> clients = new ConcurrentHashMap<>();
   private final AwsCredentialsLookup awsCredentialsLookup;
   private final boolean awsMarketplaceEndpointOverride;
   private final String awsMarketplaceEndpointUrl;
@@ -48,7 +62,29 @@ public class AwsMarketplaceMeteringClientFactory {
     this.awsCredentialsLookup = awsCredentialsLookup;
   }
 
-  public MarketplaceMeteringClient buildMarketplaceMeteringClient(AwsUsageContext context) {
+  public MarketplaceMeteringClient getMarketplaceMeteringClient(AwsUsageContext context) {
+    String sellerAccount = context.getAwsSellerAccountId();
+    if (sellerAccount == null) {
+      throw new AwsMissingCredentialsException(null);
+    }
+    return clients.computeIfAbsent(sellerAccount, this::buildMarketplaceMeteringClient);
+  }
+
+  @PreDestroy
+  void closeClients() {
+    clients.forEach(
+        (sellerAccount, client) -> {
+          try {
+            client.close();
+          } catch (RuntimeException e) {
+            log.warn("Unable to close the metering client of sellerAccount={}", sellerAccount, e);
+          }
+        });
+    clients.clear();
+  }
+
+  private MarketplaceMeteringClient buildMarketplaceMeteringClient(String sellerAccount) {
+    log.info("Creating AWS Marketplace Metering client for sellerAccount={}", sellerAccount);
     MarketplaceMeteringClientBuilder builder = MarketplaceMeteringClient.builder();
     if (awsMarketplaceEndpointOverride) {
       builder = builder.endpointOverride(URI.create(awsMarketplaceEndpointUrl));
@@ -57,8 +93,7 @@ public class AwsMarketplaceMeteringClientFactory {
       builder = builder.region(Region.of(awsRegion));
     }
     return builder
-        .credentialsProvider(
-            awsCredentialsLookup.getCredentialsProvider(context.getAwsSellerAccountId()))
+        .credentialsProvider(awsCredentialsLookup.getCredentialsProvider(sellerAccount))
         .build();
   }
 }
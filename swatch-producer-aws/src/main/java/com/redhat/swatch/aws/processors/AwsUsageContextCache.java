@@ -0,0 +1,108 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.aws.processors;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.redhat.swatch.aws.openapi.model.BillableUsage;
+import com.redhat.swatch.aws.openapi.model.BillableUsage.SlaEnum;
+import com.redhat.swatch.aws.openapi.model.BillableUsage.UsageEnum;
+import com.redhat.swatch.clients.swatch.internal.subscription.api.model.AwsUsageContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.function.Function;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded cache of the AWS usage contexts looked up for billable usage, so that the usage of the
+ * same subscription (e.g. each metric of an hourly tally) only needs a single lookup.
+ *
+ * <p>Contexts are cached per org, product, SLA, usage, billing account and hour of the snapshot,
+ * and expire after a configurable TTL. The contexts of an org's product are invalidated as soon as
+ * its subscription is found to be terminated.
+ */
+@ApplicationScoped
+public class AwsUsageContextCache {
+
+  private final Cache<Key, AwsUsageContext> contexts;
+
+  public AwsUsageContextCache(
+      @ConfigProperty(name = "AWS_USAGE_CONTEXT_CACHE_TTL") Duration ttl,
+      @ConfigProperty(name = "AWS_USAGE_CONTEXT_CACHE_MAX_SIZE") long maxSize) {
+    this.contexts = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).build();
+  }
+
+  /**
+   * Get the cached usage context of the billable usage, looking it up if not cached yet. Failed
+   * lookups aren't cached.
+   *
+   * @param billableUsage the billable usage to get the context of
+   * @param lookup looks up the usage context of a billable usage
+   * @return the usage context
+   */
+  public AwsUsageContext get(
+      BillableUsage billableUsage, Function<BillableUsage, AwsUsageContext> lookup) {
+    return contexts.get(Key.of(billableUsage), key -> lookup.apply(billableUsage));
+  }
+
+  /**
+   * Discard the cached usage contexts of the org's product of the billable usage, e.g. because its
+   * subscription was terminated.
+   *
+   * @param billableUsage the billable usage whose subscription changed
+   */
+  public void invalidate(BillableUsage billableUsage) {
+    contexts
+        .asMap()
+        .keySet()
+        .removeIf(
+            key ->
+                Objects.equals(key.orgId(), billableUsage.getOrgId())
+                    && Objects.equals(key.productId(), billableUsage.getProductId()));
+  }
+
+  public void invalidateAll() {
+    contexts.invalidateAll();
+  }
+
+  private record Key(
+      String orgId,
+      String productId,
+      SlaEnum sla,
+      UsageEnum usage,
+      String billingAccountId,
+      OffsetDateTime snapshotHour) {
+
+    static Key of(BillableUsage billableUsage) {
+      var snapshotDate = billableUsage.getSnapshotDate();
+      return new Key(
+          billableUsage.getOrgId(),
+          billableUsage.getProductId(),
+          billableUsage.getSla(),
+          billableUsage.getUsage(),
+          billableUsage.getBillingAccountId(),
+          snapshotDate == null ? null : snapshotDate.truncatedTo(ChronoUnit.HOURS));
+    }
+  }
+}
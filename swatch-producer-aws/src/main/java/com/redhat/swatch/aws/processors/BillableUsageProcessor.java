@@ -41,8 +41,17 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.smallrye.reactive.messaging.annotations.Blocking;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.faulttolerance.Retry;
@@ -54,36 +63,81 @@ import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsage
 import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
 import software.amazon.awssdk.services.marketplacemetering.model.MarketplaceMeteringException;
 import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
 import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
 
 @Slf4j
 @ApplicationScoped
 public class BillableUsageProcessor {
+  /** The maximum number of usage records accepted by AWS in a BatchMeterUsage request. */
+  static final int MAX_USAGE_RECORDS_PER_REQUEST = 25;
+
   private final Counter acceptedCounter;
   private final Counter rejectedCounter;
   private final InternalSubscriptionsApi internalSubscriptionsApi;
   private final AwsMarketplaceMeteringClientFactory awsMarketplaceMeteringClientFactory;
+  private final AwsUsageContextCache awsUsageContextCache;
   private final Optional<Boolean> isDryRun;
+  private final boolean batchSubmissionEnabled;
+  private final int batchSize;
 
   public BillableUsageProcessor(
       MeterRegistry meterRegistry,
       @RestClient InternalSubscriptionsApi internalSubscriptionsApi,
       AwsMarketplaceMeteringClientFactory awsMarketplaceMeteringClientFactory,
-      @ConfigProperty(name = "ENABLE_AWS_DRY_RUN") Optional<Boolean> isDryRun) {
+      AwsUsageContextCache awsUsageContextCache,
+      @ConfigProperty(name = "ENABLE_AWS_DRY_RUN") Optional<Boolean> isDryRun,
+      @ConfigProperty(name = "AWS_BATCH_SUBMISSION_ENABLED") boolean batchSubmissionEnabled,
+      @ConfigProperty(name = "AWS_BATCH_SIZE") int batchSize) {
     acceptedCounter = meterRegistry.counter("swatch_aws_marketplace_batch_accepted_total");
     rejectedCounter = meterRegistry.counter("swatch_aws_marketplace_batch_rejected_total");
     this.internalSubscriptionsApi = internalSubscriptionsApi;
     this.awsMarketplaceMeteringClientFactory = awsMarketplaceMeteringClientFactory;
+    this.awsUsageContextCache = awsUsageContextCache;
     this.isDryRun = isDryRun;
+    this.batchSubmissionEnabled = batchSubmissionEnabled;
+    this.batchSize = Math.max(1, Math.min(batchSize, MAX_USAGE_RECORDS_PER_REQUEST));
   }
 
+  /**
+   * Process the billable usage polled from the tally-in topic. When batch submission is enabled,
+   * the usage records of the same AWS product code and seller account are sent together, up to
+   * AWS_BATCH_SIZE records per request. Otherwise, each billable usage is sent on its own.
+   *
+   * @param billableUsages the billable usage polled from the topic
+   */
   @Incoming("tally-in")
   @Blocking
+  public void processBatch(List<BillableUsage> billableUsages) {
+    if (!batchSubmissionEnabled) {
+      billableUsages.forEach(this::process);
+      return;
+    }
+    Map<BatchKey, List<PendingUsage>> batches = new LinkedHashMap<>();
+    for (BillableUsage billableUsage : billableUsages) {
+      prepare(billableUsage)
+          .ifPresent(
+              usage ->
+                  batches
+                      .computeIfAbsent(BatchKey.of(usage.context()), key -> new ArrayList<>())
+                      .add(usage));
+    }
+    for (List<PendingUsage> batch : batches.values()) {
+      for (int i = 0; i < batch.size(); i += batchSize) {
+        transformAndSend(batch.subList(i, Math.min(i + batchSize, batch.size())));
+      }
+    }
+  }
+
   public void process(BillableUsage billableUsage) {
+    prepare(billableUsage).ifPresent(usage -> transformAndSend(List.of(usage)));
+  }
+
+  private Optional<PendingUsage> prepare(BillableUsage billableUsage) {
     log.debug("Picked up billable usage message {} to process", billableUsage);
     if (billableUsage == null) {
       log.warn("Skipping null billable usage: deserialization failure?");
-      return;
+      return Optional.empty();
     }
     if (billableUsage.getOrgId() != null) {
       MDC.put("org_id", billableUsage.getOrgId());
@@ -95,19 +149,20 @@ public class BillableUsageProcessor {
     Optional<Metric> metric = validateUsageAndLookupMetric(billableUsage);
     if (metric.isEmpty()) {
       log.debug("Skipping billable usage because it is not applicable: {}", billableUsage);
-      return;
+      return Optional.empty();
     }
 
     AwsUsageContext context;
     try {
-      context = lookupAwsUsageContext(billableUsage);
+      context = awsUsageContextCache.get(billableUsage, this::lookupAwsUsageContext);
     } catch (SubscriptionRecentlyTerminatedException e) {
+      awsUsageContextCache.invalidate(billableUsage);
       log.info(
           "Subscription recently terminated for account={} tallySnapshotId={} orgId={}",
           billableUsage.getAccountNumber(),
           billableUsage.getId(),
           billableUsage.getOrgId());
-      return;
+      return Optional.empty();
     } catch (AwsUsageContextLookupException e) {
       log.error(
           "Error looking up usage context for account={} tallySnapshotId={} orgId={}",
@@ -115,20 +170,15 @@ public class BillableUsageProcessor {
           billableUsage.getId(),
           billableUsage.getOrgId(),
           e);
-      return;
+      return Optional.empty();
     }
     try {
-      transformAndSend(context, billableUsage, metric.get());
+      return Optional.of(
+          new PendingUsage(
+              billableUsage, context, transformToAwsUsage(context, billableUsage, metric.get())));
     } catch (Exception e) {
-      log.error(
-          "Error sending usage for account={} rhSubscriptionId={} tallySnapshotId={} awsCustomerId={} awsProductCode={} orgId={}",
-          billableUsage.getAccountNumber(),
-          context.getRhSubscriptionId(),
-          billableUsage.getId(),
-          context.getCustomerId(),
-          context.getProductCode(),
-          billableUsage.getOrgId(),
-          e);
+      logSendError(new PendingUsage(billableUsage, context, null), e);
+      return Optional.empty();
     }
   }
 
@@ -160,79 +210,113 @@ public class BillableUsageProcessor {
     }
   }
 
-  private void transformAndSend(AwsUsageContext context, BillableUsage billableUsage, Metric metric)
-      throws AwsUnprocessedRecordsException, AwsDimensionNotConfiguredException {
+  /**
+   * Send the usage records of a batch, which all share the same AWS product code and seller
+   * account, in a single request. The results are mapped back to the billable usage they were
+   * created from, so that failures are reported for each of them.
+   */
+  private void transformAndSend(List<PendingUsage> batch) {
+    PendingUsage first = batch.get(0);
     BatchMeterUsageRequest request =
         BatchMeterUsageRequest.builder()
-            .productCode(context.getProductCode())
-            .usageRecords(transformToAwsUsage(context, billableUsage, metric))
+            .productCode(first.context().getProductCode())
+            .usageRecords(batch.stream().map(PendingUsage::usageRecord).toList())
             .build();
 
     if (isDryRun.isPresent() && Boolean.TRUE.equals(isDryRun.get())) {
       log.info(
           "[DRY RUN] Sending usage request to AWS: {}, organization={}, account={}, product_id={}",
           request,
-          billableUsage.getOrgId(),
-          billableUsage.getAccountNumber(),
-          billableUsage.getProductId());
+          describe(batch, BillableUsage::getOrgId),
+          describe(batch, BillableUsage::getAccountNumber),
+          describe(batch, BillableUsage::getProductId));
       return;
     } else {
       log.info(
           "Sending usage request to AWS: {}, organization={}, account={}, product_id={}",
           request,
-          billableUsage.getOrgId(),
-          billableUsage.getAccountNumber(),
-          billableUsage.getProductId());
+          describe(batch, BillableUsage::getOrgId),
+          describe(batch, BillableUsage::getAccountNumber),
+          describe(batch, BillableUsage::getProductId));
     }
 
     try {
       MarketplaceMeteringClient marketplaceMeteringClient =
-          awsMarketplaceMeteringClientFactory.buildMarketplaceMeteringClient(context);
+          awsMarketplaceMeteringClientFactory.getMarketplaceMeteringClient(first.context());
       BatchMeterUsageResponse response = send(marketplaceMeteringClient, request);
       log.debug("{}", response);
-      response
-          .results()
-          .forEach(
-              result -> {
-                if (result.status() == UsageRecordResultStatus.CUSTOMER_NOT_SUBSCRIBED) {
-                  log.warn(
-                      "No subscription found for organization={}, account={}, product_id={}, result={}",
-                      billableUsage.getOrgId(),
-                      billableUsage.getAccountNumber(),
-                      billableUsage.getProductId(),
-                      result);
-                } else if (result.status() != UsageRecordResultStatus.SUCCESS) {
-                  log.warn(
-                      "{}, organization={}, account={}",
-                      result,
-                      billableUsage.getOrgId(),
-                      billableUsage.getAccountNumber());
-                } else {
-                  log.info(
-                      "{}, organization={}, account={}",
-                      result,
-                      billableUsage.getOrgId(),
-                      billableUsage.getAccountNumber());
-                  acceptedCounter.increment(response.results().size());
-                }
-              });
+      UsageRecordOrigins origins = new UsageRecordOrigins(batch);
+      for (UsageRecordResult result : response.results()) {
+        BillableUsage billableUsage = origins.take(result.usageRecord()).billableUsage();
+        if (result.status() == UsageRecordResultStatus.CUSTOMER_NOT_SUBSCRIBED) {
+          // the cached context is out of date if the subscription was terminated
+          awsUsageContextCache.invalidate(billableUsage);
+          log.warn(
+              "No subscription found for organization={}, account={}, product_id={}, result={}",
+              billableUsage.getOrgId(),
+              billableUsage.getAccountNumber(),
+              billableUsage.getProductId(),
+              result);
+        } else if (result.status() != UsageRecordResultStatus.SUCCESS) {
+          log.warn(
+              "{}, organization={}, account={}",
+              result,
+              billableUsage.getOrgId(),
+              billableUsage.getAccountNumber());
+        } else {
+          log.info(
+              "{}, organization={}, account={}",
+              result,
+              billableUsage.getOrgId(),
+              billableUsage.getAccountNumber());
+          acceptedCounter.increment();
+        }
+      }
       if (!response.unprocessedRecords().isEmpty()) {
         rejectedCounter.increment(response.unprocessedRecords().size());
-        throw new AwsUnprocessedRecordsException(response.unprocessedRecords().size());
+        for (UsageRecord usageRecord : response.unprocessedRecords()) {
+          logSendError(origins.take(usageRecord), new AwsUnprocessedRecordsException(1));
+        }
       }
     } catch (MarketplaceMeteringException e) {
       rejectedCounter.increment(request.usageRecords().size());
-      throw new AwsUnprocessedRecordsException(request.usageRecords().size(), e);
+      var error = new AwsUnprocessedRecordsException(request.usageRecords().size(), e);
+      batch.forEach(usage -> logSendError(usage, error));
     } catch (AwsMissingCredentialsException e) {
-      log.warn(
-          "{} for organization={}, account={}, awsCustomerId={}",
-          e.getMessage(),
-          billableUsage.getOrgId(),
-          billableUsage.getAccountNumber(),
-          context.getCustomerId());
+      batch.forEach(
+          usage ->
+              log.warn(
+                  "{} for organization={}, account={}, awsCustomerId={}",
+                  e.getMessage(),
+                  usage.billableUsage().getOrgId(),
+                  usage.billableUsage().getAccountNumber(),
+                  usage.context().getCustomerId()));
+    } catch (Exception e) {
+      batch.forEach(usage -> logSendError(usage, e));
     }
   }
 
+  private void logSendError(PendingUsage usage, Exception e) {
+    log.error(
+        "Error sending usage for account={} rhSubscriptionId={} tallySnapshotId={} awsCustomerId={} awsProductCode={} orgId={}",
+        usage.billableUsage().getAccountNumber(),
+        usage.context().getRhSubscriptionId(),
+        usage.billableUsage().getId(),
+        usage.context().getCustomerId(),
+        usage.context().getProductCode(),
+        usage.billableUsage().getOrgId(),
+        e);
+  }
+
+  private static String describe(
+      List<PendingUsage> batch, Function<BillableUsage, String> attribute) {
+    return batch.stream()
+        .map(usage -> attribute.apply(usage.billableUsage()))
+        .distinct()
+        .map(String::valueOf)
+        .collect(Collectors.joining(","));
+  }
+
   @Retry
   public BatchMeterUsageResponse send(
       MarketplaceMeteringClient client, BatchMeterUsageRequest request) {
@@ -285,4 +369,37 @@ public class BillableUsageProcessor {
 
     return metric;
   }
+
+  /** A billable usage ready to be sent, along with its usage context and AWS usage record. */
+  private record PendingUsage(
+      BillableUsage billableUsage, AwsUsageContext context, UsageRecord usageRecord) {}
+
+  /** The usage records sent in a single request share the product code and seller account. */
+  private record BatchKey(String awsSellerAccountId, String productCode) {
+    static BatchKey of(AwsUsageContext context) {
+      return new BatchKey(context.getAwsSellerAccountId(), context.getProductCode());
+    }
+  }
+
+  /**
+   * Maps the usage records of a response back to the billable usage they were created from. AWS
+   * echoes the usage records of the request, so identical records are taken in request order. A
+   * record not matching any sent by the batch is attributed to the first billable usage.
+   */
+  private static class UsageRecordOrigins {
+    private final PendingUsage first;
+    private final Map<UsageRecord, Deque<PendingUsage>> origins = new HashMap<>();
+
+    UsageRecordOrigins(List<PendingUsage> batch) {
+      first = batch.get(0);
+      batch.forEach(
+          usage ->
+              origins.computeIfAbsent(usage.usageRecord(), r -> new ArrayDeque<>()).add(usage));
+    }
+
+    PendingUsage take(UsageRecord usageRecord) {
+      Deque<PendingUsage> usages = origins.get(usageRecord);
+      return usages == null || usages.isEmpty() ? first : usages.poll();
+    }
+  }
 }
@@ -24,6 +24,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -47,10 +48,13 @@ import jakarta.ws.rs.core.Response;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringClient;
 import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
 import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
@@ -107,10 +111,12 @@ class BillableUsageProcessorTest {
   @Inject MeterRegistry meterRegistry;
   Counter acceptedCounter;
   Counter rejectedCounter;
+  @Inject AwsUsageContextCache usageContextCache;
   @Inject BillableUsageProcessor processor;
 
   @BeforeEach
   void setup() {
+    usageContextCache.invalidateAll();
     acceptedCounter = meterRegistry.counter("swatch_aws_marketplace_batch_accepted_total");
     rejectedCounter = meterRegistry.counter("swatch_aws_marketplace_batch_rejected_total");
     meteringClient = mock(MarketplaceMeteringClient.class);
@@ -138,7 +144,7 @@ class BillableUsageProcessorTest {
     when(internalSubscriptionsApi.getAwsUsageContext(
             any(), any(), any(), any(), any(), any(), any()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     processor.process(RHOSAK_INSTANCE_HOURS_RECORD);
     verify(meteringClient).batchMeterUsage(any(BatchMeterUsageRequest.class));
   }
@@ -185,7 +191,7 @@ class BillableUsageProcessorTest {
     when(internalSubscriptionsApi.getAwsUsageContext(
             any(), any(), any(), any(), any(), any(), any()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
         .thenReturn(BATCH_METER_USAGE_SUCCESS_RESPONSE);
     processor.process(RHOSAK_INSTANCE_HOURS_RECORD);
@@ -198,7 +204,7 @@ class BillableUsageProcessorTest {
     when(internalSubscriptionsApi.getAwsUsageContext(
             any(), any(), any(), any(), any(), any(), any()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
         .thenReturn(
             BatchMeterUsageResponse.builder()
@@ -214,7 +220,7 @@ class BillableUsageProcessorTest {
     when(internalSubscriptionsApi.getAwsUsageContext(
             any(), any(), any(), any(), any(), any(), any()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
         .thenThrow(MarketplaceMeteringException.class);
     processor.process(RHOSAK_INSTANCE_HOURS_RECORD);
@@ -225,7 +231,13 @@ class BillableUsageProcessorTest {
   void shouldNotMakeAwsUsageRequestWhenDryRunEnabled() throws ApiException {
     BillableUsageProcessor processor =
         new BillableUsageProcessor(
-            meterRegistry, internalSubscriptionsApi, clientFactory, Optional.of(true));
+            meterRegistry,
+            internalSubscriptionsApi,
+            clientFactory,
+            usageContextCache,
+            Optional.of(true),
+            false,
+            BillableUsageProcessor.MAX_USAGE_RECORDS_PER_REQUEST);
     when(internalSubscriptionsApi.getAwsUsageContext(
             any(), any(), any(), any(), any(), any(), any()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
@@ -267,4 +279,103 @@ class BillableUsageProcessorTest {
     processor.process(RHOSAK_INSTANCE_HOURS_RECORD);
     verifyNoInteractions(meteringClient);
   }
+
+  @Test
+  void shouldReuseCachedAwsContextForSameSubscription() throws ApiException {
+    when(internalSubscriptionsApi.getAwsUsageContext(
+            any(), any(), any(), any(), any(), any(), any()))
+        .thenReturn(MOCK_AWS_USAGE_CONTEXT);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
+        .thenReturn(BatchMeterUsageResponse.builder().build());
+    processor.process(RHOSAK_INSTANCE_HOURS_RECORD);
+    processor.process(RHOSAK_STORAGE_GIB_MONTHS_RECORD);
+    verify(internalSubscriptionsApi)
+        .getAwsUsageContext(any(), any(), any(), any(), any(), any(), any());
+    verify(meteringClient, times(2)).batchMeterUsage(any(BatchMeterUsageRequest.class));
+  }
+
+  @Test
+  void shouldLookupAwsContextAgainWhenCustomerNotSubscribed() throws ApiException {
+    when(internalSubscriptionsApi.getAwsUsageContext(
+            any(), any(), any(), any(), any(), any(), any()))
+        .thenReturn(MOCK_AWS_USAGE_CONTEXT);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
+        .thenReturn(
+            BatchMeterUsageResponse.builder()
+                .results(
+                    UsageRecordResult.builder()
+                        .status(UsageRecordResultStatus.CUSTOMER_NOT_SUBSCRIBED)
+                        .build())
+                .build());
+    processor.process(RHOSAK_INSTANCE_HOURS_RECORD);
+    processor.process(RHOSAK_INSTANCE_HOURS_RECORD);
+    verify(internalSubscriptionsApi, times(2))
+        .getAwsUsageContext(any(), any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void shouldSendUsageOfSameProductCodeInOneRequestWhenBatchSubmissionEnabled()
+      throws ApiException {
+    double accepted = acceptedCounter.count();
+    double rejected = rejectedCounter.count();
+    when(internalSubscriptionsApi.getAwsUsageContext(
+            any(), any(), any(), any(), any(), any(), any()))
+        .thenReturn(MOCK_AWS_USAGE_CONTEXT);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    // the first record is accepted, the second one is left unprocessed
+    when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              BatchMeterUsageRequest request = invocation.getArgument(0);
+              return BatchMeterUsageResponse.builder()
+                  .results(
+                      UsageRecordResult.builder()
+                          .usageRecord(request.usageRecords().get(0))
+                          .status(UsageRecordResultStatus.SUCCESS)
+                          .build())
+                  .unprocessedRecords(request.usageRecords().get(1))
+                  .build();
+            });
+
+    createBatchProcessor()
+        .processBatch(List.of(RHOSAK_INSTANCE_HOURS_RECORD, RHOSAK_STORAGE_GIB_MONTHS_RECORD));
+
+    ArgumentCaptor<BatchMeterUsageRequest> request =
+        ArgumentCaptor.forClass(BatchMeterUsageRequest.class);
+    verify(meteringClient).batchMeterUsage(request.capture());
+    assertEquals(2, request.getValue().usageRecords().size());
+    assertEquals(accepted + 1, acceptedCounter.count());
+    assertEquals(rejected + 1, rejectedCounter.count());
+  }
+
+  @Test
+  void shouldSplitBatchesAtBatchSize() throws ApiException {
+    when(internalSubscriptionsApi.getAwsUsageContext(
+            any(), any(), any(), any(), any(), any(), any()))
+        .thenReturn(MOCK_AWS_USAGE_CONTEXT);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
+        .thenReturn(BatchMeterUsageResponse.builder().build());
+    List<BillableUsage> usages =
+        Collections.nCopies(
+            BillableUsageProcessor.MAX_USAGE_RECORDS_PER_REQUEST + 1,
+            RHOSAK_INSTANCE_HOURS_RECORD);
+
+    createBatchProcessor().processBatch(usages);
+
+    verify(meteringClient, times(2)).batchMeterUsage(any(BatchMeterUsageRequest.class));
+  }
+
+  private BillableUsageProcessor createBatchProcessor() {
+    return new BillableUsageProcessor(
+        meterRegistry,
+        internalSubscriptionsApi,
+        clientFactory,
+        usageContextCache,
+        Optional.empty(),
+        true,
+        BillableUsageProcessor.MAX_USAGE_RECORDS_PER_REQUEST);
+  }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.configuration.registry;
+
+import com.google.common.collect.MoreCollectors;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the linear-scan lookups that {@link SubscriptionDefinition} used to do against the
+ * indexed lookups backed by {@link SubscriptionDefinitionIndex}.
+ *
+ * <p>Each invocation resolves the same mix of engineering IDs, roles and tags a typical RHEL host
+ * goes through in FactNormalizer, including a few misses (unknown IDs are common in HBI data).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SubscriptionDefinitionLookupBenchmark {
+
+  private static final List<String> ENG_IDS = List.of("69", "479", "76", "269", "290", "-1");
+  private static final List<String> ROLES =
+      List.of("Red Hat Enterprise Linux Server", "Red Hat Enterprise Linux Workstation", "bogus");
+  private static final List<String> TAGS = List.of("RHEL for x86", "OpenShift-metrics", "bogus");
+
+  private List<SubscriptionDefinition> subscriptions;
+
+  @Setup
+  public void setup() {
+    subscriptions = SubscriptionDefinitionRegistry.getInstance().getSubscriptions();
+    // make sure the index is built before measuring
+    SubscriptionDefinitionIndex.current();
+  }
+
+  @Benchmark
+  public void linearScanLookups(Blackhole blackhole) {
+    for (String engId : ENG_IDS) {
+      blackhole.consume(scanByEngId(engId));
+    }
+    for (String role : ROLES) {
+      blackhole.consume(scanByRole(role));
+    }
+    for (String tag : TAGS) {
+      blackhole.consume(scanByTag(tag));
+    }
+  }
+
+  @Benchmark
+  public void indexedLookups(Blackhole blackhole) {
+    for (String engId : ENG_IDS) {
+      blackhole.consume(SubscriptionDefinition.lookupSubscriptionByEngId(engId));
+    }
+    for (String role : ROLES) {
+      blackhole.consume(SubscriptionDefinition.lookupSubscriptionByRole(role));
+    }
+    for (String tag : TAGS) {
+      blackhole.consume(SubscriptionDefinition.lookupSubscriptionByTag(tag));
+    }
+  }
+
+  @Benchmark
+  public void linearScanFindByServiceType(Blackhole blackhole) {
+    blackhole.consume(
+        subscriptions.stream()
+            .filter(subscription -> Objects.equals(subscription.getServiceType(), "RHEL System"))
+            .toList());
+  }
+
+  @Benchmark
+  public void indexedFindByServiceType(Blackhole blackhole) {
+    blackhole.consume(SubscriptionDefinition.findByServiceType("RHEL System"));
+  }
+
+  private Optional<SubscriptionDefinition> scanByEngId(String engId) {
+    return subscriptions.stream()
+        .filter(subscription -> !subscription.getVariants().isEmpty())
+        .filter(
+            subscription ->
+                subscription.getVariants().stream()
+                    .anyMatch(variant -> variant.getEngineeringIds().contains(engId)))
+        .collect(MoreCollectors.toOptional());
+  }
+
+  private Optional<SubscriptionDefinition> scanByRole(String role) {
+    return subscriptions.stream()
+        .filter(subscription -> !subscription.getVariants().isEmpty())
+        .filter(
+            subscription ->
+                subscription.getVariants().stream()
+                    .anyMatch(variant -> variant.getRoles().contains(role)))
+        .collect(MoreCollectors.toOptional());
+  }
+
+  private Optional<SubscriptionDefinition> scanByTag(String tag) {
+    return subscriptions.stream()
+        .filter(subscription -> !subscription.getVariants().isEmpty())
+        .filter(
+            subscription ->
+                subscription.getVariants().stream()
+                    .anyMatch(variant -> Objects.equals(tag, variant.getTag())))
+        .collect(MoreCollectors.toOptional());
+  }
+}
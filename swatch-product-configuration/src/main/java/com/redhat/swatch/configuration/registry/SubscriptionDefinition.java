@@ -24,7 +24,6 @@ import com.google.common.collect.MoreCollectors;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -92,9 +91,7 @@ public class SubscriptionDefinition {
    * @return Optional<Subscription>
    */
   public static List<SubscriptionDefinition> findByServiceType(String serviceType) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(subscription -> Objects.equals(subscription.getServiceType(), serviceType))
-        .toList();
+    return SubscriptionDefinitionIndex.current().subscriptionsByServiceType(serviceType);
   }
 
   public List<String> getMetricIds() {
@@ -111,8 +108,7 @@ public class SubscriptionDefinition {
   }
 
   public static Optional<SubscriptionDefinition> findById(String id) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(subscription -> Objects.equals(subscription.getId(), id))
+    return SubscriptionDefinitionIndex.current().subscriptionsById(id).stream()
         .collect(MoreCollectors.toOptional());
   }
 
@@ -120,10 +116,7 @@ public class SubscriptionDefinition {
    * @return List<String> serviceTypes
    */
   public static List<String> getAllServiceTypes() {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .map(SubscriptionDefinition::getServiceType)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+    return SubscriptionDefinitionIndex.current().serviceTypes();
   }
 
   public boolean isPrometheusEnabled() {
@@ -166,11 +159,7 @@ public class SubscriptionDefinition {
   }
 
   public static Set<String> getAllTags() {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .map(SubscriptionDefinition::getVariants)
-        .flatMap(Collection::stream)
-        .map(Variant::getTag)
-        .collect(Collectors.toUnmodifiableSet());
+    return SubscriptionDefinitionIndex.current().tags();
   }
 
   /**
@@ -181,12 +170,7 @@ public class SubscriptionDefinition {
    * @return Optional<Subscription> subscription
    */
   public static Optional<SubscriptionDefinition> lookupSubscriptionByEngId(String engProductId) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(subscription -> !subscription.getVariants().isEmpty())
-        .filter(
-            subscription ->
-                subscription.getVariants().stream()
-                    .anyMatch(variant -> variant.getEngineeringIds().contains(engProductId)))
+    return SubscriptionDefinitionIndex.current().subscriptionsByEngId(engProductId).stream()
         .collect(MoreCollectors.toOptional());
   }
 
@@ -198,13 +182,7 @@ public class SubscriptionDefinition {
    *     e.g. rosa and Openshift-dedicated-metrics
    */
   public static List<SubscriptionDefinition> lookupSubscriptionByProductName(String productName) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(subscription -> !subscription.getVariants().isEmpty())
-        .filter(
-            subscription ->
-                subscription.getVariants().stream()
-                    .anyMatch(variant -> variant.getProductNames().contains(productName)))
-        .collect(Collectors.toList());
+    return SubscriptionDefinitionIndex.current().subscriptionsByProductName(productName);
   }
 
   /**
@@ -214,12 +192,7 @@ public class SubscriptionDefinition {
    * @return Optional<Subscription>
    */
   public static Optional<SubscriptionDefinition> lookupSubscriptionByRole(String role) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(subscription -> !subscription.getVariants().isEmpty())
-        .filter(
-            subscription ->
-                subscription.getVariants().stream()
-                    .anyMatch(variant -> variant.getRoles().contains(role)))
+    return SubscriptionDefinitionIndex.current().subscriptionsByRole(role).stream()
         .collect(MoreCollectors.toOptional());
   }
 
@@ -231,13 +204,7 @@ public class SubscriptionDefinition {
    */
   public static Optional<SubscriptionDefinition> lookupSubscriptionByTag(
       @NotNull @NotEmpty String tag) {
-
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(subscription -> !subscription.getVariants().isEmpty())
-        .filter(
-            subscription ->
-                subscription.getVariants().stream()
-                    .anyMatch(variant -> Objects.equals(tag, variant.getTag())))
+    return SubscriptionDefinitionIndex.current().subscriptionsByTag(tag).stream()
         .collect(MoreCollectors.toOptional());
   }
 
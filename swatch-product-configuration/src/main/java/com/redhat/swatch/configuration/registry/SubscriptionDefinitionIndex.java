@@ -0,0 +1,197 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.configuration.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable hash indexes over a list of subscription definitions. Built once per list of
+ * definitions (i.e. once when the registry loads) so that the static lookups on {@link
+ * SubscriptionDefinition} and {@link Variant} don't need to walk every definition and variant.
+ *
+ * <p>Every index keeps its values in the order of the source list, so "first match" semantics of
+ * the previous linear scans are preserved.
+ */
+final class SubscriptionDefinitionIndex {
+
+  private static volatile SubscriptionDefinitionIndex current;
+
+  private final List<SubscriptionDefinition> source;
+  private final Map<String, List<SubscriptionDefinition>> subscriptionsById;
+  private final Map<String, List<SubscriptionDefinition>> subscriptionsByServiceType;
+  private final Map<String, List<SubscriptionDefinition>> subscriptionsByEngId;
+  private final Map<String, List<SubscriptionDefinition>> subscriptionsByRole;
+  private final Map<String, List<SubscriptionDefinition>> subscriptionsByTag;
+  private final Map<String, List<SubscriptionDefinition>> subscriptionsByProductName;
+  private final Map<String, List<Variant>> variantsByEngId;
+  private final Map<String, List<Variant>> variantsByTag;
+  private final Map<String, List<Variant>> variantsByProductName;
+  private final List<String> serviceTypes;
+  private final Set<String> tags;
+
+  private SubscriptionDefinitionIndex(List<SubscriptionDefinition> subscriptions) {
+    this.source = subscriptions;
+
+    Map<String, List<SubscriptionDefinition>> byId = new HashMap<>();
+    Map<String, List<SubscriptionDefinition>> byServiceType = new HashMap<>();
+    Map<String, List<SubscriptionDefinition>> byEngId = new HashMap<>();
+    Map<String, List<SubscriptionDefinition>> byRole = new HashMap<>();
+    Map<String, List<SubscriptionDefinition>> byTag = new HashMap<>();
+    Map<String, List<SubscriptionDefinition>> byProductName = new HashMap<>();
+    Map<String, List<Variant>> variantByEngId = new HashMap<>();
+    Map<String, List<Variant>> variantByTag = new HashMap<>();
+    Map<String, List<Variant>> variantByProductName = new HashMap<>();
+    List<String> allServiceTypes = new ArrayList<>();
+    Set<String> allTags = new HashSet<>();
+
+    for (SubscriptionDefinition subscription : subscriptions) {
+      add(byId, subscription.getId(), subscription);
+      add(byServiceType, subscription.getServiceType(), subscription);
+      if (Objects.nonNull(subscription.getServiceType())) {
+        allServiceTypes.add(subscription.getServiceType());
+      }
+
+      // a subscription is indexed once per key, even if several of its variants share that key
+      Set<String> engIds = new LinkedHashSet<>();
+      Set<String> roles = new LinkedHashSet<>();
+      Set<String> variantTags = new LinkedHashSet<>();
+      Set<String> productNames = new LinkedHashSet<>();
+      for (Variant variant : subscription.getVariants()) {
+        variantTags.add(variant.getTag());
+        add(variantByTag, variant.getTag(), variant);
+        allTags.add(variant.getTag());
+        for (String engId : variant.getEngineeringIds()) {
+          engIds.add(engId);
+          add(variantByEngId, engId, variant);
+        }
+        for (String productName : variant.getProductNames()) {
+          productNames.add(productName);
+          add(variantByProductName, productName, variant);
+        }
+        roles.addAll(variant.getRoles());
+      }
+      engIds.forEach(engId -> add(byEngId, engId, subscription));
+      roles.forEach(role -> add(byRole, role, subscription));
+      variantTags.forEach(tag -> add(byTag, tag, subscription));
+      productNames.forEach(productName -> add(byProductName, productName, subscription));
+    }
+
+    this.subscriptionsById = freeze(byId);
+    this.subscriptionsByServiceType = freeze(byServiceType);
+    this.subscriptionsByEngId = freeze(byEngId);
+    this.subscriptionsByRole = freeze(byRole);
+    this.subscriptionsByTag = freeze(byTag);
+    this.subscriptionsByProductName = freeze(byProductName);
+    this.variantsByEngId = freeze(variantByEngId);
+    this.variantsByTag = freeze(variantByTag);
+    this.variantsByProductName = freeze(variantByProductName);
+    this.serviceTypes = Collections.unmodifiableList(allServiceTypes);
+    this.tags = Collections.unmodifiableSet(allTags);
+  }
+
+  /**
+   * Returns the index for the subscriptions currently held by the registry instance. The index is
+   * rebuilt only when the registry hands back a different list of subscriptions.
+   */
+  static SubscriptionDefinitionIndex current() {
+    return of(SubscriptionDefinitionRegistry.getInstance().getSubscriptions());
+  }
+
+  static SubscriptionDefinitionIndex of(List<SubscriptionDefinition> subscriptions) {
+    var index = current;
+    if (index == null || index.source != subscriptions) {
+      index = build(subscriptions);
+      current = index;
+    }
+    return index;
+  }
+
+  /** Builds an index without making it the {@link #current()} one. */
+  static SubscriptionDefinitionIndex build(List<SubscriptionDefinition> subscriptions) {
+    return new SubscriptionDefinitionIndex(subscriptions);
+  }
+
+  List<SubscriptionDefinition> subscriptionsById(String id) {
+    return lookup(subscriptionsById, id);
+  }
+
+  List<SubscriptionDefinition> subscriptionsByServiceType(String serviceType) {
+    return lookup(subscriptionsByServiceType, serviceType);
+  }
+
+  List<SubscriptionDefinition> subscriptionsByEngId(String engId) {
+    return lookup(subscriptionsByEngId, engId);
+  }
+
+  List<SubscriptionDefinition> subscriptionsByRole(String role) {
+    return lookup(subscriptionsByRole, role);
+  }
+
+  List<SubscriptionDefinition> subscriptionsByTag(String tag) {
+    return lookup(subscriptionsByTag, tag);
+  }
+
+  List<SubscriptionDefinition> subscriptionsByProductName(String productName) {
+    return lookup(subscriptionsByProductName, productName);
+  }
+
+  List<Variant> variantsByEngId(String engId) {
+    return lookup(variantsByEngId, engId);
+  }
+
+  List<Variant> variantsByTag(String tag) {
+    return lookup(variantsByTag, tag);
+  }
+
+  List<Variant> variantsByProductName(String productName) {
+    return lookup(variantsByProductName, productName);
+  }
+
+  List<String> serviceTypes() {
+    return serviceTypes;
+  }
+
+  Set<String> tags() {
+    return tags;
+  }
+
+  private static <T> void add(Map<String, List<T>> index, String key, T value) {
+    index.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+  }
+
+  private static <T> Map<String, List<T>> freeze(Map<String, List<T>> index) {
+    Map<String, List<T>> frozen = new HashMap<>(index.size() * 2);
+    index.forEach((key, values) -> frozen.put(key, Collections.unmodifiableList(values)));
+    return Collections.unmodifiableMap(frozen);
+  }
+
+  private static <T> List<T> lookup(Map<String, List<T>> index, String key) {
+    return index.getOrDefault(key, List.of());
+  }
+}
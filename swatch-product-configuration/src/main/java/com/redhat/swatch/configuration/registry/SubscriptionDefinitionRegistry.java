@@ -24,6 +24,7 @@ import com.redhat.swatch.configuration.exception.ConfigResourcesLoadingException
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -33,7 +34,7 @@ import org.yaml.snakeyaml.constructor.Constructor;
 
 /**
  * Loads yaml files from src/main/resource/subscription_configs into List<Subscription>. Provides
- * lookup methods for that list.
+ * lookup methods for that list, backed by a {@link SubscriptionDefinitionIndex} built at load time.
  */
 @Slf4j
 public class SubscriptionDefinitionRegistry {
@@ -50,7 +51,7 @@ public class SubscriptionDefinitionRegistry {
   }
 
   SubscriptionDefinitionRegistry() {
-    subscriptions = new ArrayList<>();
+    List<SubscriptionDefinition> loaded = new ArrayList<>();
     Constructor constructor = new Constructor(SubscriptionDefinition.class, new LoaderOptions());
     constructor.getPropertyUtils().setSkipMissingProperties(true);
 
@@ -78,10 +79,12 @@ public class SubscriptionDefinitionRegistry {
         subscriptionFromYaml
             .getVariants()
             .forEach(variant -> variant.setSubscription(subscriptionFromYaml));
-        subscriptions.add(subscriptionFromYaml);
+        loaded.add(subscriptionFromYaml);
       } catch (IOException e) {
         throw new ConfigResourcesLoadingException(e);
       }
     }
+    subscriptions = Collections.unmodifiableList(loaded);
+    SubscriptionDefinitionIndex.of(subscriptions);
   }
 }
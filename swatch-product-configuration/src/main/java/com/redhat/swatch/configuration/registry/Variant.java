@@ -24,7 +24,6 @@ import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -71,17 +70,11 @@ public class Variant {
    * @return Optional<Variant>
    */
   public static Optional<Variant> findByEngProductId(String engProductId) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .flatMap(subscription -> subscription.getVariants().stream())
-        .filter(variant -> variant.getEngineeringIds().contains(engProductId))
-        .findFirst();
+    return SubscriptionDefinitionIndex.current().variantsByEngId(engProductId).stream().findFirst();
   }
 
   public static Optional<Variant> findByTag(String defaultVariantTag) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(subscription -> !subscription.getVariants().isEmpty())
-        .flatMap(subscription -> subscription.getVariants().stream())
-        .filter(variant -> Objects.equals(variant.getTag(), defaultVariantTag))
+    return SubscriptionDefinitionIndex.current().variantsByTag(defaultVariantTag).stream()
         .findFirst();
   }
 
@@ -95,10 +88,7 @@ public class Variant {
   }
 
   public static Optional<Variant> findByProductName(String productName) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .map(SubscriptionDefinition::getVariants)
-        .flatMap(List::stream)
-        .filter(v -> v.getProductNames().contains(productName))
+    return SubscriptionDefinitionIndex.current().variantsByProductName(productName).stream()
         .findFirst();
   }
 
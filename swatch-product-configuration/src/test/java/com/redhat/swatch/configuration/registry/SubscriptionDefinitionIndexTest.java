@@ -0,0 +1,76 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.configuration.registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SubscriptionDefinitionIndexTest {
+
+  @Test
+  void testIndexIsReusedForSameSubscriptions() {
+    var subscriptions = SubscriptionDefinitionRegistry.getInstance().getSubscriptions();
+
+    assertSame(
+        SubscriptionDefinitionIndex.of(subscriptions), SubscriptionDefinitionIndex.current());
+  }
+
+  @Test
+  void testIndexIsBuiltForDifferentSubscriptions() {
+    var variant = Variant.builder().tag("test-tag").engineeringIds(List.of("1234")).build();
+    var subscription =
+        SubscriptionDefinition.builder().id("test").variants(List.of(variant)).build();
+    variant.setSubscription(subscription);
+
+    var index = SubscriptionDefinitionIndex.build(List.of(subscription));
+
+    assertEquals(List.of(subscription), index.subscriptionsByEngId("1234"));
+    assertEquals(List.of(variant), index.variantsByTag("test-tag"));
+    assertTrue(index.subscriptionsByEngId("69").isEmpty());
+  }
+
+  @Test
+  void testSubscriptionIndexedOncePerKey() {
+    var first = Variant.builder().tag("first").roles(List.of("role")).build();
+    var second = Variant.builder().tag("second").roles(List.of("role")).build();
+    var subscription =
+        SubscriptionDefinition.builder().id("test").variants(List.of(first, second)).build();
+
+    var index = SubscriptionDefinitionIndex.build(List.of(subscription));
+
+    assertEquals(List.of(subscription), index.subscriptionsByRole("role"));
+  }
+
+  @Test
+  void testDuplicateEngIdAcrossSubscriptionsIsAmbiguous() {
+    var first = SubscriptionDefinition.builder().id("first").build();
+    first.setVariants(List.of(Variant.builder().tag("a").engineeringIds(List.of("1")).build()));
+    var second = SubscriptionDefinition.builder().id("second").build();
+    second.setVariants(List.of(Variant.builder().tag("b").engineeringIds(List.of("1")).build()));
+
+    var index = SubscriptionDefinitionIndex.build(List.of(first, second));
+
+    assertEquals(List.of(first, second), index.subscriptionsByEngId("1"));
+    assertEquals("a", index.variantsByEngId("1").get(0).getTag());
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.conduit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.candlepin.subscriptions.conduit.rhsm.client.model.Consumer;
+import org.candlepin.subscriptions.conduit.rhsm.client.model.InstalledProducts;
+import org.candlepin.subscriptions.validator.IpAddressValidator;
+import org.candlepin.subscriptions.validator.MacAddressValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link InventoryController#getFactsFromConsumer(Consumer)} in consumers per second, over
+ * consumers whose fact maps resemble what subscription-manager reports: a couple hundred facts, of
+ * which a few network interfaces with MAC, IPv4 and IPv6 facts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FactExtractionBenchmark {
+
+  private static final int CONSUMERS = 1000;
+
+  private InventoryController controller;
+  private Consumer[] consumers;
+
+  @Setup
+  public void setup() {
+    MacAddressValidator macValidator = new MacAddressValidator();
+    IpAddressValidator ipValidator = new IpAddressValidator();
+    // only the collaborators used to extract facts are needed
+    controller =
+        new InventoryController(
+            null,
+            null,
+            null,
+            macValidator,
+            ipValidator,
+            null,
+            null,
+            null,
+            null,
+            new SimpleMeterRegistry());
+
+    Random random = new Random(42);
+    consumers = new Consumer[CONSUMERS];
+    for (int i = 0; i < CONSUMERS; i++) {
+      consumers[i] = createConsumer(random);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONSUMERS)
+  public void getFactsFromConsumer(Blackhole blackhole) {
+    for (Consumer consumer : consumers) {
+      blackhole.consume(controller.getFactsFromConsumer(consumer));
+    }
+  }
+
+  private static Consumer createConsumer(Random random) {
+    Consumer consumer = new Consumer();
+    consumer.setUuid(UUID.randomUUID().toString());
+    consumer.setOrgId("org123");
+    consumer.setAccountNumber("account123");
+    consumer.setLastCheckin(OffsetDateTime.now());
+    consumer.setServiceLevel("Premium");
+    consumer.setSysPurposeUsage("Production");
+    consumer.setReleaseVer("8.6");
+    InstalledProducts product = new InstalledProducts();
+    product.setProductId("479");
+    consumer.getInstalledProducts().add(product);
+
+    Map<String, String> facts = new HashMap<>();
+    facts.put("network.fqdn", "host" + random.nextInt(100000) + ".example.com");
+    facts.put("dmi.system.uuid", UUID.randomUUID().toString().replace("-", ""));
+    facts.put("dmi.bios.vendor", "Amazon EC2");
+    facts.put("dmi.bios.version", "1.0");
+    facts.put("dmi.system.manufacturer", "Amazon EC2");
+    facts.put("dmi.chassis.asset_tag", "Amazon EC2");
+    facts.put("distribution.name", "Red Hat Enterprise Linux");
+    facts.put("distribution.version", "8.6");
+    facts.put("cpu.cpu_socket(s)", "2");
+    facts.put("cpu.core(s)_per_socket", "4");
+    facts.put("memory.memtotal", "32626280");
+    facts.put("uname.machine", "x86_64");
+    facts.put("virt.is_guest", "True");
+    facts.put("insights_id", UUID.randomUUID().toString());
+    facts.put("aws_billing_products", "bp-6fa54006");
+    facts.put("net.interface.lo.ipv4_address", "127.0.0.1");
+    facts.put("net.interface.lo.ipv6_address", "::1");
+    int nics = 1 + random.nextInt(4);
+    for (int n = 0; n < nics; n++) {
+      String prefix = "net.interface.eth" + n;
+      facts.put(prefix + ".mac_address", randomMac(random));
+      facts.put(prefix + ".permanent_mac_address", randomMac(random));
+      facts.put(prefix + ".ipv4_address", "10.0." + n + "." + random.nextInt(255));
+      facts.put(
+          prefix + ".ipv4_address_list",
+          "10.0." + n + "." + random.nextInt(255) + ", 10.1." + n + "." + random.nextInt(255));
+      facts.put(prefix + ".ipv4_netmask", "255.255.255.0");
+      facts.put(prefix + ".ipv4_broadcast", "10.0." + n + ".255");
+      facts.put(prefix + ".ipv6_address.link", "fe80::" + Integer.toHexString(random.nextInt()));
+      facts.put(
+          prefix + ".ipv6_address.link_list", "fe80::" + Integer.toHexString(random.nextInt()));
+      facts.put(prefix + ".ipv6_netmask.link", "64");
+    }
+    // the bulk of the facts reported are unrelated to what conduit extracts
+    for (int f = 0; f < 200; f++) {
+      facts.put("misc.fact_" + f, "value " + random.nextInt());
+    }
+    consumer.setFacts(facts);
+    return consumer;
+  }
+
+  private static String randomMac(Random random) {
+    StringBuilder mac = new StringBuilder();
+    for (int b = 0; b < 6; b++) {
+      if (b > 0) {
+        mac.append(':');
+      }
+      mac.append(String.format("%02x", random.nextInt(256)));
+    }
+    return mac.toString();
+  }
+}
@@ -20,13 +20,17 @@
  */
 package org.candlepin.subscriptions;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.candlepin.subscriptions.clowder.KafkaJaasBeanPostProcessor;
 import org.candlepin.subscriptions.clowder.RdsSslBeanPostProcessor;
+import org.candlepin.subscriptions.conduit.job.OrgSyncProperties;
 import org.candlepin.subscriptions.validator.IpAddressValidator;
 import org.candlepin.subscriptions.validator.MacAddressValidator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 public class SystemConduitConfiguration {
@@ -79,4 +83,33 @@ public class SystemConduitConfiguration {
   public RdsSslBeanPostProcessor rdsSslBeanPostProcessor(Environment env) {
     return new RdsSslBeanPostProcessor(env);
   }
+
+  /**
+   * Executor used to fetch pages of consumers from RHSM while the previous page of an org is being
+   * synced.
+   *
+   * @param orgSyncProperties org sync properties
+   * @return an Executor for RHSM page prefetches
+   */
+  @Bean(name = "orgSyncPrefetchExecutor")
+  public Executor orgSyncPrefetchExecutor(OrgSyncProperties orgSyncProperties) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("org-sync-prefetch-");
+    executor.setCorePoolSize(orgSyncProperties.getPrefetchThreads());
+    executor.setMaxPoolSize(orgSyncProperties.getPrefetchThreads());
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Pool used to transform and validate the consumers of a page in parallel.
+   *
+   * @param orgSyncProperties org sync properties
+   * @return a ForkJoinPool bounded by the configured number of transform threads
+   */
+  @Bean(name = "consumerTransformPool", destroyMethod = "shutdown")
+  public ForkJoinPool consumerTransformPool(OrgSyncProperties orgSyncProperties) {
+    int threads = orgSyncProperties.getTransformThreads();
+    return new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+  }
 }
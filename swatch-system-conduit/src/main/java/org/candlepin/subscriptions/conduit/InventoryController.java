@@ -24,14 +24,19 @@ import static org.candlepin.subscriptions.exception.ErrorCode.RHSM_SERVICE_UNKNO
 
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -39,14 +44,18 @@ import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.candlepin.subscriptions.conduit.inventory.ConduitFacts;
 import org.candlepin.subscriptions.conduit.inventory.InventoryService;
 import org.candlepin.subscriptions.conduit.inventory.InventoryServiceProperties;
+import org.candlepin.subscriptions.conduit.job.OrgSyncProperties;
 import org.candlepin.subscriptions.conduit.job.OrgSyncTaskManager;
 import org.candlepin.subscriptions.conduit.json.inventory.HbiNetworkInterface;
 import org.candlepin.subscriptions.conduit.rhsm.RhsmService;
@@ -63,6 +72,7 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
@@ -75,10 +85,12 @@ public class InventoryController {
 
   private static final BigDecimal KIBIBYTES_PER_GIBIBYTE = BigDecimal.valueOf(1048576);
   private static final BigDecimal BYTES_PER_KIBIBYTE = BigDecimal.valueOf(1024);
-  private static final String COMMA_REGEX = ",\\s*";
-  private static final String PERIOD_REGEX = "\\.";
-  private static final String NON_HYPHEN_REGEX = "[0-9a-fA-F]{8}([0-9a-fA-F]{4}){3}[0-9a-fA-F]{12}";
-  private static final String UUID_REGEX = "[0-9a-fA-F]{8}-([0-9a-fA-F]{4}-){3}[0-9a-fA-F]{12}";
+  private static final Pattern COMMA_PATTERN = Pattern.compile(",\\s*");
+  private static final Pattern NON_HYPHEN_PATTERN =
+      Pattern.compile("[0-9a-fA-F]{8}([0-9a-fA-F]{4}){3}[0-9a-fA-F]{12}");
+  private static final Pattern UUID_PATTERN =
+      Pattern.compile("[0-9a-fA-F]{8}-([0-9a-fA-F]{4}-){3}[0-9a-fA-F]{12}");
+  private static final Pattern OPENSHIFT_MEMTOTAL_PATTERN = Pattern.compile("^\\d+\\.\\d+[Bb]$");
 
   public static final String OS_DISTRIBUTION_NAME = "distribution.name";
   public static final String OS_DISTRIBUTION_VERSION = "distribution.version";
@@ -98,6 +110,7 @@ public class InventoryController {
   //      (or net.interface.%.ipv6_address.link if the list isn't present)
   public static final String IP_ADDRESS_FACT_REGEX =
       "^net\\.interface\\.[^.]*\\.ipv[46]_address(\\.global|\\.link)?(_list)?$";
+  private static final Pattern IP_ADDRESS_FACT_PATTERN = Pattern.compile(IP_ADDRESS_FACT_REGEX);
   public static final String NETWORK_FQDN = "network.fqdn";
   public static final String NET_INTERFACE_LO_IPV4_ADDRESS = "net.interface.lo.ipv4_address";
   public static final String NET_INTERFACE_LO_IPV6_ADDRESS = "net.interface.lo.ipv6_address";
@@ -145,10 +158,14 @@ public class InventoryController {
   private MacAddressValidator macValidator;
   private IpAddressValidator ipValidator;
   private OrgSyncTaskManager taskManager;
+  private OrgSyncProperties orgSyncProperties;
+  private Executor prefetchExecutor;
+  private ForkJoinPool transformPool;
   private Counter queueNextPageCounter;
   private Counter finalizeOrgCounter;
   private Timer transformHostTimer;
   private Timer validateHostTimer;
+  private DistributionSummary orgSyncThroughput;
 
   @Autowired private InventoryServiceProperties serviceProperties;
 
@@ -160,6 +177,9 @@ public class InventoryController {
       MacAddressValidator macValidator,
       IpAddressValidator ipValidator,
       OrgSyncTaskManager taskManager,
+      OrgSyncProperties orgSyncProperties,
+      @Qualifier("orgSyncPrefetchExecutor") Executor prefetchExecutor,
+      @Qualifier("consumerTransformPool") ForkJoinPool transformPool,
       MeterRegistry meterRegistry) {
 
     this.inventoryService = inventoryService;
@@ -168,10 +188,18 @@ public class InventoryController {
     this.macValidator = macValidator;
     this.ipValidator = ipValidator;
     this.taskManager = taskManager;
+    this.orgSyncProperties = orgSyncProperties;
+    this.prefetchExecutor = prefetchExecutor;
+    this.transformPool = transformPool;
     this.queueNextPageCounter = meterRegistry.counter("rhsm-conduit.queue.next-page");
     this.finalizeOrgCounter = meterRegistry.counter("rhsm-conduit.finalize.org");
     this.transformHostTimer = meterRegistry.timer("rhsm-conduit.transform.host");
     this.validateHostTimer = meterRegistry.timer("rhsm-conduit.validate.host");
+    this.orgSyncThroughput =
+        DistributionSummary.builder("rhsm-conduit.sync.org.throughput")
+            .description("Hosts synced per second by an org sync task")
+            .baseUnit("hosts/s")
+            .register(meterRegistry);
   }
 
   protected ConduitFacts getFactsFromConsumer(Consumer consumer) {
@@ -264,9 +292,9 @@ public class InventoryController {
   private void extractHardwareFacts(Map<String, String> rhsmFacts, ConduitFacts facts) {
     String systemUuid = rhsmFacts.get(DMI_SYSTEM_UUID);
     if (StringUtils.hasLength(systemUuid)) {
-      if (systemUuid.matches(UUID_REGEX)) {
+      if (UUID_PATTERN.matcher(systemUuid).matches()) {
         facts.setBiosUuid(systemUuid);
-      } else if (systemUuid.matches(NON_HYPHEN_REGEX)) {
+      } else if (NON_HYPHEN_PATTERN.matcher(systemUuid).matches()) {
         facts.setBiosUuid(normalizeUuid(systemUuid));
       } else {
         log.info(
@@ -337,16 +365,12 @@ public class InventoryController {
    */
   protected BigDecimal memtotalFromString(String memoryTotal) {
     // Check for match of openshift
-    String patternString = "^\\d+\\.\\d+[Bb]$";
-    Matcher matcher = Pattern.compile(patternString).matcher(memoryTotal);
-
-    String memStr = memoryTotal;
     // Any other format will throw a NumberFormatException if not a double.
-    if (matcher.matches()) {
-      memStr = memStr.replaceAll("[Bb]", "");
+    if (OPENSHIFT_MEMTOTAL_PATTERN.matcher(memoryTotal).matches()) {
+      String memStr = memoryTotal.substring(0, memoryTotal.length() - 1);
       return new BigDecimal(memStr).divide(BYTES_PER_KIBIBYTE, RoundingMode.CEILING);
     } else {
-      return new BigDecimal(memStr);
+      return new BigDecimal(memoryTotal);
     }
   }
 
@@ -357,53 +381,72 @@ public class InventoryController {
       facts.setFqdn(fqdn);
     }
 
-    List<HbiNetworkInterface> networkInterfaces = populateNICs(rhsmFacts);
+    NetworkFacts networkFacts = scanNetworkFacts(rhsmFacts);
+    List<HbiNetworkInterface> networkInterfaces = populateNICs(networkFacts, rhsmFacts);
     if (!networkInterfaces.isEmpty()) {
       facts.setNetworkInterfaces(networkInterfaces);
     }
 
-    var macAddresses = extractMacAddresses(rhsmFacts);
-    if (!macAddresses.isEmpty()) {
-      facts.setMacAddresses(new ArrayList<>(macAddresses));
+    if (!networkFacts.macAddresses.isEmpty()) {
+      facts.setMacAddresses(new ArrayList<>(networkFacts.macAddresses));
     }
-    var ipAddresses = extractIpAddresses(rhsmFacts);
-    if (!ipAddresses.isEmpty()) {
-      facts.setIpAddresses(new ArrayList<>(ipAddresses));
+    if (!networkFacts.ipAddresses.isEmpty()) {
+      facts.setIpAddresses(new ArrayList<>(networkFacts.ipAddresses));
     }
   }
 
   protected Set<String> extractMacAddresses(Map<String, String> rhsmFacts) {
-    Set<String> macAddresses = new HashSet<>();
-    rhsmFacts.entrySet().stream()
-        .filter(
-            entry -> entry.getKey().startsWith(NIC_PREFIX) && entry.getKey().endsWith(MAC_SUFFIX))
-        .forEach(
-            entry -> {
-              var macString = entry.getValue();
-              var macFact = entry.getKey();
-              var splitMacs = filterMacs(macString, macFact);
-              macAddresses.addAll(splitMacs);
-            });
-
-    return macAddresses;
+    return scanNetworkFacts(rhsmFacts).macAddresses;
   }
 
   protected Set<String> extractIpAddresses(Map<String, String> rhsmFacts) {
-    Set<String> ipAddresses = new HashSet<>();
-    rhsmFacts.entrySet().stream()
-        .filter(
-            entry ->
-                entry.getKey().matches(IP_ADDRESS_FACT_REGEX)
-                    && StringUtils.hasLength(entry.getValue()))
-        .forEach(
-            entry -> {
-              var addrString = entry.getValue();
-              var addrFact = entry.getKey();
-              var splitAddrs = filterIps(addrString, addrFact);
-              ipAddresses.addAll(splitAddrs);
-            });
-
-    return ipAddresses;
+    return scanNetworkFacts(rhsmFacts).ipAddresses;
+  }
+
+  /**
+   * Collect the NIC facts of a consumer in a single pass over its facts: MAC and IP addresses, and
+   * the facts of each interface keyed by the part of the fact name following the interface name.
+   */
+  private NetworkFacts scanNetworkFacts(Map<String, String> rhsmFacts) {
+    NetworkFacts networkFacts = new NetworkFacts();
+    for (Map.Entry<String, String> entry : rhsmFacts.entrySet()) {
+      String key = entry.getKey();
+      if (!key.startsWith(NIC_PREFIX)) {
+        continue;
+      }
+      String value = entry.getValue();
+      int nameEnd = key.indexOf('.', NIC_PREFIX.length());
+      String name =
+          nameEnd < 0
+              ? key.substring(NIC_PREFIX.length())
+              : key.substring(NIC_PREFIX.length(), nameEnd);
+      if (key.endsWith(MAC_SUFFIX)) {
+        networkFacts.macAddresses.addAll(filterMacs(value, key));
+        // If the MAC address is invalid, ignore the entry rather than have the ConduitFacts
+        // object fail validation in validateConsumer
+        if (macValidator.isValid(value, null)) {
+          networkFacts.macs.add(Map.entry(name, value));
+        }
+      } else if (nameEnd >= 0) {
+        networkFacts
+            .factsByInterface
+            .computeIfAbsent(name, k -> new HashMap<>())
+            .put(key.substring(nameEnd), value);
+        if (StringUtils.hasLength(value) && IP_ADDRESS_FACT_PATTERN.matcher(key).matches()) {
+          networkFacts.ipAddresses.addAll(filterIps(value, key));
+        }
+      }
+    }
+    return networkFacts;
+  }
+
+  /** NIC facts of a consumer, see {@link #scanNetworkFacts(Map)}. */
+  private static class NetworkFacts {
+    private final Set<String> macAddresses = new HashSet<>();
+    private final Set<String> ipAddresses = new HashSet<>();
+    // interface name and MAC address of each valid MAC address fact, in fact order
+    private final List<Map.Entry<String, String>> macs = new ArrayList<>();
+    private final Map<String, Map<String, String>> factsByInterface = new HashMap<>();
   }
 
   protected List<String> filterIps(String s, String factKey) {
@@ -433,63 +476,64 @@ public class InventoryController {
   }
 
   protected List<String> filterCommaDelimitedList(String s, Predicate<String> predicate) {
-    List<String> items = Arrays.asList(s.split(COMMA_REGEX));
+    List<String> items = Arrays.asList(COMMA_PATTERN.split(s));
     return items.stream().filter(predicate).toList();
   }
 
-  private List<HbiNetworkInterface> populateNICs(Map<String, String> rhsmFacts) {
+  private List<HbiNetworkInterface> populateNICs(
+      NetworkFacts networkFacts, Map<String, String> rhsmFacts) {
     var nicSet = new ArrayList<HbiNetworkInterface>();
-    for (Map.Entry<String, String> entry : rhsmFacts.entrySet()) {
-      if (entry.getKey().startsWith(NIC_PREFIX)
-          && entry.getKey().endsWith(MAC_SUFFIX)
-          // If the MAC address is invalid, ignore the entry rather than have the ConduitFacts
-          // object fail validation in validateConsumer
-          && macValidator.isValid(entry.getValue(), null)) {
-        String[] nicsName = entry.getKey().split(PERIOD_REGEX);
-        var mac = entry.getValue();
-        var networkInterface = new HbiNetworkInterface();
-        networkInterface.setName(nicsName[2]);
-        networkInterface.setMacAddress(mac);
-        mapInterfaceIps(networkInterface, rhsmFacts, ".ipv4");
-        mapInterfaceIps(networkInterface, rhsmFacts, ".ipv6");
-        nicSet.add(networkInterface);
-      }
+    for (Map.Entry<String, String> mac : networkFacts.macs) {
+      var networkInterface = new HbiNetworkInterface();
+      networkInterface.setName(mac.getKey());
+      networkInterface.setMacAddress(mac.getValue());
+      Map<String, String> interfaceFacts =
+          networkFacts.factsByInterface.getOrDefault(mac.getKey(), Map.of());
+      mapInterfaceIps(networkInterface, interfaceFacts, ".ipv4");
+      mapInterfaceIps(networkInterface, interfaceFacts, ".ipv6");
+      nicSet.add(networkInterface);
     }
     // creates a lo interface if ips exist for it, but no mac was given
     checkLoopbackIPs(nicSet, rhsmFacts);
     return nicSet;
   }
 
+  /**
+   * Map the IPs of an interface.
+   *
+   * @param networkInterface the interface
+   * @param facts the interface's facts, keyed by the fact name following the interface name
+   * @param suffix ".ipv4" or ".ipv6"
+   */
   private void mapInterfaceIps(
       HbiNetworkInterface networkInterface, Map<String, String> facts, String suffix) {
-    String prefix = NIC_PREFIX + networkInterface.getName() + suffix;
+    if (facts.isEmpty()) {
+      return;
+    }
+    boolean ipv4 = suffix.equalsIgnoreCase(".ipv4");
+    String fullPrefix = NIC_PREFIX + networkInterface.getName() + suffix;
 
     var ipv4List = new HashSet<String>();
     var ipv6List = new HashSet<String>();
 
-    var fact = prefix + "_address";
-    var listFact = prefix + "_address_list";
-    if (suffix.equalsIgnoreCase(".ipv4") && facts.containsKey(listFact)) {
-      ipv4List.addAll(filterIps(facts.get(listFact), fact));
-    } else if (facts.containsKey(fact) && getIpTests().test(facts.get(fact))) {
-      ipv4List.add(facts.get(fact));
-    }
-
-    fact = prefix + "_address.global";
-    listFact = prefix + "_address.global_list";
-    if (facts.containsKey(listFact)) {
-      ipv6List.addAll(filterIps(facts.get(listFact), fact));
-    } else if (facts.containsKey(fact) && getIpTests().test(facts.get(fact))) {
-      ipv6List.add(facts.get(fact));
-    }
-
-    fact = prefix + "_address.link";
-    listFact = prefix + "_address.link_list";
-    if (facts.containsKey(listFact)) {
-      ipv6List.addAll(filterIps(facts.get(listFact), fact));
-    } else if (facts.containsKey(fact) && getIpTests().test(facts.get(fact))) {
-      ipv6List.add(facts.get(fact));
-    }
+    addInterfaceIps(
+        ipv4List,
+        facts,
+        ipv4 ? ".ipv4_address" : ".ipv6_address",
+        ipv4 ? ".ipv4_address_list" : null,
+        fullPrefix + "_address");
+    addInterfaceIps(
+        ipv6List,
+        facts,
+        ipv4 ? ".ipv4_address.global" : ".ipv6_address.global",
+        ipv4 ? ".ipv4_address.global_list" : ".ipv6_address.global_list",
+        fullPrefix + "_address.global");
+    addInterfaceIps(
+        ipv6List,
+        facts,
+        ipv4 ? ".ipv4_address.link" : ".ipv6_address.link",
+        ipv4 ? ".ipv4_address.link_list" : ".ipv6_address.link_list",
+        fullPrefix + "_address.link");
 
     if (!ipv4List.isEmpty()) {
       networkInterface.setIpv4Addresses(new ArrayList<>(ipv4List));
@@ -500,6 +544,19 @@ public class InventoryController {
     }
   }
 
+  /**
+   * Add the IPs of the list fact if present (and listFact not null), otherwise the valid IP of the
+   * single-valued fact.
+   */
+  private void addInterfaceIps(
+      Set<String> ips, Map<String, String> facts, String fact, String listFact, String factKey) {
+    if (listFact != null && facts.containsKey(listFact)) {
+      ips.addAll(filterIps(facts.get(listFact), factKey));
+    } else if (facts.containsKey(fact) && getIpTests().test(facts.get(fact))) {
+      ips.add(facts.get(fact));
+    }
+  }
+
   private void checkLoopbackIPs(
       List<HbiNetworkInterface> networkInterfaces, Map<String, String> facts) {
     boolean loExist = networkInterfaces.stream().anyMatch(nic -> "lo".equals(nic.getName()));
@@ -571,13 +628,64 @@ public class InventoryController {
     }
   }
 
+  /**
+   * Sync pages of consumers for an org, starting at the given offset.
+   *
+   * <p>A task syncs up to the configured number of pages per task; while a page is transformed,
+   * validated and sent, the following pages are fetched from RHSM in the background, up to the
+   * configured look-ahead. Once the last page of the task is synced, a task is queued for the next
+   * page, so that progress is checkpointed in the task queue.
+   */
   @Timed("rhsm-conduit.sync.org-page")
   public void updateInventoryForOrg(String orgId, String offset)
       throws ExternalServiceException, MissingAccountNumberException {
+    int pagesPerTask = Math.max(1, orgSyncProperties.getPagesPerTask());
+    int lookAhead = Math.max(1, orgSyncProperties.getPrefetchPages());
+    long started = System.nanoTime();
+
+    Deque<CompletableFuture<org.candlepin.subscriptions.conduit.rhsm.client.model.OrgInventory>>
+        prefetches = new ArrayDeque<>();
+    var lastFetch = CompletableFuture.completedFuture(getConsumerFeed(orgId, offset));
+    prefetches.add(lastFetch);
+    int pagesFetched = 1;
+    long updateSize = 0;
+    String pageOffset = offset;
+    try {
+      while (true) {
+        // The page being synced is still in the deque, so it holds up to lookAhead more pages.
+        while (pagesFetched < pagesPerTask && prefetches.size() <= lookAhead) {
+          lastFetch = prefetchNextPage(orgId, lastFetch);
+          prefetches.add(lastFetch);
+          pagesFetched++;
+        }
+        var feedPage = awaitPage(prefetches.remove());
+        updateSize += syncPage(orgId, pageOffset, feedPage);
+
+        Optional<String> nextOffset = getNextOffset(feedPage);
+        if (nextOffset.isEmpty()) {
+          log.info("Host inventory update completed for org {}.", orgId);
+          finalizeOrgCounter.increment();
+          break;
+        }
+        if (prefetches.isEmpty()) {
+          log.debug("Queueing up task for next page of org {}", orgId);
+          taskManager.updateOrgInventory(orgId, nextOffset.get());
+          queueNextPageCounter.increment();
+          break;
+        }
+        pageOffset = nextOffset.get();
+      }
+    } finally {
+      prefetches.forEach(prefetch -> prefetch.cancel(false));
+    }
+    recordThroughput(orgId, updateSize, Duration.ofNanos(System.nanoTime() - started));
+  }
 
-    org.candlepin.subscriptions.conduit.rhsm.client.model.OrgInventory feedPage =
-        getConsumerFeed(orgId, offset);
-
+  private long syncPage(
+      String orgId,
+      String offset,
+      org.candlepin.subscriptions.conduit.rhsm.client.model.OrgInventory feedPage)
+      throws MissingAccountNumberException {
     Stream<ConduitFacts> facts = validateConduitFactsForOrg(feedPage);
 
     long updateSize =
@@ -596,17 +704,63 @@ public class InventoryController {
         offset,
         orgId,
         updateSize);
-    Optional<String> nextOffset = getNextOffset(feedPage);
-    if (nextOffset.isPresent()) {
-      log.debug("Queueing up task for next page of org {}", orgId);
-      taskManager.updateOrgInventory(orgId, nextOffset.get());
-      queueNextPageCounter.increment();
-    } else {
-      log.info("Host inventory update completed for org {}.", orgId);
-      finalizeOrgCounter.increment();
+    return updateSize;
+  }
+
+  /**
+   * Fetch the page following the given one, once it is available. Completes with null when there
+   * is no next page.
+   */
+  private CompletableFuture<org.candlepin.subscriptions.conduit.rhsm.client.model.OrgInventory>
+      prefetchNextPage(
+          String orgId,
+          CompletableFuture<org.candlepin.subscriptions.conduit.rhsm.client.model.OrgInventory>
+              previous) {
+    return previous.thenApplyAsync(
+        page -> {
+          if (page == null) {
+            return null;
+          }
+          Optional<String> nextOffset = getNextOffset(page);
+          if (nextOffset.isEmpty()) {
+            return null;
+          }
+          try {
+            return getConsumerFeed(orgId, nextOffset.get());
+          } catch (ExternalServiceException e) {
+            throw new CompletionException(e);
+          }
+        },
+        prefetchExecutor);
+  }
+
+  private org.candlepin.subscriptions.conduit.rhsm.client.model.OrgInventory awaitPage(
+      CompletableFuture<org.candlepin.subscriptions.conduit.rhsm.client.model.OrgInventory> page)
+      throws ExternalServiceException {
+    try {
+      return page.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof ExternalServiceException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
     }
   }
 
+  private void recordThroughput(String orgId, long updateSize, Duration elapsed) {
+    double hostsPerSecond = updateSize * 1000.0 / Math.max(1, elapsed.toMillis());
+    orgSyncThroughput.record(hostsPerSecond);
+    log.debug(
+        "Synced {} hosts for org {} in {}ms ({} hosts/s)",
+        updateSize,
+        orgId,
+        elapsed.toMillis(),
+        Math.round(hostsPerSecond));
+  }
+
   private Optional<String> getNextOffset(
       org.candlepin.subscriptions.conduit.rhsm.client.model.OrgInventory feedPage) {
     Pagination pagination = feedPage.getPagination();
@@ -644,6 +798,16 @@ public class InventoryController {
       throw new MissingAccountNumberException();
     }
 
+    if (transformPool.getParallelism() > 1) {
+      // An ordered parallel stream keeps the consumers' order of the page.
+      List<Optional<ConduitFacts>> validated =
+          transformPool
+              .submit(
+                  () -> feedPage.getBody().parallelStream().map(this::validateConsumer).toList())
+              .join();
+      return validated.stream().filter(Optional::isPresent).map(Optional::get);
+    }
+
     return feedPage.getBody().stream()
         .map(this::validateConsumer)
         .filter(Optional::isPresent)
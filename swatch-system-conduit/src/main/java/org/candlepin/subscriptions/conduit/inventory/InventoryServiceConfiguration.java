@@ -86,8 +86,10 @@ public class InventoryServiceConfiguration {
 
   @Bean
   public ProducerFactory<String, CreateUpdateHostMessage> inventoryServiceKafkaProducerFactory(
-      KafkaProperties kafkaProperties, @Qualifier("hbiObjectMapper") ObjectMapper mapper) {
-    return kafkaConfigurator.defaultProducerFactory(kafkaProperties, mapper);
+      KafkaProperties kafkaProperties,
+      InventoryServiceProperties serviceProperties,
+      @Qualifier("hbiObjectMapper") ObjectMapper mapper) {
+    return kafkaConfigurator.defaultProducerFactory(kafkaProperties, serviceProperties, mapper);
   }
 
   @Bean
@@ -38,6 +38,21 @@ public class InventoryServiceProperties {
   private int apiHostUpdateBatchSize = 50;
   private boolean tolerateMissingAccountNumber;
 
+  /**
+   * Number of host updates accumulated before they are sent to the host ingress topic as one
+   * batch. A value of 1 sends each host update as soon as it is scheduled.
+   */
+  private int kafkaHostUpdateBatchSize = 1;
+
+  /** Maximum number of unacknowledged host ingress messages while sending a batch. */
+  private int kafkaMaxInFlightHostUpdates = 500;
+
+  /** Producer linger.ms for the host ingress producer; the Kafka default is used when unset. */
+  private Integer kafkaProducerLingerMs;
+
+  /** Producer batch.size for the host ingress producer; the Kafka default is used when unset. */
+  private Integer kafkaProducerBatchSize;
+
   @DurationUnit(ChronoUnit.HOURS)
   private Duration staleHostOffset = Duration.ofHours(0);
 
@@ -24,6 +24,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Map;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.candlepin.subscriptions.conduit.inventory.InventoryServiceProperties;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -39,9 +40,20 @@ import org.springframework.stereotype.Component;
 public class InventoryServiceKafkaConfigurator {
 
   public DefaultKafkaProducerFactory<String, CreateUpdateHostMessage> defaultProducerFactory(
-      KafkaProperties kafkaProperties, ObjectMapper mapper) {
+      KafkaProperties kafkaProperties,
+      InventoryServiceProperties serviceProperties,
+      ObjectMapper mapper) {
     Map<String, Object> producerConfig = kafkaProperties.buildProducerProperties();
     producerConfig.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    // Batched host updates benefit from larger producer batches than the shared defaults.
+    if (serviceProperties.getKafkaProducerLingerMs() != null) {
+      producerConfig.put(
+          ProducerConfig.LINGER_MS_CONFIG, serviceProperties.getKafkaProducerLingerMs());
+    }
+    if (serviceProperties.getKafkaProducerBatchSize() != null) {
+      producerConfig.put(
+          ProducerConfig.BATCH_SIZE_CONFIG, serviceProperties.getKafkaProducerBatchSize());
+    }
 
     DefaultKafkaProducerFactory<String, CreateUpdateHostMessage> factory =
         new DefaultKafkaProducerFactory<>(producerConfig);
@@ -23,9 +23,15 @@ package org.candlepin.subscriptions.conduit.inventory.kafka;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.candlepin.subscriptions.conduit.inventory.ConduitFacts;
 import org.candlepin.subscriptions.conduit.inventory.InventoryService;
@@ -38,8 +44,12 @@ import org.springframework.retry.support.RetryTemplate;
 
 /**
  * An InventoryService implementation that includes a Kafka producer that is capable of sending
- * messages to the inventory service's Kafka instance. A message is sent as soon as a host update is
- * scheduled.
+ * messages to the inventory service's Kafka instance. By default, a message is sent as soon as a
+ * host update is scheduled.
+ *
+ * <p>When the host update batch size is greater than one, host updates are accumulated until the
+ * batch is full or explicitly flushed. A batch is sent asynchronously, with a bounded number of
+ * unacknowledged messages, and the records that failed are then retried one at a time.
  */
 public class KafkaEnabledInventoryService extends InventoryService {
 
@@ -51,6 +61,8 @@ public class KafkaEnabledInventoryService extends InventoryService {
   private final Counter failedMessageCounter;
   private final Counter messageSizeCounter;
   private final RetryTemplate retryTemplate;
+  private final boolean batching;
+  private final int maxInFlight;
 
   @SuppressWarnings("java:S3740")
   public KafkaEnabledInventoryService(
@@ -58,24 +70,32 @@ public class KafkaEnabledInventoryService extends InventoryService {
       KafkaTemplate<String, CreateUpdateHostMessage> producer,
       MeterRegistry meterRegistry,
       RetryTemplate retryTemplate) {
-    // Flush updates as soon as they get scheduled.
-    super(serviceProperties, 1);
+    // Flush updates as soon as they get scheduled, unless batching is enabled.
+    super(serviceProperties, Math.max(1, serviceProperties.getKafkaHostUpdateBatchSize()));
     this.producer = producer;
     this.hostIngressTopic = serviceProperties.getKafkaHostIngressTopic();
     this.sentMessageCounter = meterRegistry.counter("rhsm-conduit.send.inventory-message");
     this.failedMessageCounter = meterRegistry.counter("rhsm.conduit.send.inventory-message.failed");
     this.messageSizeCounter = meterRegistry.counter("rhsm-conduit.inventory-message.size.bytes");
     this.retryTemplate = retryTemplate;
+    this.batching = serviceProperties.getKafkaHostUpdateBatchSize() > 1;
+    this.maxInFlight = Math.max(1, serviceProperties.getKafkaMaxInFlightHostUpdates());
   }
 
   @Override
   public void scheduleHostUpdate(ConduitFacts facts) {
-    this.sendHostUpdate(Collections.singletonList(facts));
+    if (batching) {
+      super.scheduleHostUpdate(facts);
+    } else {
+      this.sendHostUpdate(Collections.singletonList(facts));
+    }
   }
 
   @Override
   public void flushHostUpdates() {
-    /* intentionally left blank */
+    if (batching) {
+      super.flushHostUpdates();
+    }
   }
 
   @Override
@@ -86,6 +106,11 @@ public class KafkaEnabledInventoryService extends InventoryService {
     }
 
     OffsetDateTime now = OffsetDateTime.now();
+    if (batching) {
+      sendBatch(now, facts);
+      return;
+    }
+
     for (ConduitFacts factSet : facts) {
       // Attempt to send the host create/update message. If the send fails for any reason,
       // log the error and move on to the next one.
@@ -115,6 +140,94 @@ public class KafkaEnabledInventoryService extends InventoryService {
     producer.send(hostIngressTopic, message).handle(this::handleResult);
   }
 
+  private void sendBatch(OffsetDateTime now, List<ConduitFacts> facts) {
+    // All messages of a batch share a sync timestamp and a request ID.
+    String requestId = UUID.randomUUID().toString();
+    Semaphore inFlight = new Semaphore(maxInFlight);
+    Queue<ConduitFacts> failed = new ConcurrentLinkedQueue<>();
+    List<CompletableFuture<Void>> sends = new ArrayList<>(facts.size());
+    int attempted = 0;
+    for (ConduitFacts factSet : facts) {
+      try {
+        inFlight.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.warn("Interrupted while sending host inventory messages.");
+        break;
+      }
+      attempted++;
+      try {
+        sends.add(
+            send(createMessage(factSet, now, requestId))
+                .handle(
+                    (result, throwable) -> {
+                      inFlight.release();
+                      if (throwable != null) {
+                        failed.add(factSet);
+                      } else {
+                        recordSuccess(result);
+                      }
+                      return null;
+                    }));
+      } catch (Exception e) {
+        inFlight.release();
+        failed.add(factSet);
+      }
+    }
+    CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+
+    int retried = failed.size();
+    int failures = 0;
+    for (ConduitFacts factSet : failed) {
+      if (!retrySend(createMessage(factSet, now, requestId))) {
+        failures++;
+      }
+    }
+    log.info(
+        "Sent {} of {} host inventory messages for request {}: {} retried, {} failed.",
+        attempted - failures,
+        facts.size(),
+        requestId,
+        retried,
+        failures);
+  }
+
+  private boolean retrySend(CreateUpdateHostMessage message) {
+    try {
+      // Wait for each retried message to be acknowledged so that its failure can be retried.
+      SendResult<String, CreateUpdateHostMessage> result =
+          retryTemplate.execute(
+              context -> {
+                try {
+                  return send(message).join();
+                } catch (CompletionException e) {
+                  // Unwrap so that the retry template sees the producer's KafkaException.
+                  if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                  }
+                  throw e;
+                }
+              });
+      recordSuccess(result);
+      return true;
+    } catch (Exception e) {
+      recordFailure(e);
+    }
+    return false;
+  }
+
+  private CompletableFuture<SendResult<String, CreateUpdateHostMessage>> send(
+      CreateUpdateHostMessage message) {
+    return producer.send(hostIngressTopic, message);
+  }
+
+  private CreateUpdateHostMessage createMessage(
+      ConduitFacts factSet, OffsetDateTime now, String requestId) {
+    CreateUpdateHostMessage message = new CreateUpdateHostMessage(createHost(factSet, now));
+    message.setMetadata("request_id", requestId);
+    return message;
+  }
+
   private SendResult<String, CreateUpdateHostMessage> handleResult(
       SendResult<String, CreateUpdateHostMessage> result, Throwable throwable) {
     if (throwable != null) {
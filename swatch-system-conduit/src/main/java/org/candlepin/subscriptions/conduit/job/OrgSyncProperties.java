@@ -36,4 +36,22 @@ public class OrgSyncProperties {
 
   /** Artificial limit to number of orgs */
   private Integer limit = null;
+
+  /**
+   * Number of pages of consumers synced by a single org sync task. The task for the next page is
+   * only queued once this many pages have been synced.
+   */
+  private int pagesPerTask = 1;
+
+  /** Maximum number of pages fetched from RHSM ahead of the page being synced. */
+  private int prefetchPages = 1;
+
+  /** Number of threads fetching pages of consumers ahead of the pages being synced. */
+  private int prefetchThreads = 10;
+
+  /**
+   * Number of threads transforming and validating the consumers of a page, or 0 for one per
+   * available processor. Pages are processed sequentially on the calling thread when set to 1.
+   */
+  private int transformThreads = 1;
 }
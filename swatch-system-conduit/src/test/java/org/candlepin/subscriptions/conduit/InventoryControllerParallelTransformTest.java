@@ -0,0 +1,122 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.conduit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import org.candlepin.subscriptions.conduit.inventory.ConduitFacts;
+import org.candlepin.subscriptions.conduit.inventory.InventoryService;
+import org.candlepin.subscriptions.conduit.inventory.InventoryServiceProperties;
+import org.candlepin.subscriptions.conduit.job.DatabaseOrgList;
+import org.candlepin.subscriptions.conduit.job.OrgSyncTaskManager;
+import org.candlepin.subscriptions.conduit.rhsm.RhsmService;
+import org.candlepin.subscriptions.conduit.rhsm.client.model.Consumer;
+import org.candlepin.subscriptions.conduit.rhsm.client.model.OrgInventory;
+import org.candlepin.subscriptions.conduit.rhsm.client.model.Pagination;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = "rhsm-conduit.org-sync.transform-threads=4")
+@ActiveProfiles({"rhsm-conduit", "test", "kafka-queue"})
+class InventoryControllerParallelTransformTest {
+  @MockBean InventoryService inventoryService;
+
+  @MockBean RhsmService rhsmService;
+
+  @MockBean DatabaseOrgList orgList;
+
+  @MockBean OrgSyncTaskManager taskManager;
+
+  @MockBean InventoryServiceProperties inventoryServiceProperties;
+
+  @Autowired InventoryController controller;
+
+  @Autowired
+  @Qualifier("consumerTransformPool")
+  ForkJoinPool transformPool;
+
+  @BeforeEach
+  void setup() {
+    when(inventoryServiceProperties.getHostLastSyncThreshold()).thenReturn(Duration.ofHours(24));
+    when(rhsmService.formattedTime()).thenReturn("");
+  }
+
+  @Test
+  void testPoolIsBoundedByTransformThreads() {
+    assertEquals(4, transformPool.getParallelism());
+  }
+
+  @Test
+  void testPageTransformedInParallelKeepsConsumerOrder() throws Exception {
+    List<Consumer> consumers = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      consumers.add(consumer());
+    }
+    // a consumer failing to transform is skipped without affecting the others
+    Consumer failing = mock(Consumer.class);
+    when(failing.getFacts()).thenThrow(new RuntimeException("foobar"));
+    consumers.add(250, failing);
+    when(rhsmService.getPageOfConsumers(eq("123"), nullable(String.class), anyString()))
+        .thenReturn(
+            new OrgInventory()
+                .body(consumers)
+                .pagination(new Pagination().count((long) consumers.size()).limit(1000L)));
+
+    controller.updateInventoryForOrg("123");
+
+    ArgumentCaptor<ConduitFacts> facts = ArgumentCaptor.forClass(ConduitFacts.class);
+    InOrder inOrder = inOrder(inventoryService);
+    inOrder.verify(inventoryService, times(500)).scheduleHostUpdate(facts.capture());
+    inOrder.verify(inventoryService).flushHostUpdates();
+    List<String> expected =
+        consumers.stream().filter(c -> c != failing).map(Consumer::getUuid).toList();
+    assertEquals(
+        expected,
+        facts.getAllValues().stream().map(ConduitFacts::getSubscriptionManagerId).toList());
+  }
+
+  private Consumer consumer() {
+    Consumer consumer = new Consumer();
+    consumer.setUuid(UUID.randomUUID().toString());
+    consumer.setAccountNumber("account");
+    consumer.setOrgId("123");
+    return consumer;
+  }
+}
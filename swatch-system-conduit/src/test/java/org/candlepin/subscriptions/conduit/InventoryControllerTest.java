@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.any;
 import static org.mockito.BDDMockito.anyString;
 import static org.mockito.BDDMockito.eq;
+import static org.mockito.BDDMockito.isNull;
 import static org.mockito.BDDMockito.never;
 import static org.mockito.BDDMockito.nullable;
 import static org.mockito.BDDMockito.times;
@@ -41,12 +42,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.candlepin.subscriptions.conduit.inventory.ConduitFacts;
 import org.candlepin.subscriptions.conduit.inventory.InventoryService;
 import org.candlepin.subscriptions.conduit.inventory.InventoryServiceProperties;
 import org.candlepin.subscriptions.conduit.job.DatabaseOrgList;
+import org.candlepin.subscriptions.conduit.job.OrgSyncProperties;
 import org.candlepin.subscriptions.conduit.job.OrgSyncTaskManager;
 import org.candlepin.subscriptions.conduit.json.inventory.HbiNetworkInterface;
 import org.candlepin.subscriptions.conduit.rhsm.RhsmService;
@@ -56,8 +59,10 @@ import org.candlepin.subscriptions.conduit.rhsm.client.model.Consumer;
 import org.candlepin.subscriptions.conduit.rhsm.client.model.InstalledProducts;
 import org.candlepin.subscriptions.conduit.rhsm.client.model.OrgInventory;
 import org.candlepin.subscriptions.conduit.rhsm.client.model.Pagination;
+import org.candlepin.subscriptions.exception.ExternalServiceException;
 import org.candlepin.subscriptions.exception.MissingAccountNumberException;
 import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -83,12 +88,20 @@ class InventoryControllerTest {
 
   @MockBean InventoryServiceProperties inventoryServiceProperties;
 
+  @Autowired OrgSyncProperties orgSyncProperties;
+
   @BeforeEach
   void setup() {
     when(inventoryServiceProperties.getHostLastSyncThreshold()).thenReturn(Duration.ofHours(24));
     when(rhsmService.formattedTime()).thenReturn("");
   }
 
+  @AfterEach
+  void resetOrgSyncProperties() {
+    orgSyncProperties.setPagesPerTask(1);
+    orgSyncProperties.setPrefetchPages(1);
+  }
+
   @Test
   void testHostAddedForEachConsumer() throws ApiException, MissingAccountNumberException {
     UUID uuid1 = UUID.randomUUID();
@@ -757,6 +770,30 @@ class InventoryControllerTest {
     verify(inventoryService, times(1)).flushHostUpdates();
   }
 
+  @Test
+  void testInterfaceIpsAreMappedToTheirOwnInterface() {
+    Consumer consumer = new Consumer();
+    consumer.setUuid(UUID.randomUUID().toString());
+    consumer.getFacts().put("net.interface.eth0.mac_address", "00:00:00:00:00:01");
+    consumer.getFacts().put("net.interface.eth0.ipv4_address", "192.168.1.1");
+    consumer.getFacts().put("net.interface.eth1.mac_address", "00:00:00:00:00:02");
+    consumer.getFacts().put("net.interface.eth1.ipv4_address_list", "10.0.0.1, 10.0.0.2");
+    consumer.getFacts().put("net.interface.eth2.ipv4_address", "172.16.0.1");
+
+    ConduitFacts conduitFacts = controller.getFactsFromConsumer(consumer);
+
+    Map<String, HbiNetworkInterface> nics =
+        conduitFacts.getNetworkInterfaces().stream()
+            .collect(Collectors.toMap(HbiNetworkInterface::getName, nic -> nic));
+    assertEquals(Set.of("eth0", "eth1"), nics.keySet());
+    assertEquals(List.of("192.168.1.1"), nics.get("eth0").getIpv4Addresses());
+    assertThat(
+        nics.get("eth1").getIpv4Addresses(), Matchers.containsInAnyOrder("10.0.0.1", "10.0.0.2"));
+    assertThat(
+        conduitFacts.getIpAddresses(),
+        Matchers.containsInAnyOrder("192.168.1.1", "10.0.0.1", "10.0.0.2", "172.16.0.1"));
+  }
+
   @Test
   void memtotalFromString() {
     assertEquals(new BigDecimal("12.06"), controller.memtotalFromString("12345.00B"));
@@ -801,6 +838,70 @@ class InventoryControllerTest {
     verify(taskManager, times(1)).updateOrgInventory("123", "next-offset");
   }
 
+  @Test
+  void syncsSeveralPagesPerTaskBeforeQueueingNextPage() throws Exception {
+    orgSyncProperties.setPagesPerTask(3);
+    orgSyncProperties.setPrefetchPages(2);
+    when(rhsmService.getPageOfConsumers(eq("123"), isNull(), anyString()))
+        .thenReturn(fullPage("offset-1"));
+    when(rhsmService.getPageOfConsumers(eq("123"), eq("offset-1"), anyString()))
+        .thenReturn(fullPage("offset-2"));
+    when(rhsmService.getPageOfConsumers(eq("123"), eq("offset-2"), anyString()))
+        .thenReturn(fullPage("offset-3"));
+
+    controller.updateInventoryForOrg("123");
+
+    verify(inventoryService, times(3)).flushHostUpdates();
+    verify(rhsmService, times(3)).getPageOfConsumers(eq("123"), nullable(String.class), any());
+    verify(taskManager, times(1)).updateOrgInventory("123", "offset-3");
+    verifyNoMoreInteractions(taskManager);
+  }
+
+  @Test
+  void completesOrgWithinTaskWhenLastPageIsReached() throws Exception {
+    orgSyncProperties.setPagesPerTask(5);
+    when(rhsmService.getPageOfConsumers(eq("123"), isNull(), anyString()))
+        .thenReturn(fullPage("offset-1"));
+    when(rhsmService.getPageOfConsumers(eq("123"), eq("offset-1"), anyString()))
+        .thenReturn(pageOf(consumerWithId("last")));
+
+    controller.updateInventoryForOrg("123");
+
+    verify(inventoryService, times(2)).flushHostUpdates();
+    verify(rhsmService, times(2)).getPageOfConsumers(eq("123"), nullable(String.class), any());
+    verifyNoInteractions(taskManager);
+  }
+
+  @Test
+  void prefetchFailureFailsTheTask() throws Exception {
+    orgSyncProperties.setPagesPerTask(2);
+    when(rhsmService.getPageOfConsumers(eq("123"), isNull(), anyString()))
+        .thenReturn(fullPage("offset-1"));
+    when(rhsmService.getPageOfConsumers(eq("123"), eq("offset-1"), anyString()))
+        .thenThrow(new ApiException(500, "boom"));
+
+    assertThrows(ExternalServiceException.class, () -> controller.updateInventoryForOrg("123"));
+    verifyNoInteractions(taskManager);
+  }
+
+  private OrgInventory fullPage(String lastId) {
+    int size = rhsmApiProperties.getRequestBatchSize();
+    Consumer[] consumers = new Consumer[size];
+    for (int i = 0; i < size; i++) {
+      consumers[i] = consumerWithId(lastId);
+    }
+    return pageOf(consumers);
+  }
+
+  private Consumer consumerWithId(String id) {
+    Consumer consumer = new Consumer();
+    consumer.setId(id);
+    consumer.setUuid(UUID.randomUUID().toString());
+    consumer.setAccountNumber("account");
+    consumer.setOrgId("123");
+    return consumer;
+  }
+
   @Test
   void doesNotFilterSystemsWithNoCheckin() throws ApiException, MissingAccountNumberException {
     Consumer consumer1 = new Consumer();
@@ -31,7 +31,10 @@ import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.candlepin.subscriptions.conduit.inventory.ConduitFacts;
 import org.candlepin.subscriptions.conduit.inventory.InventoryServiceProperties;
 import org.candlepin.subscriptions.conduit.json.inventory.HbiFactSet;
@@ -42,6 +45,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +53,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.retry.backoff.NoBackOffPolicy;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.test.context.ActiveProfiles;
@@ -308,6 +313,92 @@ class KafkaEnabledInventoryServiceTest {
     assertNull(message.getData().getSystemProfile().getOperatingSystem());
   }
 
+  @Test
+  void testBatchedHostUpdatesSentWhenBatchIsFullOrFlushed() {
+    ArgumentCaptor<CreateUpdateHostMessage> messageCaptor =
+        ArgumentCaptor.forClass(CreateUpdateHostMessage.class);
+    when(producer.send(anyString(), messageCaptor.capture())).thenReturn(sendSuccess());
+
+    InventoryServiceProperties props = batchingProperties();
+    KafkaEnabledInventoryService service =
+        new KafkaEnabledInventoryService(props, producer, meterRegistry, retryTemplate);
+    service.scheduleHostUpdate(new ConduitFacts());
+    verifyNoInteractions(producer);
+
+    service.scheduleHostUpdate(new ConduitFacts());
+    service.scheduleHostUpdate(new ConduitFacts());
+    verify(producer, times(2)).send(anyString(), any());
+
+    service.flushHostUpdates();
+    verify(producer, times(3)).send(anyString(), any());
+
+    List<CreateUpdateHostMessage> messages = messageCaptor.getAllValues();
+    // messages of a batch share their request ID and sync timestamp
+    assertEquals(
+        messages.get(0).getMetadata().get("request_id"),
+        messages.get(1).getMetadata().get("request_id"));
+    assertNotEquals(
+        messages.get(0).getMetadata().get("request_id"),
+        messages.get(2).getMetadata().get("request_id"));
+    assertEquals(
+        messages.get(0).getData().getStaleTimestamp(),
+        messages.get(1).getData().getStaleTimestamp());
+  }
+
+  @Test
+  void testBatchedHostUpdateFailuresRetriedPerRecord() {
+    ConduitFacts succeeds = new ConduitFacts();
+    succeeds.setFqdn("succeeds");
+    ConduitFacts failsOnce = new ConduitFacts();
+    failsOnce.setFqdn("fails_once");
+
+    when(producer.send(anyString(), argThat(fqdn("succeeds")))).thenReturn(sendSuccess());
+    when(producer.send(anyString(), argThat(fqdn("fails_once"))))
+        .thenReturn(CompletableFuture.failedFuture(new KafkaException("boom")))
+        .thenReturn(sendSuccess());
+
+    KafkaEnabledInventoryService service =
+        new KafkaEnabledInventoryService(
+            batchingProperties(), producer, meterRegistry, retryTemplate);
+    service.sendHostUpdate(List.of(succeeds, failsOnce));
+
+    verify(producer, times(1)).send(anyString(), argThat(fqdn("succeeds")));
+    verify(producer, times(2)).send(anyString(), argThat(fqdn("fails_once")));
+  }
+
+  @Test
+  void testBatchedHostUpdateRetriesGiveUpAfterRetryLimit() {
+    when(producer.send(anyString(), any(CreateUpdateHostMessage.class)))
+        .thenReturn(CompletableFuture.failedFuture(new KafkaException("boom")));
+
+    KafkaEnabledInventoryService service =
+        new KafkaEnabledInventoryService(
+            batchingProperties(), producer, meterRegistry, retryTemplate);
+    service.sendHostUpdate(List.of(new ConduitFacts()));
+
+    // the asynchronous send, followed by the 4 attempts of the RetryTemplate
+    verify(producer, times(5)).send(anyString(), any(CreateUpdateHostMessage.class));
+    verify(mockCounter).increment();
+  }
+
+  private InventoryServiceProperties batchingProperties() {
+    InventoryServiceProperties props = new InventoryServiceProperties();
+    props.setKafkaHostIngressTopic("placeholder");
+    props.setKafkaHostUpdateBatchSize(2);
+    props.setKafkaMaxInFlightHostUpdates(1);
+    return props;
+  }
+
+  private static CompletableFuture<SendResult<String, CreateUpdateHostMessage>> sendSuccess() {
+    RecordMetadata metadata =
+        new RecordMetadata(new TopicPartition("placeholder", 0), 0, 0, 0, 1, 1);
+    return CompletableFuture.completedFuture(new SendResult<>(null, metadata));
+  }
+
+  private static ArgumentMatcher<CreateUpdateHostMessage> fqdn(String fqdn) {
+    return message -> message != null && fqdn.equals(message.getData().getFqdn());
+  }
+
   static Stream<Arguments> osReleases() {
     return Stream.of(
         Arguments.of("11.54.3.4", 11, 54),